@@ -0,0 +1,96 @@
+package com.example.MealBasketSyatem.dto;
+
+import com.example.MealBasketSyatem.entity.Product;
+import com.example.MealBasketSyatem.entity.Vendor;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing a product listing as full entities (what /api/products returns)
+ * versus card projections (view=card), with the same JSON mapper type Spring
+ * MVC uses. The payload size of both is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductListItemBenchmark {
+
+    @Param({ "24", "1000" })
+    public int products;
+
+    @Param({ "600" })
+    public int descriptionLength;
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private List<Product> entities;
+    private List<ProductListItem> items;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42L);
+        List<Vendor> vendors = new ArrayList<>();
+        for (int v = 1; v <= 20; v++) {
+            Vendor vendor = new Vendor("Vendor " + v, "vendor" + v + "@example.com", "Shop " + v);
+            vendor.setId((long) v);
+            vendor.setPassword("$2a$10$" + "x".repeat(53));
+            vendor.setPhone("98" + (10000000 + v));
+            vendor.setAddress(v + " Market Street, Kathmandu");
+            vendor.setBusinessType("Restaurant");
+            vendors.add(vendor);
+        }
+        entities = new ArrayList<>(products);
+        for (int i = 1; i <= products; i++) {
+            Product product = new Product();
+            product.setId(i);
+            product.setName("Product " + i);
+            product.setPrice(1 + random.nextInt(5000) / 100.0);
+            product.setDescription(randomText(random, descriptionLength));
+            product.setImage("/api/images/" + "%064x".formatted(i) + ".jpg");
+            product.setCategory("Category " + random.nextInt(12));
+            product.setStock(random.nextInt(50));
+            product.setRating(random.nextInt(500) / 100.0);
+            product.setTotalRatings(random.nextInt(200));
+            product.setReviewCount(random.nextInt(100));
+            product.setVendor(vendors.get(random.nextInt(vendors.size())));
+            entities.add(product);
+        }
+        items = toItems();
+        System.out.printf("%n[ProductListItemBenchmark] %d products: entities %d bytes, cards %d bytes%n",
+                products, mapper.writeValueAsBytes(entities).length, mapper.writeValueAsBytes(items).length);
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            text.append("fresh tasty spicy local organic homemade ".split(" ")[random.nextInt(6)]).append(' ');
+        }
+        return text.substring(0, length);
+    }
+
+    private List<ProductListItem> toItems() {
+        List<ProductListItem> result = new ArrayList<>(entities.size());
+        for (Product product : entities) {
+            result.add(ProductListItem.from(product));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public byte[] serializeEntities() {
+        return mapper.writeValueAsBytes(entities);
+    }
+
+    // Includes the projection step, as the cached listing endpoints do per request
+    @Benchmark
+    public byte[] projectAndSerializeCards() {
+        return mapper.writeValueAsBytes(toItems());
+    }
+}
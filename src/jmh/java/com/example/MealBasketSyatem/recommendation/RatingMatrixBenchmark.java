@@ -0,0 +1,55 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning review rows into the resident user-item matrix and the
+ * sparse vectors derived from it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RatingMatrixBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int users;
+
+    @Param({ "2000" })
+    public int products;
+
+    @Param({ "20" })
+    public int ratingsPerUser;
+
+    private List<Object[]> ratingTriples;
+    private Map<Long, Map<Long, Double>> userItemRatings;
+    private Map<Long, Double> improvedRatings;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticRatingData data = SyntheticRatingData.generate(users, products, ratingsPerUser, 42L);
+        ratingTriples = data.getRatingTriples();
+        userItemRatings = RatingMatrix.buildUserItemRatingMatrix(ratingTriples);
+        improvedRatings = new HashMap<>();
+        for (RatingMatrix.ProductStats stats : data.getProductStats()) {
+            improvedRatings.put(stats.getProductId(), stats.getRating());
+        }
+    }
+
+    @Benchmark
+    public Map<Long, Map<Long, Double>> buildUserItemRatingMatrix() {
+        return RatingMatrix.buildUserItemRatingMatrix(ratingTriples);
+    }
+
+    @Benchmark
+    public SparseUserVectors buildSparseUserVectors() {
+        return SparseUserVectors.build(1L, userItemRatings, improvedRatings);
+    }
+}
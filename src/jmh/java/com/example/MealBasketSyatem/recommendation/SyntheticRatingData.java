@@ -0,0 +1,100 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import com.example.MealBasketSyatem.entity.Product;
+
+import java.util.*;
+
+/**
+ * Deterministic synthetic catalog and review ratings for benchmarks.
+ *
+ * Product popularity is skewed towards low ids (a few products collect most of
+ * the reviews, as in the real catalog) and each product has a hidden quality
+ * that biases its ratings, so similarities and predictions are not uniform noise.
+ */
+public final class SyntheticRatingData {
+
+    private static final String[] CATEGORIES = {
+        "Vegetables", "Fruits", "Meat", "Dairy", "Bakery", "Seafood", "Pantry", "Beverages"
+    };
+
+    private final List<Object[]> ratingTriples;
+    private final List<RatingMatrix.ProductStats> productStats;
+    private final List<Product> products;
+
+    private SyntheticRatingData(List<Object[]> ratingTriples, List<RatingMatrix.ProductStats> productStats, List<Product> products) {
+        this.ratingTriples = ratingTriples;
+        this.productStats = productStats;
+        this.products = products;
+    }
+
+    /**
+     * @param userCount Number of users with at least one review
+     * @param productCount Number of products in the catalog
+     * @param ratingsPerUser Average reviews per user
+     * @param seed Random seed; the same arguments always produce the same data
+     */
+    public static SyntheticRatingData generate(int userCount, int productCount, int ratingsPerUser, long seed) {
+        Random random = new Random(seed);
+
+        double[] quality = new double[productCount];
+        for (int p = 0; p < productCount; p++) {
+            quality[p] = 1.5 + random.nextDouble() * 3.0;
+        }
+
+        List<Object[]> triples = new ArrayList<>(userCount * ratingsPerUser);
+        double[] ratingSums = new double[productCount];
+        int[] ratingCounts = new int[productCount];
+        Set<Integer> rated = new HashSet<>();
+        for (int u = 0; u < userCount; u++) {
+            rated.clear();
+            int reviews = 1 + random.nextInt(ratingsPerUser * 2);
+            for (int r = 0; r < reviews; r++) {
+                // Squaring a uniform value skews picks towards popular (low id) products
+                double pick = random.nextDouble();
+                int p = (int) (productCount * pick * pick);
+                if (!rated.add(p)) {
+                    continue;
+                }
+                double rating = Math.max(1, Math.min(5, Math.round(quality[p] + random.nextGaussian())));
+                triples.add(new Object[] { (long) (u + 1), (long) (p + 1), rating });
+                ratingSums[p] += rating;
+                ratingCounts[p]++;
+            }
+        }
+
+        List<RatingMatrix.ProductStats> stats = new ArrayList<>(productCount);
+        List<Product> products = new ArrayList<>(productCount);
+        for (int p = 0; p < productCount; p++) {
+            double average = ratingCounts[p] > 0 ? ratingSums[p] / ratingCounts[p] : 0.0;
+            stats.add(new RatingMatrix.ProductStats((long) (p + 1), average, ratingCounts[p], ratingCounts[p]));
+
+            Product product = new Product();
+            product.setId(p + 1);
+            product.setName("Product " + (p + 1));
+            product.setCategory(CATEGORIES[p % CATEGORIES.length]);
+            product.setPrice(1.0 + random.nextInt(5000) / 100.0);
+            product.setStock(random.nextInt(200));
+            product.setRating(average);
+            product.setTotalRatings(ratingCounts[p]);
+            product.setReviewCount(ratingCounts[p]);
+            products.add(product);
+        }
+
+        return new SyntheticRatingData(triples, stats, products);
+    }
+
+    /**
+     * @return Rows of [userId, productId, rating], as returned by ProductReviewRepository
+     */
+    public List<Object[]> getRatingTriples() {
+        return ratingTriples;
+    }
+
+    public List<RatingMatrix.ProductStats> getProductStats() {
+        return productStats;
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.MealBasketSyatem.service;
+
+import com.example.MealBasketSyatem.entity.Product;
+import com.example.MealBasketSyatem.recommendation.RatingMatrix;
+import com.example.MealBasketSyatem.recommendation.RecommendationExecutor;
+import com.example.MealBasketSyatem.recommendation.SparseUserVectors;
+import com.example.MealBasketSyatem.recommendation.SyntheticRatingData;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request stages of the user-based recommendation pipeline, each measured
+ * on its own against the same synthetic matrix and target user. The map and
+ * sparse engines are measured side by side; the sparse stages run sequentially
+ * unless the parallel parameter is set, so the numbers compare the kernels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RecommendationServiceBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int users;
+
+    @Param({ "2000" })
+    public int products;
+
+    @Param({ "20" })
+    public int ratingsPerUser;
+
+    @Param({ "false" })
+    public boolean parallel;
+
+    private RecommendationService service;
+    private RecommendationExecutor executor;
+    private List<RatingMatrix.ProductStats> productStats;
+    private Map<Long, Map<Long, Double>> userItemRatings;
+    private Map<Long, Double> improvedRatings;
+    private SparseUserVectors vectors;
+    private Long targetUserId;
+    private Map<Long, Double> targetRatings;
+    private Map<Long, Double> userSimilarities;
+    private Map<Long, Double> predictedRatings;
+    private List<Product> candidateProducts;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        SyntheticRatingData data = SyntheticRatingData.generate(users, products, ratingsPerUser, 42L);
+
+        executor = new RecommendationExecutor(parallel, Runtime.getRuntime().availableProcessors(), 1024);
+        service = new RecommendationService();
+        Field executorField = RecommendationService.class.getDeclaredField("executor");
+        executorField.setAccessible(true);
+        executorField.set(service, executor);
+
+        productStats = data.getProductStats();
+        userItemRatings = RatingMatrix.buildUserItemRatingMatrix(data.getRatingTriples());
+        improvedRatings = service.calculateImprovedRatings(productStats, service.calculateGlobalAverageRating(productStats));
+        vectors = SparseUserVectors.build(1L, userItemRatings, improvedRatings);
+
+        // Target user with a typical (median) number of ratings
+        List<Long> byRatingCount = new ArrayList<>(userItemRatings.keySet());
+        byRatingCount.sort(Comparator.comparingInt((Long id) -> userItemRatings.get(id).size()).thenComparing(id -> id));
+        targetUserId = byRatingCount.get(byRatingCount.size() / 2);
+        targetRatings = userItemRatings.get(targetUserId);
+
+        userSimilarities = service.calculateUserSimilaritiesSparse(targetUserId, vectors);
+        predictedRatings = service.predictRatingsSparse(targetRatings, userSimilarities, vectors);
+        candidateProducts = new ArrayList<>();
+        for (Product product : data.getProducts()) {
+            if (predictedRatings.containsKey(product.getId())) {
+                candidateProducts.add(product);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public Map<Long, Double> calculateImprovedRatings() {
+        return service.calculateImprovedRatings(productStats, service.calculateGlobalAverageRating(productStats));
+    }
+
+    @Benchmark
+    public Map<Long, Double> calculateUserSimilarities() {
+        return service.calculateUserSimilarities(targetUserId, userItemRatings.keySet(), userItemRatings, improvedRatings);
+    }
+
+    @Benchmark
+    public Map<Long, Double> calculateUserSimilaritiesSparse() {
+        return service.calculateUserSimilaritiesSparse(targetUserId, vectors);
+    }
+
+    @Benchmark
+    public Map<Long, Double> predictRatings() {
+        return service.predictRatings(targetUserId, targetRatings, userSimilarities, userItemRatings, improvedRatings);
+    }
+
+    @Benchmark
+    public Map<Long, Double> predictRatingsSparse() {
+        return service.predictRatingsSparse(targetRatings, userSimilarities, vectors);
+    }
+
+    @Benchmark
+    public List<RecommendationService.RecommendationResult> applyBusinessRules() {
+        // applyBusinessRules does not modify its inputs, so the same candidates are reused
+        return service.applyBusinessRules(predictedRatings, candidateProducts, improvedRatings, targetRatings);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.MealBasketSyatem;
+
+import com.example.MealBasketSyatem.repo.ProductRepo;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets NULL product ratings to 0 before the catalog is loaded. Rows written
+ * before the column became NOT NULL may still hold NULL, and a NULL rating
+ * breaks keyset pagination by rating: Postgres sorts NULLs first in
+ * descending order and they never match an "after cursor" predicate.
+ * ddl-auto=update does not add the constraint to an existing column, so
+ * this runs on every startup; it is a no-op once no NULLs are left.
+ */
+@Component
+public class ProductRatingBackfill implements CommandLineRunner {
+
+    private final ProductRepo productRepo;
+
+    public ProductRatingBackfill(ProductRepo productRepo) {
+        this.productRepo = productRepo;
+    }
+
+    @Override
+    public void run(String... args) {
+        int updated = productRepo.backfillNullRatings();
+        if (updated > 0) {
+            System.out.println("[ProductRatingBackfill] Set rating 0 on " + updated + " products with no rating");
+        }
+    }
+}
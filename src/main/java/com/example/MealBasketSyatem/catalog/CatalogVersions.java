@@ -0,0 +1,219 @@
+package com.example.MealBasketSyatem.catalog;
+
+import com.example.MealBasketSyatem.event.ProductChangedEvent;
+import com.example.MealBasketSyatem.event.RecipeChangedEvent;
+import com.example.MealBasketSyatem.repo.ProductRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Version counters for conditional GETs on catalog and recipe reads.
+ *
+ * Every product has a version, as does each vendor's product list, the whole
+ * catalog, every recipe, each vendor's recipe list and the list of all
+ * recipes. A ProductChangedEvent or RecipeChangedEvent bumps the versions it
+ * affects once the write has committed. Versions only grow, so a version names
+ * exactly one state of what it covers and serves as a strong ETag; controllers
+ * compare it with If-None-Match before reading anything.
+ *
+ * Product versions are bumped after ProductCatalogCache and the indexes built
+ * on it have refreshed (@Order(100)), so a new ETag is never handed out with
+ * old content. Product ETags also include the cache's full-reload count, since
+ * a reload may pick up changes made outside the application. Counters live in
+ * memory: ETags carry an epoch chosen at startup, so tags from an earlier run
+ * or another instance never match.
+ */
+@Component
+public class CatalogVersions {
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    private final boolean enabled;
+    private final String epoch;
+    private final Version initial;
+
+    private final AtomicReference<Version> catalog;
+    private final Map<Long, Version> products = new ConcurrentHashMap<>();
+    private final Map<Long, Version> vendorProducts = new ConcurrentHashMap<>();
+    private final AtomicReference<Version> recipes;
+    private final Map<Long, Version> recipeById = new ConcurrentHashMap<>();
+    private final Map<Long, Version> vendorRecipes = new ConcurrentHashMap<>();
+
+    // Last known vendor of each product, to bump the old vendor's list when a product moves
+    private final Map<Long, Long> productVendors = new ConcurrentHashMap<>();
+
+    public CatalogVersions(@Value("${catalog.etags.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+        long startedAt = System.currentTimeMillis();
+        this.epoch = Long.toString(startedAt, 36);
+        this.initial = new Version(0, startedAt);
+        this.catalog = new AtomicReference<>(initial);
+        this.recipes = new AtomicReference<>(initial);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (Object[] row : productRepo.findVendorIds()) {
+                if (row[1] != null) {
+                    productVendors.putIfAbsent((Long) row[0], (Long) row[1]);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("[CatalogVersions] Failed to load product vendors: " + e.getMessage());
+        }
+    }
+
+    @Order(100)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (event.getProductIds() != null) {
+            for (Long productId : event.getProductIds()) {
+                products.merge(productId, initial.next(now), (old, bumped) -> old.next(now));
+                Long previousVendor = event.getVendorId() != null
+                        ? productVendors.put(productId, event.getVendorId())
+                        : productVendors.get(productId);
+                if (previousVendor != null && !previousVendor.equals(event.getVendorId())) {
+                    vendorProducts.merge(previousVendor, initial.next(now), (old, bumped) -> old.next(now));
+                }
+            }
+        }
+        if (event.getVendorId() != null) {
+            vendorProducts.merge(event.getVendorId(), initial.next(now), (old, bumped) -> old.next(now));
+        }
+        catalog.updateAndGet(old -> old.next(now));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (event.getRecipeId() != null) {
+            recipeById.merge(event.getRecipeId(), initial.next(now), (old, bumped) -> old.next(now));
+        }
+        if (event.getVendorId() != null) {
+            vendorRecipes.merge(event.getVendorId(), initial.next(now), (old, bumped) -> old.next(now));
+        }
+        recipes.updateAndGet(old -> old.next(now));
+    }
+
+    /**
+     * Tags below are null when conditional GETs are disabled (catalog.etags.enabled)
+     *
+     * @return Tag of every product listing that spans the catalog (all, category, search, facets)
+     */
+    public Tag catalog() {
+        return productTag(catalog.get());
+    }
+
+    public Tag product(long productId) {
+        return productTag(products.getOrDefault(productId, initial));
+    }
+
+    public Tag vendorProducts(long vendorId) {
+        return productTag(vendorProducts.getOrDefault(vendorId, initial));
+    }
+
+    public Tag recipes() {
+        return recipeTag(recipes.get());
+    }
+
+    public Tag recipe(long recipeId) {
+        return recipeTag(recipeById.getOrDefault(recipeId, initial));
+    }
+
+    public Tag vendorRecipes(long vendorId) {
+        return recipeTag(vendorRecipes.getOrDefault(vendorId, initial));
+    }
+
+    private Tag productTag(Version version) {
+        if (!enabled) {
+            return null;
+        }
+        return new Tag("\"" + epoch + "." + catalogCache.getLoadCount() + "." + version.number + "\"", version.modifiedAt);
+    }
+
+    private Tag recipeTag(Version version) {
+        if (!enabled) {
+            return null;
+        }
+        return new Tag("\"" + epoch + "." + version.number + "\"", version.modifiedAt);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("epoch", epoch);
+        stats.put("catalogVersion", catalog.get().number);
+        stats.put("catalogLoads", catalogCache.getLoadCount());
+        stats.put("productsVersioned", products.size());
+        stats.put("vendorsVersioned", vendorProducts.size());
+        stats.put("recipesVersion", recipes.get().number);
+        return stats;
+    }
+
+    // Immutable so a version and its modification time always change together
+    private static final class Version {
+        private final long number;
+        private final long modifiedAt;
+
+        private Version(long number, long modifiedAt) {
+            this.number = number;
+            this.modifiedAt = modifiedAt;
+        }
+
+        private Version next(long now) {
+            return new Version(number + 1, Math.max(now, modifiedAt));
+        }
+    }
+
+    /**
+     * Strong ETag and Last-Modified time of one version of a resource
+     */
+    public static final class Tag {
+        private final String etag;
+        private final long lastModified;
+
+        private Tag(String etag, long lastModified) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        // Quoted, ready for the ETag header
+        public String getETag() {
+            return etag;
+        }
+
+        // Epoch millis
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.MealBasketSyatem.catalog;
+
+import java.util.*;
+
+/**
+ * Immutable prefix trie answering "best k completions of this prefix" in time
+ * proportional to the prefix length.
+ *
+ * Nodes are laid out breadth-first in flat arrays: each node stores its edge
+ * character, the index of its first child and its child count (children are
+ * contiguous and sorted, so a step is a binary search), plus the offset of its
+ * precomputed top-k list in one shared int array. Suggestions are referred to by
+ * index into the caller's suggestion list, ranked by the weights passed to
+ * {@link Builder}.
+ */
+public final class CompletionTrie {
+
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] topOffsets;
+    private final int[] topSuggestions;
+
+    private CompletionTrie(char[] labels, int[] firstChild, int[] childCount, int[] topOffsets, int[] topSuggestions) {
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.topOffsets = topOffsets;
+        this.topSuggestions = topSuggestions;
+    }
+
+    /**
+     * @param prefix Normalized prefix
+     * @param limit Maximum number of suggestions; at most the k the trie was built with
+     * @return Suggestion indexes, best first; empty if nothing starts with the prefix
+     */
+    public int[] complete(String prefix, int limit) {
+        int node = 0;
+        for (int i = 0; i < prefix.length() && node >= 0; i++) {
+            node = child(node, prefix.charAt(i));
+        }
+        if (node < 0) {
+            return new int[0];
+        }
+        int from = topOffsets[node];
+        int count = Math.min(limit, topOffsets[node + 1] - from);
+        return Arrays.copyOfRange(topSuggestions, from, from + Math.max(0, count));
+    }
+
+    public int getNodeCount() {
+        return labels.length;
+    }
+
+    private int child(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (labels[mid] < c) {
+                low = mid + 1;
+            } else if (labels[mid] > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Collects keys, then builds the immutable trie. Not thread-safe.
+     */
+    public static final class Builder {
+
+        private final double[] weights;
+        private final int k;
+        private final MutableNode root = new MutableNode();
+
+        /**
+         * @param weights Weight of each suggestion index; higher ranks first
+         * @param k Number of completions kept per prefix
+         */
+        public Builder(double[] weights, int k) {
+            this.weights = weights;
+            this.k = Math.max(1, k);
+        }
+
+        /**
+         * Make the suggestion reachable through every prefix of the key.
+         */
+        public Builder add(String key, int suggestion) {
+            MutableNode node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new MutableNode());
+            }
+            node.terminal.add(suggestion);
+            return this;
+        }
+
+        public CompletionTrie build() {
+            rank(root);
+
+            // Breadth-first numbering keeps each node's children contiguous and in key order
+            List<MutableNode> order = new ArrayList<>();
+            List<Character> edgeLabels = new ArrayList<>();
+            order.add(root);
+            edgeLabels.add('\0');
+            List<Integer> firstChildList = new ArrayList<>();
+            for (int i = 0; i < order.size(); i++) {
+                MutableNode node = order.get(i);
+                firstChildList.add(order.size());
+                for (Map.Entry<Character, MutableNode> child : node.children.entrySet()) {
+                    order.add(child.getValue());
+                    edgeLabels.add(child.getKey());
+                }
+            }
+
+            int nodes = order.size();
+            char[] labels = new char[nodes];
+            int[] firstChildren = new int[nodes];
+            int[] childCounts = new int[nodes];
+            int[] topOffsets = new int[nodes + 1];
+            int topTotal = 0;
+            for (int i = 0; i < nodes; i++) {
+                topTotal += order.get(i).top.length;
+            }
+            int[] topSuggestions = new int[topTotal];
+            int offset = 0;
+            for (int i = 0; i < nodes; i++) {
+                MutableNode node = order.get(i);
+                labels[i] = edgeLabels.get(i);
+                firstChildren[i] = firstChildList.get(i);
+                childCounts[i] = node.children.size();
+                topOffsets[i] = offset;
+                System.arraycopy(node.top, 0, topSuggestions, offset, node.top.length);
+                offset += node.top.length;
+            }
+            topOffsets[nodes] = offset;
+            return new CompletionTrie(labels, firstChildren, childCounts, topOffsets, topSuggestions);
+        }
+
+        // Post-order: a node's best k are the best k of its own suggestions and its children's lists
+        private void rank(MutableNode node) {
+            Set<Integer> candidates = new HashSet<>(node.terminal);
+            for (MutableNode child : node.children.values()) {
+                rank(child);
+                for (int suggestion : child.top) {
+                    candidates.add(suggestion);
+                }
+            }
+            node.top = candidates.stream()
+                    .sorted((a, b) -> weights[a] != weights[b] ? Double.compare(weights[b], weights[a]) : Integer.compare(a, b))
+                    .limit(k)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+    }
+
+    private static final class MutableNode {
+        private final TreeMap<Character, MutableNode> children = new TreeMap<>();
+        private final List<Integer> terminal = new ArrayList<>(1);
+        private int[] top;
+    }
+}
@@ -0,0 +1,363 @@
+package com.example.MealBasketSyatem.catalog;
+
+import com.example.MealBasketSyatem.entity.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Faceted filtering over the cached catalog with one bitset per facet value.
+ *
+ * Bit i stands for the i-th product of the catalog snapshot. Each category,
+ * vendor, price band, rating threshold ("4 stars and up") and the in-stock flag
+ * has a bitset of the products it covers, so a combined filter is the AND of the
+ * facets, each facet being the OR of its selected values. Facet counts follow
+ * the usual drill-down convention: a facet's counts apply every filter except
+ * its own, so selecting one category still shows how many products the other
+ * categories would add.
+ *
+ * Bitsets are built for one ProductCatalogCache snapshot. When the catalog
+ * changes they are rebuilt on the scheduler, every catalog.facets.refresh-delay-ms
+ * at most, so a burst of changes (e.g. an import) costs one rebuild and queries
+ * keep using the previous bitsets meanwhile.
+ */
+@Component
+public class FacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String VENDOR = "vendor";
+    public static final String PRICE_BAND = "priceBand";
+    public static final String MIN_RATING = "minRating";
+    public static final String IN_STOCK = "inStock";
+
+    private static final int[] RATING_THRESHOLDS = {1, 2, 3, 4};
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    private final double[] priceBoundaries;
+
+    private volatile Facets facets;
+
+    public FacetIndex(@Value("${catalog.facets.price-bands:5,10,20,50}") double[] priceBoundaries) {
+        this.priceBoundaries = Arrays.stream(priceBoundaries).filter(b -> b > 0).sorted().distinct().toArray();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            System.err.println("[FacetIndex] Initial build failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild if the catalog changed since the last build
+     */
+    @Scheduled(initialDelayString = "${catalog.facets.refresh-delay-ms:1000}",
+               fixedDelayString = "${catalog.facets.refresh-delay-ms:1000}")
+    public void refreshIfStale() {
+        if (isEnabled() && facets != null && !isCurrent()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * @return Whether the bitsets were built from the current catalog snapshot
+     */
+    public boolean isCurrent() {
+        Facets current = facets;
+        return current != null && current.version == catalogCache.getVersion();
+    }
+
+    /**
+     * Products matching all given filters plus facet counts. Null or empty
+     * filters do not restrict.
+     *
+     * @param categories Categories to include (case-insensitive)
+     * @param vendorIds Vendors to include
+     * @param priceBands Price band labels to include, as returned in the counts (e.g. "5-10", "50+")
+     * @param minRating Minimum rating, 1 to 4
+     * @param inStock Only products with stock when true
+     * @param offset Matches to skip, newest first
+     * @param limit Maximum number of products returned
+     */
+    public Result search(Collection<String> categories, Collection<Long> vendorIds, Collection<String> priceBands,
+                         Integer minRating, Boolean inStock, int offset, int limit) {
+        Facets current = current();
+
+        Map<String, BitSet> filters = new LinkedHashMap<>();
+        if (categories != null && !categories.isEmpty()) {
+            List<String> keys = new ArrayList<>();
+            for (String category : categories) {
+                keys.add(categoryKey(category));
+            }
+            filters.put(CATEGORY, union(current.categories, keys, current.size));
+        }
+        if (vendorIds != null && !vendorIds.isEmpty()) {
+            filters.put(VENDOR, union(current.vendors, vendorIds, current.size));
+        }
+        if (priceBands != null && !priceBands.isEmpty()) {
+            for (String band : priceBands) {
+                if (!current.priceBands.containsKey(band)) {
+                    throw new IllegalArgumentException("Unknown price band: " + band + ", expected one of "
+                            + current.priceBands.keySet());
+                }
+            }
+            filters.put(PRICE_BAND, union(current.priceBands, priceBands, current.size));
+        }
+        if (minRating != null) {
+            BitSet rated = current.minRatings.get(minRating);
+            if (rated == null) {
+                throw new IllegalArgumentException("minRating must be one of " + current.minRatings.keySet());
+            }
+            filters.put(MIN_RATING, rated);
+        }
+        if (Boolean.TRUE.equals(inStock)) {
+            filters.put(IN_STOCK, current.inStock);
+        }
+
+        BitSet matches = intersect(filters, null, current.size);
+
+        List<Product> items = new ArrayList<>(Math.max(0, Math.min(limit, matches.cardinality())));
+        int skipped = 0;
+        for (int i = matches.previousSetBit(current.size - 1); i >= 0 && items.size() < limit; i = matches.previousSetBit(i - 1)) {
+            if (skipped++ >= offset) {
+                items.add(current.products.get(i));
+            }
+        }
+
+        Map<String, List<FacetCount>> counts = new LinkedHashMap<>();
+        counts.put(CATEGORY, count(current.categories, current.categoryLabels, intersect(filters, CATEGORY, current.size)));
+        counts.put(VENDOR, count(current.vendors, current.vendorLabels, intersect(filters, VENDOR, current.size)));
+        counts.put(PRICE_BAND, count(current.priceBands, null, intersect(filters, PRICE_BAND, current.size)));
+        counts.put(MIN_RATING, count(current.minRatings, null, intersect(filters, MIN_RATING, current.size)));
+        counts.put(IN_STOCK, count(Map.of(true, current.inStock), null, intersect(filters, IN_STOCK, current.size)));
+
+        return new Result(matches.cardinality(), offset, limit, items, counts);
+    }
+
+    // AND of all filters except the excluded facet; every product when nothing applies
+    private static BitSet intersect(Map<String, BitSet> filters, String excluded, int size) {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+        for (Map.Entry<String, BitSet> filter : filters.entrySet()) {
+            if (!filter.getKey().equals(excluded)) {
+                result.and(filter.getValue());
+            }
+        }
+        return result;
+    }
+
+    private static <K> BitSet union(Map<K, BitSet> index, Collection<K> keys, int size) {
+        BitSet result = new BitSet(size);
+        for (K key : keys) {
+            BitSet values = index.get(key);
+            if (values != null) {
+                result.or(values);
+            }
+        }
+        return result;
+    }
+
+    private static <K> List<FacetCount> count(Map<K, BitSet> index, Map<K, String> labels, BitSet within) {
+        List<FacetCount> counts = new ArrayList<>(index.size());
+        for (Map.Entry<K, BitSet> value : index.entrySet()) {
+            BitSet matching = (BitSet) value.getValue().clone();
+            matching.and(within);
+            String label = labels != null ? labels.get(value.getKey()) : String.valueOf(value.getKey());
+            counts.add(new FacetCount(String.valueOf(value.getKey()), label, matching.cardinality()));
+        }
+        return counts;
+    }
+
+    // Builds on first use if the startup build has not happened or failed
+    private Facets current() {
+        Facets current = facets;
+        return current != null ? current : rebuild();
+    }
+
+    private synchronized Facets rebuild() {
+        long version = catalogCache.getVersion();
+        Facets current = facets;
+        if (current != null && current.version == version) {
+            return current;
+        }
+        current = new Facets(version, catalogCache.getAll(), priceBoundaries);
+        facets = current;
+        return current;
+    }
+
+    // Built from the catalog cache, so unavailable when that is disabled
+    public boolean isEnabled() {
+        return catalogCache.isEnabled();
+    }
+
+    private static String categoryKey(String category) {
+        return category == null ? "" : category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Facets current = facets;
+        stats.put("built", current != null);
+        stats.put("catalogVersion", current != null ? current.version : 0);
+        stats.put("current", isCurrent());
+        stats.put("products", current != null ? current.size : 0);
+        stats.put("categories", current != null ? current.categories.size() : 0);
+        stats.put("vendors", current != null ? current.vendors.size() : 0);
+        stats.put("priceBands", current != null ? current.priceBands.keySet() : Collections.emptySet());
+        return stats;
+    }
+
+    // Bitsets for one catalog snapshot; never modified after construction
+    private static final class Facets {
+        private final long version;
+        private final List<Product> products;
+        private final int size;
+        private final Map<String, BitSet> categories = new TreeMap<>();
+        private final Map<String, String> categoryLabels = new HashMap<>();
+        private final Map<Long, BitSet> vendors = new TreeMap<>();
+        private final Map<Long, String> vendorLabels = new HashMap<>();
+        private final Map<String, BitSet> priceBands = new LinkedHashMap<>();
+        private final Map<Integer, BitSet> minRatings = new LinkedHashMap<>();
+        private final BitSet inStock;
+
+        private Facets(long version, List<Product> products, double[] priceBoundaries) {
+            this.version = version;
+            this.products = products;
+            this.size = products.size();
+            this.inStock = new BitSet(size);
+
+            String[] bandLabels = new String[priceBoundaries.length + 1];
+            for (int b = 0; b <= priceBoundaries.length; b++) {
+                String from = b == 0 ? "0" : format(priceBoundaries[b - 1]);
+                bandLabels[b] = b < priceBoundaries.length ? from + "-" + format(priceBoundaries[b]) : from + "+";
+                priceBands.put(bandLabels[b], new BitSet(size));
+            }
+            for (int threshold : RATING_THRESHOLDS) {
+                minRatings.put(threshold, new BitSet(size));
+            }
+
+            for (int i = 0; i < size; i++) {
+                Product product = products.get(i);
+                String category = categoryKey(product.getCategory());
+                if (!category.isEmpty()) {
+                    categories.computeIfAbsent(category, key -> new BitSet(size)).set(i);
+                    categoryLabels.putIfAbsent(category, product.getCategory().trim());
+                }
+                if (product.getVendor() != null && product.getVendor().getId() != null) {
+                    vendors.computeIfAbsent(product.getVendor().getId(), key -> new BitSet(size)).set(i);
+                    vendorLabels.putIfAbsent(product.getVendor().getId(), product.getVendor().getShopName() != null
+                            ? product.getVendor().getShopName() : product.getVendor().getName());
+                }
+
+                // Lower bound inclusive: a price equal to a boundary belongs to the band above it
+                int band = 0;
+                while (band < priceBoundaries.length && product.getPrice() >= priceBoundaries[band]) {
+                    band++;
+                }
+                priceBands.get(bandLabels[band]).set(i);
+
+                double rating = product.getRating() != null ? product.getRating() : 0.0;
+                for (int threshold : RATING_THRESHOLDS) {
+                    if (rating >= threshold) {
+                        minRatings.get(threshold).set(i);
+                    }
+                }
+                if (product.getStock() > 0) {
+                    inStock.set(i);
+                }
+            }
+        }
+
+        private static String format(double value) {
+            return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+        }
+    }
+
+    /**
+     * Products matching a faceted filter and the counts for refining it
+     */
+    public static final class Result {
+        private final int total;
+        private final int offset;
+        private final int limit;
+        private final List<Product> items;
+        private final Map<String, List<FacetCount>> facets;
+
+        private Result(int total, int offset, int limit, List<Product> items, Map<String, List<FacetCount>> facets) {
+            this.total = total;
+            this.offset = offset;
+            this.limit = limit;
+            this.items = items;
+            this.facets = facets;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        /**
+         * @return Matching products, newest first. Instances are shared with the
+         *         catalog cache and must not be modified.
+         */
+        public List<Product> getItems() {
+            return items;
+        }
+
+        /**
+         * @return Counts per facet value, keyed by facet name
+         */
+        public Map<String, List<FacetCount>> getFacets() {
+            return facets;
+        }
+    }
+
+    /**
+     * Number of products a facet value would match given the other selected filters
+     */
+    public static final class FacetCount {
+        private final String value;
+        private final String label;
+        private final int count;
+
+        private FacetCount(String value, String label, int count) {
+            this.value = value;
+            this.label = label;
+            this.count = count;
+        }
+
+        /**
+         * @return Value to pass back as the filter parameter
+         */
+        public String getValue() {
+            return value;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.example.MealBasketSyatem.catalog;
+
+import com.example.MealBasketSyatem.entity.Product;
+import com.example.MealBasketSyatem.event.ProductChangedEvent;
+import com.example.MealBasketSyatem.repo.ProductRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Resident copy of the product catalog serving ProductService reads.
+ *
+ * The whole catalog is loaded once and held as an immutable snapshot with
+ * lookups by id, vendor, vendor name, category and name that match the
+ * equivalent ProductRepo queries (exact, case-sensitive matches, id order).
+ * Every product write publishes a ProductChangedEvent; after the write commits,
+ * only the changed products are re-read and a new snapshot is swapped in, so in
+ * the steady state reads never reach the database. Each lookup is an array of
+ * products sorted by key and id, so a refresh copies the arrays around the
+ * changed entries instead of rebuilding every lookup from the whole catalog. A periodic full reload picks
+ * up changes made outside the application.
+ *
+ * Cached products are copies, never the instances loaded by the persistence
+ * context of the request or transaction that triggered the load, so changes
+ * made to those (committed or not) cannot leak into the cache.
+ *
+ * Listeners that read the catalog on ProductChangedEvent must be ordered after
+ * this one (@Order greater than 0).
+ */
+@Component
+public class ProductCatalogCache {
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    private final boolean enabled;
+
+    private volatile Catalog catalog;
+
+    private final LongAdder reads = new LongAdder();
+    private final AtomicLong lazyLoads = new AtomicLong();
+    private final AtomicLong refreshedProducts = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    private volatile LocalDateTime lastLoadedAt;
+    private volatile long lastLoadMillis;
+
+    public ProductCatalogCache(@Value("${catalog.cache.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            System.err.println("[ProductCatalogCache] Initial load failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replace the snapshot with a fresh copy of the whole catalog
+     * Runs every 10 minutes by default as a safety net for out-of-band changes
+     */
+    @Scheduled(initialDelayString = "${catalog.cache.reload-interval-ms:600000}",
+               fixedDelayString = "${catalog.cache.reload-interval-ms:600000}")
+    public synchronized void reload() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<Product> products = new ArrayList<>();
+        for (Product product : productRepo.findAll()) {
+            products.add(copyOf(product));
+        }
+        catalog = new Catalog(products);
+        loads.incrementAndGet();
+
+        lastLoadedAt = LocalDateTime.now();
+        lastLoadMillis = System.currentTimeMillis() - start;
+        System.out.println("[ProductCatalogCache] " + lastLoadedAt + " - Loaded " + products.size()
+                + " products in " + lastLoadMillis + " ms");
+    }
+
+    /**
+     * Re-read the changed products once the write has committed. Runs before
+     * other ProductChangedEvent listeners so they see the new catalog.
+     */
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled || catalog == null) {
+            return;
+        }
+        refresh(event.getProductIds());
+    }
+
+    /**
+     * Re-read the given products and swap in a snapshot with them replaced,
+     * added, or removed when they no longer exist.
+     */
+    public synchronized void refresh(Collection<Long> productIds) {
+        if (catalog == null || productIds == null || productIds.isEmpty()) {
+            return;
+        }
+        Set<Long> touched = new HashSet<>(productIds);
+        List<Product> loaded = new ArrayList<>(touched.size());
+        for (Product product : productRepo.findAllById(touched)) {
+            loaded.add(copyOf(product));
+        }
+        catalog = new Catalog(catalog, touched, loaded);
+        refreshedProducts.addAndGet(productIds.size());
+    }
+
+    /**
+     * Lookups below require the cache to be enabled; ProductService falls back
+     * to ProductRepo otherwise.
+     *
+     * @return All products in id order, read-only
+     */
+    public List<Product> getAll() {
+        return current().all.view;
+    }
+
+    /**
+     * @return The product, or null if it does not exist. The instance is shared
+     *         and must not be modified; see {@link #copyOf(Product)}.
+     */
+    public Product get(long productId) {
+        List<Product> products = current().all.get(productId);
+        return products.isEmpty() ? null : products.get(0);
+    }
+
+    public List<Product> getByVendorId(Long vendorId) {
+        return current().byVendorId.get(vendorId);
+    }
+
+    public List<Product> getByVendorName(String vendorName) {
+        return current().byVendorName.get(vendorName);
+    }
+
+    public List<Product> getByCategory(String category) {
+        return current().byCategory.get(category);
+    }
+
+    public List<Product> getByName(String name) {
+        return current().byName.get(name);
+    }
+
+    /**
+     * @return Snapshot version, increased on every reload or refresh
+     */
+    public long getVersion() {
+        return current().version;
+    }
+
+    /**
+     * @return Number of full loads so far, which may have picked up changes made outside the application
+     */
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    // Loads on first use if the startup load has not happened or failed
+    private Catalog current() {
+        reads.increment();
+        Catalog current = catalog;
+        if (current == null) {
+            lazyLoads.incrementAndGet();
+            reload();
+            current = catalog;
+        }
+        return current;
+    }
+
+    /**
+     * Detached copy of a cached product that callers may modify and save
+     */
+    public static Product copyOf(Product product) {
+        Product copy = new Product();
+        copy.setId(product.getId());
+        copy.setName(product.getName());
+        copy.setPrice(product.getPrice());
+        copy.setDescription(product.getDescription());
+        copy.setImage(product.getImage());
+        copy.setCategory(product.getCategory());
+        copy.setStock(product.getStock());
+        copy.setRating(product.getRating());
+        copy.setTotalRatings(product.getTotalRatings());
+        copy.setReviewCount(product.getReviewCount());
+        copy.setVendor(product.getVendor());
+        return copy;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Catalog current = catalog;
+        stats.put("enabled", enabled);
+        stats.put("loaded", current != null);
+        stats.put("products", current != null ? current.all.view.size() : 0);
+        stats.put("version", current != null ? current.version : 0);
+        stats.put("reads", reads.sum());
+        stats.put("lazyLoads", lazyLoads.get());
+        stats.put("refreshedProducts", refreshedProducts.get());
+        stats.put("loads", loads.get());
+        stats.put("lastLoadedAt", lastLoadedAt);
+        stats.put("lastLoadMillis", lastLoadMillis);
+        return stats;
+    }
+
+    // Immutable snapshot of the catalog and its lookups
+    private static final class Catalog {
+        private final long version = VERSIONS.incrementAndGet();
+        private final Lookup<Long> all;
+        private final Lookup<Long> byVendorId;
+        private final Lookup<String> byVendorName;
+        private final Lookup<String> byCategory;
+        private final Lookup<String> byName;
+
+        private Catalog(List<Product> products) {
+            this.all = new Lookup<>(Product::getId, products);
+            this.byVendorId = new Lookup<>(Catalog::vendorIdOf, products);
+            this.byVendorName = new Lookup<>(Catalog::vendorNameOf, products);
+            this.byCategory = new Lookup<>(Product::getCategory, products);
+            this.byName = new Lookup<>(Product::getName, products);
+        }
+
+        // The previous snapshot with the touched products replaced by the loaded ones, or removed
+        private Catalog(Catalog previous, Set<Long> touchedIds, List<Product> loaded) {
+            List<Product> removed = new ArrayList<>(touchedIds.size());
+            for (Long productId : touchedIds) {
+                List<Product> old = previous.all.get(productId);
+                if (!old.isEmpty()) {
+                    removed.add(old.get(0));
+                }
+            }
+            this.all = new Lookup<>(previous.all, removed, loaded);
+            this.byVendorId = new Lookup<>(previous.byVendorId, removed, loaded);
+            this.byVendorName = new Lookup<>(previous.byVendorName, removed, loaded);
+            this.byCategory = new Lookup<>(previous.byCategory, removed, loaded);
+            this.byName = new Lookup<>(previous.byName, removed, loaded);
+        }
+
+        private static Long vendorIdOf(Product product) {
+            return product.getVendor() != null ? product.getVendor().getId() : null;
+        }
+
+        private static String vendorNameOf(Product product) {
+            return product.getVendor() != null ? product.getVendor().getName() : null;
+        }
+    }
+
+    /**
+     * Products with a non-null key, sorted by key and then id, so the products
+     * of one key are a contiguous id-ordered range found by binary search.
+     */
+    private static final class Lookup<K extends Comparable<K>> {
+        private final Function<Product, K> keyOf;
+        private final Product[] sorted;
+        private final List<Product> view;
+
+        private Lookup(Function<Product, K> keyOf, List<Product> products) {
+            this.keyOf = keyOf;
+            this.sorted = products.stream()
+                    .filter(product -> keyOf.apply(product) != null)
+                    .sorted(this::compare)
+                    .toArray(Product[]::new);
+            this.view = Collections.unmodifiableList(Arrays.asList(sorted));
+        }
+
+        // Copies the runs between the removed and inserted entries, so one change costs an array copy
+        private Lookup(Lookup<K> previous, List<Product> removed, List<Product> inserted) {
+            this.keyOf = previous.keyOf;
+            Product[] old = previous.sorted;
+
+            int[] removeAt = removed.stream()
+                    .filter(product -> keyOf.apply(product) != null)
+                    .mapToInt(product -> previous.indexOf(keyOf.apply(product), product.getId()))
+                    .sorted()
+                    .toArray();
+            Product[] insert = inserted.stream()
+                    .filter(product -> keyOf.apply(product) != null)
+                    .sorted(this::compare)
+                    .toArray(Product[]::new);
+
+            Product[] merged = new Product[old.length - removeAt.length + insert.length];
+            int from = 0;
+            int to = 0;
+            int r = 0;
+            for (Product product : insert) {
+                int at = previous.indexOf(keyOf.apply(product), product.getId());
+                while (r < removeAt.length && removeAt[r] < at) {
+                    System.arraycopy(old, from, merged, to, removeAt[r] - from);
+                    to += removeAt[r] - from;
+                    from = removeAt[r++] + 1;
+                }
+                System.arraycopy(old, from, merged, to, at - from);
+                to += at - from;
+                from = at;
+                merged[to++] = product;
+            }
+            while (r < removeAt.length) {
+                System.arraycopy(old, from, merged, to, removeAt[r] - from);
+                to += removeAt[r] - from;
+                from = removeAt[r++] + 1;
+            }
+            System.arraycopy(old, from, merged, to, old.length - from);
+
+            this.sorted = merged;
+            this.view = Collections.unmodifiableList(Arrays.asList(sorted));
+        }
+
+        // @return The products with this key in id order, read-only
+        private List<Product> get(K key) {
+            if (key == null) {
+                return Collections.emptyList();
+            }
+            int from = indexOf(key, Long.MIN_VALUE);
+            int to = indexOf(key, Long.MAX_VALUE);
+            return from == to ? Collections.emptyList() : view.subList(from, to);
+        }
+
+        // Index of the first entry not before (key, id)
+        private int indexOf(K key, long id) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int order = keyOf.apply(sorted[mid]).compareTo(key);
+                if (order < 0 || (order == 0 && sorted[mid].getId() < id)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int compare(Product a, Product b) {
+            int order = keyOf.apply(a).compareTo(keyOf.apply(b));
+            return order != 0 ? order : Long.compare(a.getId(), b.getId());
+        }
+    }
+}
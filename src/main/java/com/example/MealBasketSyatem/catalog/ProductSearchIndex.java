@@ -0,0 +1,380 @@
+package com.example.MealBasketSyatem.catalog;
+
+import com.example.MealBasketSyatem.entity.Product;
+import com.example.MealBasketSyatem.event.ProductChangedEvent;
+import com.example.MealBasketSyatem.recommendation.TopK;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index for product search over name, category, vendor shop
+ * name and description.
+ *
+ * Each term maps to the products containing it with a field weight (a name match
+ * counts more than a description match). Terms are kept in a sorted map so a
+ * query token also matches every term it prefixes ("chick" finds "chicken"), and
+ * every term of three or more characters is indexed under each of its
+ * one-character deletions, so a query token within one typo of a term
+ * ("chiken", "chikcen") finds it by hash lookups instead of a dictionary scan.
+ *
+ * A product's text score sums, over the query tokens, its best match weight x
+ * field weight x idf; products matching only some tokens are scaled down by the
+ * share of tokens matched. The text score is then boosted by the product rating.
+ *
+ * The index is built from ProductCatalogCache and updated per product after each
+ * committed product write; a periodic rebuild picks up vendor shop name changes.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float SHOP_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final double EXACT_MATCH = 1.0;
+    private static final double PREFIX_MATCH = 0.75;
+    private static final double TYPO_MATCH = 0.5;
+
+    // Query tokens shorter than this only match exactly or as a prefix
+    private static final int MIN_TYPO_LENGTH = 4;
+    // Most terms a single query token may expand to by prefix
+    private static final int MAX_PREFIX_TERMS = 64;
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    private final boolean enabled;
+    private final double ratingWeight;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (productId -> field weight); guarded by lock
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+
+    // one-character deletion of a term (or the term itself) -> terms; guarded by lock
+    private final Map<String, Set<String>> typoVariants = new HashMap<>();
+
+    // productId -> indexed product; guarded by lock
+    private final Map<Long, IndexedProduct> products = new HashMap<>();
+
+    private volatile boolean built = false;
+    private volatile LocalDateTime lastBuiltAt;
+    private volatile long lastBuildMillis;
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+
+    public ProductSearchIndex(
+            @Value("${catalog.search.enabled:true}") boolean enabled,
+            @Value("${catalog.search.rating-weight:0.3}") double ratingWeight) {
+        this.enabled = enabled;
+        this.ratingWeight = Math.max(0.0, ratingWeight);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            System.err.println("[ProductSearchIndex] Initial build failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Re-index the whole catalog. Runs every 10 minutes by default, after the
+     * catalog cache has had the chance to reload.
+     */
+    @Scheduled(initialDelayString = "${catalog.search.rebuild-interval-ms:600000}",
+               fixedDelayString = "${catalog.search.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        if (!isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<Product> catalog = catalogCache.getAll();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            typoVariants.clear();
+            products.clear();
+            for (Product product : catalog) {
+                add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        built = true;
+        lastBuiltAt = LocalDateTime.now();
+        lastBuildMillis = System.currentTimeMillis() - start;
+        System.out.println("[ProductSearchIndex] " + lastBuiltAt + " - Indexed " + catalog.size() + " products, "
+                + getTermCount() + " terms in " + lastBuildMillis + " ms");
+    }
+
+    /**
+     * Re-index the changed products once the write has committed. Ordered after
+     * ProductCatalogCache so the catalog already holds the new versions.
+     */
+    @Order(1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!isEnabled() || !built || event.getProductIds() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long productId : event.getProductIds()) {
+                remove(productId);
+                Product product = catalogCache.get(productId);
+                if (product != null) {
+                    add(product);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param query Free text, e.g. "chick curry" or "chiken"
+     * @param limit Maximum number of results
+     * @return Matching products, most relevant first. Instances are shared with the
+     *         catalog cache and must not be modified.
+     */
+    public List<Product> search(String query, int limit) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        if (!built) {
+            rebuild();
+        }
+        long start = System.nanoTime();
+
+        TopK topK = new TopK(limit);
+        List<Product> result;
+        lock.readLock().lock();
+        try {
+            int documentCount = Math.max(1, products.size());
+            // productId -> [text score, tokens matched]
+            Map<Long, double[]> scores = new HashMap<>();
+            for (String token : tokens) {
+                Map<Long, Double> best = new HashMap<>();
+                for (Map.Entry<String, Double> match : expand(token).entrySet()) {
+                    Map<Long, Float> posting = postings.get(match.getKey());
+                    double idf = Math.log(1.0 + (double) documentCount / posting.size());
+                    double termScore = match.getValue() * idf;
+                    for (Map.Entry<Long, Float> entry : posting.entrySet()) {
+                        best.merge(entry.getKey(), termScore * entry.getValue(), Math::max);
+                    }
+                }
+                for (Map.Entry<Long, Double> entry : best.entrySet()) {
+                    double[] score = scores.computeIfAbsent(entry.getKey(), id -> new double[2]);
+                    score[0] += entry.getValue();
+                    score[1]++;
+                }
+            }
+
+            for (Map.Entry<Long, double[]> entry : scores.entrySet()) {
+                double coverage = entry.getValue()[1] / tokens.size();
+                double textScore = entry.getValue()[0] * coverage * coverage;
+                double rating = products.get(entry.getKey()).rating;
+                topK.offer(entry.getKey(), textScore * (1.0 + ratingWeight * rating / 5.0));
+            }
+
+            long[] ids = new long[topK.size()];
+            double[] ranked = new double[ids.length];
+            topK.drainDescending(ids, ranked);
+            result = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                result.add(products.get(id).product);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        queries.increment();
+        queryNanos.add(System.nanoTime() - start);
+        return result;
+    }
+
+    // Indexed terms matching a query token, with how well each matches; caller holds the lock
+    private Map<String, Double> expand(String token) {
+        Map<String, Double> matches = new HashMap<>();
+        if (postings.containsKey(token)) {
+            matches.put(token, EXACT_MATCH);
+        }
+        int prefixTerms = 0;
+        for (String term : postings.subMap(token, false, token + Character.MAX_VALUE, false).keySet()) {
+            matches.putIfAbsent(term, PREFIX_MATCH);
+            if (++prefixTerms == MAX_PREFIX_TERMS) {
+                break;
+            }
+        }
+        if (token.length() >= MIN_TYPO_LENGTH) {
+            Set<String> candidates = new HashSet<>();
+            addAll(candidates, typoVariants.get(token));
+            for (String variant : deletions(token)) {
+                addAll(candidates, typoVariants.get(variant));
+            }
+            for (String term : candidates) {
+                if (SearchTokenizer.editDistance(token, term, 1) <= 1) {
+                    matches.putIfAbsent(term, TYPO_MATCH);
+                }
+            }
+        }
+        return matches;
+    }
+
+    // Caller holds the write lock
+    private void add(Product product) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, product.getName(), NAME_WEIGHT);
+        addField(terms, product.getCategory(), CATEGORY_WEIGHT);
+        if (product.getVendor() != null) {
+            addField(terms, product.getVendor().getShopName(), SHOP_WEIGHT);
+        }
+        addField(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            Map<Long, Float> posting = postings.get(term.getKey());
+            if (posting == null) {
+                posting = new HashMap<>();
+                postings.put(term.getKey(), posting);
+                addTypoVariants(term.getKey());
+            }
+            posting.put(product.getId(), term.getValue());
+        }
+        double rating = product.getRating() != null ? product.getRating() : 0.0;
+        products.put(product.getId(), new IndexedProduct(product, terms.keySet(), rating));
+    }
+
+    // Caller holds the write lock
+    private void remove(Long productId) {
+        IndexedProduct indexed = products.remove(productId);
+        if (indexed == null) {
+            return;
+        }
+        for (String term : indexed.terms) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting == null) {
+                continue;
+            }
+            posting.remove(productId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+                removeTypoVariant(term, term);
+                for (String variant : deletions(term)) {
+                    removeTypoVariant(variant, term);
+                }
+            }
+        }
+    }
+
+    // A term occurring in several fields keeps the weight of the strongest one
+    private static void addField(Map<String, Float> terms, String text, float weight) {
+        for (String token : SearchTokenizer.tokenize(text)) {
+            terms.merge(token, weight, Math::max);
+        }
+    }
+
+    private void addTypoVariants(String term) {
+        if (term.length() < MIN_TYPO_LENGTH - 1) {
+            return;
+        }
+        typoVariants.computeIfAbsent(term, key -> new HashSet<>()).add(term);
+        for (String variant : deletions(term)) {
+            typoVariants.computeIfAbsent(variant, key -> new HashSet<>()).add(term);
+        }
+    }
+
+    private void removeTypoVariant(String variant, String term) {
+        Set<String> terms = typoVariants.get(variant);
+        if (terms != null) {
+            terms.remove(term);
+            if (terms.isEmpty()) {
+                typoVariants.remove(variant);
+            }
+        }
+    }
+
+    private static Set<String> deletions(String term) {
+        Set<String> variants = new HashSet<>();
+        for (int i = 0; i < term.length(); i++) {
+            variants.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return variants;
+    }
+
+    private static void addAll(Set<String> target, Set<String> terms) {
+        if (terms != null) {
+            target.addAll(terms);
+        }
+    }
+
+    // Built from the catalog cache, so unavailable when that is disabled
+    public boolean isEnabled() {
+        return enabled && catalogCache.isEnabled();
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long queryCount = queries.sum();
+        lock.readLock().lock();
+        try {
+            stats.put("enabled", isEnabled());
+            stats.put("built", built);
+            stats.put("products", products.size());
+            stats.put("terms", postings.size());
+            stats.put("typoVariants", typoVariants.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("ratingWeight", ratingWeight);
+        stats.put("queries", queryCount);
+        stats.put("avgQueryMicros", queryCount > 0 ? queryNanos.sum() / queryCount / 1000.0 : 0.0);
+        stats.put("lastBuiltAt", lastBuiltAt);
+        stats.put("lastBuildMillis", lastBuildMillis);
+        return stats;
+    }
+
+    // A product as indexed: the catalog instance, its terms for removal, and its rating for ranking
+    private static final class IndexedProduct {
+        private final Product product;
+        private final Set<String> terms;
+        private final double rating;
+
+        private IndexedProduct(Product product, Set<String> terms, double rating) {
+            this.product = product;
+            this.terms = terms;
+            this.rating = rating;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.MealBasketSyatem.catalog;
+
+import com.example.MealBasketSyatem.entity.Product;
+import com.example.MealBasketSyatem.repo.ProductKey;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sort orders for paginated product listings.
+ *
+ * Every order ends with the product id in the same direction as the leading
+ * column, so the keyset (value, id) is unique and a composite index on
+ * (column, id) serves both the ordering and the "after this row" predicate;
+ * descending orders scan the same index backwards.
+ *
+ * Cursors are opaque to clients: base64url of "value:id" for the last product
+ * of a page, or just "id" for NEWEST.
+ */
+public enum ProductSort {
+    // Most recently added first; ids are assigned in insertion order
+    NEWEST(null, Sort.Direction.DESC),
+    PRICE("price", Sort.Direction.ASC),
+    PRICE_DESC("price", Sort.Direction.DESC),
+    // Highest rated first
+    RATING("rating", Sort.Direction.DESC);
+
+    private final String property;
+    private final Sort.Direction direction;
+
+    ProductSort(String property, Sort.Direction direction) {
+        this.property = property;
+        this.direction = direction;
+    }
+
+    /**
+     * Parse a request parameter such as "newest" or "price-desc", case-insensitively.
+     */
+    public static ProductSort fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return NEWEST;
+        }
+        try {
+            return ProductSort.valueOf(value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort: " + value);
+        }
+    }
+
+    public Sort toSort() {
+        if (property == null) {
+            return Sort.by(direction, "id");
+        }
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * @return Cursor pointing just after the given product in this order
+     */
+    public String encodeCursor(Product last) {
+        return encode("price".equals(property) ? last.getPrice() : rating(last.getRating()), last.getId());
+    }
+
+    public String encodeCursor(ProductKey last) {
+        return encode("price".equals(property) ? last.getPrice() : rating(last.getRating()), last.getId());
+    }
+
+    private String encode(double value, long id) {
+        String key = property == null ? String.valueOf(id) : value + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor Cursor from a previous page in this order, or null for the first page
+     */
+    public ScrollPosition decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            if (property == null) {
+                keys.put("id", Long.parseLong(key));
+            } else {
+                int separator = key.lastIndexOf(':');
+                keys.put(property, Double.parseDouble(key.substring(0, separator)));
+                keys.put("id", Long.parseLong(key.substring(separator + 1)));
+            }
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor for sort " + name().toLowerCase().replace('_', '-'));
+        }
+    }
+
+    // Product.setRating stores null as 0 and ProductRatingBackfill fixes older rows, so this only guards projections
+    private static double rating(Double rating) {
+        return rating != null ? rating : 0.0;
+    }
+}
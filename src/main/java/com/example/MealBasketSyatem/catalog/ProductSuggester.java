@@ -0,0 +1,304 @@
+package com.example.MealBasketSyatem.catalog;
+
+import com.example.MealBasketSyatem.entity.Product;
+import com.example.MealBasketSyatem.event.ProductChangedEvent;
+import com.example.MealBasketSyatem.event.RecipeChangedEvent;
+import com.example.MealBasketSyatem.repo.OrderItemRepo;
+import com.example.MealBasketSyatem.repository.RecipeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Typeahead suggestions for product names, categories and recipe names.
+ *
+ * Every suggestion is reachable from the start of its text and from the start of
+ * each later word ("br" suggests "Chicken Breast"). Products with the same name
+ * from different vendors collapse into one suggestion. Suggestions are ranked by
+ * popularity: products by units ordered and rating, categories by their most
+ * popular product and their size, recipes by a fixed weight.
+ *
+ * The trie and its suggestion list are immutable and replaced together, so a
+ * lookup never sees a half-built state. Product writes that add, remove or
+ * rename a product or change its category, and recipe writes, only mark the
+ * suggestions stale; a short refresh delay coalesces bursts of writes into one
+ * rebuild that reuses the last order counts. Other product changes (price,
+ * stock, rating) are ignored until the periodic rebuild, which also re-reads
+ * the order counts.
+ */
+@Component
+public class ProductSuggester {
+
+    public enum Type { PRODUCT, CATEGORY, RECIPE }
+
+    private static final double RECIPE_WEIGHT = 1.5;
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private OrderItemRepo orderItemRepo;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    private final boolean enabled;
+    private final int maxSuggestions;
+
+    private volatile Suggestions suggestions;
+
+    // Units ordered per product as of the last periodic rebuild
+    private volatile Map<Long, Long> unitsOrdered = Collections.emptyMap();
+
+    private final AtomicBoolean stale = new AtomicBoolean(false);
+
+    private volatile LocalDateTime lastBuiltAt;
+    private volatile long lastBuildMillis;
+
+    public ProductSuggester(
+            @Value("${catalog.suggest.enabled:true}") boolean enabled,
+            @Value("${catalog.suggest.max-suggestions:10}") int maxSuggestions) {
+        this.enabled = enabled;
+        this.maxSuggestions = Math.max(1, maxSuggestions);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            System.err.println("[ProductSuggester] Initial build failed: " + e.getMessage());
+        }
+    }
+
+    @Order(1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Suggestions current = suggestions;
+        if (current == null || !isEnabled()) {
+            return;
+        }
+        for (Long productId : event.getProductIds()) {
+            // Ordered after the catalog cache, so this is the product as committed
+            Product product = catalogCache.get(productId);
+            if (!Objects.equals(product != null ? indexedText(product) : null, current.indexedText.get(productId))) {
+                stale.set(true);
+                return;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        stale.set(true);
+    }
+
+    /**
+     * Rebuild if products or recipes changed since the last build
+     */
+    @Scheduled(initialDelayString = "${catalog.suggest.refresh-delay-ms:5000}",
+               fixedDelayString = "${catalog.suggest.refresh-delay-ms:5000}")
+    public void refreshIfStale() {
+        if (isEnabled() && suggestions != null && stale.get()) {
+            build(false);
+        }
+    }
+
+    /**
+     * Build new suggestions from the catalog, order history and recipes and swap
+     * them in. Runs every 10 minutes by default so popularity follows new orders.
+     */
+    @Scheduled(initialDelayString = "${catalog.suggest.rebuild-interval-ms:600000}",
+               fixedDelayString = "${catalog.suggest.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        build(true);
+    }
+
+    private synchronized void build(boolean refreshOrderCounts) {
+        if (!isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        stale.set(false);
+
+        if (refreshOrderCounts) {
+            Map<Long, Long> counts = new HashMap<>();
+            for (Object[] row : orderItemRepo.sumQuantityByProduct()) {
+                counts.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+            }
+            unitsOrdered = counts;
+        }
+        Map<Long, Long> unitsOrdered = this.unitsOrdered;
+        Map<Long, String> indexedText = new HashMap<>();
+
+        // Keyed by type and normalized text so duplicates collapse into the most popular entry
+        Map<String, Suggestion> byKey = new LinkedHashMap<>();
+        Map<String, double[]> categories = new HashMap<>(); // key -> [best product weight, products]
+        Map<String, String> categoryNames = new HashMap<>();
+        for (Product product : catalogCache.getAll()) {
+            double rating = product.getRating() != null ? product.getRating() : 0.0;
+            double weight = (1.0 + Math.log1p(unitsOrdered.getOrDefault(product.getId(), 0L))) * (1.0 + rating / 5.0);
+            offer(byKey, Type.PRODUCT, product.getName(), product.getId(), weight);
+            indexedText.put(product.getId(), indexedText(product));
+
+            String category = SearchTokenizer.normalize(product.getCategory());
+            if (!category.isEmpty()) {
+                double[] stats = categories.computeIfAbsent(category, key -> new double[2]);
+                stats[0] = Math.max(stats[0], weight);
+                stats[1]++;
+                categoryNames.putIfAbsent(category, product.getCategory().trim());
+            }
+        }
+        for (Map.Entry<String, double[]> category : categories.entrySet()) {
+            double weight = category.getValue()[0] + Math.log1p(category.getValue()[1]);
+            offer(byKey, Type.CATEGORY, categoryNames.get(category.getKey()), null, weight);
+        }
+        for (Object[] row : recipeRepository.findActiveRecipeNames()) {
+            offer(byKey, Type.RECIPE, (String) row[1], ((Number) row[0]).longValue(), RECIPE_WEIGHT);
+        }
+
+        List<Suggestion> list = List.copyOf(byKey.values());
+        double[] weights = new double[list.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = list.get(i).weight;
+        }
+        CompletionTrie.Builder builder = new CompletionTrie.Builder(weights, maxSuggestions);
+        for (int i = 0; i < list.size(); i++) {
+            String text = SearchTokenizer.normalize(list.get(i).text);
+            builder.add(text, i);
+            for (int space = text.indexOf(' '); space >= 0; space = text.indexOf(' ', space + 1)) {
+                builder.add(text.substring(space + 1), i);
+            }
+        }
+        suggestions = new Suggestions(builder.build(), list, indexedText);
+
+        lastBuiltAt = LocalDateTime.now();
+        lastBuildMillis = System.currentTimeMillis() - start;
+        System.out.println("[ProductSuggester] " + lastBuiltAt + " - Built " + list.size() + " suggestions, "
+                + suggestions.trie.getNodeCount() + " trie nodes in " + lastBuildMillis + " ms");
+    }
+
+    /**
+     * @param query What the user has typed so far
+     * @param limit Maximum number of suggestions, at most catalog.suggest.max-suggestions
+     * @return Suggestions whose text or one of its words starts with the query, most popular first
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        String prefix = SearchTokenizer.normalize(query);
+        if (prefix.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Suggestions current = suggestions;
+        if (current == null) {
+            rebuild();
+            current = suggestions;
+        }
+        int[] matches = current.trie.complete(prefix, limit);
+        List<Suggestion> result = new ArrayList<>(matches.length);
+        for (int match : matches) {
+            result.add(current.list.get(match));
+        }
+        return result;
+    }
+
+    // The product fields suggestions are built from
+    private static String indexedText(Product product) {
+        return product.getName() + '\u0000' + product.getCategory();
+    }
+
+    private static void offer(Map<String, Suggestion> byKey, Type type, String text, Long id, double weight) {
+        String normalized = SearchTokenizer.normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        byKey.merge(type + ":" + normalized, new Suggestion(text.trim(), type, id, weight),
+                (existing, offered) -> offered.weight > existing.weight ? offered : existing);
+    }
+
+    // Built from the catalog cache, so unavailable when that is disabled
+    public boolean isEnabled() {
+        return enabled && catalogCache.isEnabled();
+    }
+
+    public int getMaxSuggestions() {
+        return maxSuggestions;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Suggestions current = suggestions;
+        stats.put("enabled", isEnabled());
+        stats.put("built", current != null);
+        stats.put("suggestions", current != null ? current.list.size() : 0);
+        stats.put("trieNodes", current != null ? current.trie.getNodeCount() : 0);
+        stats.put("stale", stale.get());
+        stats.put("maxSuggestions", maxSuggestions);
+        stats.put("lastBuiltAt", lastBuiltAt);
+        stats.put("lastBuildMillis", lastBuildMillis);
+        return stats;
+    }
+
+    // A trie and the suggestions its indexes refer to, swapped as a whole
+    private static final class Suggestions {
+        private final CompletionTrie trie;
+        private final List<Suggestion> list;
+        private final Map<Long, String> indexedText;
+
+        private Suggestions(CompletionTrie trie, List<Suggestion> list, Map<Long, String> indexedText) {
+            this.trie = trie;
+            this.list = list;
+            this.indexedText = indexedText;
+        }
+    }
+
+    /**
+     * One typeahead suggestion
+     */
+    public static final class Suggestion {
+        private final String text;
+        private final Type type;
+        private final Long id;
+        private final double weight;
+
+        private Suggestion(String text, Type type, Long id, double weight) {
+            this.text = text;
+            this.type = type;
+            this.id = id;
+            this.weight = weight;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * @return Product id (the most popular one with this name) or recipe id; null for categories
+         */
+        public Long getId() {
+            return id;
+        }
+
+        /**
+         * @return Popularity used for ranking
+         */
+        public double getWeight() {
+            return weight;
+        }
+    }
+}
@@ -3,13 +3,22 @@ package com.example.MealBasketSyatem.controller;
 import com.example.MealBasketSyatem.dto.AccountDTO;
 import com.example.MealBasketSyatem.dto.ApiResponse;
 import com.example.MealBasketSyatem.dto.OrderDTO;
+import com.example.MealBasketSyatem.recommendation.RecommendationMode;
+import com.example.MealBasketSyatem.repo.UserRepo;
 import com.example.MealBasketSyatem.service.AdminApiService;
+import com.example.MealBasketSyatem.service.RecommendationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -19,6 +28,12 @@ public class AdminApiController {
     @Autowired
     private AdminApiService adminApiService;
 
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private UserRepo userRepo;
+
     // Returns ALL accounts from DB with roles: USER/VENDOR/ADMIN
     @GetMapping("/accounts")
     @PreAuthorize("hasRole('ADMIN')")
@@ -50,4 +65,53 @@ public class AdminApiController {
         List<OrderDTO> orders = adminApiService.getAllOrders();
         return ResponseEntity.ok(ApiResponse.success("Orders retrieved successfully", orders));
     }
+
+    // Stream top-N recommendations for the given users (default: every user) as NDJSON
+    @GetMapping(value = "/recommendations/batch", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamRecommendationsBatch(
+            @RequestParam(defaultValue = "10") int topN,
+            @RequestParam(defaultValue = "user") String mode,
+            @RequestParam(required = false) List<Long> userIds) {
+        RecommendationMode recommendationMode;
+        try {
+            recommendationMode = RecommendationMode.fromParam(mode);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        List<Long> users = userIds != null ? userIds : userRepo.findAllIds();
+
+        StreamingResponseBody body = out -> recommendationService.writeRecommendationsBatch(users, topN, recommendationMode, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    // Write top-N recommendations for the given users (default: every user) to an NDJSON file on the server
+    @PostMapping("/recommendations/batch/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> exportRecommendationsBatch(
+            @RequestParam(defaultValue = "10") int topN,
+            @RequestParam(defaultValue = "user") String mode,
+            @RequestParam(required = false) List<Long> userIds) {
+        try {
+            RecommendationMode recommendationMode = RecommendationMode.fromParam(mode);
+            List<Long> users = userIds != null ? userIds : userRepo.findAllIds();
+
+            long start = System.currentTimeMillis();
+            Path file = recommendationService.exportRecommendationsBatch(users, topN, recommendationMode);
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("file", file.toAbsolutePath().toString());
+            result.put("users", users.size());
+            result.put("durationMillis", System.currentTimeMillis() - start);
+            return ResponseEntity.ok(ApiResponse.success("Recommendations exported successfully", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to export recommendations: " + e.getMessage()));
+        }
+    }
 }
@@ -0,0 +1,37 @@
+package com.example.MealBasketSyatem.controller;
+
+import com.example.MealBasketSyatem.catalog.CatalogVersions;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Conditional GET support for versioned reads (see CatalogVersions).
+ *
+ * Call before reading anything; when it returns true the 304 response is
+ * complete and the handler returns null.
+ */
+final class ConditionalGet {
+
+    // Clients may store the response but must revalidate it on every use
+    private static final String REVALIDATE = "no-cache";
+
+    private ConditionalGet() {}
+
+    /**
+     * Set ETag, Last-Modified and Cache-Control for the tag and answer 304 Not
+     * Modified if the client already has it.
+     *
+     * @param tag Current tag of the resource, or null when conditional GETs are disabled
+     */
+    static boolean notModified(ServletWebRequest request, CatalogVersions.Tag tag) {
+        if (tag == null) {
+            return false;
+        }
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE);
+        }
+        return request.checkNotModified(tag.getETag(), tag.getLastModified());
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.MealBasketSyatem.controller;
+
+import com.example.MealBasketSyatem.dto.ApiResponse;
+import com.example.MealBasketSyatem.image.ImageStore;
+import com.example.MealBasketSyatem.image.ImageVariant;
+import com.example.MealBasketSyatem.image.ImageVariantService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Image upload and delivery for the content-addressed ImageStore
+ */
+@RestController
+@RequestMapping("/api/images")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001", "http://localhost:3002", "http://localhost:3003"})
+public class ImageController {
+
+    // Tomcat request attributes for handing a file to the connector's sendfile support
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Content never changes under a given name, so browsers and CDNs may keep it for a year
+    private static final String CACHE_FOREVER = "public, max-age=31536000, immutable";
+
+    // Original served in place of a variant that is still being generated
+    private static final String CACHE_BRIEFLY = "public, max-age=60";
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    // Upload an image; the returned url is what products store in their image field
+    @PostMapping
+    public ResponseEntity<ApiResponse<Map<String, Object>>> uploadImage(@RequestParam("file") MultipartFile file) {
+        try {
+            String url = imageStore.store(file.getBytes());
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("url", url);
+            result.put("size", file.getSize());
+            return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("Image uploaded successfully", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to upload image: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Stream a stored image, or one of its resized variants when size
+     * (thumb, card, detail) or width is given. The file goes to the socket
+     * through Tomcat's sendfile when the connector supports it, otherwise
+     * through a FileChannel transfer, never through a heap byte array.
+     *
+     * A variant that is not ready within images.variants.request-timeout-ms is
+     * answered with the original under a short cache lifetime, so the client
+     * picks up the variant on a later request.
+     */
+    @GetMapping("/{fileName:.+}")
+    public void getImage(@PathVariable String fileName,
+                         @RequestParam(required = false) String size,
+                         @RequestParam(required = false) Integer width,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path path = imageStore.resolve(fileName);
+        // Plain status codes: an error dispatch would go through security for /error
+        if (path == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        ImageVariant variant;
+        try {
+            variant = size != null ? ImageVariant.fromParam(size) : width != null ? ImageVariant.forWidth(width) : null;
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+
+        String hash = fileName.substring(0, fileName.indexOf('.'));
+        if (variant != null) {
+            Path variantPath = imageVariantService.getVariant(fileName, variant);
+            if (variantPath != null) {
+                sendFile(variantPath, "image/jpeg", hash + "-" + variant.name().toLowerCase(), CACHE_FOREVER,
+                        request, response);
+                return;
+            }
+            sendFile(path, ImageStore.contentType(fileName), hash, CACHE_BRIEFLY, request, response);
+            return;
+        }
+        sendFile(path, ImageStore.contentType(fileName), hash, CACHE_FOREVER, request, response);
+    }
+
+    private static void sendFile(Path path, String contentType, String tag, String cacheControl,
+                                 HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String etag = "\"" + tag + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long length = Files.size(path);
+        response.setContentType(contentType);
+        response.setContentLengthLong(length);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < length) {
+                position += channel.transferTo(position, length - position, out);
+            }
+        }
+    }
+}
@@ -1,9 +1,19 @@
 package com.example.MealBasketSyatem.controller;
 
+import com.example.MealBasketSyatem.catalog.CatalogVersions;
+import com.example.MealBasketSyatem.catalog.FacetIndex;
+import com.example.MealBasketSyatem.catalog.ProductSuggester;
 import com.example.MealBasketSyatem.dto.ApiResponse;
+import com.example.MealBasketSyatem.dto.CursorPage;
+import com.example.MealBasketSyatem.dto.ProductBulkUpdateItem;
+import com.example.MealBasketSyatem.dto.ProductListItem;
 import com.example.MealBasketSyatem.entity.Product;
 import com.example.MealBasketSyatem.entity.ProductReview;
 import com.example.MealBasketSyatem.entity.User;
+import com.example.MealBasketSyatem.recommendation.CategoryLeaderboards;
+import com.example.MealBasketSyatem.recommendation.LeaderboardType;
+import com.example.MealBasketSyatem.recommendation.RecommendationMode;
+import com.example.MealBasketSyatem.service.ProductBulkUpdateService;
 import com.example.MealBasketSyatem.service.ProductRatingService;
 import com.example.MealBasketSyatem.service.ProductReviewService;
 import com.example.MealBasketSyatem.service.ProductService;
@@ -12,9 +22,11 @@ import com.example.MealBasketSyatem.service.RecommendationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -39,6 +51,18 @@ public class ProductApiController {
     @Autowired
     private RecommendationService recommendationService;
 
+    @Autowired
+    private ProductSuggester productSuggester;
+
+    @Autowired
+    private FacetIndex facetIndex;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private ProductBulkUpdateService productBulkUpdateService;
+
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.isAuthenticated()) {
@@ -49,8 +73,11 @@ public class ProductApiController {
     }
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Product>>> getAllProducts() {
+    public ResponseEntity<ApiResponse<List<Product>>> getAllProducts(ServletWebRequest webRequest) {
         try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.catalog())) {
+                return null;
+            }
             List<Product> products = productService.getAllProduct();
             return ResponseEntity.ok(ApiResponse.success("Products retrieved successfully", products));
         } catch (Exception e) {
@@ -59,9 +86,68 @@ public class ProductApiController {
         }
     }
 
+    // Card projections (view=card): description excerpt and vendor id and names instead of the full entities
+    @GetMapping(params = "view=card")
+    public ResponseEntity<ApiResponse<List<ProductListItem>>> getAllProductListItems(ServletWebRequest webRequest) {
+        try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.catalog())) {
+                return null;
+            }
+            List<ProductListItem> products = productService.getAllProductListItems();
+            return ResponseEntity.ok(ApiResponse.success("Products retrieved successfully", products));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve products: " + e.getMessage()));
+        }
+    }
+
+    // Paginated listing, selected by the limit parameter so existing clients keep the full list
+    @GetMapping(params = "limit")
+    public ResponseEntity<ApiResponse<CursorPage<Product>>> getProductPage(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort,
+            ServletWebRequest webRequest) {
+        try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.catalog())) {
+                return null;
+            }
+            CursorPage<Product> page = productService.getProductPage(null, sort, cursor, limit);
+            return ResponseEntity.ok(ApiResponse.success("Products retrieved successfully", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve products: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping(params = {"view=card", "limit"})
+    public ResponseEntity<ApiResponse<CursorPage<ProductListItem>>> getProductListItemPage(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort,
+            ServletWebRequest webRequest) {
+        try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.catalog())) {
+                return null;
+            }
+            CursorPage<ProductListItem> page = productService.getProductListItemPage(null, sort, cursor, limit);
+            return ResponseEntity.ok(ApiResponse.success("Products retrieved successfully", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve products: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Product>> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<Product>> getProductById(@PathVariable Long id, ServletWebRequest webRequest) {
         try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.product(id))) {
+                return null;
+            }
             Product product = productService.getProductById(id);
             return ResponseEntity.ok(ApiResponse.success("Product retrieved successfully", product));
         } catch (RuntimeException e) {
@@ -73,10 +159,27 @@ public class ProductApiController {
         }
     }
 
+    // Full-text search; q and name are interchangeable
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<Product>>> searchProducts(@RequestParam String name) {
+    public ResponseEntity<ApiResponse<List<Product>>> searchProducts(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "20") int limit,
+            ServletWebRequest webRequest) {
         try {
-            List<Product> products = productService.findProductByName(name);
+            String query = q != null ? q : name;
+            if (query == null || query.isBlank()) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponse.error("q must not be empty"));
+            }
+            if (limit < 1 || limit > 100) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponse.error("limit must be between 1 and 100"));
+            }
+            if (ConditionalGet.notModified(webRequest, catalogVersions.catalog())) {
+                return null;
+            }
+            List<Product> products = productService.searchProducts(query, limit);
             return ResponseEntity.ok(ApiResponse.success("Products found", products));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -84,9 +187,99 @@ public class ProductApiController {
         }
     }
 
+    @GetMapping(value = "/search", params = "view=card")
+    public ResponseEntity<ApiResponse<List<ProductListItem>>> searchProductListItems(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "20") int limit,
+            ServletWebRequest webRequest) {
+        try {
+            String query = q != null ? q : name;
+            if (query == null || query.isBlank()) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponse.error("q must not be empty"));
+            }
+            if (limit < 1 || limit > 100) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponse.error("limit must be between 1 and 100"));
+            }
+            if (ConditionalGet.notModified(webRequest, catalogVersions.catalog())) {
+                return null;
+            }
+            List<ProductListItem> products = productService.searchProductListItems(query, limit);
+            return ResponseEntity.ok(ApiResponse.success("Products found", products));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Search failed: " + e.getMessage()));
+        }
+    }
+
+    // Typeahead suggestions for the search box, served from memory on every keystroke
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<ProductSuggester.Suggestion>>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            if (limit < 1 || limit > productSuggester.getMaxSuggestions()) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponse.error("limit must be between 1 and " + productSuggester.getMaxSuggestions()));
+            }
+            if (!productSuggester.isEnabled()) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(ApiResponse.error("Suggestions are disabled"));
+            }
+            List<ProductSuggester.Suggestion> suggestions = productSuggester.suggest(q, limit);
+            return ResponseEntity.ok(ApiResponse.success("Suggestions retrieved successfully", suggestions));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to get suggestions: " + e.getMessage()));
+        }
+    }
+
+    // Combined category, vendor, price band, rating and stock filters with counts per facet value
+    @GetMapping("/facets")
+    public ResponseEntity<ApiResponse<FacetIndex.Result>> getFacets(
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<Long> vendorId,
+            @RequestParam(required = false) List<String> priceBand,
+            @RequestParam(required = false) Integer minRating,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "24") int limit,
+            ServletWebRequest webRequest) {
+        try {
+            if (offset < 0 || limit < 0 || limit > 100) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponse.error("offset must not be negative and limit must be between 0 and 100"));
+            }
+            if (!facetIndex.isEnabled()) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(ApiResponse.error("Faceted search requires the catalog cache"));
+            }
+            // Bitsets trail the catalog briefly after a change; only a current result may carry its ETag.
+            // The tag is read first so it is never newer than the bitsets.
+            CatalogVersions.Tag tag = catalogVersions.catalog();
+            if (facetIndex.isCurrent() && ConditionalGet.notModified(webRequest, tag)) {
+                return null;
+            }
+            FacetIndex.Result result = facetIndex.search(category, vendorId, priceBand, minRating, inStock, offset, limit);
+            return ResponseEntity.ok(ApiResponse.success("Products filtered successfully", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to filter products: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/vendor/{vendorId}")
-    public ResponseEntity<ApiResponse<List<Product>>> getProductsByVendorId(@PathVariable Long vendorId) {
+    public ResponseEntity<ApiResponse<List<Product>>> getProductsByVendorId(
+            @PathVariable Long vendorId,
+            ServletWebRequest webRequest) {
         try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.vendorProducts(vendorId))) {
+                return null;
+            }
             List<Product> products = productService.getProductsByVendorId(vendorId);
             return ResponseEntity.ok(ApiResponse.success("Products by vendor retrieved", products));
         } catch (Exception e) {
@@ -95,9 +288,88 @@ public class ProductApiController {
         }
     }
 
+    @GetMapping(value = "/vendor/{vendorId}", params = "view=card")
+    public ResponseEntity<ApiResponse<List<ProductListItem>>> getProductListItemsByVendorId(
+            @PathVariable Long vendorId,
+            ServletWebRequest webRequest) {
+        try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.vendorProducts(vendorId))) {
+                return null;
+            }
+            List<ProductListItem> products = productService.getProductListItemsByVendorId(vendorId);
+            return ResponseEntity.ok(ApiResponse.success("Products by vendor retrieved", products));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to get products by vendor: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping(value = "/vendor/{vendorId}", params = "limit")
+    public ResponseEntity<ApiResponse<CursorPage<Product>>> getProductPageByVendorId(
+            @PathVariable Long vendorId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort,
+            ServletWebRequest webRequest) {
+        try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.vendorProducts(vendorId))) {
+                return null;
+            }
+            CursorPage<Product> page = productService.getProductPage(vendorId, sort, cursor, limit);
+            return ResponseEntity.ok(ApiResponse.success("Products by vendor retrieved", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to get products by vendor: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping(value = "/vendor/{vendorId}", params = {"view=card", "limit"})
+    public ResponseEntity<ApiResponse<CursorPage<ProductListItem>>> getProductListItemPageByVendorId(
+            @PathVariable Long vendorId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort,
+            ServletWebRequest webRequest) {
+        try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.vendorProducts(vendorId))) {
+                return null;
+            }
+            CursorPage<ProductListItem> page = productService.getProductListItemPage(vendorId, sort, cursor, limit);
+            return ResponseEntity.ok(ApiResponse.success("Products by vendor retrieved", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to get products by vendor: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/category/{category}")
+    public ResponseEntity<ApiResponse<List<Product>>> getProductsByCategory(
+            @PathVariable String category,
+            ServletWebRequest webRequest) {
+        try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.catalog())) {
+                return null;
+            }
+            List<Product> products = productService.getProductsByCategory(category);
+            return ResponseEntity.ok(ApiResponse.success("Products by category retrieved", products));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to get products by category: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/vendor/{vendorName}")
-    public ResponseEntity<ApiResponse<List<Product>>> getProductsByVendor(@PathVariable String vendorName) {
+    public ResponseEntity<ApiResponse<List<Product>>> getProductsByVendor(
+            @PathVariable String vendorName,
+            ServletWebRequest webRequest) {
         try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.catalog())) {
+                return null;
+            }
             List<Product> products = productService.getProductsByVendorName(vendorName);
             return ResponseEntity.ok(ApiResponse.success("Products by vendor retrieved", products));
         } catch (Exception e) {
@@ -133,6 +405,23 @@ public class ProductApiController {
         }
     }
 
+    // Price and stock changes for products of any vendor; see VendorApiController for a vendor's own
+    @PostMapping("/bulk-update")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> bulkUpdateProducts(
+            @RequestBody List<ProductBulkUpdateItem> updates) {
+        try {
+            Map<String, Object> report = productBulkUpdateService.applyUpdates(null, updates);
+            return ResponseEntity.ok(ApiResponse.success("Updated " + report.get("updated") + " of "
+                    + report.get("requested") + " products", report));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to update products: " + e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteProduct(@PathVariable Long id) {
         try {
@@ -261,21 +550,69 @@ public class ProductApiController {
 
     @GetMapping("/recommendations")
     public ResponseEntity<ApiResponse<List<RecommendationService.RecommendationResult>>> getRecommendations(
-            @RequestParam(defaultValue = "10") int topN) {
+            @RequestParam(defaultValue = "10") int topN,
+            @RequestParam(defaultValue = "user") String mode) {
         try {
+            if (topN < 1 || topN > 100) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponse.error("topN must be between 1 and 100"));
+            }
             User currentUser = getCurrentUser();
             if (currentUser == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(ApiResponse.error("User not authenticated"));
+                // Anonymous visitors get the trending leaderboard
+                return ResponseEntity.ok(ApiResponse.success("Recommendations retrieved successfully",
+                        recommendationService.getColdStartRecommendations(topN)));
             }
 
+            RecommendationMode recommendationMode = RecommendationMode.fromParam(mode);
             List<RecommendationService.RecommendationResult> recommendations =
-                recommendationService.getRecommendationsForUser(currentUser.getId(), topN);
+                recommendationService.getRecommendationsForUser(currentUser.getId(), topN, recommendationMode);
 
             return ResponseEntity.ok(ApiResponse.success("Recommendations retrieved successfully", recommendations));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Failed to get recommendations: " + e.getMessage()));
         }
     }
+
+    @GetMapping("/{id}/bought-together")
+    public ResponseEntity<ApiResponse<List<RecommendationService.BoughtTogetherResult>>> getBoughtTogether(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            if (limit < 1 || limit > 50) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ApiResponse.error("limit must be between 1 and 50"));
+            }
+            List<RecommendationService.BoughtTogetherResult> products =
+                recommendationService.getFrequentlyBoughtTogether(id, limit);
+            return ResponseEntity.ok(ApiResponse.success("Frequently bought together products retrieved successfully", products));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to get frequently bought together products: " + e.getMessage()));
+        }
+    }
+
+    // ── Leaderboard Endpoints ───────────────────────────────────────────────────────────────
+
+    @GetMapping("/leaderboards")
+    public ResponseEntity<ApiResponse<List<CategoryLeaderboards.Entry>>> getLeaderboard(
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "trending") String type,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            LeaderboardType leaderboardType = LeaderboardType.fromParam(type);
+            List<CategoryLeaderboards.Entry> entries = recommendationService.getLeaderboard(category, leaderboardType, limit);
+            return ResponseEntity.ok(ApiResponse.success("Leaderboard retrieved successfully", entries));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve leaderboard: " + e.getMessage()));
+        }
+    }
 }
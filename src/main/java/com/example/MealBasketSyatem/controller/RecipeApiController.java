@@ -1,5 +1,6 @@
 package com.example.MealBasketSyatem.controller;
 
+import com.example.MealBasketSyatem.catalog.CatalogVersions;
 import com.example.MealBasketSyatem.dto.ApiResponse;
 import com.example.MealBasketSyatem.entity.Recipe;
 import com.example.MealBasketSyatem.entity.RecipeCategory;
@@ -8,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -21,10 +23,16 @@ public class RecipeApiController {
     @Autowired
     private RecipeService recipeService;
 
+    @Autowired
+    private CatalogVersions catalogVersions;
+
     // Get all active recipes (for users)
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Recipe>>> getAllRecipes() {
+    public ResponseEntity<ApiResponse<List<Recipe>>> getAllRecipes(ServletWebRequest webRequest) {
         try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.recipes())) {
+                return null;
+            }
             System.out.println("Fetching all active recipes");
             List<Recipe> recipes = recipeService.getAllActiveRecipes();
             System.out.println("Found " + recipes.size() + " active recipes");
@@ -39,8 +47,13 @@ public class RecipeApiController {
 
     // Get all recipes for a vendor
     @GetMapping("/vendor/{vendorId}")
-    public ResponseEntity<ApiResponse<List<Recipe>>> getVendorRecipes(@PathVariable Long vendorId) {
+    public ResponseEntity<ApiResponse<List<Recipe>>> getVendorRecipes(
+            @PathVariable Long vendorId,
+            ServletWebRequest webRequest) {
         try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.vendorRecipes(vendorId))) {
+                return null;
+            }
             System.out.println("Fetching recipes for vendor ID: " + vendorId);
             List<Recipe> recipes = recipeService.getVendorRecipes(vendorId);
             System.out.println("Found " + recipes.size() + " recipes for vendor " + vendorId);
@@ -55,8 +68,11 @@ public class RecipeApiController {
 
     // Get recipe by ID
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Recipe>> getRecipeById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<Recipe>> getRecipeById(@PathVariable Long id, ServletWebRequest webRequest) {
         try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.recipe(id))) {
+                return null;
+            }
             Recipe recipe = recipeService.getRecipeById(id);
             if (recipe != null) {
                 return ResponseEntity.ok(ApiResponse.success("Recipe retrieved successfully", recipe));
@@ -117,8 +133,12 @@ public class RecipeApiController {
     // Search recipes
     @GetMapping("/vendor/{vendorId}/search")
     public ResponseEntity<ApiResponse<List<Recipe>>> searchRecipes(@PathVariable Long vendorId,
-                                                                   @RequestParam String q) {
+                                                                   @RequestParam String q,
+                                                                   ServletWebRequest webRequest) {
         try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.vendorRecipes(vendorId))) {
+                return null;
+            }
             List<Recipe> recipes = recipeService.searchRecipes(vendorId, q);
             return ResponseEntity.ok(ApiResponse.success("Recipes retrieved successfully", recipes));
         } catch (Exception e) {
@@ -129,8 +149,13 @@ public class RecipeApiController {
 
     // Get recipes by category
     @GetMapping("/category/{category}")
-    public ResponseEntity<ApiResponse<List<Recipe>>> getRecipesByCategory(@PathVariable RecipeCategory category) {
+    public ResponseEntity<ApiResponse<List<Recipe>>> getRecipesByCategory(
+            @PathVariable RecipeCategory category,
+            ServletWebRequest webRequest) {
         try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.recipes())) {
+                return null;
+            }
             List<Recipe> recipes = recipeService.getRecipesByCategory(category);
             return ResponseEntity.ok(ApiResponse.success("Recipes retrieved successfully", recipes));
         } catch (Exception e) {
@@ -142,8 +167,12 @@ public class RecipeApiController {
     // Get vendor recipes by category
     @GetMapping("/vendor/{vendorId}/category/{category}")
     public ResponseEntity<ApiResponse<List<Recipe>>> getVendorRecipesByCategory(@PathVariable Long vendorId,
-                                                                               @PathVariable RecipeCategory category) {
+                                                                               @PathVariable RecipeCategory category,
+                                                                               ServletWebRequest webRequest) {
         try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.vendorRecipes(vendorId))) {
+                return null;
+            }
             List<Recipe> recipes = recipeService.getVendorRecipesByCategory(vendorId, category);
             return ResponseEntity.ok(ApiResponse.success("Recipes retrieved successfully", recipes));
         } catch (Exception e) {
@@ -154,8 +183,13 @@ public class RecipeApiController {
 
     // Get recipe statistics for vendor
     @GetMapping("/vendor/{vendorId}/stats")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getVendorRecipeStats(@PathVariable Long vendorId) {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getVendorRecipeStats(
+            @PathVariable Long vendorId,
+            ServletWebRequest webRequest) {
         try {
+            if (ConditionalGet.notModified(webRequest, catalogVersions.vendorRecipes(vendorId))) {
+                return null;
+            }
             Map<String, Object> stats = new HashMap<>();
             
             // Total recipes count
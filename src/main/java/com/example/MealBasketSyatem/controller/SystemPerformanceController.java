@@ -1,7 +1,26 @@
 package com.example.MealBasketSyatem.controller;
 
+import com.example.MealBasketSyatem.catalog.CatalogVersions;
+import com.example.MealBasketSyatem.catalog.FacetIndex;
+import com.example.MealBasketSyatem.catalog.ProductCatalogCache;
+import com.example.MealBasketSyatem.catalog.ProductSearchIndex;
+import com.example.MealBasketSyatem.catalog.ProductSuggester;
+import com.example.MealBasketSyatem.image.ImageStore;
+import com.example.MealBasketSyatem.image.ImageVariantService;
+import com.example.MealBasketSyatem.image.InlineImageMigration;
+import com.example.MealBasketSyatem.repo.ProductRepo;
 import com.example.MealBasketSyatem.dto.ApiResponse;
 import com.example.MealBasketSyatem.entity.SystemPerformance;
+import com.example.MealBasketSyatem.recommendation.AlsModel;
+import com.example.MealBasketSyatem.recommendation.AlsTrainer;
+import com.example.MealBasketSyatem.recommendation.CategoryLeaderboards;
+import com.example.MealBasketSyatem.recommendation.CoPurchaseIndex;
+import com.example.MealBasketSyatem.recommendation.MinHashLshIndex;
+import com.example.MealBasketSyatem.recommendation.NeighbourIndex;
+import com.example.MealBasketSyatem.recommendation.RecommendationCache;
+import com.example.MealBasketSyatem.recommendation.RecommendationMetrics;
+import com.example.MealBasketSyatem.recommendation.RecommendationSnapshotStore;
+import com.example.MealBasketSyatem.service.RecommendationService;
 import com.example.MealBasketSyatem.service.SystemPerformanceService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -10,7 +29,9 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/system-performance")
@@ -20,6 +41,60 @@ public class SystemPerformanceController {
     @Autowired
     private SystemPerformanceService performanceService;
 
+    @Autowired
+    private NeighbourIndex neighbourIndex;
+
+    @Autowired
+    private AlsTrainer alsTrainer;
+
+    @Autowired
+    private RecommendationSnapshotStore snapshotStore;
+
+    @Autowired
+    private RecommendationCache<?> recommendationCache;
+
+    @Autowired
+    private MinHashLshIndex lshIndex;
+
+    @Autowired
+    private CoPurchaseIndex coPurchaseIndex;
+
+    @Autowired
+    private CategoryLeaderboards categoryLeaderboards;
+
+    @Autowired
+    private RecommendationMetrics recommendationMetrics;
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductSuggester productSuggester;
+
+    @Autowired
+    private FacetIndex facetIndex;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private InlineImageMigration inlineImageMigration;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<List<SystemPerformance>>> getAllPerformanceMetrics() {
@@ -154,4 +229,334 @@ public class SystemPerformanceController {
                     .body(ApiResponse.error("Invalid datetime format: " + e.getMessage()));
         }
     }
+
+    @GetMapping("/recommendations/neighbour-index")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getNeighbourIndexStatus() {
+        try {
+            Map<String, Object> status = new HashMap<>();
+            status.put("built", neighbourIndex.isBuilt());
+            status.put("lastRebuiltAt", neighbourIndex.getLastRebuiltAt());
+            status.put("lastRebuildMillis", neighbourIndex.getLastRebuildMillis());
+            status.put("users", neighbourIndex.getUserCount());
+            status.put("k", neighbourIndex.getK());
+            status.put("matrixVersion", neighbourIndex.getMatrixVersion());
+            return ResponseEntity.ok(ApiResponse.success("Neighbour index status retrieved", status));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve neighbour index status: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/recommendations/lsh")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getLshIndexStatus() {
+        try {
+            Map<String, Object> status = new HashMap<>();
+            status.put("enabled", lshIndex.isEnabled());
+            status.put("built", lshIndex.isBuilt());
+            status.put("bands", lshIndex.getBands());
+            status.put("rowsPerBand", lshIndex.getRows());
+            status.put("minUsers", lshIndex.getMinUsers());
+            status.put("maxCandidates", lshIndex.getMaxCandidates());
+            status.put("maxBucketScan", lshIndex.getMaxBucketScan());
+            status.put("users", lshIndex.getUserCount());
+            status.put("averageBucketSize", lshIndex.getAverageBucketSize());
+            status.put("lastRebuiltAt", lshIndex.getLastRebuiltAt());
+            status.put("lastRebuildMillis", lshIndex.getLastRebuildMillis());
+            return ResponseEntity.ok(ApiResponse.success("LSH index status retrieved", status));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve LSH index status: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/recommendations/lsh/evaluate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> evaluateLshRecall(@RequestParam(defaultValue = "100") int sample) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("LSH recall evaluated", recommendationService.evaluateLshRecall(sample)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to evaluate LSH recall: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/recommendations/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getRecommendationCacheStats() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Recommendation cache stats retrieved", recommendationCache.getStats()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve recommendation cache stats: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/recommendations/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<String>> clearRecommendationCache() {
+        try {
+            recommendationCache.clear();
+            return ResponseEntity.ok(ApiResponse.success("Recommendation cache cleared", "cleared"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to clear recommendation cache: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/recommendations/snapshot")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSnapshotStatus() {
+        try {
+            Map<String, Object> status = new HashMap<>();
+            status.put("enabled", snapshotStore.isEnabled());
+            status.put("path", snapshotStore.getSnapshotPath());
+            status.put("loadedFrom", snapshotStore.getLastLoadSource());
+            status.put("loadMillis", snapshotStore.getLastLoadMillis());
+            status.put("lastWrittenAt", snapshotStore.getLastWrittenAt());
+            status.put("lastWriteMillis", snapshotStore.getLastWriteMillis());
+            return ResponseEntity.ok(ApiResponse.success("Recommendation snapshot status retrieved", status));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve snapshot status: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/recommendations/als/evaluate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<AlsTrainer.EvaluationReport>> evaluateAlsModel() {
+        try {
+            AlsTrainer.EvaluationReport report = recommendationService.evaluateAlsModel();
+            return ResponseEntity.ok(ApiResponse.success("ALS evaluation completed", report));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to evaluate ALS model: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/recommendations/als")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getAlsModelStatus() {
+        try {
+            Map<String, Object> status = new HashMap<>();
+            AlsModel model = alsTrainer.getModel();
+            status.put("trained", model != null);
+            if (model != null) {
+                status.put("version", model.getVersion());
+                status.put("trainedAt", model.getTrainedAtMillis());
+                status.put("rank", model.getRank());
+                status.put("users", model.getUserCount());
+                status.put("products", model.getProductCount());
+            }
+            status.put("lastTrainingMillis", alsTrainer.getLastTrainingMillis());
+            status.put("lastEvaluation", alsTrainer.getLastReport());
+            return ResponseEntity.ok(ApiResponse.success("ALS model status retrieved", status));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve ALS model status: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/recommendations/bought-together")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCoPurchaseIndexStatus() {
+        try {
+            Map<String, Object> status = new HashMap<>();
+            status.put("enabled", coPurchaseIndex.isEnabled());
+            status.put("built", coPurchaseIndex.isBuilt());
+            status.put("backfillRunning", coPurchaseIndex.isBackfillRunning());
+            status.put("orders", coPurchaseIndex.getIndexedOrders());
+            status.put("products", coPurchaseIndex.getProductCount());
+            status.put("pairEntries", coPurchaseIndex.getPairEntryCount());
+            status.put("maxBasketSize", coPurchaseIndex.getMaxBasketSize());
+            status.put("lastBackfilledAt", coPurchaseIndex.getLastBackfilledAt());
+            status.put("lastBackfillMillis", coPurchaseIndex.getLastBackfillMillis());
+            return ResponseEntity.ok(ApiResponse.success("Co-purchase index status retrieved", status));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve co-purchase index status: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/recommendations/bought-together/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Long>> backfillCoPurchaseIndex() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Co-purchase index rebuilt from order history", coPurchaseIndex.backfill()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to backfill co-purchase index: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/recommendations/leaderboards")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getLeaderboardStatus() {
+        try {
+            Map<String, Object> status = new HashMap<>();
+            status.put("built", categoryLeaderboards.isBuilt());
+            status.put("categories", categoryLeaderboards.getCategories());
+            status.put("boardSize", categoryLeaderboards.getBoardSize());
+            status.put("lastRebuiltAt", categoryLeaderboards.getLastRebuiltAt());
+            status.put("lastRebuildMillis", categoryLeaderboards.getLastRebuildMillis());
+            return ResponseEntity.ok(ApiResponse.success("Leaderboard status retrieved", status));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve leaderboard status: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/recommendations/leaderboards/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<String>> rebuildLeaderboards() {
+        try {
+            recommendationService.rebuildLeaderboards();
+            return ResponseEntity.ok(ApiResponse.success("Leaderboards rebuilt", "rebuilt"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to rebuild leaderboards: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/recommendations/metrics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getRecommendationMetrics() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Recommendation metrics retrieved", recommendationMetrics.getSnapshot()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve recommendation metrics: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/recommendations/metrics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<String>> resetRecommendationMetrics() {
+        try {
+            recommendationMetrics.reset();
+            return ResponseEntity.ok(ApiResponse.success("Recommendation metrics reset", "reset"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to reset recommendation metrics: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/catalog/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCatalogCacheStats() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Catalog cache stats retrieved", catalogCache.getStats()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve catalog cache stats: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/catalog/cache/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> reloadCatalogCache() {
+        try {
+            catalogCache.reload();
+            return ResponseEntity.ok(ApiResponse.success("Catalog cache reloaded", catalogCache.getStats()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to reload catalog cache: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/catalog/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSearchIndexStats() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Search index stats retrieved", searchIndex.getStats()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve search index stats: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/catalog/search/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuildSearchIndex() {
+        try {
+            searchIndex.rebuild();
+            return ResponseEntity.ok(ApiResponse.success("Search index rebuilt", searchIndex.getStats()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to rebuild search index: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/catalog/suggest")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSuggesterStats() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Suggester stats retrieved", productSuggester.getStats()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve suggester stats: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/catalog/suggest/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuildSuggester() {
+        try {
+            productSuggester.rebuild();
+            return ResponseEntity.ok(ApiResponse.success("Suggestions rebuilt", productSuggester.getStats()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to rebuild suggestions: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/catalog/facets")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getFacetIndexStats() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Facet index stats retrieved", facetIndex.getStats()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve facet index stats: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/catalog/versions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getCatalogVersionStats() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Catalog version stats retrieved", catalogVersions.getStats()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve catalog version stats: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/images")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getImageStoreStats() {
+        try {
+            Map<String, Object> stats = imageStore.getStats();
+            stats.put("inlineProductImages", productRepo.countInlineImages());
+            stats.put("migrationRunning", inlineImageMigration.isRunning());
+            stats.put("lastMigration", inlineImageMigration.getLastRun());
+            stats.put("variants", imageVariantService.getStats());
+            return ResponseEntity.ok(ApiResponse.success("Image store stats retrieved", stats));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve image store stats: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/images/migrate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> migrateInlineImages() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Inline images migrated", inlineImageMigration.migrate()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to migrate inline images: " + e.getMessage()));
+        }
+    }
 }
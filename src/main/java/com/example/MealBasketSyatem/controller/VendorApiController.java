@@ -1,13 +1,20 @@
 package com.example.MealBasketSyatem.controller;
 
 import com.example.MealBasketSyatem.dto.ApiResponse;
+import com.example.MealBasketSyatem.dto.CursorPage;
+import com.example.MealBasketSyatem.dto.ProductBulkUpdateItem;
 import com.example.MealBasketSyatem.dto.ProductDTO;
 import com.example.MealBasketSyatem.entity.Order;
 import com.example.MealBasketSyatem.entity.Product;
 import com.example.MealBasketSyatem.entity.Vendor;
+import com.example.MealBasketSyatem.image.ImageVariantService;
 import com.example.MealBasketSyatem.repo.OrderItemRepo;
 import com.example.MealBasketSyatem.service.OrderService;
+import com.example.MealBasketSyatem.service.ProductBulkUpdateService;
+import com.example.MealBasketSyatem.service.ProductImportService;
+import com.example.MealBasketSyatem.service.ProductService;
 import com.example.MealBasketSyatem.service.VendorService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -33,9 +40,21 @@ public class VendorApiController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private ProductService productService;
+
     @Autowired
     private OrderItemRepo orderItemRepo;
 
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductBulkUpdateService productBulkUpdateService;
+
     // Get vendor by ID
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<Vendor>> getVendorById(@PathVariable Long id) {
@@ -81,7 +100,7 @@ public class VendorApiController {
                 vendor.setMonthlyRevenueGoal(vendorData.getMonthlyRevenueGoal());
             }
             
-            Vendor updatedVendor = vendorService.registerVendor(vendor);
+            Vendor updatedVendor = vendorService.updateVendor(vendor);
             return ResponseEntity.ok(ApiResponse.success("Vendor updated successfully", updatedVendor));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -108,6 +127,28 @@ public class VendorApiController {
         }
     }
 
+    // Get one page of vendor products; order counts are computed for that page only
+    @GetMapping(value = "/{vendorId}/products", params = "limit")
+    public ResponseEntity<ApiResponse<CursorPage<Product>>> getVendorProductPage(
+            @PathVariable Long vendorId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort) {
+        try {
+            CursorPage<Product> page = productService.getProductPage(vendorId, sort, cursor, limit);
+            for (Product product : page.getItems()) {
+                Long orderCount = orderItemRepo.countOrdersByProductId(product.getId());
+                product.setOrderCount(orderCount != null ? orderCount.intValue() : 0);
+            }
+            return ResponseEntity.ok(ApiResponse.success("Vendor products retrieved successfully", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve vendor products: " + e.getMessage()));
+        }
+    }
+
     // Create product for vendor
     @PostMapping("/{vendorId}/products")
     public ResponseEntity<ApiResponse<Product>> createVendorProduct(
@@ -159,6 +200,7 @@ public class VendorApiController {
             product.setVendor(vendor);
             
             Product savedProduct = vendorService.addProduct(product);
+            imageVariantService.scheduleVariants(savedProduct.getImage());
             
             System.out.println("Product created successfully with ID: " + savedProduct.getId());
             
@@ -172,6 +214,96 @@ public class VendorApiController {
         }
     }
 
+    /**
+     * Import products from a CSV (text/csv, header row required) or NDJSON
+     * (application/x-ndjson) request body with the columns name, price,
+     * description, image, category and stock. The body is streamed, not
+     * buffered; valid rows are imported and invalid ones listed in the report.
+     */
+    @PostMapping("/{vendorId}/products/import")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> importVendorProducts(
+            @PathVariable Long vendorId,
+            @RequestParam(required = false) String format,
+            HttpServletRequest request) {
+        try {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            ResponseEntity<ApiResponse<Map<String, Object>>> denied = vendorAccessDenied(auth);
+            if (denied != null) {
+                return denied;
+            }
+            Vendor vendor = resolveVendor(auth, vendorId);
+            if (vendor == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponse.error("Vendor account not found. Please register/login again."));
+            }
+
+            ProductImportService.Format importFormat =
+                    ProductImportService.Format.resolve(format, request.getContentType());
+            Map<String, Object> report = productImportService.importProducts(vendor, request.getInputStream(), importFormat);
+            return ResponseEntity.ok(ApiResponse.success("Imported " + report.get("imported") + " of "
+                    + report.get("rows") + " products", report));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            System.err.println("Error importing products: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to import products: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Apply price and stock changes to many of the vendor's products at once.
+     * Items that cannot be applied are listed in the report; the others are.
+     */
+    @PostMapping("/{vendorId}/products/bulk-update")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> bulkUpdateVendorProducts(
+            @PathVariable Long vendorId,
+            @RequestBody List<ProductBulkUpdateItem> updates) {
+        try {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            ResponseEntity<ApiResponse<Map<String, Object>>> denied = vendorAccessDenied(auth);
+            if (denied != null) {
+                return denied;
+            }
+            Vendor vendor = resolveVendor(auth, vendorId);
+            if (vendor == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponse.error("Vendor account not found. Please register/login again."));
+            }
+
+            Map<String, Object> report = productBulkUpdateService.applyUpdates(vendor.getId(), updates);
+            return ResponseEntity.ok(ApiResponse.success("Updated " + report.get("updated") + " of "
+                    + report.get("requested") + " products", report));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            System.err.println("Error updating products: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to update products: " + e.getMessage()));
+        }
+    }
+
+    // 401 or 403 response unless the caller is an authenticated vendor
+    private static <T> ResponseEntity<ApiResponse<T>> vendorAccessDenied(Authentication auth) {
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ApiResponse.error("User not authenticated"));
+        }
+        boolean isVendor = auth.getAuthorities() != null && auth.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_VENDOR".equals(a.getAuthority()));
+        if (!isVendor) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("Access denied. Vendor role required."));
+        }
+        return null;
+    }
+
+    // Same resolution as single product creation: the authenticated vendor, else the path's vendor
+    private Vendor resolveVendor(Authentication auth, Long vendorId) {
+        Vendor vendor = vendorService.findVendorByEmail(auth.getName());
+        return vendor != null ? vendor : vendorService.getVendorById(vendorId).orElse(null);
+    }
+
     // Update product for vendor
     @PutMapping("/{vendorId}/products/{productId}")
     public ResponseEntity<ApiResponse<Product>> updateVendorProduct(
@@ -184,6 +316,7 @@ public class VendorApiController {
             product.setVendor(vendor);
             product.setId(productId);
             Product updatedProduct = vendorService.addProduct(product); // This will update the product
+            imageVariantService.scheduleVariants(updatedProduct.getImage());
             
             // Calculate and set order count
             Long orderCount = orderItemRepo.countOrdersByProductId(updatedProduct.getId());
@@ -0,0 +1,34 @@
+package com.example.MealBasketSyatem.dto;
+
+/**
+ * One product's change in a bulk price/stock update. Fields left null are not
+ * changed; stock sets the stock level and stockDelta adjusts it (e.g. -3 for
+ * three units sold), so at most one of the two may be given.
+ */
+public class ProductBulkUpdateItem {
+    private Long productId;
+    private Double price;
+    private Integer stock;
+    private Integer stockDelta;
+
+    public ProductBulkUpdateItem() {}
+
+    public ProductBulkUpdateItem(Long productId, Double price, Integer stock, Integer stockDelta) {
+        this.productId = productId;
+        this.price = price;
+        this.stock = stock;
+        this.stockDelta = stockDelta;
+    }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+
+    public Integer getStockDelta() { return stockDelta; }
+    public void setStockDelta(Integer stockDelta) { this.stockDelta = stockDelta; }
+}
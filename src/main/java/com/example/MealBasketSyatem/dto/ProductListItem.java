@@ -0,0 +1,125 @@
+package com.example.MealBasketSyatem.dto;
+
+import com.example.MealBasketSyatem.entity.Product;
+
+/**
+ * What a catalog card shows of a product: no full description, and only the
+ * id and names of its vendor instead of the whole Vendor row.
+ *
+ * Database listings select these columns directly and fill in the vendor
+ * names with one query for all vendors on the page (ProductService); cached
+ * listings copy them from the cached entities.
+ */
+public class ProductListItem {
+
+    // Longest description excerpt, in characters, before it is cut with "..."
+    public static final int EXCERPT_LENGTH = 160;
+
+    private Long id;
+    private String name;
+    private double price;
+    private String description;
+    private String image;
+    private String category;
+    private int stock;
+    private Double rating;
+    private Integer reviewCount;
+    private VendorSummary vendor;
+
+    // Constructors
+    public ProductListItem() {}
+
+    // Used by repository projections; the vendor names are filled in afterwards
+    public ProductListItem(Long id, String name, double price, String description, String image, String category,
+                           int stock, Double rating, Integer reviewCount, Long vendorId) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.description = excerpt(description);
+        this.image = image;
+        this.category = category;
+        this.stock = stock;
+        this.rating = rating;
+        this.reviewCount = reviewCount;
+        this.vendor = vendorId != null ? new VendorSummary(vendorId, null, null) : null;
+    }
+
+    public static ProductListItem from(Product product) {
+        ProductListItem item = new ProductListItem(product.getId(), product.getName(), product.getPrice(),
+                product.getDescription(), product.getImage(), product.getCategory(), product.getStock(),
+                product.getRating(), product.getReviewCount(), null);
+        if (product.getVendor() != null) {
+            item.vendor = new VendorSummary(product.getVendor().getId(), product.getVendor().getName(),
+                    product.getVendor().getShopName());
+        }
+        return item;
+    }
+
+    public static String excerpt(String text) {
+        if (text == null || text.length() <= EXCERPT_LENGTH) {
+            return text;
+        }
+        return text.substring(0, EXCERPT_LENGTH - 3).stripTrailing() + "...";
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public double getPrice() { return price; }
+    public void setPrice(double price) { this.price = price; }
+
+    /**
+     * @return At most EXCERPT_LENGTH characters of the description
+     */
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getImage() { return image; }
+    public void setImage(String image) { this.image = image; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public int getStock() { return stock; }
+    public void setStock(int stock) { this.stock = stock; }
+
+    public Double getRating() { return rating; }
+    public void setRating(Double rating) { this.rating = rating; }
+
+    public Integer getReviewCount() { return reviewCount; }
+    public void setReviewCount(Integer reviewCount) { this.reviewCount = reviewCount; }
+
+    public VendorSummary getVendor() { return vendor; }
+    public void setVendor(VendorSummary vendor) { this.vendor = vendor; }
+
+    /**
+     * Vendor fields shown on a card, shaped like the Vendor entity so clients
+     * reading product.vendor.id or product.vendor.shopName work with either
+     */
+    public static class VendorSummary {
+        private Long id;
+        private String name;
+        private String shopName;
+
+        public VendorSummary() {}
+
+        public VendorSummary(Long id, String name, String shopName) {
+            this.id = id;
+            this.name = name;
+            this.shopName = shopName;
+        }
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getShopName() { return shopName; }
+        public void setShopName(String shopName) { this.shopName = shopName; }
+    }
+}
@@ -8,6 +8,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -15,7 +16,14 @@ import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
 
 @Entity
-@Table(name="products")
+// Composite (sort column, id) indexes back the keyset pagination in ProductRepo
+@Table(name="products", indexes = {
+		@Index(name="idx_products_price_id", columnList="price, id"),
+		@Index(name="idx_products_rating_id", columnList="rating, id"),
+		@Index(name="idx_products_vendor_id_id", columnList="vendor_id, id"),
+		@Index(name="idx_products_vendor_price_id", columnList="vendor_id, price, id"),
+		@Index(name="idx_products_vendor_rating_id", columnList="vendor_id, rating, id")
+})
 public class Product {
 
 	@Id
@@ -40,7 +48,8 @@ public class Product {
 	@Column(name="stock", nullable=false, columnDefinition="int default 0")
 	private int stock = 0;
 
-	@Column(name="rating", columnDefinition="decimal(3,2) default 0.00")
+	// Never null: keyset pagination by rating needs a value on every row
+	@Column(name="rating", nullable=false, columnDefinition="decimal(3,2) default 0.00")
 	private Double rating = 0.0;
 
 	@Column(name="total_ratings", columnDefinition="int default 0")
@@ -86,7 +95,7 @@ public class Product {
 	public void setOrderCount(Integer orderCount) { this.orderCount = orderCount; }
 
 	public Double getRating() { return rating; }
-	public void setRating(Double rating) { this.rating = rating; }
+	public void setRating(Double rating) { this.rating = rating != null ? rating : 0.0; }
 
 	public Integer getTotalRatings() { return totalRatings; }
 	public void setTotalRatings(Integer totalRatings) { this.totalRatings = totalRatings; }
@@ -44,6 +44,7 @@ public class SystemPerformance {
         
         switch (metricType) {
             case "RESPONSE_TIME":
+            case "RECOMMENDATION_LATENCY":
                 if (metricValue <= 200) status = "GOOD";
                 else if (metricValue <= 1000) status = "WARNING";
                 else status = "CRITICAL";
@@ -66,6 +67,7 @@ public class SystemPerformance {
     private void setDefaultThresholds() {
         switch (metricType) {
             case "RESPONSE_TIME":
+            case "RECOMMENDATION_LATENCY":
                 thresholdValue = 200.0;
                 break;
             case "ERROR_RATE":
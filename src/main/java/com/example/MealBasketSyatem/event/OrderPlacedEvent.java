@@ -0,0 +1,26 @@
+package com.example.MealBasketSyatem.event;
+
+import java.util.List;
+
+/**
+ * Published when a customer order and its items are created.
+ * Listeners receive it after the surrounding transaction commits.
+ */
+public class OrderPlacedEvent {
+
+    private final Long orderId;
+    private final Long userId;
+    private final List<Long> productIds;
+
+    public OrderPlacedEvent(Long orderId, Long userId, List<Long> productIds) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.productIds = productIds;
+    }
+
+    public Long getOrderId() { return orderId; }
+
+    public Long getUserId() { return userId; }
+
+    public List<Long> getProductIds() { return productIds; }
+}
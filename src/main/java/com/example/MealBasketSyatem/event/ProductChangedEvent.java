@@ -0,0 +1,22 @@
+package com.example.MealBasketSyatem.event;
+
+import java.util.List;
+
+/**
+ * Published when products are created, updated (price, stock, rating, details) or deleted.
+ * Listeners receive it after the surrounding transaction commits.
+ */
+public class ProductChangedEvent {
+
+    private final Long vendorId;
+    private final List<Long> productIds;
+
+    public ProductChangedEvent(Long vendorId, List<Long> productIds) {
+        this.vendorId = vendorId;
+        this.productIds = productIds;
+    }
+
+    public Long getVendorId() { return vendorId; }
+
+    public List<Long> getProductIds() { return productIds; }
+}
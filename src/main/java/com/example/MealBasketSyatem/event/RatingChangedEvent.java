@@ -0,0 +1,20 @@
+package com.example.MealBasketSyatem.event;
+
+/**
+ * Published when a user's review or rating for a product is added, updated or removed.
+ * Listeners receive it after the surrounding transaction commits.
+ */
+public class RatingChangedEvent {
+
+    private final Long userId;
+    private final Long productId;
+
+    public RatingChangedEvent(Long userId, Long productId) {
+        this.userId = userId;
+        this.productId = productId;
+    }
+
+    public Long getUserId() { return userId; }
+
+    public Long getProductId() { return productId; }
+}
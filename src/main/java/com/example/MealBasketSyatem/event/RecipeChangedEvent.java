@@ -0,0 +1,20 @@
+package com.example.MealBasketSyatem.event;
+
+/**
+ * Published when a recipe is created, updated or deactivated.
+ * Listeners receive it after the surrounding transaction commits.
+ */
+public class RecipeChangedEvent {
+
+    private final Long vendorId;
+    private final Long recipeId;
+
+    public RecipeChangedEvent(Long vendorId, Long recipeId) {
+        this.vendorId = vendorId;
+        this.recipeId = recipeId;
+    }
+
+    public Long getVendorId() { return vendorId; }
+
+    public Long getRecipeId() { return recipeId; }
+}
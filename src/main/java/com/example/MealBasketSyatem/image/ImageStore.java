@@ -0,0 +1,213 @@
+package com.example.MealBasketSyatem.image;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed image files on local disk.
+ *
+ * An image is stored once under the SHA-256 of its bytes, as
+ * {root}/{first two hex digits}/{hash}.{ext}, and referenced from products by
+ * its URL /api/images/{hash}.{ext}. Identical uploads share one file, and a file
+ * never changes once written, so clients may cache it forever and the hash
+ * doubles as its ETag. Files are written to a temporary name and moved into
+ * place, so readers never see a partial image.
+ *
+ * Only JPEG, PNG, GIF and WebP are accepted, recognised by their leading bytes
+ * rather than by a client-supplied content type. Resized variants are cached
+ * under {root}/variants (see ImageVariantService).
+ */
+@Component
+public class ImageStore {
+
+    public static final String URL_PREFIX = "/api/images/";
+
+    private static final Pattern FILE_NAME = Pattern.compile("[0-9a-f]{64}\\.(jpg|png|gif|webp)");
+
+    private final Path root;
+    private final int maxBytes;
+
+    public ImageStore(
+            @Value("${images.store.dir:data/images}") String root,
+            @Value("${images.store.max-bytes:5242880}") int maxBytes) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Store the image unless an identical one exists.
+     *
+     * @return The stored image's URL, e.g. /api/images/3a7b...e1.jpg
+     */
+    public String store(byte[] bytes) {
+        String url = urlOf(bytes);
+        String fileName = fileNameOf(url);
+        Path target = pathOf(fileName);
+        if (!Files.exists(target)) {
+            try {
+                Files.createDirectories(target.getParent());
+                Path temp = Files.createTempFile(target.getParent(), fileName, ".tmp");
+                try {
+                    Files.write(temp, bytes);
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Stored concurrently by another request; the content is identical
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to store image " + fileName, e);
+            }
+        }
+        return url;
+    }
+
+    /**
+     * Check the image and return the URL {@link #store(byte[])} would give it,
+     * without writing anything, e.g. to reference it before the referencing row
+     * is known to be saved.
+     */
+    public String urlOf(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            throw new IllegalArgumentException("Image is empty");
+        }
+        if (bytes.length > maxBytes) {
+            throw new IllegalArgumentException("Image is larger than " + maxBytes + " bytes");
+        }
+        String extension = detectExtension(bytes);
+        if (extension == null) {
+            throw new IllegalArgumentException("Unsupported image format; expected JPEG, PNG, GIF or WebP");
+        }
+        return URL_PREFIX + sha256(bytes) + "." + extension;
+    }
+
+    /**
+     * Store an inline data URL ("data:image/png;base64,...").
+     *
+     * @return The stored image's URL
+     */
+    public String storeDataUrl(String dataUrl) {
+        return store(decodeDataUrl(dataUrl));
+    }
+
+    /**
+     * @return The bytes of an inline data URL ("data:image/png;base64,...")
+     */
+    public static byte[] decodeDataUrl(String dataUrl) {
+        int comma = dataUrl.indexOf(',');
+        if (!isDataUrl(dataUrl) || comma < 0 || !dataUrl.substring(0, comma).endsWith(";base64")) {
+            throw new IllegalArgumentException("Not a base64 data URL");
+        }
+        return Base64.getMimeDecoder().decode(dataUrl.substring(comma + 1));
+    }
+
+    /**
+     * Replace an inline data URL with a reference to the stored image. URLs and
+     * references are returned unchanged.
+     */
+    public String externalize(String image) {
+        return isDataUrl(image) ? storeDataUrl(image) : image;
+    }
+
+    public static boolean isDataUrl(String image) {
+        return image != null && image.regionMatches(true, 0, "data:", 0, 5);
+    }
+
+    /**
+     * @param fileName {hash}.{ext} as it appears in the image URL
+     * @return The image file, or null if the name is not a stored image
+     */
+    public Path resolve(String fileName) {
+        if (fileName == null || !FILE_NAME.matcher(fileName).matches()) {
+            return null;
+        }
+        Path path = pathOf(fileName);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    /**
+     * @param fileName {hash}.{ext} of a stored image
+     * @return Where the variant of that image is cached, whether or not it exists yet
+     */
+    Path variantPath(String fileName, ImageVariant variant) {
+        String hash = fileName.substring(0, fileName.indexOf('.'));
+        return root.resolve("variants").resolve(variant.name().toLowerCase()).resolve(hash + ".jpg");
+    }
+
+    /**
+     * @return The {hash}.{ext} file name of a stored image URL, or null for other images
+     */
+    public static String fileNameOf(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith(URL_PREFIX)) {
+            return null;
+        }
+        String fileName = imageUrl.substring(URL_PREFIX.length());
+        return FILE_NAME.matcher(fileName).matches() ? fileName : null;
+    }
+
+    public static String contentType(String fileName) {
+        String extension = fileName.substring(fileName.lastIndexOf('.') + 1);
+        return "jpg".equals(extension) ? "image/jpeg" : "image/" + extension;
+    }
+
+    private Path pathOf(String fileName) {
+        return root.resolve(fileName.substring(0, 2)).resolve(fileName);
+    }
+
+    private static String detectExtension(byte[] b) {
+        if (b.length >= 3 && (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8 && (b[2] & 0xFF) == 0xFF) {
+            return "jpg";
+        }
+        if (b.length >= 8 && (b[0] & 0xFF) == 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G') {
+            return "png";
+        }
+        if (b.length >= 6 && b[0] == 'G' && b[1] == 'I' && b[2] == 'F' && b[3] == '8') {
+            return "gif";
+        }
+        if (b.length >= 12 && b[0] == 'R' && b[1] == 'I' && b[2] == 'F' && b[3] == 'F'
+                && b[8] == 'W' && b[9] == 'E' && b[10] == 'B' && b[11] == 'P') {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("root", root.toString());
+        stats.put("maxBytes", maxBytes);
+        long files = 0;
+        long bytes = 0;
+        if (Files.isDirectory(root)) {
+            try (var paths = Files.walk(root)) {
+                for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                    files++;
+                    bytes += Files.size(path);
+                }
+            } catch (IOException e) {
+                stats.put("error", e.getMessage());
+            }
+        }
+        stats.put("files", files);
+        stats.put("bytes", bytes);
+        return stats;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.MealBasketSyatem.image;
+
+/**
+ * Resized renditions of a stored image, by the longest side in pixels
+ */
+public enum ImageVariant {
+    // Cart lines, suggestions, order history
+    THUMB(160),
+    // Catalog grid cards
+    CARD(480),
+    // Product detail page
+    DETAIL(1080);
+
+    private final int maxDimension;
+
+    ImageVariant(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    /**
+     * Parse a request parameter such as "thumb", case-insensitively.
+     */
+    public static ImageVariant fromParam(String value) {
+        try {
+            return ImageVariant.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown image size: " + value + ", expected thumb, card or detail");
+        }
+    }
+
+    /**
+     * @return The smallest variant at least the given width, or null if the
+     *         original is needed
+     */
+    public static ImageVariant forWidth(int width) {
+        for (ImageVariant variant : values()) {
+            if (variant.maxDimension >= width) {
+                return variant;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.MealBasketSyatem.image;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Produces the thumb, card and detail variants of stored images.
+ *
+ * Variants are scaled down (never up) to the variant's longest side, flattened
+ * onto white and recompressed as JPEG, then cached on disk next to the original
+ * under its content hash, so each one is computed once per distinct image.
+ *
+ * Work runs on a small fixed pool with a bounded queue, separate from the Tomcat
+ * workers: product saves only enqueue a job, and when the queue is full the job
+ * is dropped and the variant is produced on its first request instead. At most
+ * one job per image is queued or running at a time.
+ */
+@Component
+public class ImageVariantService {
+
+    // 50 megapixels, about 200 MB decoded
+    private static final long MAX_SOURCE_PIXELS = 50_000_000L;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    private final boolean enabled;
+    private final float jpegQuality;
+    private final long requestTimeoutMillis;
+    private final ThreadPoolExecutor pool;
+
+    // fileName -> job generating its variants
+    private final ConcurrentHashMap<String, Future<?>> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public ImageVariantService(
+            @Value("${images.variants.enabled:true}") boolean enabled,
+            @Value("${images.variants.threads:2}") int threads,
+            @Value("${images.variants.queue-size:100}") int queueSize,
+            @Value("${images.variants.jpeg-quality:0.82}") float jpegQuality,
+            @Value("${images.variants.request-timeout-ms:2000}") long requestTimeoutMillis) {
+        this.enabled = enabled;
+        this.jpegQuality = Math.min(1.0f, Math.max(0.1f, jpegQuality));
+        this.requestTimeoutMillis = requestTimeoutMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Queue generation of all variants of a stored image. Other images (external
+     * URLs, nothing) are ignored.
+     */
+    public void scheduleVariants(String imageUrl) {
+        String fileName = ImageStore.fileNameOf(imageUrl);
+        if (enabled && fileName != null) {
+            submit(fileName);
+        }
+    }
+
+    /**
+     * Path of the variant, generating it if needed and waiting at most
+     * images.variants.request-timeout-ms for that.
+     *
+     * @return The variant file, or null if it is not available in time (serve the original)
+     */
+    public Path getVariant(String fileName, ImageVariant variant) {
+        Path path = imageStore.variantPath(fileName, variant);
+        if (Files.isRegularFile(path)) {
+            return path;
+        }
+        if (!enabled || imageStore.resolve(fileName) == null) {
+            return null;
+        }
+        Future<?> job = submit(fileName);
+        if (job != null) {
+            try {
+                job.get(requestTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    private Future<?> submit(String fileName) {
+        try {
+            return pending.computeIfAbsent(fileName, name -> pool.submit(() -> {
+                try {
+                    generate(name);
+                } finally {
+                    pending.remove(name);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            return null;
+        }
+    }
+
+    private void generate(String fileName) {
+        Path original = imageStore.resolve(fileName);
+        if (original == null) {
+            return;
+        }
+        try {
+            BufferedImage source = null;
+            for (ImageVariant variant : ImageVariant.values()) {
+                Path target = imageStore.variantPath(fileName, variant);
+                if (Files.isRegularFile(target)) {
+                    continue;
+                }
+                if (source == null) {
+                    source = read(original);
+                    if (source == null) {
+                        // No ImageIO reader for the format (e.g. WebP): the original is served
+                        return;
+                    }
+                }
+                writeJpeg(resize(source, variant.getMaxDimension()), target);
+                generated.incrementAndGet();
+            }
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            System.err.println("[ImageVariantService] Failed to create variants of " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    // Checks the header first so a small file declaring a huge canvas is never decoded
+    private static BufferedImage read(Path original) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_SOURCE_PIXELS) {
+                    throw new IOException("Image has " + pixels + " pixels, more than " + MAX_SOURCE_PIXELS);
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halve repeatedly, then one final bilinear step: close to area averaging at a fraction of the cost
+    private static BufferedImage resize(BufferedImage source, int maxDimension) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height);
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    // Opaque RGB copy at the given size; transparent areas become white
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try {
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("threads", pool.getMaximumPoolSize());
+        stats.put("active", pool.getActiveCount());
+        stats.put("queued", pool.getQueue().size());
+        stats.put("queueCapacity", pool.getQueue().size() + pool.getQueue().remainingCapacity());
+        stats.put("generated", generated.get());
+        stats.put("failed", failed.get());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.MealBasketSyatem.image;
+
+import com.example.MealBasketSyatem.entity.Product;
+import com.example.MealBasketSyatem.event.ProductChangedEvent;
+import com.example.MealBasketSyatem.repo.ProductRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves base64 data URL images out of the products.image column into the
+ * ImageStore, leaving only the image URL in the row.
+ *
+ * Candidate ids are selected without reading the image column, then products
+ * are converted in batches, one transaction per batch, so only one batch of
+ * payloads is in memory at a time. Each batch publishes ProductChangedEvents so
+ * the catalog cache drops the inline payloads too. Images that cannot be stored
+ * (unknown format, too large) are left inline and reported. Running it again
+ * only touches what is still inline.
+ */
+@Component
+public class InlineImageMigration {
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final boolean runOnStartup;
+    private final int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private volatile Map<String, Object> lastRun;
+
+    public InlineImageMigration(
+            @Value("${images.migration.run-on-startup:true}") boolean runOnStartup,
+            @Value("${images.migration.batch-size:50}") int batchSize) {
+        this.runOnStartup = runOnStartup;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!runOnStartup) {
+            return;
+        }
+        try {
+            migrate();
+        } catch (Exception e) {
+            System.err.println("[InlineImageMigration] Startup migration failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return Summary with the number of candidates, migrated and failed products
+     */
+    public Map<String, Object> migrate() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("An image migration is already running");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            List<Long> ids = productRepo.findIdsWithInlineImage();
+            int[] migrated = new int[1];
+            Map<Long, String> failures = new LinkedHashMap<>();
+
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+                transaction.executeWithoutResult(status -> {
+                    Map<Long, List<Long>> changedByVendor = new HashMap<>();
+                    for (Product product : productRepo.findAllById(batch)) {
+                        if (!ImageStore.isDataUrl(product.getImage())) {
+                            continue;
+                        }
+                        try {
+                            product.setImage(imageStore.storeDataUrl(product.getImage()));
+                        } catch (RuntimeException e) {
+                            failures.put(product.getId(), e.getMessage());
+                            continue;
+                        }
+                        Long vendorId = product.getVendor() != null ? product.getVendor().getId() : null;
+                        changedByVendor.computeIfAbsent(vendorId, id -> new ArrayList<>()).add(product.getId());
+                        migrated[0]++;
+                    }
+                    changedByVendor.forEach((vendorId, productIds) ->
+                            eventPublisher.publishEvent(new ProductChangedEvent(vendorId, productIds)));
+                });
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("candidates", ids.size());
+            result.put("migrated", migrated[0]);
+            result.put("failed", failures.size());
+            result.put("failures", failures);
+            result.put("millis", System.currentTimeMillis() - start);
+            result.put("finishedAt", LocalDateTime.now());
+            lastRun = result;
+            if (!ids.isEmpty()) {
+                System.out.println("[InlineImageMigration] Moved " + migrated[0] + " of " + ids.size()
+                        + " inline product images to the image store, " + failures.size() + " failed");
+            }
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Map<String, Object> getLastRun() {
+        return lastRun;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Trained matrix-factorisation model: latent factors for every user and product.
+ * A rating is predicted as the global mean plus the dot product of the two factor
+ * vectors. Ids are kept sorted so lookups are binary searches over primitive arrays.
+ *
+ * Snapshot layout (big-endian): magic, format version, model version, trained-at
+ * epoch millis, rank, global mean, user count, product count, user ids, product
+ * ids, user factors, product factors.
+ */
+public final class AlsModel {
+
+    private static final int MAGIC = 0x4D42414C; // "MBAL"
+    private static final int FORMAT_VERSION = 1;
+
+    private final long version;
+    private final long trainedAtMillis;
+    private final int rank;
+    private final float globalMean;
+    private final long[] userIds;
+    private final long[] productIds;
+    private final float[] userFactors;
+    private final float[] productFactors;
+
+    public AlsModel(long version, long trainedAtMillis, int rank, float globalMean,
+                    long[] userIds, long[] productIds, float[] userFactors, float[] productFactors) {
+        if (userFactors.length != userIds.length * rank || productFactors.length != productIds.length * rank) {
+            throw new IllegalArgumentException("Factor arrays do not match ids and rank");
+        }
+        this.version = version;
+        this.trainedAtMillis = trainedAtMillis;
+        this.rank = rank;
+        this.globalMean = globalMean;
+        this.userIds = userIds;
+        this.productIds = productIds;
+        this.userFactors = userFactors;
+        this.productFactors = productFactors;
+    }
+
+    /**
+     * @return Position of the user's factors, or a negative value if the user was not trained
+     */
+    public int userIndex(long userId) {
+        return Arrays.binarySearch(userIds, userId);
+    }
+
+    /**
+     * @return Position of the product's factors, or a negative value if the product was not trained
+     */
+    public int productIndex(long productId) {
+        return Arrays.binarySearch(productIds, productId);
+    }
+
+    /**
+     * Predicted rating of the product at productIndex for the user at userIndex
+     */
+    public double predict(int userIndex, int productIndex) {
+        int u = userIndex * rank;
+        int p = productIndex * rank;
+        double dot = 0.0;
+        for (int f = 0; f < rank; f++) {
+            dot += userFactors[u + f] * productFactors[p + f];
+        }
+        return globalMean + dot;
+    }
+
+    /**
+     * Write the model to a file. The file is first written next to the target and
+     * then moved into place so readers never observe a partial snapshot.
+     */
+    public void writeTo(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(version);
+            out.writeLong(trainedAtMillis);
+            out.writeInt(rank);
+            out.writeFloat(globalMean);
+            out.writeInt(userIds.length);
+            out.writeInt(productIds.length);
+            for (long id : userIds) {
+                out.writeLong(id);
+            }
+            for (long id : productIds) {
+                out.writeLong(id);
+            }
+            for (float value : userFactors) {
+                out.writeFloat(value);
+            }
+            for (float value : productFactors) {
+                out.writeFloat(value);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static AlsModel readFrom(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not an ALS model snapshot: " + file);
+            }
+            int formatVersion = in.readInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported ALS snapshot format " + formatVersion + ": " + file);
+            }
+            long version = in.readLong();
+            long trainedAtMillis = in.readLong();
+            int rank = in.readInt();
+            float globalMean = in.readFloat();
+            int userCount = in.readInt();
+            int productCount = in.readInt();
+
+            long[] userIds = new long[userCount];
+            for (int i = 0; i < userCount; i++) {
+                userIds[i] = in.readLong();
+            }
+            long[] productIds = new long[productCount];
+            for (int i = 0; i < productCount; i++) {
+                productIds[i] = in.readLong();
+            }
+            float[] userFactors = new float[userCount * rank];
+            for (int i = 0; i < userFactors.length; i++) {
+                userFactors[i] = in.readFloat();
+            }
+            float[] productFactors = new float[productCount * rank];
+            for (int i = 0; i < productFactors.length; i++) {
+                productFactors[i] = in.readFloat();
+            }
+            return new AlsModel(version, trainedAtMillis, rank, globalMean, userIds, productIds, userFactors, productFactors);
+        }
+    }
+
+    public long getVersion() { return version; }
+
+    public long getTrainedAtMillis() { return trainedAtMillis; }
+
+    public int getRank() { return rank; }
+
+    public float getGlobalMean() { return globalMean; }
+
+    public int getUserCount() { return userIds.length; }
+
+    public int getProductCount() { return productIds.length; }
+
+    public long productIdAt(int index) { return productIds[index]; }
+}
@@ -0,0 +1,416 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.BiPredicate;
+
+/**
+ * Trains latent user/product factors from review ratings with alternating least
+ * squares (ALS with weighted-lambda regularisation) and serves the latest model.
+ *
+ * Each half-step solves one small rank x rank system per user (or per product);
+ * those solves are independent and run across the recommendation fork-join pool.
+ * Every trained model is written as a versioned snapshot so a restart can serve
+ * recommendations before the next training run.
+ */
+@Component
+public class AlsTrainer {
+
+    private static final String SNAPSHOT_PREFIX = "als-model-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    // Users or products per fork-join task; each one is a rank x rank solve
+    private static final int SOLVES_PER_TASK = 32;
+
+    @Autowired
+    private RecommendationExecutor executor;
+
+    @Value("${recommendation.als.rank:16}")
+    private int rank;
+
+    @Value("${recommendation.als.iterations:10}")
+    private int iterations;
+
+    @Value("${recommendation.als.lambda:0.05}")
+    private double lambda;
+
+    @Value("${recommendation.als.snapshot-dir:data/recommendation/als}")
+    private String snapshotDir;
+
+    @Value("${recommendation.als.snapshots-to-keep:3}")
+    private int snapshotsToKeep;
+
+    private volatile AlsModel model;
+    // Rating matrix version the serving model was trained at; unknown for a loaded snapshot
+    private volatile long trainedMatrixVersion = -1;
+    private volatile long lastTrainingMillis;
+    private volatile EvaluationReport lastReport;
+
+    /**
+     * Serve the newest snapshot on disk until the first training run completes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadLatestSnapshot() {
+        try {
+            Path latest = listSnapshots().stream().reduce((first, second) -> second).orElse(null);
+            if (latest != null) {
+                model = AlsModel.readFrom(latest);
+                System.out.println("[AlsTrainer] Loaded snapshot " + latest.getFileName() + " (" + model.getUserCount()
+                        + " users, " + model.getProductCount() + " products)");
+            }
+        } catch (IOException e) {
+            System.err.println("[AlsTrainer] Could not load ALS snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Train a model on all ratings, make it the serving model and write its snapshot.
+     *
+     * @param userItemRatings userId -> (productId -> rating)
+     * @param matrixVersion Rating matrix version the ratings were read at
+     * @return The trained model
+     */
+    public synchronized AlsModel trainAndPublish(Map<Long, Map<Long, Double>> userItemRatings, long matrixVersion) {
+        long start = System.currentTimeMillis();
+        long version = model != null ? Math.max(model.getVersion() + 1, start) : start;
+
+        AlsModel trained = train(userItemRatings, version, (userId, productId) -> true);
+        model = trained;
+        trainedMatrixVersion = matrixVersion;
+        lastTrainingMillis = System.currentTimeMillis() - start;
+
+        try {
+            trained.writeTo(snapshotPath(version));
+            pruneSnapshots();
+        } catch (IOException e) {
+            System.err.println("[AlsTrainer] Could not write ALS snapshot: " + e.getMessage());
+        }
+
+        System.out.println("[AlsTrainer] " + LocalDateTime.now() + " - Trained rank-" + rank + " model v" + version + " on "
+                + trained.getUserCount() + " users and " + trained.getProductCount() + " products in "
+                + lastTrainingMillis + " ms");
+        return trained;
+    }
+
+    /**
+     * Offline comparison of ALS against the Bayesian weighted rating on a held-out
+     * 20% of the ratings. The split is a deterministic hash of (user, product).
+     * The baseline predicts each product's improved rating as computed from the
+     * product aggregates stored on the products table.
+     *
+     * @param userItemRatings userId -> (productId -> rating)
+     * @param improvedRatings productId -> Bayesian weighted rating
+     * @return RMSE of both strategies on the held-out ratings
+     */
+    public EvaluationReport evaluate(Map<Long, Map<Long, Double>> userItemRatings, Map<Long, Double> improvedRatings) {
+        long start = System.currentTimeMillis();
+        BiPredicate<Long, Long> inTestSet = (userId, productId) -> Math.floorMod(Objects.hash(userId, productId), 5) == 0;
+
+        AlsModel holdoutModel = train(userItemRatings, 0, (userId, productId) -> !inTestSet.test(userId, productId));
+
+        double alsError = 0.0;
+        double bayesianError = 0.0;
+        int testCount = 0;
+        int covered = 0;
+        for (Map.Entry<Long, Map<Long, Double>> row : userItemRatings.entrySet()) {
+            Long userId = row.getKey();
+            for (Map.Entry<Long, Double> rated : row.getValue().entrySet()) {
+                Long productId = rated.getKey();
+                if (!inTestSet.test(userId, productId)) {
+                    continue;
+                }
+                double actual = rated.getValue();
+
+                int u = holdoutModel.userIndex(userId);
+                int p = holdoutModel.productIndex(productId);
+                double alsPrediction = holdoutModel.getGlobalMean();
+                if (u >= 0 && p >= 0) {
+                    alsPrediction = clamp(holdoutModel.predict(u, p));
+                    covered++;
+                }
+                double bayesianPrediction = improvedRatings.getOrDefault(productId, (double) holdoutModel.getGlobalMean());
+
+                alsError += (alsPrediction - actual) * (alsPrediction - actual);
+                bayesianError += (bayesianPrediction - actual) * (bayesianPrediction - actual);
+                testCount++;
+            }
+        }
+
+        EvaluationReport report = new EvaluationReport();
+        report.setEvaluatedAt(LocalDateTime.now());
+        report.setTestRatings(testCount);
+        report.setCoveredByAls(covered);
+        report.setAlsRmse(testCount > 0 ? Math.sqrt(alsError / testCount) : null);
+        report.setBayesianRmse(testCount > 0 ? Math.sqrt(bayesianError / testCount) : null);
+        report.setRank(rank);
+        report.setIterations(iterations);
+        report.setLambda(lambda);
+        report.setDurationMillis(System.currentTimeMillis() - start);
+        lastReport = report;
+        return report;
+    }
+
+    /**
+     * Fit factors on the ratings accepted by the filter.
+     */
+    AlsModel train(Map<Long, Map<Long, Double>> userItemRatings, long version, BiPredicate<Long, Long> include) {
+        // Dense numbering of users and products by sorted id
+        TreeMap<Long, Map<Long, Double>> rows = new TreeMap<>();
+        TreeSet<Long> productSet = new TreeSet<>();
+        double sum = 0.0;
+        int count = 0;
+        for (Map.Entry<Long, Map<Long, Double>> row : userItemRatings.entrySet()) {
+            Map<Long, Double> kept = new HashMap<>();
+            for (Map.Entry<Long, Double> rated : row.getValue().entrySet()) {
+                if (include.test(row.getKey(), rated.getKey())) {
+                    kept.put(rated.getKey(), rated.getValue());
+                    productSet.add(rated.getKey());
+                    sum += rated.getValue();
+                    count++;
+                }
+            }
+            if (!kept.isEmpty()) {
+                rows.put(row.getKey(), kept);
+            }
+        }
+        float globalMean = count > 0 ? (float) (sum / count) : 0f;
+
+        long[] userIds = rows.keySet().stream().mapToLong(Long::longValue).toArray();
+        long[] productIds = productSet.stream().mapToLong(Long::longValue).toArray();
+        int userCount = userIds.length;
+        int productCount = productIds.length;
+
+        // Residual ratings (rating - mean) by user and, transposed, by product
+        int[][] userItems = new int[userCount][];
+        float[][] userValues = new float[userCount][];
+        int[] productSizes = new int[productCount];
+        int u = 0;
+        for (Map<Long, Double> row : rows.values()) {
+            int[] items = new int[row.size()];
+            float[] values = new float[row.size()];
+            int n = 0;
+            for (Map.Entry<Long, Double> rated : row.entrySet()) {
+                items[n] = Arrays.binarySearch(productIds, rated.getKey());
+                values[n] = (float) (rated.getValue() - globalMean);
+                productSizes[items[n]]++;
+                n++;
+            }
+            userItems[u] = items;
+            userValues[u] = values;
+            u++;
+        }
+        int[][] productUsers = new int[productCount][];
+        float[][] productValues = new float[productCount][];
+        for (int p = 0; p < productCount; p++) {
+            productUsers[p] = new int[productSizes[p]];
+            productValues[p] = new float[productSizes[p]];
+        }
+        int[] fill = new int[productCount];
+        for (int user = 0; user < userCount; user++) {
+            for (int n = 0; n < userItems[user].length; n++) {
+                int p = userItems[user][n];
+                productUsers[p][fill[p]] = user;
+                productValues[p][fill[p]] = userValues[user][n];
+                fill[p]++;
+            }
+        }
+
+        // Small deterministic initialisation
+        Random random = new Random(42);
+        float[] userFactors = new float[userCount * rank];
+        float[] productFactors = new float[productCount * rank];
+        for (int i = 0; i < productFactors.length; i++) {
+            productFactors[i] = (float) (random.nextGaussian() * 0.1);
+        }
+
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            solveHalfStep(userCount, userItems, userValues, productFactors, userFactors);
+            solveHalfStep(productCount, productUsers, productValues, userFactors, productFactors);
+        }
+
+        return new AlsModel(version, System.currentTimeMillis(), rank, globalMean,
+                userIds, productIds, userFactors, productFactors);
+    }
+
+    /**
+     * Solve (Fᵀ F + λ n I) x = Fᵀ r for every row, where F holds the fixed factors
+     * of the row's rated entries, writing x into the target factors.
+     */
+    private void solveHalfStep(int rowCount, int[][] indices, float[][] values, float[] fixed, float[] target) {
+        executor.forEachRange(rowCount, SOLVES_PER_TASK, (from, to) -> {
+            double[] a = new double[rank * rank];
+            double[] b = new double[rank];
+            for (int row = from; row < to; row++) {
+                Arrays.fill(a, 0.0);
+                Arrays.fill(b, 0.0);
+                int[] cols = indices[row];
+                float[] ratings = values[row];
+                for (int n = 0; n < cols.length; n++) {
+                    int offset = cols[n] * rank;
+                    for (int i = 0; i < rank; i++) {
+                        double fi = fixed[offset + i];
+                        b[i] += fi * ratings[n];
+                        for (int j = 0; j <= i; j++) {
+                            a[i * rank + j] += fi * fixed[offset + j];
+                        }
+                    }
+                }
+                double regularisation = lambda * Math.max(1, cols.length);
+                for (int i = 0; i < rank; i++) {
+                    a[i * rank + i] += regularisation;
+                }
+                choleskySolve(a, b, rank);
+                int offset = row * rank;
+                for (int i = 0; i < rank; i++) {
+                    target[offset + i] = (float) b[i];
+                }
+            }
+        });
+    }
+
+    /**
+     * Solve A x = b in place for a symmetric positive definite A whose lower
+     * triangle is filled. The solution is left in b.
+     */
+    static void choleskySolve(double[] a, double[] b, int n) {
+        for (int j = 0; j < n; j++) {
+            double diagonal = a[j * n + j];
+            for (int k = 0; k < j; k++) {
+                diagonal -= a[j * n + k] * a[j * n + k];
+            }
+            diagonal = Math.sqrt(Math.max(diagonal, 1e-12));
+            a[j * n + j] = diagonal;
+            for (int i = j + 1; i < n; i++) {
+                double value = a[i * n + j];
+                for (int k = 0; k < j; k++) {
+                    value -= a[i * n + k] * a[j * n + k];
+                }
+                a[i * n + j] = value / diagonal;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            double value = b[i];
+            for (int k = 0; k < i; k++) {
+                value -= a[i * n + k] * b[k];
+            }
+            b[i] = value / a[i * n + i];
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double value = b[i];
+            for (int k = i + 1; k < n; k++) {
+                value -= a[k * n + i] * b[k];
+            }
+            b[i] = value / a[i * n + i];
+        }
+    }
+
+    static double clamp(double rating) {
+        return Math.max(1.0, Math.min(5.0, rating));
+    }
+
+    private Path snapshotPath(long version) {
+        return Paths.get(snapshotDir).resolve(SNAPSHOT_PREFIX + version + SNAPSHOT_SUFFIX);
+    }
+
+    // Snapshots ordered oldest first
+    private List<Path> listSnapshots() throws IOException {
+        Path dir = Paths.get(snapshotDir);
+        List<Path> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return snapshots;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+            stream.forEach(snapshots::add);
+        }
+        snapshots.sort(Comparator.comparingLong(AlsTrainer::snapshotVersion));
+        return snapshots;
+    }
+
+    private static long snapshotVersion(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void pruneSnapshots() throws IOException {
+        List<Path> snapshots = listSnapshots();
+        for (int i = 0; i < snapshots.size() - Math.max(1, snapshotsToKeep); i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+    }
+
+    /**
+     * @return The serving model, or null before the first training run or snapshot load
+     */
+    public AlsModel getModel() {
+        return model;
+    }
+
+    public long getTrainedMatrixVersion() {
+        return trainedMatrixVersion;
+    }
+
+    public long getLastTrainingMillis() {
+        return lastTrainingMillis;
+    }
+
+    public EvaluationReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Result of an offline RMSE comparison between ALS and the Bayesian weighted rating
+     */
+    public static class EvaluationReport {
+        private LocalDateTime evaluatedAt;
+        private int testRatings;
+        private int coveredByAls;
+        private Double alsRmse;
+        private Double bayesianRmse;
+        private int rank;
+        private int iterations;
+        private double lambda;
+        private long durationMillis;
+
+        public LocalDateTime getEvaluatedAt() { return evaluatedAt; }
+        public void setEvaluatedAt(LocalDateTime evaluatedAt) { this.evaluatedAt = evaluatedAt; }
+
+        public int getTestRatings() { return testRatings; }
+        public void setTestRatings(int testRatings) { this.testRatings = testRatings; }
+
+        public int getCoveredByAls() { return coveredByAls; }
+        public void setCoveredByAls(int coveredByAls) { this.coveredByAls = coveredByAls; }
+
+        public Double getAlsRmse() { return alsRmse; }
+        public void setAlsRmse(Double alsRmse) { this.alsRmse = alsRmse; }
+
+        public Double getBayesianRmse() { return bayesianRmse; }
+        public void setBayesianRmse(Double bayesianRmse) { this.bayesianRmse = bayesianRmse; }
+
+        public int getRank() { return rank; }
+        public void setRank(int rank) { this.rank = rank; }
+
+        public int getIterations() { return iterations; }
+        public void setIterations(int iterations) { this.iterations = iterations; }
+
+        public double getLambda() { return lambda; }
+        public void setLambda(double lambda) { this.lambda = lambda; }
+
+        public long getDurationMillis() { return durationMillis; }
+        public void setDurationMillis(long durationMillis) { this.durationMillis = durationMillis; }
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import com.example.MealBasketSyatem.entity.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Precomputed "trending" and "top rated" rankings for every product category and
+ * for the whole catalog.
+ *
+ * Top rated orders products by the Bayesian weighted rating. Trending scores a
+ * product as log(1 + units sold in the velocity window) x weighted rating, so a
+ * burst of orders for a poorly rated product does not outrank steady sellers
+ * with good reviews; products without recent orders score 0 and fall back to
+ * rating order. Each board is an immutable array of entries that carries the
+ * product details needed for display, so reads never touch the database. All
+ * boards are replaced together on rebuild (see RecommendationService).
+ */
+@Component
+public class CategoryLeaderboards {
+
+    // Ties by recent sales, then by product id
+    private static final Comparator<Entry> TOP_RATED_ORDER = Comparator
+            .comparingDouble(Entry::getWeightedRating).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::getRecentUnitsSold).reversed())
+            .thenComparingLong(Entry::getProductId);
+
+    private static final Comparator<Entry> TRENDING_ORDER = Comparator
+            .comparingDouble(Entry::getScore).reversed()
+            .thenComparing(TOP_RATED_ORDER);
+
+    private static final Leaderboards EMPTY = new Leaderboards(Collections.emptyMap(), Collections.emptyMap(),
+            new Entry[0], new Entry[0], Collections.emptyList());
+
+    private final int boardSize;
+
+    private volatile Leaderboards leaderboards = EMPTY;
+
+    private volatile boolean built = false;
+    private volatile LocalDateTime lastRebuiltAt;
+    private volatile long lastRebuildMillis;
+
+    public CategoryLeaderboards(@Value("${recommendation.leaderboards.size:100}") int boardSize) {
+        this.boardSize = Math.max(1, boardSize);
+    }
+
+    /**
+     * Rank the catalog and swap in the new boards.
+     *
+     * @param products The product catalog
+     * @param improvedRatings Bayesian weighted rating per product
+     * @param defaultRating Rating for products without one, normally the global average
+     * @param recentUnitsSold Units ordered per product within the velocity window
+     */
+    public synchronized void rebuild(
+            Collection<Product> products,
+            Map<Long, Double> improvedRatings,
+            double defaultRating,
+            Map<Long, Long> recentUnitsSold) {
+        long start = System.currentTimeMillis();
+
+        Map<String, List<Entry>> byCategory = new HashMap<>();
+        Map<String, String> categoryNames = new TreeMap<>();
+        List<Entry> all = new ArrayList<>(products.size());
+        for (Product product : products) {
+            double weightedRating = improvedRatings.getOrDefault(product.getId(), defaultRating);
+            long unitsSold = recentUnitsSold.getOrDefault(product.getId(), 0L);
+            Entry entry = new Entry(product, weightedRating, unitsSold, Math.log1p(unitsSold) * weightedRating);
+            all.add(entry);
+
+            String key = categoryKey(product.getCategory());
+            if (key != null) {
+                byCategory.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+                categoryNames.putIfAbsent(key, product.getCategory().trim());
+            }
+        }
+
+        Map<String, Entry[]> trending = new HashMap<>();
+        Map<String, Entry[]> topRated = new HashMap<>();
+        for (Map.Entry<String, List<Entry>> category : byCategory.entrySet()) {
+            trending.put(category.getKey(), rank(category.getValue(), TRENDING_ORDER));
+            topRated.put(category.getKey(), rank(category.getValue(), TOP_RATED_ORDER));
+        }
+        leaderboards = new Leaderboards(trending, topRated, rank(all, TRENDING_ORDER), rank(all, TOP_RATED_ORDER),
+                Collections.unmodifiableList(new ArrayList<>(categoryNames.values())));
+
+        built = true;
+        lastRebuiltAt = LocalDateTime.now();
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        System.out.println("[CategoryLeaderboards] " + lastRebuiltAt + " - Ranked " + all.size() + " products in "
+                + byCategory.size() + " categories in " + lastRebuildMillis + " ms");
+    }
+
+    /**
+     * @param category Category name (case-insensitive), or null for the whole catalog
+     * @param type Ranking to read
+     * @param limit Maximum number of entries
+     * @return The best entries, highest first; empty for unknown categories
+     */
+    public List<Entry> top(String category, LeaderboardType type, int limit) {
+        Leaderboards current = leaderboards;
+        Entry[] board;
+        if (category == null || category.isBlank()) {
+            board = type == LeaderboardType.TOP_RATED ? current.allTopRated : current.allTrending;
+        } else {
+            Map<String, Entry[]> boards = type == LeaderboardType.TOP_RATED ? current.topRated : current.trending;
+            board = boards.get(categoryKey(category));
+        }
+        if (board == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(board).subList(0, Math.min(limit, board.length)));
+    }
+
+    /**
+     * @return Category names with a leaderboard, in alphabetical order
+     */
+    public List<String> getCategories() {
+        return leaderboards.categories;
+    }
+
+    private Entry[] rank(List<Entry> entries, Comparator<Entry> order) {
+        Entry[] ranked = entries.toArray(new Entry[0]);
+        Arrays.sort(ranked, order);
+        return ranked.length > boardSize ? Arrays.copyOf(ranked, boardSize) : ranked;
+    }
+
+    private static String categoryKey(String category) {
+        if (category == null || category.isBlank()) {
+            return null;
+        }
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public LocalDateTime getLastRebuiltAt() {
+        return lastRebuiltAt;
+    }
+
+    public long getLastRebuildMillis() {
+        return lastRebuildMillis;
+    }
+
+    // One consistent set of boards, swapped as a whole
+    private static final class Leaderboards {
+        private final Map<String, Entry[]> trending;
+        private final Map<String, Entry[]> topRated;
+        private final Entry[] allTrending;
+        private final Entry[] allTopRated;
+        private final List<String> categories;
+
+        private Leaderboards(Map<String, Entry[]> trending, Map<String, Entry[]> topRated,
+                             Entry[] allTrending, Entry[] allTopRated, List<String> categories) {
+            this.trending = trending;
+            this.topRated = topRated;
+            this.allTrending = allTrending;
+            this.allTopRated = allTopRated;
+            this.categories = categories;
+        }
+    }
+
+    /**
+     * A ranked product with the details shown on listings
+     */
+    public static final class Entry {
+        private final long productId;
+        private final String productName;
+        private final String category;
+        private final double price;
+        private final String image;
+        private final Integer reviewCount;
+        private final double weightedRating;
+        private final long recentUnitsSold;
+        private final double score;
+
+        private Entry(Product product, double weightedRating, long recentUnitsSold, double score) {
+            this.productId = product.getId();
+            this.productName = product.getName();
+            this.category = product.getCategory();
+            this.price = product.getPrice();
+            this.image = product.getImage();
+            this.reviewCount = product.getReviewCount();
+            this.weightedRating = weightedRating;
+            this.recentUnitsSold = recentUnitsSold;
+            this.score = score;
+        }
+
+        public long getProductId() {
+            return productId;
+        }
+
+        public String getProductName() {
+            return productName;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public String getImage() {
+            return image;
+        }
+
+        public Integer getReviewCount() {
+            return reviewCount;
+        }
+
+        public double getWeightedRating() {
+            return weightedRating;
+        }
+
+        public long getRecentUnitsSold() {
+            return recentUnitsSold;
+        }
+
+        /**
+         * @return Trending score, log(1 + recent units sold) x weighted rating
+         */
+        public double getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import com.example.MealBasketSyatem.event.OrderPlacedEvent;
+import com.example.MealBasketSyatem.repo.OrderItemRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * "Frequently bought together" counts: for every pair of products, the number of
+ * orders that contained both.
+ *
+ * Each product keeps a row of partner product id -> co-occurrence count in a
+ * primitive LongIntHashMap, so a lookup touches one row and a TopK heap. Rows are
+ * stored for both products of a pair, trading memory for constant-time lookup.
+ *
+ * The index is filled by a backfill that streams historical order items (at
+ * startup and on demand), then kept current by folding in each order as its
+ * transaction commits. Orders placed while a backfill runs are buffered and
+ * replayed onto the rebuilt index if the stream did not already include them.
+ */
+@Component
+public class CoPurchaseIndex {
+
+    @Autowired
+    private OrderItemRepo orderItemRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final boolean enabled;
+    private final int maxBasketSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // productId -> (partner productId -> orders containing both); guarded by lock
+    private Map<Long, LongIntHashMap> partners = new HashMap<>();
+
+    // productId -> orders containing the product; guarded by lock
+    private LongIntHashMap orderCounts = new LongIntHashMap();
+
+    private long indexedOrders;
+
+    // Orders committed while a backfill streams; non-null only during a backfill, guarded by lock
+    private List<OrderPlacedEvent> placedDuringBackfill;
+
+    private final AtomicBoolean backfillRunning = new AtomicBoolean(false);
+
+    private volatile boolean built = false;
+    private volatile LocalDateTime lastBackfilledAt;
+    private volatile long lastBackfillMillis;
+
+    public CoPurchaseIndex(
+            @Value("${recommendation.bought-together.enabled:true}") boolean enabled,
+            @Value("${recommendation.bought-together.max-basket-size:50}") int maxBasketSize) {
+        this.enabled = enabled;
+        this.maxBasketSize = Math.max(2, maxBasketSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            backfill();
+        } catch (Exception e) {
+            System.err.println("[CoPurchaseIndex] Initial backfill failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fold a committed order into the index.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long[] basket = basket(event.getProductIds());
+        lock.writeLock().lock();
+        try {
+            if (placedDuringBackfill != null) {
+                placedDuringBackfill.add(event);
+            }
+            addBasket(partners, orderCounts, basket);
+            indexedOrders++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the index from all order items, streamed in order id order so only
+     * one basket is held in memory at a time. Lookups keep using the previous index
+     * until the rebuilt one is swapped in.
+     *
+     * @return Number of orders indexed
+     */
+    public long backfill() {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            throw new RuntimeException("A co-purchase backfill is already running");
+        }
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            placedDuringBackfill = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            Map<Long, LongIntHashMap> rebuiltPartners = new HashMap<>();
+            LongIntHashMap rebuiltCounts = new LongIntHashMap();
+            long[] streamed = new long[2]; // [orders, last order id]
+
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = orderItemRepo.streamOrderProductPairs()) {
+                    long currentOrderId = 0;
+                    List<Long> productIds = new ArrayList<>();
+                    Iterator<Object[]> iterator = rows.iterator();
+                    while (iterator.hasNext()) {
+                        Object[] row = iterator.next();
+                        long orderId = ((Number) row[0]).longValue();
+                        if (orderId != currentOrderId && !productIds.isEmpty()) {
+                            addBasket(rebuiltPartners, rebuiltCounts, basket(productIds));
+                            streamed[0]++;
+                            productIds.clear();
+                        }
+                        currentOrderId = orderId;
+                        if (row[1] != null) {
+                            productIds.add(((Number) row[1]).longValue());
+                        }
+                    }
+                    if (!productIds.isEmpty()) {
+                        addBasket(rebuiltPartners, rebuiltCounts, basket(productIds));
+                        streamed[0]++;
+                    }
+                    streamed[1] = currentOrderId;
+                }
+            });
+
+            lock.writeLock().lock();
+            try {
+                long orders = streamed[0];
+                // Order ids are increasing, so anything above the last streamed id was missed by the stream
+                for (OrderPlacedEvent event : placedDuringBackfill) {
+                    if (event.getOrderId() != null && event.getOrderId() > streamed[1]) {
+                        addBasket(rebuiltPartners, rebuiltCounts, basket(event.getProductIds()));
+                        orders++;
+                    }
+                }
+                partners = rebuiltPartners;
+                orderCounts = rebuiltCounts;
+                indexedOrders = orders;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            built = true;
+            lastBackfilledAt = LocalDateTime.now();
+            lastBackfillMillis = System.currentTimeMillis() - start;
+            System.out.println("[CoPurchaseIndex] " + lastBackfilledAt + " - Indexed " + indexedOrders + " orders covering "
+                    + rebuiltPartners.size() + " products in " + lastBackfillMillis + " ms");
+            return indexedOrders;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                placedDuringBackfill = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            backfillRunning.set(false);
+        }
+    }
+
+    /**
+     * Products most often ordered together with the given product, by descending
+     * co-occurrence count (ties by smaller id).
+     */
+    public List<Partner> topPartners(Long productId, int limit) {
+        if (productId == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        TopK topK = new TopK(limit);
+        int productOrders;
+        lock.readLock().lock();
+        try {
+            LongIntHashMap row = partners.get(productId);
+            if (row == null) {
+                return Collections.emptyList();
+            }
+            productOrders = orderCounts.get(productId);
+            row.forEach(topK::offer);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int count = topK.size();
+        long[] ids = new long[count];
+        double[] scores = new double[count];
+        topK.drainDescending(ids, scores);
+        List<Partner> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int together = (int) scores[i];
+            result.add(new Partner(ids[i], together, productOrders > 0 ? (double) together / productOrders : 0.0));
+        }
+        return result;
+    }
+
+    // Distinct product ids of an order, capped so one huge order cannot add a quadratic number of pairs
+    private long[] basket(Collection<Long> productIds) {
+        if (productIds == null) {
+            return new long[0];
+        }
+        Set<Long> distinct = new LinkedHashSet<>();
+        for (Long productId : productIds) {
+            if (productId != null && productId != 0) {
+                distinct.add(productId);
+                if (distinct.size() == maxBasketSize) {
+                    break;
+                }
+            }
+        }
+        long[] basket = new long[distinct.size()];
+        int i = 0;
+        for (Long productId : distinct) {
+            basket[i++] = productId;
+        }
+        return basket;
+    }
+
+    private static void addBasket(Map<Long, LongIntHashMap> partners, LongIntHashMap orderCounts, long[] basket) {
+        for (int i = 0; i < basket.length; i++) {
+            orderCounts.addTo(basket[i], 1);
+            if (basket.length < 2) {
+                continue;
+            }
+            LongIntHashMap row = partners.computeIfAbsent(basket[i], id -> new LongIntHashMap());
+            for (int j = 0; j < basket.length; j++) {
+                if (j != i) {
+                    row.addTo(basket[j], 1);
+                }
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    public boolean isBackfillRunning() {
+        return backfillRunning.get();
+    }
+
+    public long getIndexedOrders() {
+        lock.readLock().lock();
+        try {
+            return indexedOrders;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getProductCount() {
+        lock.readLock().lock();
+        try {
+            return partners.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of stored (product, partner) entries; each pair is stored twice
+     */
+    public long getPairEntryCount() {
+        lock.readLock().lock();
+        try {
+            long entries = 0;
+            for (LongIntHashMap row : partners.values()) {
+                entries += row.size();
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getMaxBasketSize() {
+        return maxBasketSize;
+    }
+
+    public LocalDateTime getLastBackfilledAt() {
+        return lastBackfilledAt;
+    }
+
+    public long getLastBackfillMillis() {
+        return lastBackfillMillis;
+    }
+
+    /**
+     * A product bought together with the queried one.
+     */
+    public static class Partner {
+        private final long productId;
+        private final int timesBoughtTogether;
+        private final double confidence;
+
+        public Partner(long productId, int timesBoughtTogether, double confidence) {
+            this.productId = productId;
+            this.timesBoughtTogether = timesBoughtTogether;
+            this.confidence = confidence;
+        }
+
+        public long getProductId() {
+            return productId;
+        }
+
+        /**
+         * @return Number of orders containing both products
+         */
+        public int getTimesBoughtTogether() {
+            return timesBoughtTogether;
+        }
+
+        /**
+         * @return Share of the queried product's orders that also contained this product
+         */
+        public double getConfidence() {
+            return confidence;
+        }
+    }
+}
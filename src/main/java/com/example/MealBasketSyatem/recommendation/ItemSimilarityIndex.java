@@ -0,0 +1,226 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Precomputed item-to-item cosine similarities over review ratings, holding the
+ * top-N most similar products of every product in compact primitive arrays.
+ *
+ * Sim(i,j) = Σ(R(u,i) * R(u,j)) / (sqrt(ΣR(u,i)^2) * sqrt(ΣR(u,j)^2))
+ *
+ * The catalog grows much more slowly than the user base, so this table stays
+ * small and an item-based prediction only needs the target user's own ratings.
+ */
+@Component
+public class ItemSimilarityIndex {
+
+    // Products per fork-join task during a rebuild
+    private static final int PRODUCTS_PER_TASK = 64;
+
+    @Autowired
+    private RecommendationExecutor executor;
+
+    private volatile Map<Long, ItemNeighbours> neighbours = Collections.emptyMap();
+    private volatile long matrixVersion = -1;
+    private volatile LocalDateTime lastRebuiltAt;
+    private volatile long lastRebuildMillis;
+
+    /**
+     * Recompute the similarity table from the rating matrix and swap it in.
+     *
+     * @param version Rating matrix version the ratings were read at
+     * @param userItemRatings userId -> (productId -> rating)
+     * @param topN Number of similar products to keep per product
+     */
+    public synchronized void rebuild(long version, Map<Long, Map<Long, Double>> userItemRatings, int topN) {
+        long start = System.currentTimeMillis();
+
+        // Dense product numbering: position in the sorted id array
+        long[] productIds = userItemRatings.values().stream()
+                .flatMap(row -> row.keySet().stream())
+                .mapToLong(Long::longValue)
+                .distinct()
+                .sorted()
+                .toArray();
+        int itemCount = productIds.length;
+
+        // User rows and their transpose (item postings) over dense indices
+        int[][] userItems = new int[userItemRatings.size()][];
+        double[][] userRatings = new double[userItemRatings.size()][];
+        int[] postingSizes = new int[itemCount];
+        int u = 0;
+        for (Map<Long, Double> row : userItemRatings.values()) {
+            if (u == userItems.length) {
+                break; // matrix grew while we were copying; the next rebuild picks it up
+            }
+            int[] items = new int[row.size()];
+            double[] ratings = new double[row.size()];
+            int n = 0;
+            for (Map.Entry<Long, Double> entry : row.entrySet()) {
+                int item = Arrays.binarySearch(productIds, entry.getKey());
+                if (item < 0 || n == items.length) {
+                    continue;
+                }
+                items[n] = item;
+                ratings[n] = entry.getValue();
+                postingSizes[item]++;
+                n++;
+            }
+            userItems[u] = Arrays.copyOf(items, n);
+            userRatings[u] = Arrays.copyOf(ratings, n);
+            u++;
+        }
+        int userCount = u;
+
+        int[][] postingUsers = new int[itemCount][];
+        double[][] postingRatings = new double[itemCount][];
+        for (int i = 0; i < itemCount; i++) {
+            postingUsers[i] = new int[postingSizes[i]];
+            postingRatings[i] = new double[postingSizes[i]];
+        }
+        int[] fill = new int[itemCount];
+        double[] norms = new double[itemCount];
+        for (int user = 0; user < userCount; user++) {
+            for (int n = 0; n < userItems[user].length; n++) {
+                int item = userItems[user][n];
+                if (fill[item] == postingUsers[item].length) {
+                    continue;
+                }
+                postingUsers[item][fill[item]] = user;
+                postingRatings[item][fill[item]] = userRatings[user][n];
+                fill[item]++;
+                norms[item] += userRatings[user][n] * userRatings[user][n];
+            }
+        }
+        for (int i = 0; i < itemCount; i++) {
+            norms[i] = Math.sqrt(norms[i]);
+        }
+
+        ItemNeighbours[] computed = new ItemNeighbours[itemCount];
+        executor.forEachRange(itemCount, PRODUCTS_PER_TASK, (from, to) -> {
+            // Dense accumulator reused across the products of this range
+            double[] dots = new double[itemCount];
+            int[] touched = new int[itemCount];
+            int[] stamp = new int[itemCount];
+            TopK topK = new TopK(topN);
+
+            for (int i = from; i < to; i++) {
+                int touchedCount = 0;
+                for (int p = 0; p < fill[i]; p++) {
+                    int user = postingUsers[i][p];
+                    double rating = postingRatings[i][p];
+                    int[] items = userItems[user];
+                    double[] ratings = userRatings[user];
+                    for (int n = 0; n < items.length; n++) {
+                        int j = items[n];
+                        if (j == i) {
+                            continue;
+                        }
+                        if (stamp[j] != i + 1) {
+                            stamp[j] = i + 1;
+                            dots[j] = 0.0;
+                            touched[touchedCount++] = j;
+                        }
+                        dots[j] += rating * ratings[n];
+                    }
+                }
+
+                topK.clear();
+                for (int t = 0; t < touchedCount; t++) {
+                    int j = touched[t];
+                    double denominator = norms[i] * norms[j];
+                    if (denominator > 0) {
+                        double similarity = dots[j] / denominator;
+                        if (similarity > 0) {
+                            topK.offer(productIds[j], similarity);
+                        }
+                    }
+                }
+                computed[i] = ItemNeighbours.drain(topK);
+            }
+        });
+
+        Map<Long, ItemNeighbours> rebuilt = new HashMap<>(itemCount * 2);
+        for (int i = 0; i < itemCount; i++) {
+            rebuilt.put(productIds[i], computed[i]);
+        }
+
+        this.neighbours = rebuilt;
+        this.matrixVersion = version;
+        this.lastRebuiltAt = LocalDateTime.now();
+        this.lastRebuildMillis = System.currentTimeMillis() - start;
+
+        System.out.println("[ItemSimilarityIndex] " + lastRebuiltAt + " - Rebuilt top-" + topN + " similar products for "
+                + itemCount + " products in " + lastRebuildMillis + " ms");
+    }
+
+    /**
+     * @return The product's most similar products, or null if it has no ratings
+     */
+    public ItemNeighbours get(Long productId) {
+        return neighbours.get(productId);
+    }
+
+    public boolean isBuilt() {
+        return lastRebuiltAt != null;
+    }
+
+    public int getProductCount() {
+        return neighbours.size();
+    }
+
+    public long getMatrixVersion() {
+        return matrixVersion;
+    }
+
+    public LocalDateTime getLastRebuiltAt() {
+        return lastRebuiltAt;
+    }
+
+    public long getLastRebuildMillis() {
+        return lastRebuildMillis;
+    }
+
+    /**
+     * Similar product ids with single-precision similarities, most similar first
+     */
+    public static final class ItemNeighbours {
+        private final long[] productIds;
+        private final float[] similarities;
+
+        ItemNeighbours(long[] productIds, float[] similarities) {
+            this.productIds = productIds;
+            this.similarities = similarities;
+        }
+
+        static ItemNeighbours drain(TopK topK) {
+            long[] ids = new long[topK.size()];
+            double[] scores = new double[topK.size()];
+            topK.drainDescending(ids, scores);
+            float[] similarities = new float[scores.length];
+            for (int i = 0; i < scores.length; i++) {
+                similarities[i] = (float) scores[i];
+            }
+            return new ItemNeighbours(ids, similarities);
+        }
+
+        public int size() {
+            return productIds.length;
+        }
+
+        public long productIdAt(int index) {
+            return productIds[index];
+        }
+
+        public float similarityAt(int index) {
+            return similarities[index];
+        }
+    }
+}
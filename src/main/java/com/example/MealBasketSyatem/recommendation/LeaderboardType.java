@@ -0,0 +1,25 @@
+package com.example.MealBasketSyatem.recommendation;
+
+/**
+ * Ranking used by a category leaderboard
+ */
+public enum LeaderboardType {
+    // Recent order velocity weighted by the Bayesian weighted rating
+    TRENDING,
+    // Bayesian weighted rating alone
+    TOP_RATED;
+
+    /**
+     * Parse a request parameter such as "trending" or "top-rated", case-insensitively.
+     */
+    public static LeaderboardType fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return TRENDING;
+        }
+        try {
+            return LeaderboardType.valueOf(value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown leaderboard type: " + value);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import com.example.MealBasketSyatem.event.RatingChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Locality-sensitive hashing over the set of products each user has rated.
+ *
+ * Every user gets a MinHash signature of bands x rows values; two users land in
+ * the same bucket of a band when all rows of that band agree, which happens with
+ * probability J^rows for Jaccard similarity J. A user is a candidate neighbour if
+ * it shares a bucket in at least one band, so only those users need an exact
+ * cosine. More bands raise recall, more rows per band cut the candidate count.
+ * Buckets of very common product sets (e.g. users who only rated a best seller)
+ * can hold a large share of all users, so a lookup scans at most
+ * recommendation.lsh.max-bucket-scan users of each bucket, smallest buckets first.
+ *
+ * Signatures are kept current by re-hashing a user's row whenever one of their
+ * reviews changes; a periodic full rebuild (see RecommendationService) covers
+ * wholesale reloads of the rating matrix.
+ */
+@Component
+public class MinHashLshIndex {
+
+    // Users per fork-join task while computing signatures in a full rebuild
+    private static final int USERS_PER_TASK = 256;
+
+    @Autowired
+    private RatingMatrix ratingMatrix;
+
+    @Autowired
+    private RecommendationExecutor executor;
+
+    private final boolean enabled;
+    private final int bands;
+    private final int rows;
+    private final int minUsers;
+    private final int maxCandidates;
+    private final int maxBucketScan;
+    private final long[] seeds;
+
+    // userId -> signature of bands * rows hash minima
+    private volatile Map<Long, int[]> signatures = new ConcurrentHashMap<>();
+
+    // One bucket table per band: band key -> users; replaced as a whole on rebuild
+    private volatile Map<Long, Set<Long>>[] buckets;
+
+    private volatile boolean built = false;
+    private volatile LocalDateTime lastRebuiltAt;
+    private volatile long lastRebuildMillis;
+
+    public MinHashLshIndex(
+            @Value("${recommendation.lsh.enabled:true}") boolean enabled,
+            @Value("${recommendation.lsh.bands:32}") int bands,
+            @Value("${recommendation.lsh.rows-per-band:4}") int rows,
+            @Value("${recommendation.lsh.min-users:20000}") int minUsers,
+            @Value("${recommendation.lsh.max-candidates:5000}") int maxCandidates,
+            @Value("${recommendation.lsh.max-bucket-scan:1000}") int maxBucketScan) {
+        this.enabled = enabled;
+        this.bands = Math.max(1, bands);
+        this.rows = Math.max(1, rows);
+        this.minUsers = minUsers;
+        this.maxCandidates = Math.max(1, maxCandidates);
+        this.maxBucketScan = Math.max(1, maxBucketScan);
+
+        Random random = new Random(0x5EEDL);
+        this.seeds = new long[this.bands * this.rows];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+        this.buckets = newBuckets(this.bands);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Long, Set<Long>>[] newBuckets(int bands) {
+        Map<Long, Set<Long>>[] tables = new Map[bands];
+        for (int b = 0; b < bands; b++) {
+            tables[b] = new ConcurrentHashMap<>();
+        }
+        return tables;
+    }
+
+    /**
+     * @return Whether similarity scans should be restricted to LSH candidates
+     *         for a matrix of the given number of users
+     */
+    public boolean shouldUse(int userCount) {
+        return enabled && userCount >= minUsers;
+    }
+
+    /**
+     * Re-hash every user of the rating matrix and replace all buckets.
+     */
+    public synchronized void rebuild(Map<Long, Map<Long, Double>> userItemRatings) {
+        long start = System.currentTimeMillis();
+
+        Long[] userIds = userItemRatings.keySet().toArray(new Long[0]);
+        int[][] computed = new int[userIds.length][];
+        executor.forEachRange(userIds.length, USERS_PER_TASK, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                Map<Long, Double> row = userItemRatings.get(userIds[i]);
+                computed[i] = row != null ? signature(row.keySet()) : null;
+            }
+        });
+
+        // Fill new tables and swap them in, so lookups never see a half-built index
+        Map<Long, int[]> rebuiltSignatures = new ConcurrentHashMap<>(userIds.length * 2);
+        Map<Long, Set<Long>>[] rebuiltBuckets = newBuckets(bands);
+        for (int i = 0; i < userIds.length; i++) {
+            if (computed[i] != null) {
+                rebuiltSignatures.put(userIds[i], computed[i]);
+                addToBuckets(rebuiltBuckets, userIds[i], computed[i]);
+            }
+        }
+        signatures = rebuiltSignatures;
+        buckets = rebuiltBuckets;
+
+        built = true;
+        lastRebuiltAt = LocalDateTime.now();
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        System.out.println("[MinHashLshIndex] " + lastRebuiltAt + " - Hashed " + signatures.size() + " users into "
+                + bands + " bands of " + rows + " rows in " + lastRebuildMillis + " ms");
+    }
+
+    /**
+     * Re-hash the user whose review changed. Ordered after RatingMatrix so the
+     * user's row already reflects the change.
+     */
+    @Order(10)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRatingChanged(RatingChangedEvent event) {
+        if (!built) {
+            return;
+        }
+        Long userId = event.getUserId();
+        int[] previous = signatures.remove(userId);
+        if (previous != null) {
+            removeFromBuckets(buckets, userId, previous);
+        }
+        Map<Long, Double> row = ratingMatrix.getUserRatings(userId);
+        if (!row.isEmpty()) {
+            int[] signature = signature(row.keySet());
+            signatures.put(userId, signature);
+            addToBuckets(buckets, userId, signature);
+        }
+    }
+
+    /**
+     * Users sharing at least one band bucket with the given rated-product set,
+     * excluding the user, in ascending id order. When there are more than the
+     * configured maximum, the users sharing the most bands (the highest estimated
+     * Jaccard similarity) are kept. At most max-bucket-scan users of each bucket
+     * are looked at, so the work per lookup is bounded by bands x max-bucket-scan.
+     */
+    public List<Long> candidates(Long userId, Collection<Long> ratedProductIds) {
+        if (ratedProductIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int[] signature = signature(ratedProductIds);
+        Map<Long, Set<Long>>[] tables = buckets;
+        List<Set<Long>> matched = new ArrayList<>(bands);
+        for (int b = 0; b < bands; b++) {
+            Set<Long> bucket = tables[b].get(bandKey(signature, b));
+            if (bucket != null) {
+                matched.add(bucket);
+            }
+        }
+        // Small buckets are the most selective, so they are counted in full first
+        matched.sort(Comparator.comparingInt(Set::size));
+
+        Map<Long, Integer> sharedBands = new HashMap<>();
+        for (Set<Long> bucket : matched) {
+            int scanned = 0;
+            for (Long candidate : bucket) {
+                if (scanned++ == maxBucketScan) {
+                    break;
+                }
+                if (!candidate.equals(userId)) {
+                    sharedBands.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<Long> result = new ArrayList<>(sharedBands.keySet());
+        if (result.size() > maxCandidates) {
+            result.sort(Comparator.comparing((Long id) -> sharedBands.get(id)).reversed().thenComparing(id -> id));
+            result = new ArrayList<>(result.subList(0, maxCandidates));
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    int[] signature(Collection<Long> productIds) {
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (Long productId : productIds) {
+            long id = productId;
+            for (int h = 0; h < seeds.length; h++) {
+                int value = (int) (mix64(id ^ seeds[h]) >>> 33);
+                if (value < signature[h]) {
+                    signature[h] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private long bandKey(int[] signature, int band) {
+        long key = mix64(band + 1L);
+        for (int r = 0; r < rows; r++) {
+            key = mix64(key ^ signature[band * rows + r]);
+        }
+        return key;
+    }
+
+    private void addToBuckets(Map<Long, Set<Long>>[] tables, Long userId, int[] signature) {
+        for (int b = 0; b < bands; b++) {
+            tables[b].computeIfAbsent(bandKey(signature, b), key -> ConcurrentHashMap.newKeySet()).add(userId);
+        }
+    }
+
+    private void removeFromBuckets(Map<Long, Set<Long>>[] tables, Long userId, int[] signature) {
+        for (int b = 0; b < bands; b++) {
+            tables[b].computeIfPresent(bandKey(signature, b), (key, users) -> {
+                users.remove(userId);
+                return users.isEmpty() ? null : users;
+            });
+        }
+    }
+
+    // SplitMix64 finaliser
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    public int getUserCount() {
+        return signatures.size();
+    }
+
+    public int getBands() {
+        return bands;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getMinUsers() {
+        return minUsers;
+    }
+
+    public int getMaxCandidates() {
+        return maxCandidates;
+    }
+
+    public int getMaxBucketScan() {
+        return maxBucketScan;
+    }
+
+    public LocalDateTime getLastRebuiltAt() {
+        return lastRebuiltAt;
+    }
+
+    public long getLastRebuildMillis() {
+        return lastRebuildMillis;
+    }
+
+    /**
+     * @return Average number of users per non-empty bucket, a proxy for candidate set size
+     */
+    public double getAverageBucketSize() {
+        long users = 0;
+        long bucketCount = 0;
+        for (Map<Long, Set<Long>> band : buckets) {
+            for (Set<Long> bucket : band.values()) {
+                users += bucket.size();
+                bucketCount++;
+            }
+        }
+        return bucketCount > 0 ? (double) users / bucketCount : 0.0;
+    }
+}
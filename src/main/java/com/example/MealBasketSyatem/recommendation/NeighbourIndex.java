@@ -0,0 +1,154 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Precomputed top-K most similar users for every user in the rating matrix.
+ *
+ * The index is rebuilt in the background (see RecommendationService) and swapped
+ * in atomically, so requests only have to iterate K neighbours instead of
+ * comparing the target user against every other user.
+ */
+@Component
+public class NeighbourIndex {
+
+    // Users per fork-join task during a rebuild; each user is a full scan of the matrix
+    private static final int USERS_PER_TASK = 16;
+
+    @Autowired
+    private RecommendationExecutor executor;
+
+    private volatile Map<Long, Neighbours> neighbours = Collections.emptyMap();
+    private volatile long matrixVersion = -1;
+    private volatile int k;
+    private volatile LocalDateTime lastRebuiltAt;
+    private volatile long lastRebuildMillis;
+
+    /**
+     * Compute the K most similar users of every user and replace the current index.
+     *
+     * @param vectors Sparse rating vectors of all users
+     * @param k Number of neighbours to keep per user
+     */
+    public synchronized void rebuild(SparseUserVectors vectors, int k) {
+        long start = System.currentTimeMillis();
+
+        Neighbours[] computed = new Neighbours[vectors.size()];
+        executor.forEachRange(vectors.size(), USERS_PER_TASK, (from, to) -> {
+            TopK topK = new TopK(k);
+            for (int i = from; i < to; i++) {
+                computed[i] = computeNeighbours(vectors, i, topK);
+            }
+        });
+
+        Map<Long, Neighbours> rebuilt = new HashMap<>(vectors.size() * 2);
+        for (int i = 0; i < computed.length; i++) {
+            rebuilt.put(vectors.userIdAt(i), computed[i]);
+        }
+
+        publish(rebuilt, vectors.getVersion(), k, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Top-K neighbours of the user at the given position, most similar first.
+     * Only users with a positive similarity are kept.
+     */
+    public static Neighbours computeNeighbours(SparseUserVectors vectors, int index, TopK topK) {
+        topK.clear();
+        SparseRatingVector target = vectors.vectorAt(index);
+        for (int j = 0; j < vectors.size(); j++) {
+            if (j == index) {
+                continue;
+            }
+            double similarity = SparseRatingVector.cosine(target, vectors.vectorAt(j));
+            if (similarity > 0) {
+                topK.offer(vectors.userIdAt(j), similarity);
+            }
+        }
+
+        long[] ids = new long[topK.size()];
+        double[] similarities = new double[topK.size()];
+        topK.drainDescending(ids, similarities);
+        return new Neighbours(ids, similarities);
+    }
+
+    void publish(Map<Long, Neighbours> rebuilt, long version, int k, long durationMillis) {
+        this.neighbours = rebuilt;
+        this.matrixVersion = version;
+        this.k = k;
+        this.lastRebuiltAt = LocalDateTime.now();
+        this.lastRebuildMillis = durationMillis;
+
+        System.out.println("[NeighbourIndex] " + lastRebuiltAt + " - Rebuilt top-" + k + " neighbours for "
+                + rebuilt.size() + " users in " + durationMillis + " ms");
+    }
+
+    /**
+     * @return The user's neighbours, or null if the user was not in the last rebuild
+     */
+    public Neighbours get(Long userId) {
+        return neighbours.get(userId);
+    }
+
+    /**
+     * @return All neighbour lists of the last rebuild, keyed by user id
+     */
+    Map<Long, Neighbours> getAll() {
+        return neighbours;
+    }
+
+    public boolean isBuilt() {
+        return lastRebuiltAt != null;
+    }
+
+    public int getUserCount() {
+        return neighbours.size();
+    }
+
+    public long getMatrixVersion() {
+        return matrixVersion;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public LocalDateTime getLastRebuiltAt() {
+        return lastRebuiltAt;
+    }
+
+    public long getLastRebuildMillis() {
+        return lastRebuildMillis;
+    }
+
+    /**
+     * Neighbour user ids with their similarities, ordered most similar first
+     */
+    public static final class Neighbours {
+        private final long[] userIds;
+        private final double[] similarities;
+
+        public Neighbours(long[] userIds, double[] similarities) {
+            this.userIds = userIds;
+            this.similarities = similarities;
+        }
+
+        public int size() {
+            return userIds.length;
+        }
+
+        public long userIdAt(int index) {
+            return userIds[index];
+        }
+
+        public double similarityAt(int index) {
+            return similarities[index];
+        }
+    }
+}
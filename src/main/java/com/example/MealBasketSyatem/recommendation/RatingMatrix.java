@@ -0,0 +1,291 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import com.example.MealBasketSyatem.event.RatingChangedEvent;
+import com.example.MealBasketSyatem.repo.ProductRepo;
+import com.example.MealBasketSyatem.repository.ProductReviewRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Resident user-item rating matrix used by the recommendation engine.
+ *
+ * The matrix is loaded once when the application is ready (from a local snapshot
+ * when it is still current, see RecommendationSnapshotStore) and afterwards kept
+ * in step with the database by applying each committed review change, so a
+ * recommendation request never has to scan the review, user or product tables.
+ * Each user row is an immutable map that is swapped atomically on update, which
+ * lets readers iterate rows without locking; a reload builds new maps and swaps
+ * them in together.
+ */
+@Component
+public class RatingMatrix {
+
+    @Autowired
+    private ProductReviewRepository productReviewRepository;
+
+    @Autowired
+    private ProductRepo productRepository;
+
+    // Swapped as a whole on reload or restore, so readers never see a half-filled matrix
+    private volatile Contents contents = new Contents(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+
+    // Incremented on every change so derived structures know when to rebuild
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile boolean loaded = false;
+
+    /**
+     * Rebuild the whole matrix from the database.
+     */
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+
+        Map<Long, Map<Long, Double>> ratings = buildUserItemRatingMatrix(productReviewRepository.findAllRatingTriples());
+
+        List<ProductStats> stats = new ArrayList<>();
+        for (Object[] row : productRepository.findRatingStats()) {
+            stats.add(ProductStats.fromRow(row));
+        }
+
+        replace(ratings, stats);
+
+        System.out.println("[RatingMatrix] Loaded " + ratings.size() + " users and "
+                + stats.size() + " products in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Replace the whole matrix with previously captured contents, e.g. from a snapshot.
+     *
+     * @return The version of the restored matrix
+     */
+    public synchronized long restore(Map<Long, Map<Long, Double>> ratings, Collection<ProductStats> stats) {
+        replace(ratings, stats);
+        return version.get();
+    }
+
+    private void replace(Map<Long, Map<Long, Double>> ratings, Collection<ProductStats> stats) {
+        ConcurrentHashMap<Long, Map<Long, Double>> userItemRatings = new ConcurrentHashMap<>();
+        ratings.forEach((userId, row) -> userItemRatings.put(userId, Collections.unmodifiableMap(row)));
+        ConcurrentHashMap<Long, ProductStats> productStats = new ConcurrentHashMap<>();
+        for (ProductStats productStat : stats) {
+            productStats.put(productStat.getProductId(), productStat);
+        }
+        contents = new Contents(userItemRatings, productStats);
+        version.incrementAndGet();
+        loaded = true;
+    }
+
+    /**
+     * Copy the current matrix without any change applied part-way through.
+     *
+     * @param ratings Receives userId -> (productId -> rating); rows are shared, not copied
+     * @param stats Receives the product rating statistics
+     * @return The version the copy was taken at
+     */
+    public synchronized long copyTo(Map<Long, Map<Long, Double>> ratings, Collection<ProductStats> stats) {
+        Contents current = contents;
+        ratings.putAll(current.userItemRatings);
+        stats.addAll(current.productStats.values());
+        return version.get();
+    }
+
+    /**
+     * Checksum of cheap aggregates over the review and product rating columns.
+     * Any review insert, update or delete, or change to a product's rating
+     * statistics, changes the fingerprint, so a snapshot recorded with a
+     * different fingerprint no longer matches the database.
+     */
+    public long sourceFingerprint() {
+        CRC32 crc = new CRC32();
+        updateFingerprint(crc, productReviewRepository.findRatingFingerprint().get(0));
+        updateFingerprint(crc, productRepository.findRatingStatsFingerprint().get(0));
+        return crc.getValue();
+    }
+
+    /**
+     * Whether captured matrix contents agree with the aggregates behind
+     * {@link #sourceFingerprint()}. Changes reach the matrix only after they
+     * commit, so a copy can lag the database that the fingerprint was read from.
+     *
+     * @param ratings Contents filled by {@link #copyTo}
+     * @param stats Product statistics filled by {@link #copyTo}
+     */
+    public boolean matchesSource(Map<Long, Map<Long, Double>> ratings, Collection<ProductStats> stats) {
+        long ratingCount = 0;
+        double ratingSum = 0;
+        for (Map<Long, Double> row : ratings.values()) {
+            for (Double rating : row.values()) {
+                ratingCount++;
+                ratingSum += rating;
+            }
+        }
+        double productRatingSum = 0;
+        long totalRatingsSum = 0;
+        long reviewCountSum = 0;
+        for (ProductStats productStat : stats) {
+            productRatingSum += productStat.getRating() != null ? productStat.getRating() : 0;
+            totalRatingsSum += productStat.getTotalRatings() != null ? productStat.getTotalRatings() : 0;
+            reviewCountSum += productStat.getReviewCount() != null ? productStat.getReviewCount() : 0;
+        }
+
+        Object[] reviews = productReviewRepository.findRatingFingerprint().get(0);
+        Object[] products = productRepository.findRatingStatsFingerprint().get(0);
+        return sameAggregate(reviews[0], ratingCount) && sameAggregate(reviews[2], ratingSum)
+                && sameAggregate(products[0], stats.size()) && sameAggregate(products[1], productRatingSum)
+                && sameAggregate(products[2], totalRatingsSum) && sameAggregate(products[3], reviewCountSum);
+    }
+
+    // SUM over no values is null in SQL
+    private static boolean sameAggregate(Object value, double local) {
+        double source = value != null ? ((Number) value).doubleValue() : 0.0;
+        return String.format(Locale.ROOT, "%.4f", source).equals(String.format(Locale.ROOT, "%.4f", local));
+    }
+
+    private static void updateFingerprint(CRC32 crc, Object[] values) {
+        for (Object value : values) {
+            // Floating-point sums are rounded so the summation order of the database does not matter
+            String text = value instanceof Double || value instanceof Float || value instanceof BigDecimal
+                    ? String.format(Locale.ROOT, "%.4f", ((Number) value).doubleValue())
+                    : String.valueOf(value);
+            crc.update(text.getBytes(StandardCharsets.UTF_8));
+            crc.update('|');
+        }
+    }
+
+    /**
+     * Apply a committed review/rating change to the resident matrix.
+     * Only the affected user row and product statistics are re-read.
+     * Runs before other listeners, which read the updated row.
+     */
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRatingChanged(RatingChangedEvent event) {
+        if (!loaded) {
+            return;
+        }
+
+        Long userId = event.getUserId();
+        Long productId = event.getProductId();
+
+        Double rating = productReviewRepository.findByUserIdAndProductId(userId, productId)
+                .map(review -> review.getRating())
+                .orElse(null);
+
+        Contents current = contents;
+        current.userItemRatings.compute(userId, (id, row) -> {
+            Map<Long, Double> updated = row != null ? new HashMap<>(row) : new HashMap<>();
+            if (rating != null) {
+                updated.put(productId, rating);
+            } else {
+                updated.remove(productId);
+            }
+            return updated.isEmpty() ? null : Collections.unmodifiableMap(updated);
+        });
+
+        List<Object[]> rows = productRepository.findRatingStatsById(productId);
+        if (rows.isEmpty()) {
+            current.productStats.remove(productId);
+        } else {
+            current.productStats.put(productId, ProductStats.fromRow(rows.get(0)));
+        }
+
+        version.incrementAndGet();
+    }
+
+    /**
+     * Build user-item rating matrix from [userId, productId, rating] rows
+     *
+     * @param rows Review rating triples
+     * @return Map of userId -> (productId -> rating)
+     */
+    public static Map<Long, Map<Long, Double>> buildUserItemRatingMatrix(List<Object[]> rows) {
+        Map<Long, Map<Long, Double>> userItemRatings = new HashMap<>();
+
+        for (Object[] row : rows) {
+            Long userId = ((Number) row[0]).longValue();
+            Long productId = ((Number) row[1]).longValue();
+            Double rating = ((Number) row[2]).doubleValue();
+
+            userItemRatings
+                .computeIfAbsent(userId, k -> new HashMap<>())
+                .put(productId, rating);
+        }
+
+        return userItemRatings;
+    }
+
+    public Map<Long, Double> getUserRatings(Long userId) {
+        return contents.userItemRatings.getOrDefault(userId, Collections.emptyMap());
+    }
+
+    public Map<Long, Map<Long, Double>> getUserItemRatings() {
+        return Collections.unmodifiableMap(contents.userItemRatings);
+    }
+
+    public Collection<ProductStats> getProductStats() {
+        return Collections.unmodifiableCollection(contents.productStats.values());
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // userId -> (productId -> rating), and productId -> rating statistics used for the weighted (Bayesian) rating
+    private static final class Contents {
+        private final ConcurrentHashMap<Long, Map<Long, Double>> userItemRatings;
+        private final ConcurrentHashMap<Long, ProductStats> productStats;
+
+        private Contents(ConcurrentHashMap<Long, Map<Long, Double>> userItemRatings,
+                         ConcurrentHashMap<Long, ProductStats> productStats) {
+            this.userItemRatings = userItemRatings;
+            this.productStats = productStats;
+        }
+    }
+
+    /**
+     * Rating statistics of one product as stored on the products table
+     */
+    public static class ProductStats {
+        private final Long productId;
+        private final Double rating;
+        private final Integer totalRatings;
+        private final Integer reviewCount;
+
+        public ProductStats(Long productId, Double rating, Integer totalRatings, Integer reviewCount) {
+            this.productId = productId;
+            this.rating = rating;
+            this.totalRatings = totalRatings;
+            this.reviewCount = reviewCount;
+        }
+
+        static ProductStats fromRow(Object[] row) {
+            return new ProductStats(
+                ((Number) row[0]).longValue(),
+                row[1] != null ? ((Number) row[1]).doubleValue() : null,
+                row[2] != null ? ((Number) row[2]).intValue() : null,
+                row[3] != null ? ((Number) row[3]).intValue() : null
+            );
+        }
+
+        public Long getProductId() { return productId; }
+
+        public Double getRating() { return rating; }
+
+        public Integer getTotalRatings() { return totalRatings; }
+
+        public Integer getReviewCount() { return reviewCount; }
+    }
+}
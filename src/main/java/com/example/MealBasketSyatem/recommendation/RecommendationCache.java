@@ -0,0 +1,267 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import com.example.MealBasketSyatem.event.ProductChangedEvent;
+import com.example.MealBasketSyatem.event.RatingChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of computed recommendation lists keyed by (user, topN, mode).
+ *
+ * Entries are evicted least-recently-used once the cache is full and expire after
+ * a fixed time to live. A user's entries are dropped when that user's reviews
+ * change, and any entry listing a product is dropped when the product changes,
+ * using a reverse index from product id to the entries that contain it.
+ *
+ * A list computed while its user or one of its products was invalidated is not
+ * stored. Each invalidation stamps the user or products with a counter value,
+ * and a put is rejected only when a stamp newer than the counter value taken
+ * before computing applies to it, so changes elsewhere do not keep busy users
+ * from being cached.
+ *
+ * @param <V> Cached recommendation list type
+ */
+@Component
+public class RecommendationCache<V> {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Set<Key>> keysByUser = new HashMap<>();
+    private final Map<Long, Set<Key>> keysByProduct = new HashMap<>();
+
+    // Incremented on every invalidation; the value is the stamp of the invalidated users and products
+    private long invalidationEpoch;
+    private final Map<Long, Long> userStamps = new HashMap<>();
+    private final Map<Long, Long> productStamps = new HashMap<>();
+
+    // Stamps up to this epoch were discarded to bound memory, or the whole cache was cleared
+    private long forgottenThrough;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public RecommendationCache(
+            @Value("${recommendation.cache.enabled:true}") boolean enabled,
+            @Value("${recommendation.cache.max-entries:10000}") int maxEntries,
+            @Value("${recommendation.cache.ttl-ms:300000}") long ttlMillis) {
+        this.enabled = enabled && maxEntries > 0;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlNanos = ttlMillis * 1_000_000L;
+    }
+
+    /**
+     * @return The cached list, or null on a miss or when it has expired
+     */
+    public synchronized V get(Long userId, int topN, RecommendationMode mode) {
+        if (!enabled) {
+            return null;
+        }
+        Key key = new Key(userId, topN, mode);
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (System.nanoTime() - entry.createdAtNanos > ttlNanos) {
+            remove(key);
+            expirations.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Take before computing a result; pass to {@link #put} so a result computed
+     * while its user or one of its products was invalidated is not cached.
+     */
+    public synchronized long currentEpoch() {
+        return invalidationEpoch;
+    }
+
+    /**
+     * Cache a computed list.
+     *
+     * @param productIds Products the list contains, for product invalidation
+     * @param epoch Value of {@link #currentEpoch()} taken before computing the list
+     */
+    public synchronized void put(Long userId, int topN, RecommendationMode mode, V value,
+                                 Collection<Long> productIds, long epoch) {
+        if (!enabled || epoch < forgottenThrough || userStamps.getOrDefault(userId, 0L) > epoch) {
+            return;
+        }
+        long[] ids = productIds.stream().mapToLong(Long::longValue).toArray();
+        for (long productId : ids) {
+            if (productStamps.getOrDefault(productId, 0L) > epoch) {
+                return;
+            }
+        }
+        Key key = new Key(userId, topN, mode);
+        remove(key);
+
+        entries.put(key, new Entry<>(value, ids, System.nanoTime()));
+        keysByUser.computeIfAbsent(userId, id -> new HashSet<>()).add(key);
+        for (long productId : ids) {
+            keysByProduct.computeIfAbsent(productId, id -> new HashSet<>()).add(key);
+        }
+
+        while (entries.size() > maxEntries) {
+            remove(entries.keySet().iterator().next());
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * A user's ratings changed: their own lists are stale, and so is any list
+     * showing the product, whose rating statistics moved.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRatingChanged(RatingChangedEvent event) {
+        invalidationEpoch++;
+        stamp(userStamps, event.getUserId());
+        stamp(productStamps, event.getProductId());
+        removeAll(keysByUser.get(event.getUserId()));
+        removeAll(keysByProduct.get(event.getProductId()));
+    }
+
+    /**
+     * Price, stock, rating or details of products changed, or they were deleted.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        invalidationEpoch++;
+        for (Long productId : event.getProductIds()) {
+            stamp(productStamps, productId);
+            removeAll(keysByProduct.get(productId));
+        }
+    }
+
+    public synchronized void clear() {
+        invalidationEpoch++;
+        forget();
+        invalidations.addAndGet(entries.size());
+        entries.clear();
+        keysByUser.clear();
+        keysByProduct.clear();
+    }
+
+    private void stamp(Map<Long, Long> stamps, Long id) {
+        if (id == null) {
+            return;
+        }
+        stamps.put(id, invalidationEpoch);
+        if (userStamps.size() + productStamps.size() > maxEntries) {
+            // Lists still being computed from before now can no longer be checked; they are not stored
+            forget();
+        }
+    }
+
+    private void forget() {
+        userStamps.clear();
+        productStamps.clear();
+        forgottenThrough = invalidationEpoch;
+    }
+
+    private void removeAll(Set<Key> keys) {
+        if (keys == null) {
+            return;
+        }
+        for (Key key : new ArrayList<>(keys)) {
+            if (remove(key)) {
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean remove(Key key) {
+        Entry<V> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        unindex(keysByUser, key.userId, key);
+        for (long productId : entry.productIds) {
+            unindex(keysByProduct, productId, key);
+        }
+        return true;
+    }
+
+    private static void unindex(Map<Long, Set<Key>> index, Long id, Key key) {
+        Set<Key> keys = index.get(id);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            index.remove(id);
+        }
+    }
+
+    /**
+     * @return Counters and current size, for the admin performance endpoints
+     */
+    public synchronized Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlMillis", ttlNanos / 1_000_000L);
+        stats.put("hits", hitCount);
+        stats.put("misses", misses.get());
+        stats.put("hitRate", lookups > 0 ? (double) hitCount / lookups : 0.0);
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    private static final class Key {
+        private final Long userId;
+        private final int topN;
+        private final RecommendationMode mode;
+
+        Key(Long userId, int topN, RecommendationMode mode) {
+            this.userId = userId;
+            this.topN = topN;
+            this.mode = mode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return topN == other.topN && Objects.equals(userId, other.userId) && mode == other.mode;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, topN, mode);
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long[] productIds;
+        private final long createdAtNanos;
+
+        Entry(V value, long[] productIds, long createdAtNanos) {
+            this.value = value;
+            this.productIds = productIds;
+            this.createdAtNanos = createdAtNanos;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Bounded fork-join pool for the recommendation engine.
+ *
+ * The pool is separate from the common pool and from the Tomcat workers and its
+ * parallelism is capped by configuration, so heavy recommendation work cannot
+ * starve request handling. Work is expressed as index ranges: each task writes
+ * only the slots of its own range, which keeps results independent of how the
+ * range was split and therefore deterministic.
+ *
+ * Index and model builds that a request finds missing or out of date are handed
+ * to a single background thread instead, at most one per name at a time, so the
+ * request can answer from what is already built.
+ */
+@Component
+public class RecommendationExecutor {
+
+    /**
+     * Body of a parallel loop over the half-open range [from, to)
+     */
+    @FunctionalInterface
+    public interface RangeTask {
+        void run(int from, int to);
+    }
+
+    private final boolean enabled;
+    private final int parallelism;
+    private final int minBatchSize;
+    private final ForkJoinPool pool;
+
+    // Names of the builds currently running, on the background thread or on a scheduler
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+    private final ExecutorService background = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "recommendation-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RecommendationExecutor(
+            @Value("${recommendation.parallel.enabled:true}") boolean enabled,
+            @Value("${recommendation.parallel.parallelism:4}") int parallelism,
+            @Value("${recommendation.parallel.min-batch-size:1024}") int minBatchSize) {
+        this.enabled = enabled && parallelism > 1;
+        this.parallelism = Math.max(1, parallelism);
+        this.minBatchSize = Math.max(1, minBatchSize);
+        this.pool = this.enabled ? new ForkJoinPool(this.parallelism, RecommendationExecutor::newWorker, null, false) : null;
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("recommendation-fj-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Run the task over [0, size), splitting the range across the pool when it is
+     * large enough. Small ranges, or a disabled executor, run on the calling thread.
+     */
+    public void forEachRange(int size, RangeTask task) {
+        forEachRange(size, minBatchSize, task);
+    }
+
+    /**
+     * Same as {@link #forEachRange(int, RangeTask)} with an explicit batch size,
+     * for loops whose iterations are much more expensive than a similarity.
+     */
+    public void forEachRange(int size, int batchSize, RangeTask task) {
+        if (size <= 0) {
+            return;
+        }
+        int grain = Math.max(1, batchSize);
+        if (!enabled || size <= grain) {
+            task.run(0, size);
+            return;
+        }
+        RangeAction action = new RangeAction(task, 0, size, grain);
+        Thread current = Thread.currentThread();
+        if (current instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) current).getPool() == pool) {
+            // Nested loop (e.g. a batch of users each running a parallel scan): fork in place
+            action.invoke();
+        } else {
+            pool.invoke(action);
+        }
+    }
+
+    /**
+     * Run the build on the calling thread unless a build with the same name is
+     * already running, e.g. a scheduled rebuild while a request-triggered one is in progress.
+     *
+     * @return False if the build was skipped
+     */
+    public boolean runExclusive(String name, Runnable build) {
+        if (!running.add(name)) {
+            return false;
+        }
+        try {
+            build.run();
+            return true;
+        } finally {
+            running.remove(name);
+        }
+    }
+
+    /**
+     * Queue the build on the background thread unless a build with the same
+     * name is already queued or running. Failures are logged, not thrown.
+     *
+     * @return False if the build was skipped
+     */
+    public boolean runInBackground(String name, Runnable build) {
+        if (!running.add(name)) {
+            return false;
+        }
+        try {
+            background.execute(() -> {
+                try {
+                    build.run();
+                } catch (RuntimeException e) {
+                    System.err.println("[RecommendationExecutor] Background " + name + " build failed: " + e.getMessage());
+                } finally {
+                    running.remove(name);
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            running.remove(name);
+            throw e;
+        }
+    }
+
+    public boolean isRunning(String name) {
+        return running.contains(name);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getParallelism() {
+        return enabled ? parallelism : 1;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        background.shutdownNow();
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private static final class RangeAction extends RecursiveAction {
+        private final RangeTask task;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        RangeAction(RangeTask task, int from, int to, int grain) {
+            this.task = task;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                task.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeAction(task, from, middle, grain), new RangeAction(task, middle, to, grain));
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import com.example.MealBasketSyatem.service.SystemPerformanceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms per stage of a recommendation request, plus distributions
+ * of how much work each request did (users scanned, neighbours used, candidate
+ * products).
+ *
+ * A request fills a {@link Sample} as it runs and hands it over once at the end,
+ * so the hot path only writes to fields of its own object. Histograms use fixed
+ * bucket bounds, so recording is a few atomic increments and percentiles are
+ * read from the bucket counts (reported as the bucket's upper bound).
+ *
+ * When enabled, the p95 of every stage over the last interval is also written
+ * to SystemPerformanceService as RECOMMENDATION_LATENCY metrics.
+ */
+@Component
+public class RecommendationMetrics {
+
+    /**
+     * Timed parts of a recommendation request
+     */
+    public enum Stage {
+        // Bayesian weighted ratings from the resident product stats
+        IMPROVED_RATINGS,
+        // Fetching or rebuilding the sparse user vectors for the current matrix version
+        MATRIX,
+        // User-user similarities (full scan, LSH candidates or neighbour index lookup)
+        SIMILARITY,
+        // Rating prediction for unrated products
+        PREDICTION,
+        // Loading candidate products from the database
+        PRODUCT_LOAD,
+        // Business rules and top-N selection
+        RANKING,
+        // Whole request, cache misses only
+        TOTAL
+    }
+
+    /**
+     * Amounts of work done by a recommendation request
+     */
+    public enum Count {
+        // Users whose similarity to the target user was computed
+        USERS_SCANNED,
+        // Users with a non-zero similarity that contributed to predictions
+        NEIGHBOURS_USED,
+        // Products that received a predicted rating
+        CANDIDATE_PRODUCTS
+    }
+
+    // Upper bounds of the latency buckets in microseconds; the last bucket is unbounded
+    private static final long[] LATENCY_BOUNDS_MICROS = {
+        50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+        100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000
+    };
+
+    // Upper bounds of the count buckets; the last bucket is unbounded
+    private static final long[] COUNT_BOUNDS = {
+        0, 1, 5, 10, 25, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000,
+        25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000
+    };
+
+    @Autowired
+    private SystemPerformanceService performanceService;
+
+    private final boolean recordEnabled;
+
+    private final Map<RecommendationMode, Histogram[]> stageLatencies = new EnumMap<>(RecommendationMode.class);
+    private final Map<RecommendationMode, Histogram[]> workCounts = new EnumMap<>(RecommendationMode.class);
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    // Bucket counts as of the last write to SystemPerformanceService, per mode and stage
+    private final Map<RecommendationMode, long[][]> lastRecorded = new EnumMap<>(RecommendationMode.class);
+
+    private volatile LocalDateTime resetAt = LocalDateTime.now();
+
+    public RecommendationMetrics(@Value("${recommendation.metrics.record-enabled:false}") boolean recordEnabled) {
+        this.recordEnabled = recordEnabled;
+        for (RecommendationMode mode : RecommendationMode.values()) {
+            Histogram[] latencies = new Histogram[Stage.values().length];
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new Histogram(LATENCY_BOUNDS_MICROS);
+            }
+            Histogram[] counts = new Histogram[Count.values().length];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new Histogram(COUNT_BOUNDS);
+            }
+            stageLatencies.put(mode, latencies);
+            workCounts.put(mode, counts);
+            lastRecorded.put(mode, new long[latencies.length][]);
+        }
+    }
+
+    public void recordCacheHit() {
+        cacheHits.increment();
+    }
+
+    /**
+     * Add a finished request's timings and counts. Counts that were never set
+     * (e.g. users scanned for item-based requests) are left out.
+     */
+    public void record(RecommendationMode mode, Sample sample) {
+        cacheMisses.increment();
+        Histogram[] latencies = stageLatencies.get(mode);
+        for (Stage stage : Stage.values()) {
+            if (sample.stageNanos[stage.ordinal()] >= 0) {
+                latencies[stage.ordinal()].record(sample.stageNanos[stage.ordinal()] / 1_000);
+            }
+        }
+        Histogram[] counts = workCounts.get(mode);
+        for (Count count : Count.values()) {
+            if (sample.counts[count.ordinal()] >= 0) {
+                counts[count.ordinal()].record(sample.counts[count.ordinal()]);
+            }
+        }
+    }
+
+    /**
+     * @return Per mode and stage: request count, mean, p50, p95, p99 and max in
+     *         milliseconds; per mode and work count: mean, p50, p95 and max
+     */
+    public Map<String, Object> getSnapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("since", resetAt);
+        long hits = cacheHits.sum();
+        long misses = cacheMisses.sum();
+        snapshot.put("cacheHits", hits);
+        snapshot.put("cacheMisses", misses);
+        snapshot.put("cacheHitRate", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+
+        Map<String, Object> modes = new LinkedHashMap<>();
+        for (RecommendationMode mode : RecommendationMode.values()) {
+            Histogram[] latencies = stageLatencies.get(mode);
+            if (latencies[Stage.TOTAL.ordinal()].getCount() == 0) {
+                continue;
+            }
+            Map<String, Object> stages = new LinkedHashMap<>();
+            for (Stage stage : Stage.values()) {
+                Histogram histogram = latencies[stage.ordinal()];
+                if (histogram.getCount() > 0) {
+                    stages.put(key(stage.name()), histogram.summary(1_000.0));
+                }
+            }
+            Map<String, Object> counts = new LinkedHashMap<>();
+            for (Count count : Count.values()) {
+                Histogram histogram = workCounts.get(mode)[count.ordinal()];
+                if (histogram.getCount() > 0) {
+                    counts.put(key(count.name()), histogram.summary(1.0));
+                }
+            }
+            Map<String, Object> modeSnapshot = new LinkedHashMap<>();
+            modeSnapshot.put("latencyMs", stages);
+            modeSnapshot.put("counts", counts);
+            modes.put(key(mode.name()), modeSnapshot);
+        }
+        snapshot.put("modes", modes);
+        return snapshot;
+    }
+
+    public synchronized void reset() {
+        for (RecommendationMode mode : RecommendationMode.values()) {
+            for (Histogram histogram : stageLatencies.get(mode)) {
+                histogram.reset();
+            }
+            for (Histogram histogram : workCounts.get(mode)) {
+                histogram.reset();
+            }
+            Arrays.fill(lastRecorded.get(mode), null);
+        }
+        cacheHits.reset();
+        cacheMisses.reset();
+        resetAt = LocalDateTime.now();
+    }
+
+    /**
+     * Write each stage's p95 over the requests since the previous write, so
+     * latency regressions show up next to the other system performance metrics
+     */
+    @Scheduled(initialDelayString = "${recommendation.metrics.record-interval-ms:300000}",
+               fixedDelayString = "${recommendation.metrics.record-interval-ms:300000}")
+    public synchronized void recordToSystemPerformance() {
+        if (!recordEnabled) {
+            return;
+        }
+        for (RecommendationMode mode : RecommendationMode.values()) {
+            Histogram[] latencies = stageLatencies.get(mode);
+            long[][] previous = lastRecorded.get(mode);
+            for (Stage stage : Stage.values()) {
+                long[] current = latencies[stage.ordinal()].bucketCounts();
+                long[] interval = current.clone();
+                long requests = 0;
+                for (int b = 0; b < interval.length; b++) {
+                    if (previous[stage.ordinal()] != null) {
+                        interval[b] -= previous[stage.ordinal()][b];
+                    }
+                    requests += interval[b];
+                }
+                previous[stage.ordinal()] = current;
+                if (requests == 0) {
+                    continue;
+                }
+                Histogram histogram = latencies[stage.ordinal()];
+                double p95Millis = Math.min(Histogram.percentile(LATENCY_BOUNDS_MICROS, interval, requests, 0.95), histogram.getMax()) / 1_000.0;
+                try {
+                    performanceService.recordMetricWithEntity("RECOMMENDATION_LATENCY", p95Millis, "ms",
+                            "RECOMMENDATION", null, mode.name() + " " + stage.name() + " p95 over " + requests + " requests");
+                } catch (Exception e) {
+                    System.err.println("[RecommendationMetrics] Failed to record " + stage + " latency: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    public boolean isRecordEnabled() {
+        return recordEnabled;
+    }
+
+    // IMPROVED_RATINGS -> improvedRatings
+    private static String key(String name) {
+        StringBuilder key = new StringBuilder();
+        boolean upper = false;
+        for (char c : name.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (c == '_') {
+                upper = true;
+            } else {
+                key.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Timings and counts of one request, filled by the thread serving it.
+     * Unset entries are -1.
+     */
+    public static final class Sample {
+        private final long[] stageNanos = new long[Stage.values().length];
+        private final long[] counts = new long[Count.values().length];
+        private final long startNanos = System.nanoTime();
+
+        public Sample() {
+            Arrays.fill(stageNanos, -1);
+            Arrays.fill(counts, -1);
+        }
+
+        /**
+         * Add the time since the given start to a stage.
+         *
+         * @param start Value of System.nanoTime() when the stage began
+         * @return The current System.nanoTime(), to start the next stage with
+         */
+        public long stage(Stage stage, long start) {
+            long now = System.nanoTime();
+            int i = stage.ordinal();
+            stageNanos[i] = Math.max(stageNanos[i], 0) + (now - start);
+            return now;
+        }
+
+        public void count(Count count, long value) {
+            counts[count.ordinal()] = value;
+        }
+
+        /**
+         * Close the sample, setting the TOTAL stage to the time since it was created
+         */
+        public Sample finish() {
+            stageNanos[Stage.TOTAL.ordinal()] = System.nanoTime() - startNanos;
+            return this;
+        }
+    }
+
+    // Fixed-bucket histogram; bucket i counts values <= bounds[i], the last bucket the rest
+    private static final class Histogram {
+        private final long[] bounds;
+        private final AtomicLongArray buckets;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        private Histogram(long[] bounds) {
+            this.bounds = bounds;
+            this.buckets = new AtomicLongArray(bounds.length + 1);
+        }
+
+        private void record(long value) {
+            int bucket = Arrays.binarySearch(bounds, value);
+            buckets.incrementAndGet(bucket >= 0 ? bucket : -bucket - 1);
+            count.increment();
+            sum.add(value);
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        private long getCount() {
+            return count.sum();
+        }
+
+        private long getMax() {
+            return max.get();
+        }
+
+        private long[] bucketCounts() {
+            long[] counts = new long[buckets.length()];
+            for (int b = 0; b < counts.length; b++) {
+                counts[b] = buckets.get(b);
+            }
+            return counts;
+        }
+
+        private void reset() {
+            for (int b = 0; b < buckets.length(); b++) {
+                buckets.set(b, 0);
+            }
+            count.reset();
+            sum.reset();
+            max.set(0);
+        }
+
+        private Map<String, Object> summary(double divisor) {
+            long[] counts = bucketCounts();
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            long maxValue = max.get();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", total);
+            summary.put("mean", total > 0 ? sum.sum() / (double) total / divisor : 0.0);
+            summary.put("p50", Math.min(percentile(bounds, counts, total, 0.50), maxValue) / divisor);
+            summary.put("p95", Math.min(percentile(bounds, counts, total, 0.95), maxValue) / divisor);
+            summary.put("p99", Math.min(percentile(bounds, counts, total, 0.99), maxValue) / divisor);
+            summary.put("max", maxValue / divisor);
+            return summary;
+        }
+
+        // Upper bound of the bucket holding the given quantile; the open last bucket reports Long.MAX_VALUE
+        private static long percentile(long[] bounds, long[] counts, long total, double quantile) {
+            long rank = (long) Math.ceil(total * quantile);
+            long seen = 0;
+            for (int b = 0; b < counts.length; b++) {
+                seen += counts[b];
+                if (seen >= rank && counts[b] > 0) {
+                    return b < bounds.length ? bounds[b] : Long.MAX_VALUE;
+                }
+            }
+            return bounds[bounds.length - 1];
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.MealBasketSyatem.recommendation;
+
+/**
+ * Collaborative filtering strategy used to predict ratings
+ */
+public enum RecommendationMode {
+    // User-based: weight the ratings of the most similar users
+    USER,
+    // Item-based: weight the user's own ratings by precomputed item similarity
+    ITEM,
+    // Matrix factorisation: dot product of the user's and products' trained ALS factors
+    ALS;
+
+    /**
+     * Parse a request parameter such as "user", "item" or "als", case-insensitively.
+     */
+    public static RecommendationMode fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return USER;
+        }
+        try {
+            return RecommendationMode.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown recommendation mode: " + value);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Local-disk snapshot of the recommendation state: the rating matrix, the product
+ * rating statistics the improved (Bayesian) ratings are derived from, and the
+ * top-K neighbour lists.
+ *
+ * At startup the snapshot is memory-mapped and, if its checksum is intact and its
+ * source fingerprint still matches the database, restored instead of rebuilding
+ * the matrix from the review and product tables. Otherwise the matrix is loaded
+ * from the database and a fresh snapshot is written.
+ *
+ * File layout (big-endian):
+ * header  - magic, format version, CRC32 of the payload, payload length,
+ *           written-at epoch millis, database fingerprint, user count
+ * payload - users:      count, then per user: id, n, n x (product id, rating)
+ *           products:   count, then per product: id, rating, total ratings, review count
+ *                       (NaN / -1 stand for null)
+ *           neighbours: k, count, then per user: id, n, n x (user id, similarity)
+ */
+@Component
+public class RecommendationSnapshotStore {
+
+    private static final int MAGIC = 0x4D425253; // "MBRS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 8 + 8 + 8;
+
+    @Autowired
+    private RatingMatrix ratingMatrix;
+
+    @Autowired
+    private NeighbourIndex neighbourIndex;
+
+    @Value("${recommendation.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${recommendation.snapshot.path:data/recommendation/snapshot.bin}")
+    private String snapshotPath;
+
+    private volatile long lastWrittenVersion = -1;
+    private volatile LocalDateTime lastWrittenAt;
+    private volatile long lastWriteMillis;
+    private volatile String lastLoadSource;
+    private volatile long lastLoadMillis;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        long start = System.currentTimeMillis();
+        if (enabled && loadSnapshot()) {
+            lastLoadSource = "snapshot";
+            lastLoadMillis = System.currentTimeMillis() - start;
+            return;
+        }
+
+        ratingMatrix.reload();
+        lastLoadSource = "database";
+        lastLoadMillis = System.currentTimeMillis() - start;
+
+        if (enabled) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Write a new snapshot when the rating matrix changed since the last one
+     * Runs in the background every 15 minutes by default
+     */
+    @Scheduled(initialDelayString = "${recommendation.snapshot.initial-delay-ms:300000}",
+               fixedDelayString = "${recommendation.snapshot.write-interval-ms:900000}")
+    public void writeSnapshotIfChanged() {
+        if (!enabled || !ratingMatrix.isLoaded() || ratingMatrix.getVersion() == lastWrittenVersion) {
+            return;
+        }
+        writeSnapshot();
+    }
+
+    /**
+     * Restore the rating matrix and neighbour index from the snapshot file.
+     *
+     * @return false if there is no usable snapshot and the caller must load from the database
+     */
+    boolean loadSnapshot() {
+        Path file = Paths.get(snapshotPath);
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+
+        long start = System.currentTimeMillis();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                System.err.println("[RecommendationSnapshotStore] Ignoring snapshot of unexpected size " + size);
+                return false;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                System.err.println("[RecommendationSnapshotStore] Ignoring snapshot with unknown format: " + file);
+                return false;
+            }
+            long checksum = buffer.getLong();
+            long payloadLength = buffer.getLong();
+            long writtenAtMillis = buffer.getLong();
+            long fingerprint = buffer.getLong();
+            buffer.getLong(); // user count, informational
+
+            if (payloadLength != size - HEADER_BYTES) {
+                System.err.println("[RecommendationSnapshotStore] Ignoring truncated snapshot: " + file);
+                return false;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(HEADER_BYTES, (int) payloadLength));
+            if (crc.getValue() != checksum) {
+                System.err.println("[RecommendationSnapshotStore] Ignoring snapshot with bad checksum: " + file);
+                return false;
+            }
+            if (ratingMatrix.sourceFingerprint() != fingerprint) {
+                System.out.println("[RecommendationSnapshotStore] Snapshot written at " + writtenAtMillis
+                        + " is stale, rebuilding from the database");
+                return false;
+            }
+
+            Map<Long, Map<Long, Double>> ratings = readRatings(buffer);
+            List<RatingMatrix.ProductStats> stats = readProductStats(buffer);
+            int k = buffer.getInt();
+            Map<Long, NeighbourIndex.Neighbours> neighbours = readNeighbours(buffer);
+
+            long version = ratingMatrix.restore(ratings, stats);
+            // A review committed while restoring was not applied to the restored rows
+            if (ratingMatrix.sourceFingerprint() != fingerprint) {
+                System.out.println("[RecommendationSnapshotStore] Ratings changed during restore, rebuilding from the database");
+                return false;
+            }
+            if (!neighbours.isEmpty()) {
+                neighbourIndex.publish(neighbours, version, k, 0);
+            }
+            lastWrittenVersion = version;
+
+            System.out.println("[RecommendationSnapshotStore] Restored " + ratings.size() + " users, " + stats.size()
+                    + " products and " + neighbours.size() + " neighbour lists in "
+                    + (System.currentTimeMillis() - start) + " ms");
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[RecommendationSnapshotStore] Could not load snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static Map<Long, Map<Long, Double>> readRatings(ByteBuffer buffer) {
+        int userCount = buffer.getInt();
+        Map<Long, Map<Long, Double>> ratings = new HashMap<>(userCount * 2);
+        for (int u = 0; u < userCount; u++) {
+            long userId = buffer.getLong();
+            int n = buffer.getInt();
+            Map<Long, Double> row = new HashMap<>(n * 2);
+            for (int i = 0; i < n; i++) {
+                row.put(buffer.getLong(), buffer.getDouble());
+            }
+            ratings.put(userId, row);
+        }
+        return ratings;
+    }
+
+    private static List<RatingMatrix.ProductStats> readProductStats(ByteBuffer buffer) {
+        int productCount = buffer.getInt();
+        List<RatingMatrix.ProductStats> stats = new ArrayList<>(productCount);
+        for (int p = 0; p < productCount; p++) {
+            long productId = buffer.getLong();
+            double rating = buffer.getDouble();
+            int totalRatings = buffer.getInt();
+            int reviewCount = buffer.getInt();
+            stats.add(new RatingMatrix.ProductStats(
+                productId,
+                Double.isNaN(rating) ? null : rating,
+                totalRatings < 0 ? null : totalRatings,
+                reviewCount < 0 ? null : reviewCount
+            ));
+        }
+        return stats;
+    }
+
+    private static Map<Long, NeighbourIndex.Neighbours> readNeighbours(ByteBuffer buffer) {
+        int userCount = buffer.getInt();
+        Map<Long, NeighbourIndex.Neighbours> neighbours = new HashMap<>(userCount * 2);
+        for (int u = 0; u < userCount; u++) {
+            long userId = buffer.getLong();
+            int n = buffer.getInt();
+            long[] ids = new long[n];
+            double[] similarities = new double[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = buffer.getLong();
+                similarities[i] = buffer.getDouble();
+            }
+            neighbours.put(userId, new NeighbourIndex.Neighbours(ids, similarities));
+        }
+        return neighbours;
+    }
+
+    /**
+     * Capture the current recommendation state and replace the snapshot file.
+     * The file is written next to the target and moved into place, so a crash
+     * mid-write leaves the previous snapshot intact.
+     */
+    public synchronized void writeSnapshot() {
+        long start = System.currentTimeMillis();
+
+        // Fingerprint before and after the copy; if they differ a change was in flight.
+        // A change committed but not yet applied to the matrix leaves the fingerprint
+        // unchanged, so the copy itself is also checked against the database.
+        long fingerprint = ratingMatrix.sourceFingerprint();
+        Map<Long, Map<Long, Double>> ratings = new HashMap<>();
+        List<RatingMatrix.ProductStats> stats = new ArrayList<>();
+        long version = ratingMatrix.copyTo(ratings, stats);
+        if (!ratingMatrix.matchesSource(ratings, stats)) {
+            System.out.println("[RecommendationSnapshotStore] Rating matrix behind the database, snapshot skipped");
+            return;
+        }
+        if (ratingMatrix.sourceFingerprint() != fingerprint) {
+            System.out.println("[RecommendationSnapshotStore] Ratings changed while capturing, snapshot skipped");
+            return;
+        }
+
+        // Neighbour lists are only worth keeping if they were built from this exact matrix
+        Map<Long, NeighbourIndex.Neighbours> neighbours = neighbourIndex.getAll();
+        if (!neighbourIndex.isBuilt() || neighbourIndex.getMatrixVersion() != version) {
+            neighbours = Collections.emptyMap();
+        }
+
+        Path file = Paths.get(snapshotPath).toAbsolutePath();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.position(HEADER_BYTES);
+                CRC32 crc = new CRC32();
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        new CheckedOutputStream(Channels.newOutputStream(channel), crc), 1 << 16));
+                writePayload(out, ratings, stats, neighbourIndex.getK(), neighbours);
+                out.flush();
+                long payloadLength = channel.position() - HEADER_BYTES;
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC)
+                      .putInt(FORMAT_VERSION)
+                      .putLong(crc.getValue())
+                      .putLong(payloadLength)
+                      .putLong(System.currentTimeMillis())
+                      .putLong(fingerprint)
+                      .putLong(ratings.size())
+                      .flip();
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("[RecommendationSnapshotStore] Could not write snapshot: " + e.getMessage());
+            return;
+        }
+
+        lastWrittenVersion = version;
+        lastWrittenAt = LocalDateTime.now();
+        lastWriteMillis = System.currentTimeMillis() - start;
+        System.out.println("[RecommendationSnapshotStore] " + lastWrittenAt + " - Wrote snapshot of " + ratings.size()
+                + " users and " + neighbours.size() + " neighbour lists in " + lastWriteMillis + " ms");
+    }
+
+    private static void writePayload(DataOutputStream out,
+                                     Map<Long, Map<Long, Double>> ratings,
+                                     List<RatingMatrix.ProductStats> stats,
+                                     int k,
+                                     Map<Long, NeighbourIndex.Neighbours> neighbours) throws IOException {
+        out.writeInt(ratings.size());
+        for (Map.Entry<Long, Map<Long, Double>> row : ratings.entrySet()) {
+            out.writeLong(row.getKey());
+            out.writeInt(row.getValue().size());
+            for (Map.Entry<Long, Double> rated : row.getValue().entrySet()) {
+                out.writeLong(rated.getKey());
+                out.writeDouble(rated.getValue());
+            }
+        }
+
+        out.writeInt(stats.size());
+        for (RatingMatrix.ProductStats product : stats) {
+            out.writeLong(product.getProductId());
+            out.writeDouble(product.getRating() != null ? product.getRating() : Double.NaN);
+            out.writeInt(product.getTotalRatings() != null ? product.getTotalRatings() : -1);
+            out.writeInt(product.getReviewCount() != null ? product.getReviewCount() : -1);
+        }
+
+        out.writeInt(k);
+        out.writeInt(neighbours.size());
+        for (Map.Entry<Long, NeighbourIndex.Neighbours> entry : neighbours.entrySet()) {
+            NeighbourIndex.Neighbours list = entry.getValue();
+            out.writeLong(entry.getKey());
+            out.writeInt(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                out.writeLong(list.userIdAt(i));
+                out.writeDouble(list.similarityAt(i));
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    public LocalDateTime getLastWrittenAt() {
+        return lastWrittenAt;
+    }
+
+    public long getLastWriteMillis() {
+        return lastWriteMillis;
+    }
+
+    /**
+     * @return "snapshot" or "database", depending on where the matrix was loaded from at startup
+     */
+    public String getLastLoadSource() {
+        return lastLoadSource;
+    }
+
+    public long getLastLoadMillis() {
+        return lastLoadMillis;
+    }
+}
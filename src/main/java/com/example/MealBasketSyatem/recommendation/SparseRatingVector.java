@@ -0,0 +1,111 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A user's ratings as a sparse vector: product ids sorted ascending with the
+ * ratings in a parallel array. Values are the effective ratings used by the
+ * similarity formula (improved rating when available, raw rating otherwise).
+ */
+public final class SparseRatingVector {
+
+    private final long[] productIds;
+    private final double[] ratings;
+
+    public SparseRatingVector(long[] productIds, double[] ratings) {
+        if (productIds.length != ratings.length) {
+            throw new IllegalArgumentException("productIds and ratings must have the same length");
+        }
+        this.productIds = productIds;
+        this.ratings = ratings;
+    }
+
+    /**
+     * Build a vector from a user's raw ratings, substituting the improved rating
+     * of each product when one exists.
+     *
+     * @param userRatings productId -> raw rating
+     * @param improvedRatings productId -> improved rating
+     * @return Sparse vector sorted by product id
+     */
+    public static SparseRatingVector of(Map<Long, Double> userRatings, Map<Long, Double> improvedRatings) {
+        long[] ids = new long[userRatings.size()];
+        int i = 0;
+        for (Long productId : userRatings.keySet()) {
+            ids[i++] = productId;
+        }
+        Arrays.sort(ids);
+
+        double[] values = new double[ids.length];
+        for (int j = 0; j < ids.length; j++) {
+            Double improved = improvedRatings.get(ids[j]);
+            values[j] = improved != null ? improved : userRatings.get(ids[j]);
+        }
+        return new SparseRatingVector(ids, values);
+    }
+
+    /**
+     * Cosine similarity over the products rated by both users, computed by a
+     * single merge pass over the sorted ids. Allocates nothing.
+     * Sim(u,v) = Σ(R'(u,i) * R'(v,i)) / (sqrt(ΣR'(u,i)^2) * sqrt(ΣR'(v,i)^2))
+     *
+     * @return Similarity, or 0.0 when the users share no rated product
+     */
+    public static double cosine(SparseRatingVector a, SparseRatingVector b) {
+        long[] aIds = a.productIds;
+        long[] bIds = b.productIds;
+        double[] aValues = a.ratings;
+        double[] bValues = b.ratings;
+
+        double dotProduct = 0.0;
+        double norm1 = 0.0;
+        double norm2 = 0.0;
+
+        int i = 0;
+        int j = 0;
+        while (i < aIds.length && j < bIds.length) {
+            long aId = aIds[i];
+            long bId = bIds[j];
+            if (aId < bId) {
+                i++;
+            } else if (aId > bId) {
+                j++;
+            } else {
+                double x = aValues[i++];
+                double y = bValues[j++];
+                dotProduct += x * y;
+                norm1 += x * x;
+                norm2 += y * y;
+            }
+        }
+
+        if (norm1 > 0 && norm2 > 0) {
+            return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
+        }
+        return 0.0;
+    }
+
+    public boolean contains(long productId) {
+        return Arrays.binarySearch(productIds, productId) >= 0;
+    }
+
+    /**
+     * @return Position of the product in this vector, or a negative value if not rated
+     */
+    public int indexOf(long productId) {
+        return Arrays.binarySearch(productIds, productId);
+    }
+
+    public int size() {
+        return productIds.length;
+    }
+
+    public long productIdAt(int index) {
+        return productIds[index];
+    }
+
+    public double ratingAt(int index) {
+        return ratings[index];
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of every user's {@link SparseRatingVector}, built from the
+ * {@link RatingMatrix} at a given version. Users are held in ascending id order
+ * so that every scan over the snapshot is deterministic.
+ */
+public final class SparseUserVectors {
+
+    private final long version;
+    private final long[] userIds;
+    private final SparseRatingVector[] vectors;
+    private final Map<Long, Integer> positions;
+
+    private SparseUserVectors(long version, long[] userIds, SparseRatingVector[] vectors) {
+        this(version, userIds, vectors, new HashMap<>(userIds.length * 2));
+        for (int i = 0; i < userIds.length; i++) {
+            positions.put(userIds[i], i);
+        }
+    }
+
+    private SparseUserVectors(long version, long[] userIds, SparseRatingVector[] vectors, Map<Long, Integer> positions) {
+        this.version = version;
+        this.userIds = userIds;
+        this.vectors = vectors;
+        this.positions = positions;
+    }
+
+    public static SparseUserVectors build(long version,
+                                          Map<Long, Map<Long, Double>> userItemRatings,
+                                          Map<Long, Double> improvedRatings) {
+        long[] userIds = new long[userItemRatings.size()];
+        int i = 0;
+        for (Long userId : userItemRatings.keySet()) {
+            if (i == userIds.length) {
+                break; // matrix grew while we were copying; the next version picks it up
+            }
+            userIds[i++] = userId;
+        }
+        userIds = Arrays.copyOf(userIds, i);
+        Arrays.sort(userIds);
+
+        SparseRatingVector[] vectors = new SparseRatingVector[userIds.length];
+        for (int j = 0; j < userIds.length; j++) {
+            Map<Long, Double> row = userItemRatings.getOrDefault(userIds[j], Map.of());
+            vectors[j] = SparseRatingVector.of(row, improvedRatings);
+        }
+        return new SparseUserVectors(version, userIds, vectors);
+    }
+
+    /**
+     * Copy of this snapshot with one user's vector replaced, added, or removed
+     * when the vector is null or empty. The copy keeps this snapshot's version.
+     * Replacing an existing user's vector shares the user index; adding or
+     * removing a user rebuilds it.
+     */
+    public SparseUserVectors withUser(long userId, SparseRatingVector vector) {
+        boolean present = vector != null && vector.size() > 0;
+        int position = indexOf(userId);
+        if (position >= 0 && present) {
+            SparseRatingVector[] replaced = vectors.clone();
+            replaced[position] = vector;
+            return new SparseUserVectors(version, userIds, replaced, positions);
+        }
+        if (position < 0 && !present) {
+            return this;
+        }
+        if (position >= 0) {
+            long[] ids = new long[userIds.length - 1];
+            SparseRatingVector[] rows = new SparseRatingVector[ids.length];
+            System.arraycopy(userIds, 0, ids, 0, position);
+            System.arraycopy(userIds, position + 1, ids, position, ids.length - position);
+            System.arraycopy(vectors, 0, rows, 0, position);
+            System.arraycopy(vectors, position + 1, rows, position, rows.length - position);
+            return new SparseUserVectors(version, ids, rows);
+        }
+        int insertAt = -Arrays.binarySearch(userIds, userId) - 1;
+        long[] ids = new long[userIds.length + 1];
+        SparseRatingVector[] rows = new SparseRatingVector[ids.length];
+        System.arraycopy(userIds, 0, ids, 0, insertAt);
+        System.arraycopy(userIds, insertAt, ids, insertAt + 1, userIds.length - insertAt);
+        System.arraycopy(vectors, 0, rows, 0, insertAt);
+        System.arraycopy(vectors, insertAt, rows, insertAt + 1, vectors.length - insertAt);
+        ids[insertAt] = userId;
+        rows[insertAt] = vector;
+        return new SparseUserVectors(version, ids, rows);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return userIds.length;
+    }
+
+    public long userIdAt(int index) {
+        return userIds[index];
+    }
+
+    public SparseRatingVector vectorAt(int index) {
+        return vectors[index];
+    }
+
+    /**
+     * @return Position of the user in this snapshot, or -1 if the user has no ratings
+     */
+    public int indexOf(Long userId) {
+        Integer position = positions.get(userId);
+        return position != null ? position : -1;
+    }
+
+    public SparseRatingVector get(Long userId) {
+        int position = indexOf(userId);
+        return position >= 0 ? vectors[position] : null;
+    }
+}
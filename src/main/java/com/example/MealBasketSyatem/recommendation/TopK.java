@@ -0,0 +1,114 @@
+package com.example.MealBasketSyatem.recommendation;
+
+/**
+ * Bounded selection of the K highest-scoring ids using a primitive min-heap.
+ * Ties are broken by the smaller id so the result is deterministic.
+ * Not thread-safe; create one per thread or reuse it with {@link #clear()}.
+ */
+public final class TopK {
+
+    private final long[] ids;
+    private final double[] scores;
+    private int size;
+
+    public TopK(int k) {
+        this.ids = new long[Math.max(k, 0)];
+        this.scores = new double[Math.max(k, 0)];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Offer a candidate; it is kept only if it ranks among the best K seen so far.
+     */
+    public void offer(long id, double score) {
+        if (ids.length == 0) {
+            return;
+        }
+        if (size < ids.length) {
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (ranksAbove(id, score, ids[0], scores[0])) {
+            ids[0] = id;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Drain the heap into arrays ordered by descending score.
+     * The selector is empty afterwards.
+     *
+     * @param outIds Receives the ids, must hold at least {@link #size()} entries
+     * @param outScores Receives the scores, must hold at least {@link #size()} entries
+     * @return Number of entries written
+     */
+    public int drainDescending(long[] outIds, double[] outScores) {
+        int count = size;
+        for (int i = count - 1; i >= 0; i--) {
+            outIds[i] = ids[0];
+            outScores[i] = scores[0];
+            size--;
+            if (size > 0) {
+                ids[0] = ids[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+        }
+        return count;
+    }
+
+    // True when (id, score) should be ordered before (otherId, otherScore) in the result
+    private static boolean ranksAbove(long id, double score, long otherId, double otherScore) {
+        if (score != otherScore) {
+            return score > otherScore;
+        }
+        return id < otherId;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksAbove(ids[parent], scores[parent], ids[index], scores[index])) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                break;
+            }
+            int right = left + 1;
+            int weakest = left;
+            if (right < size && ranksAbove(ids[left], scores[left], ids[right], scores[right])) {
+                weakest = right;
+            }
+            if (!ranksAbove(ids[index], scores[index], ids[weakest], scores[weakest])) {
+                break;
+            }
+            swap(index, weakest);
+            index = weakest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
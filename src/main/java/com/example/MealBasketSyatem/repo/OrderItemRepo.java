@@ -2,12 +2,16 @@ package com.example.MealBasketSyatem.repo;
 
 import com.example.MealBasketSyatem.entity.OrderItem;
 import com.example.MealBasketSyatem.entity.Product;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderItemRepo extends JpaRepository<OrderItem, Long> {
@@ -22,4 +26,21 @@ public interface OrderItemRepo extends JpaRepository<OrderItem, Long> {
 
     @Query("SELECT COUNT(DISTINCT oi.order.id) FROM OrderItem oi WHERE oi.product.id = :productId")
     Long countOrdersByProductId(@Param("productId") Long productId);
+
+    // Rows of [productId, units ordered] for orders placed since the given time
+    @Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi " +
+           "WHERE oi.order.createdAt >= :since AND (oi.order.status IS NULL OR oi.order.status <> 'CANCELLED') " +
+           "GROUP BY oi.product.id")
+    List<Object[]> sumQuantityByProductSince(@Param("since") LocalDateTime since);
+
+    // Rows of [productId, units ordered] over all orders that were not cancelled
+    @Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi " +
+           "WHERE oi.order.status IS NULL OR oi.order.status <> 'CANCELLED' " +
+           "GROUP BY oi.product.id")
+    List<Object[]> sumQuantityByProduct();
+
+    // Rows of [orderId, productId] grouped by order; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT oi.order.id, oi.product.id FROM OrderItem oi ORDER BY oi.order.id")
+    Stream<Object[]> streamOrderProductPairs();
 }
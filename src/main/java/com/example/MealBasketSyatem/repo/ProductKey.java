@@ -0,0 +1,11 @@
+package com.example.MealBasketSyatem.repo;
+
+/**
+ * Keyset columns of a product, enough to page through any ProductSort order
+ * without reading the rest of the row
+ */
+public interface ProductKey {
+    Long getId();
+    double getPrice();
+    Double getRating();
+}
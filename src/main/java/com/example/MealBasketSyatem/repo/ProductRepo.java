@@ -1,10 +1,20 @@
 package com.example.MealBasketSyatem.repo;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.MealBasketSyatem.dto.ProductListItem;
 import com.example.MealBasketSyatem.entity.Product;
 import com.example.MealBasketSyatem.entity.Vendor;
 
@@ -20,5 +30,68 @@ public interface ProductRepo extends JpaRepository<Product, Long> {
     List<Product> findByName(String name);
     
     List<Product> findByCategory(String category);
+
+    // Search fallback when the in-memory search index is disabled
+    List<Product> findByNameContainingIgnoreCase(String name);
+
+    // Keyset pages: "WHERE (sort key, id) after the cursor ORDER BY sort key, id LIMIT n",
+    // served by the (column, id) indexes on products so deep pages cost the same as the first
+    Window<Product> findBy(ScrollPosition position, Limit limit, Sort sort);
+
+    Window<Product> findByVendorId(Long vendorId, ScrollPosition position, Limit limit, Sort sort);
+
+    // Keys only, for listing cards: the page is found on the (column, id) indexes alone and its
+    // rows are then read with findListItemsByIdIn, so the keyset scan never touches wide columns
+    Window<ProductKey> findKeysBy(ScrollPosition position, Limit limit, Sort sort);
+
+    Window<ProductKey> findKeysByVendorId(Long vendorId, ScrollPosition position, Limit limit, Sort sort);
+
+    // Card projections select only the card's columns and the vendor id, never the Vendor row;
+    // one character more than the excerpt is read so the constructor can tell when to cut it
+    @Query("SELECT new com.example.MealBasketSyatem.dto.ProductListItem(p.id, p.name, p.price, "
+            + "SUBSTRING(p.description, 1, 161), p.image, p.category, p.stock, p.rating, p.reviewCount, p.vendor.id) "
+            + "FROM Product p WHERE p.id IN :ids")
+    List<ProductListItem> findListItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.example.MealBasketSyatem.dto.ProductListItem(p.id, p.name, p.price, "
+            + "SUBSTRING(p.description, 1, 161), p.image, p.category, p.stock, p.rating, p.reviewCount, p.vendor.id) "
+            + "FROM Product p ORDER BY p.id")
+    List<ProductListItem> findAllListItems();
+
+    @Query("SELECT new com.example.MealBasketSyatem.dto.ProductListItem(p.id, p.name, p.price, "
+            + "SUBSTRING(p.description, 1, 161), p.image, p.category, p.stock, p.rating, p.reviewCount, p.vendor.id) "
+            + "FROM Product p WHERE p.vendor.id = :vendorId ORDER BY p.id")
+    List<ProductListItem> findAllListItemsByVendorId(@Param("vendorId") Long vendorId);
+
+    // Products whose image is still an inline data URL, selected without reading the payloads
+    @Query("SELECT p.id FROM Product p WHERE p.image LIKE 'data:%' ORDER BY p.id")
+    List<Long> findIdsWithInlineImage();
+
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.image LIKE 'data:%'")
+    long countInlineImages();
+
+    // Rows of [id, vendor id]
+    @Query("SELECT p.id, p.vendor.id FROM Product p")
+    List<Object[]> findVendorIds();
+
+    @Query("SELECT p.id FROM Product p WHERE p.vendor.id = :vendorId ORDER BY p.id")
+    List<Long> findIdsByVendorId(@Param("vendorId") Long vendorId);
+
+    // Rows written before rating became NOT NULL; run at startup by ProductRatingBackfill
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.rating = 0.0 WHERE p.rating IS NULL")
+    int backfillNullRatings();
+
+    // Rows of [id, rating, totalRatings, reviewCount] for the recommendation engine
+    @Query("SELECT p.id, p.rating, p.totalRatings, p.reviewCount FROM Product p")
+    List<Object[]> findRatingStats();
+
+    @Query("SELECT p.id, p.rating, p.totalRatings, p.reviewCount FROM Product p WHERE p.id = :id")
+    List<Object[]> findRatingStatsById(@Param("id") Long id);
+
+    // Single row of [count, sum rating, sum totalRatings, sum reviewCount] used to detect a stale snapshot
+    @Query("SELECT COUNT(p), SUM(p.rating), SUM(p.totalRatings), SUM(p.reviewCount) FROM Product p")
+    List<Object[]> findRatingStatsFingerprint();
 }
 
@@ -1,6 +1,9 @@
 package com.example.MealBasketSyatem.repo;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.example.MealBasketSyatem.entity.User;
@@ -12,4 +15,7 @@ import com.example.MealBasketSyatem.entity.User;
 public interface UserRepo extends JpaRepository<User, Long> {
     User findByEmail(String email);
 
+    @Query("SELECT u.id FROM User u ORDER BY u.id")
+    List<Long> findAllIds();
+
 }
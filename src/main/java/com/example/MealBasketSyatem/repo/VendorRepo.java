@@ -1,6 +1,11 @@
 package com.example.MealBasketSyatem.repo;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.MealBasketSyatem.entity.Vendor;
@@ -11,4 +16,8 @@ import com.example.MealBasketSyatem.entity.Vendor;
 public interface VendorRepo extends JpaRepository<Vendor, Long> {
     Vendor findByName(String name);
     Vendor findByEmail(String email);
+
+    // Rows of [id, name, shopName], without the rest of the vendor
+    @Query("SELECT v.id, v.name, v.shopName FROM Vendor v WHERE v.id IN :ids")
+    List<Object[]> findNamesByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -2,6 +2,7 @@ package com.example.MealBasketSyatem.repository;
 
 import com.example.MealBasketSyatem.entity.ProductReview;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,4 +18,12 @@ public interface ProductReviewRepository extends JpaRepository<ProductReview, Lo
     List<ProductReview> findByUserIdOrderByCreatedAtDesc(Long userId);
 
     void deleteByUserIdAndProductId(Long userId, Long productId);
+
+    // Rows of [userId, productId, rating] without hydrating review entities
+    @Query("SELECT r.user.id, r.product.id, r.rating FROM ProductReview r")
+    List<Object[]> findAllRatingTriples();
+
+    // Single row of [count, max updatedAt, sum of ratings] used to detect a stale snapshot
+    @Query("SELECT COUNT(r), MAX(r.updatedAt), SUM(r.rating) FROM ProductReview r")
+    List<Object[]> findRatingFingerprint();
 }
@@ -40,4 +40,8 @@ public interface RecipeRepository extends JpaRepository<Recipe, Long> {
     // Find recipe by vendor and name (for duplicate checking)
     @Query("SELECT r FROM Recipe r WHERE r.vendor.id = :vendorId AND r.name = :name AND r.isActive = true")
     Recipe findByVendorIdAndName(@Param("vendorId") Long vendorId, @Param("name") String name);
+
+    // Rows of [id, name] of active recipes for typeahead suggestions
+    @Query("SELECT r.id, r.name FROM Recipe r WHERE r.isActive = true")
+    List<Object[]> findActiveRecipeNames();
 }
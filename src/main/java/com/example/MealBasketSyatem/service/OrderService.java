@@ -1,10 +1,12 @@
 package com.example.MealBasketSyatem.service;
 
 import com.example.MealBasketSyatem.entity.*;
+import com.example.MealBasketSyatem.event.OrderPlacedEvent;
 import com.example.MealBasketSyatem.repository.OrderRepository;
 import com.example.MealBasketSyatem.repository.OrderItemRepository;
 import com.example.MealBasketSyatem.repo.OrderRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,6 +35,9 @@ public class OrderService {
 	@Autowired
 	private ProductService productService;
 
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
 	// Legacy methods
 	public List<Order> getAllOrder(){
 		return orderRepo.findAll();
@@ -102,7 +107,7 @@ public class OrderService {
 				Integer quantity = (Integer) itemData.get("quantity");
 				Double price = ((Number) itemData.get("price")).doubleValue();
 
-				Product product = productService.getProductById(productId);
+				Product product = productService.getProductForUpdate(productId);
 				if (product != null) {
 					// Set vendor from first product (assuming all items from same vendor)
 					if (order.getVendor() == null) {
@@ -121,7 +126,14 @@ public class OrderService {
 
 			// Update order with items and vendor
 			savedOrder.setOrderItems(orderItems);
-			return orderRepository.save(savedOrder);
+			Order placedOrder = orderRepository.save(savedOrder);
+
+			List<Long> productIds = new ArrayList<>(orderItems.size());
+			for (OrderItem orderItem : orderItems) {
+				productIds.add(orderItem.getProduct().getId());
+			}
+			eventPublisher.publishEvent(new OrderPlacedEvent(placedOrder.getId(), userId, productIds));
+			return placedOrder;
 
 		} catch (Exception e) {
 			throw new RuntimeException("Failed to create order: " + e.getMessage(), e);
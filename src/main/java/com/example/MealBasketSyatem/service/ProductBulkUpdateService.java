@@ -0,0 +1,215 @@
+package com.example.MealBasketSyatem.service;
+
+import com.example.MealBasketSyatem.dto.ProductBulkUpdateItem;
+import com.example.MealBasketSyatem.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.*;
+
+/**
+ * Applies many price and stock changes in one request, e.g. a daily repricing
+ * or a stock sync from a vendor's point of sale.
+ *
+ * Instead of a findById and save per product, updates are sent in chunks of
+ * catalog.bulk-update.chunk-size: one query reads the owners of the chunk's
+ * products, and one JDBC batch of UPDATE statements applies the changes. Stock
+ * deltas are applied by the database (stock = stock + delta), so concurrent
+ * orders are never overwritten.
+ *
+ * The whole request runs in one transaction. After it commits, one
+ * ProductChangedEvent per affected vendor refreshes the caches and ETags.
+ * Items that are invalid, name an unknown product, or would take stock below
+ * zero are skipped and reported; the rest are applied.
+ */
+@Service
+public class ProductBulkUpdateService {
+
+    // Price or stock left null keeps the current value; the stock guard makes the update a no-op
+    private static final String UPDATE_SQL = "UPDATE products SET price = COALESCE(?, price), stock = COALESCE(?, stock) + ?"
+            + " WHERE id = ? AND COALESCE(?, stock) + ? >= 0";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final int chunkSize;
+    private final int maxItems;
+    private final int maxErrors;
+
+    public ProductBulkUpdateService(
+            @Value("${catalog.bulk-update.chunk-size:500}") int chunkSize,
+            @Value("${catalog.bulk-update.max-items:10000}") int maxItems,
+            @Value("${catalog.bulk-update.max-errors:100}") int maxErrors) {
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxItems = Math.max(1, maxItems);
+        this.maxErrors = Math.max(0, maxErrors);
+    }
+
+    /**
+     * @param vendorId Only this vendor's products may be changed, or null for any product (admin)
+     * @return Report with the number of items requested, updated and failed, and
+     *         the first catalog.bulk-update.max-errors errors as {index, productId, message}
+     * @throws IllegalArgumentException When there are no items or more than catalog.bulk-update.max-items
+     */
+    public Map<String, Object> applyUpdates(Long vendorId, List<ProductBulkUpdateItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("No updates given");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("At most " + maxItems + " updates per request; got " + items.size());
+        }
+        long start = System.currentTimeMillis();
+        List<Map<String, Object>> errors = new ArrayList<>();
+        int[] failed = new int[1];
+        Map<ProductBulkUpdateItem, Integer> indexOf = new IdentityHashMap<>();
+
+        List<ProductBulkUpdateItem> valid = new ArrayList<>(items.size());
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            ProductBulkUpdateItem item = items.get(i);
+            String problem = validate(item, seen);
+            if (problem != null) {
+                addError(errors, failed, i, item != null ? item.getProductId() : null, problem);
+            } else {
+                indexOf.put(item, i);
+                valid.add(item);
+            }
+        }
+
+        Map<Long, List<Long>> changedByVendor = new LinkedHashMap<>();
+        int[] chunks = new int[1];
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            for (int from = 0; from < valid.size(); from += chunkSize) {
+                List<ProductBulkUpdateItem> chunk = valid.subList(from, Math.min(from + chunkSize, valid.size()));
+                Map<Long, Long> vendorOf = findVendorIds(chunk);
+
+                List<ProductBulkUpdateItem> present = new ArrayList<>(chunk.size());
+                for (ProductBulkUpdateItem item : chunk) {
+                    Long owner = vendorOf.get(item.getProductId());
+                    if (owner == null || (vendorId != null && !vendorId.equals(owner))) {
+                        addError(errors, failed, indexOf.get(item), item.getProductId(), "Product not found");
+                    } else {
+                        present.add(item);
+                    }
+                }
+                if (present.isEmpty()) {
+                    continue;
+                }
+
+                int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, present, present.size(), (ps, item) -> {
+                    int delta = item.getStockDelta() != null ? item.getStockDelta() : 0;
+                    if (item.getPrice() != null) {
+                        ps.setDouble(1, item.getPrice());
+                    } else {
+                        ps.setNull(1, Types.DOUBLE);
+                    }
+                    if (item.getStock() != null) {
+                        ps.setInt(2, item.getStock());
+                        ps.setInt(5, item.getStock());
+                    } else {
+                        ps.setNull(2, Types.INTEGER);
+                        ps.setNull(5, Types.INTEGER);
+                    }
+                    ps.setInt(3, delta);
+                    ps.setLong(4, item.getProductId());
+                    ps.setInt(6, delta);
+                })[0];
+                chunks[0]++;
+
+                for (int i = 0; i < present.size(); i++) {
+                    ProductBulkUpdateItem item = present.get(i);
+                    if (counts[i] == 0) {
+                        addError(errors, failed, indexOf.get(item), item.getProductId(), "Stock would go below zero");
+                    } else if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                        changedByVendor.computeIfAbsent(vendorOf.get(item.getProductId()), id -> new ArrayList<>())
+                                .add(item.getProductId());
+                    }
+                }
+            }
+            // Delivered once the transaction commits
+            changedByVendor.forEach((owner, productIds) ->
+                    eventPublisher.publishEvent(new ProductChangedEvent(owner, productIds)));
+        });
+
+        int updated = changedByVendor.values().stream().mapToInt(List::size).sum();
+        // All errors are kept (at most max-items), so the first max-errors by index are reported
+        errors.sort(Comparator.comparingInt(error -> (Integer) error.get("index")));
+        if (errors.size() > maxErrors) {
+            errors.subList(maxErrors, errors.size()).clear();
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requested", items.size());
+        result.put("updated", updated);
+        result.put("failed", failed[0]);
+        result.put("vendors", changedByVendor.size());
+        result.put("chunks", chunks[0]);
+        result.put("errors", errors);
+        result.put("errorsTruncated", failed[0] > errors.size());
+        result.put("millis", System.currentTimeMillis() - start);
+        System.out.println("[ProductBulkUpdateService] Updated " + updated + " of " + items.size() + " products across "
+                + changedByVendor.size() + " vendors in " + chunks[0] + " chunks, " + failed[0] + " failed");
+        return result;
+    }
+
+    // @return Why the item cannot be applied, or null if it is valid
+    private static String validate(ProductBulkUpdateItem item, Set<Long> seen) {
+        if (item == null || item.getProductId() == null) {
+            return "productId is required";
+        }
+        if (item.getPrice() == null && item.getStock() == null && item.getStockDelta() == null) {
+            return "Nothing to update; give price, stock or stockDelta";
+        }
+        if (item.getStock() != null && item.getStockDelta() != null) {
+            return "Give either stock or stockDelta, not both";
+        }
+        if (item.getPrice() != null && (!Double.isFinite(item.getPrice()) || item.getPrice() < 0)) {
+            return "price must be zero or more";
+        }
+        if (item.getStock() != null && item.getStock() < 0) {
+            return "stock must be zero or more";
+        }
+        if (!seen.add(item.getProductId())) {
+            return "Product appears more than once in this request";
+        }
+        return null;
+    }
+
+    // productId -> vendorId of the chunk's products that exist
+    private Map<Long, Long> findVendorIds(List<ProductBulkUpdateItem> chunk) {
+        StringBuilder sql = new StringBuilder("SELECT id, vendor_id FROM products WHERE id IN (");
+        Object[] ids = new Object[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            ids[i] = chunk.get(i).getProductId();
+        }
+        sql.append(')');
+        Map<Long, Long> vendorOf = new HashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            vendorOf.put(rs.getLong(1), rs.getLong(2));
+        }, ids);
+        return vendorOf;
+    }
+
+    private static void addError(List<Map<String, Object>> errors, int[] failed, int index, Long productId, String message) {
+        failed[0]++;
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("index", index);
+        error.put("productId", productId);
+        error.put("message", message);
+        errors.add(error);
+    }
+}
@@ -0,0 +1,560 @@
+package com.example.MealBasketSyatem.service;
+
+import com.example.MealBasketSyatem.entity.Vendor;
+import com.example.MealBasketSyatem.event.ProductChangedEvent;
+import com.example.MealBasketSyatem.image.ImageStore;
+import com.example.MealBasketSyatem.image.ImageVariantService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Bulk product import for vendors from CSV or NDJSON.
+ *
+ * The file is parsed as a stream, one record at a time. Valid rows are
+ * collected into batches of catalog.import.batch-size and inserted with one
+ * JDBC batch per transaction; products use IDENTITY ids, which keep Hibernate
+ * from batching their inserts. Only the current batch and the first
+ * catalog.import.max-errors row errors are held in memory, so memory does not
+ * grow with the file.
+ *
+ * Rows that fail validation are skipped and reported with their row number;
+ * the rest are imported. A batch the database rejects is reported as failed
+ * rows and the import goes on with the next one. Inline images are checked
+ * while validating but written to the image store only in the transaction of
+ * the batch that inserts their rows, so rejected rows leave no files behind.
+ * Every committed batch publishes a ProductChangedEvent, so the catalog cache,
+ * search indexes and ETags pick up the new products.
+ */
+@Service
+public class ProductImportService {
+
+    public static final List<String> COLUMNS = List.of("name", "price", "description", "image", "category", "stock");
+
+    // Large enough for an inline image of images.store.max-bytes in base64
+    static final int MAX_RECORD_CHARS = 8 * 1024 * 1024;
+
+    // Decoded inline images held for one batch; a batch is inserted early once it holds more
+    private static final long MAX_BATCH_IMAGE_BYTES = 32L * 1024 * 1024;
+
+    private static final String INSERT_SQL = "INSERT INTO products"
+            + " (name, price, description, image, category, stock, rating, total_ratings, review_count, vendor_id)"
+            + " VALUES (?, ?, ?, ?, ?, ?, 0, 0, 0, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final int batchSize;
+    private final int maxRows;
+    private final int maxErrors;
+
+    public ProductImportService(
+            @Value("${catalog.import.batch-size:500}") int batchSize,
+            @Value("${catalog.import.max-rows:100000}") int maxRows,
+            @Value("${catalog.import.max-errors:100}") int maxErrors) {
+        this.batchSize = Math.max(1, batchSize);
+        this.maxRows = Math.max(1, maxRows);
+        this.maxErrors = Math.max(0, maxErrors);
+    }
+
+    public enum Format {
+        CSV, NDJSON;
+
+        /**
+         * @param format csv or ndjson, or null to decide from the content type
+         */
+        public static Format resolve(String format, String contentType) {
+            if (format != null) {
+                switch (format.trim().toLowerCase()) {
+                    case "csv": return CSV;
+                    case "ndjson": case "jsonl": return NDJSON;
+                    default: throw new IllegalArgumentException("Unknown import format: " + format + "; expected csv or ndjson");
+                }
+            }
+            String type = contentType != null ? contentType.toLowerCase() : "";
+            if (type.startsWith("text/csv")) {
+                return CSV;
+            }
+            if (type.startsWith("application/x-ndjson") || type.startsWith("application/jsonl")
+                    || type.startsWith("application/json")) {
+                return NDJSON;
+            }
+            throw new IllegalArgumentException("Send text/csv or application/x-ndjson, or pass format=csv|ndjson");
+        }
+    }
+
+    /**
+     * Import the products in the stream for the vendor. The stream is read to
+     * the end, or up to catalog.import.max-rows rows, but not closed.
+     *
+     * @return Report with the number of rows read, imported and failed, and the
+     *         first catalog.import.max-errors errors as {row, message}
+     * @throws IllegalArgumentException When the file cannot be read as the format at all (e.g. no CSV header)
+     */
+    public Map<String, Object> importProducts(Vendor vendor, InputStream in, Format format) throws IOException {
+        long start = System.currentTimeMillis();
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        RecordReader records = format == Format.CSV ? new CsvRecordReader(reader) : new NdjsonRecordReader(reader, objectMapper);
+
+        Report report = new Report();
+        List<Object[]> batch = new ArrayList<>(Math.min(batchSize, 1024));
+        long batchImageBytes = 0;
+        try {
+            Map<String, String> record;
+            while ((record = nextRecord(records, report)) != null) {
+                if (report.rows > maxRows) {
+                    report.error(records.recordNumber(), "File has more than " + maxRows + " rows; the rest was not imported");
+                    report.complete = false;
+                    break;
+                }
+                Object[] row = validate(record, records.recordNumber(), report);
+                if (row != null) {
+                    batch.add(row);
+                    batchImageBytes += row[6] != null ? ((byte[]) row[6]).length : 0;
+                    if (batch.size() >= batchSize || batchImageBytes >= MAX_BATCH_IMAGE_BYTES) {
+                        insertBatch(vendor, batch, report);
+                        batchImageBytes = 0;
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            if (report.rows == 0 && report.failed == 0) {
+                throw e;
+            }
+            // Unreadable from here on (e.g. an oversized record); keep what was read before it
+            report.error(records.recordNumber(), e.getMessage());
+            report.complete = false;
+        }
+        insertBatch(vendor, batch, report);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("format", format.name().toLowerCase());
+        result.put("rows", report.rows);
+        result.put("imported", report.imported);
+        result.put("failed", report.failed);
+        result.put("complete", report.complete);
+        result.put("batches", report.batches);
+        result.put("errors", report.errors);
+        result.put("errorsTruncated", report.failed > report.errors.size());
+        result.put("millis", System.currentTimeMillis() - start);
+        System.out.println("[ProductImportService] Vendor " + vendor.getId() + " imported " + report.imported + " of "
+                + report.rows + " rows in " + report.batches + " batches, " + report.failed + " failed");
+        return result;
+    }
+
+    // Skips records that cannot be parsed (malformed NDJSON lines), reporting them as failed rows
+    private Map<String, String> nextRecord(RecordReader records, Report report) throws IOException {
+        while (true) {
+            try {
+                Map<String, String> record = records.next();
+                if (record != null) {
+                    report.rows++;
+                }
+                return record;
+            } catch (MalformedRecordException e) {
+                report.rows++;
+                report.error(records.recordNumber(), e.getMessage());
+            }
+        }
+    }
+
+    // @return Insert parameters in INSERT_SQL order without vendor_id, then the inline image
+    //         bytes to store (or null) and the row number; null if the row is invalid
+    private Object[] validate(Map<String, String> record, long rowNumber, Report report) {
+        String name = trimToNull(record.get("name"));
+        if (name == null) {
+            report.error(rowNumber, "name is required");
+            return null;
+        }
+        if (name.length() > 255) {
+            report.error(rowNumber, "name is longer than 255 characters");
+            return null;
+        }
+
+        String priceText = trimToNull(record.get("price"));
+        if (priceText == null) {
+            report.error(rowNumber, "price is required");
+            return null;
+        }
+        double price;
+        try {
+            price = Double.parseDouble(priceText);
+        } catch (NumberFormatException e) {
+            report.error(rowNumber, "price is not a number: " + priceText);
+            return null;
+        }
+        if (!Double.isFinite(price) || price < 0) {
+            report.error(rowNumber, "price must be zero or more");
+            return null;
+        }
+
+        int stock = 0;
+        String stockText = trimToNull(record.get("stock"));
+        if (stockText != null) {
+            try {
+                stock = Integer.parseInt(stockText);
+            } catch (NumberFormatException e) {
+                report.error(rowNumber, "stock is not a whole number: " + stockText);
+                return null;
+            }
+            if (stock < 0) {
+                report.error(rowNumber, "stock must be zero or more");
+                return null;
+            }
+        }
+
+        String category = trimToNull(record.get("category"));
+        if (category != null && category.length() > 100) {
+            report.error(rowNumber, "category is longer than 100 characters");
+            return null;
+        }
+
+        String image = trimToNull(record.get("image"));
+        byte[] imageBytes = null;
+        if (ImageStore.isDataUrl(image)) {
+            try {
+                imageBytes = ImageStore.decodeDataUrl(image);
+                image = imageStore.urlOf(imageBytes);
+            } catch (IllegalArgumentException e) {
+                report.error(rowNumber, "image: " + e.getMessage());
+                return null;
+            }
+        }
+
+        return new Object[] {name, price, trimToNull(record.get("description")), image, category, stock, imageBytes, rowNumber};
+    }
+
+    private void insertBatch(Vendor vendor, List<Object[]> batch, Report report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Long> productIds = new ArrayList<>(batch.size());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            transaction.executeWithoutResult(status -> {
+                GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+                jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                        new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                Object[] row = batch.get(i);
+                                ps.setString(1, (String) row[0]);
+                                ps.setDouble(2, (Double) row[1]);
+                                ps.setString(3, (String) row[2]);
+                                ps.setString(4, (String) row[3]);
+                                ps.setString(5, (String) row[4]);
+                                ps.setInt(6, (Integer) row[5]);
+                                ps.setLong(7, vendor.getId());
+                            }
+
+                            @Override
+                            public int getBatchSize() {
+                                return batch.size();
+                            }
+                        }, keyHolder);
+                for (Map<String, Object> keys : keyHolder.getKeyList()) {
+                    Object id = keys.size() == 1 ? keys.values().iterator().next() : keys.get("id");
+                    productIds.add(((Number) id).longValue());
+                }
+                // Written only once the rows are in; a rollback after this leaves unreferenced but valid files
+                for (Object[] row : batch) {
+                    if (row[6] != null) {
+                        imageStore.store((byte[]) row[6]);
+                    }
+                }
+                // Delivered once the batch commits
+                eventPublisher.publishEvent(new ProductChangedEvent(vendor.getId(), productIds));
+            });
+        } catch (DataAccessException e) {
+            batchFailed(batch, report, e.getMostSpecificCause().getMessage());
+            return;
+        } catch (UncheckedIOException e) {
+            batchFailed(batch, report, e.getMessage());
+            return;
+        }
+        for (Object[] row : batch) {
+            imageVariantService.scheduleVariants((String) row[3]);
+        }
+        report.imported += batch.size();
+        report.batches++;
+        batch.clear();
+    }
+
+    // The whole batch was rolled back; its rows count as failed and the import goes on
+    private void batchFailed(List<Object[]> batch, Report report, String reason) {
+        long firstRow = (Long) batch.get(0)[7];
+        long lastRow = (Long) batch.get(batch.size() - 1)[7];
+        System.err.println("[ProductImportService] Batch of rows " + firstRow + " to " + lastRow + " failed: " + reason);
+        report.failed += batch.size() - 1;
+        report.error(firstRow, "Rows " + firstRow + " to " + lastRow + " were not imported: " + reason);
+        report.complete = false;
+        batch.clear();
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private final class Report {
+        private long rows;
+        private long imported;
+        private long failed;
+        private int batches;
+        private boolean complete = true;
+        private final List<Map<String, Object>> errors = new ArrayList<>();
+
+        private void error(long row, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("row", row);
+                error.put("message", message);
+                errors.add(error);
+            }
+        }
+    }
+
+    // A single record could not be parsed; the records after it can still be read
+    static class MalformedRecordException extends Exception {
+        MalformedRecordException(String message) {
+            super(message);
+        }
+    }
+
+    interface RecordReader {
+        /**
+         * @return Column name to raw value of the next record, or null at the end of the input
+         */
+        Map<String, String> next() throws IOException, MalformedRecordException;
+
+        // 1-based data row of the record last returned; the CSV header is not counted
+        long recordNumber();
+    }
+
+    /**
+     * RFC 4180 CSV with a header row naming the columns in any order, matched
+     * case-insensitively; unknown columns are ignored. Quoted fields may
+     * contain commas, doubled quotes and line breaks. Blank lines are skipped.
+     */
+    static final class CsvRecordReader implements RecordReader {
+        private final Reader reader;
+        private final int[] columnFor;
+        private final StringBuilder field = new StringBuilder();
+        private final List<String> fields = new ArrayList<>();
+        private long recordNumber;
+        private boolean atEnd;
+
+        CsvRecordReader(Reader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readFields();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV file is empty");
+            }
+            // Byte order mark written by spreadsheet exports
+            if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+                header.set(0, header.get(0).substring(1));
+            }
+            this.columnFor = new int[header.size()];
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).trim().toLowerCase();
+                columnFor[i] = seen.add(name) ? COLUMNS.indexOf(name) : -1;
+            }
+            if (!seen.contains("name") || !seen.contains("price")) {
+                throw new IllegalArgumentException("CSV header must include name and price columns; found " + header);
+            }
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            List<String> values = readFields();
+            if (values == null) {
+                return null;
+            }
+            recordNumber++;
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < values.size() && i < columnFor.length; i++) {
+                if (columnFor[i] >= 0) {
+                    record.put(COLUMNS.get(columnFor[i]), values.get(i));
+                }
+            }
+            return record;
+        }
+
+        @Override
+        public long recordNumber() {
+            return recordNumber;
+        }
+
+        // @return Fields of the next non-blank record, or null at the end of the input
+        private List<String> readFields() throws IOException {
+            while (!atEnd) {
+                fields.clear();
+                field.setLength(0);
+                boolean quoted = false;
+                boolean sawAnything = false;
+                int length = 0;
+                while (true) {
+                    int c = reader.read();
+                    if (c >= 0 && ++length > MAX_RECORD_CHARS) {
+                        throw new IllegalArgumentException("Row " + (recordNumber + 1) + " is longer than "
+                                + MAX_RECORD_CHARS + " characters");
+                    }
+                    if (quoted) {
+                        if (c < 0) {
+                            throw new IllegalArgumentException("Row " + (recordNumber + 1) + " has an unterminated quoted field");
+                        }
+                        if (c == '"') {
+                            reader.mark(1);
+                            if (reader.read() == '"') {
+                                field.append('"');
+                            } else {
+                                reader.reset();
+                                quoted = false;
+                            }
+                        } else {
+                            field.append((char) c);
+                        }
+                        continue;
+                    }
+                    if (c < 0) {
+                        atEnd = true;
+                        break;
+                    }
+                    if (c == '\n') {
+                        break;
+                    }
+                    if (c == '\r') {
+                        continue;
+                    }
+                    sawAnything = true;
+                    if (c == ',') {
+                        fields.add(field.toString());
+                        field.setLength(0);
+                    } else if (c == '"' && field.length() == 0) {
+                        quoted = true;
+                    } else {
+                        field.append((char) c);
+                    }
+                }
+                if (sawAnything) {
+                    fields.add(field.toString());
+                    return new ArrayList<>(fields);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One JSON object per line with the import columns as fields; numbers may
+     * be JSON numbers or strings. Blank lines are skipped.
+     */
+    static final class NdjsonRecordReader implements RecordReader {
+        private final Reader reader;
+        private final ObjectMapper objectMapper;
+        private final StringBuilder line = new StringBuilder();
+        private long recordNumber;
+        private boolean atEnd;
+
+        NdjsonRecordReader(Reader reader, ObjectMapper objectMapper) {
+            this.reader = reader;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException, MalformedRecordException {
+            while (readLine()) {
+                if (line.toString().isBlank()) {
+                    continue;
+                }
+                recordNumber++;
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line.toString());
+                } catch (JsonProcessingException e) {
+                    throw new MalformedRecordException("not valid JSON: " + e.getOriginalMessage());
+                }
+                if (node == null || !node.isObject()) {
+                    throw new MalformedRecordException("expected a JSON object");
+                }
+                Map<String, String> record = new HashMap<>();
+                for (String column : COLUMNS) {
+                    JsonNode value = node.get(column);
+                    if (value != null && !value.isNull()) {
+                        if (!value.isValueNode()) {
+                            throw new MalformedRecordException(column + " must be a string or number");
+                        }
+                        record.put(column, value.asText());
+                    }
+                }
+                return record;
+            }
+            return null;
+        }
+
+        @Override
+        public long recordNumber() {
+            return recordNumber;
+        }
+
+        private boolean readLine() throws IOException {
+            if (atEnd) {
+                return false;
+            }
+            line.setLength(0);
+            int c;
+            while ((c = reader.read()) >= 0 && c != '\n') {
+                if (line.length() >= MAX_RECORD_CHARS) {
+                    throw new IllegalArgumentException("Row " + (recordNumber + 1) + " is longer than "
+                            + MAX_RECORD_CHARS + " characters");
+                }
+                line.append((char) c);
+            }
+            if (c < 0) {
+                atEnd = true;
+                return line.length() > 0;
+            }
+            return true;
+        }
+    }
+}
@@ -3,8 +3,10 @@ package com.example.MealBasketSyatem.service;
 import com.example.MealBasketSyatem.entity.Product;
 import com.example.MealBasketSyatem.entity.ProductRating;
 import com.example.MealBasketSyatem.entity.User;
+import com.example.MealBasketSyatem.event.RatingChangedEvent;
 import com.example.MealBasketSyatem.repository.ProductRatingRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +24,9 @@ public class ProductRatingService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public ProductRating addOrUpdateRating(Long userId, Long productId, Double rating) {
         // Check if user already rated this product
@@ -35,16 +40,18 @@ public class ProductRatingService {
             existingRating.setUpdatedAt(java.time.LocalDateTime.now());
             ProductRating saved = productRatingRepository.save(existingRating);
             updateProductAverageRating(productId);
+            eventPublisher.publishEvent(new RatingChangedEvent(userId, productId));
             return saved;
         } else {
             // Create new rating
             User user = userService.getUserById(userId);
-            Product product = productService.getProductById(productId);
+            Product product = productService.getProductForUpdate(productId);
 
             if (user != null && product != null) {
                 ProductRating newRating = new ProductRating(user, product, rating);
                 ProductRating saved = productRatingRepository.save(newRating);
                 updateProductAverageRating(productId);
+                eventPublisher.publishEvent(new RatingChangedEvent(userId, productId));
                 return saved;
             }
             return null;
@@ -61,7 +68,7 @@ public class ProductRatingService {
 
     private void updateProductAverageRating(Long productId) {
         List<ProductRating> ratings = productRatingRepository.findByProductId(productId);
-        Product product = productService.getProductById(productId);
+        Product product = productService.getProductForUpdate(productId);
 
         if (product != null && !ratings.isEmpty()) {
             double average = ratings.stream()
@@ -3,8 +3,10 @@ package com.example.MealBasketSyatem.service;
 import com.example.MealBasketSyatem.entity.Product;
 import com.example.MealBasketSyatem.entity.ProductReview;
 import com.example.MealBasketSyatem.entity.User;
+import com.example.MealBasketSyatem.event.RatingChangedEvent;
 import com.example.MealBasketSyatem.repository.ProductReviewRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,13 +27,16 @@ public class ProductReviewService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public ProductReview addOrUpdateReview(Long userId, Long productId, Double rating, String reviewText) {
         ProductReview existingReview = productReviewRepository
                 .findByUserIdAndProductId(userId, productId)
                 .orElse(null);
 
-        Product product = productService.getProductById(productId);
+        Product product = productService.getProductForUpdate(productId);
         if (product == null) return null;
 
         if (existingReview != null) {
@@ -39,6 +44,7 @@ public class ProductReviewService {
             existingReview.setReviewText(reviewText);
             existingReview.setUpdatedAt(java.time.LocalDateTime.now());
             ProductReview saved = productReviewRepository.save(existingReview);
+            // Publishes the RatingChangedEvent
             productRatingService.addOrUpdateRating(userId, productId, rating);
             return saved;
         } else {
@@ -47,12 +53,12 @@ public class ProductReviewService {
             if (user != null) {
                 ProductReview newReview = new ProductReview(user, product, rating, reviewText);
                 ProductReview saved = productReviewRepository.save(newReview);
+                // Publishes the RatingChangedEvent
                 productRatingService.addOrUpdateRating(userId, productId, rating);
 
                 // Update review count
                 product.setReviewCount((product.getReviewCount() != null ? product.getReviewCount() : 0) + 1);
                 productService.updateProduct(product);
-
                 return saved;
             }
             return null;
@@ -73,7 +79,7 @@ public class ProductReviewService {
 
     @Transactional
     public void deleteReview(Long userId, Long productId) {
-        Product product = productService.getProductById(productId);
+        Product product = productService.getProductForUpdate(productId);
         if (product == null) {
             throw new RuntimeException("Product not found");
         }
@@ -90,5 +96,7 @@ public class ProductReviewService {
             product.setReviewCount(product.getReviewCount() - 1);
             productService.updateProduct(product);
         }
+
+        eventPublisher.publishEvent(new RatingChangedEvent(userId, productId));
     }
 }
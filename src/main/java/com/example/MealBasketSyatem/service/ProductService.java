@@ -1,12 +1,31 @@
 package com.example.MealBasketSyatem.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import com.example.MealBasketSyatem.catalog.ProductCatalogCache;
+import com.example.MealBasketSyatem.catalog.ProductSearchIndex;
+import com.example.MealBasketSyatem.catalog.ProductSort;
+import com.example.MealBasketSyatem.dto.CursorPage;
+import com.example.MealBasketSyatem.dto.ProductListItem;
 import com.example.MealBasketSyatem.entity.Product;
+import com.example.MealBasketSyatem.event.ProductChangedEvent;
+import com.example.MealBasketSyatem.image.ImageStore;
+import com.example.MealBasketSyatem.repo.ProductKey;
 import com.example.MealBasketSyatem.repo.ProductRepo;
+import com.example.MealBasketSyatem.repo.VendorRepo;
 
 
 @Service
@@ -15,52 +34,261 @@ public class ProductService {
 	@Autowired
 	private ProductRepo productRepo;
 
+	@Autowired
+	private VendorRepo vendorRepo;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	// Reads are served from the resident catalog; writes refresh it via ProductChangedEvent
+	@Autowired
+	private ProductCatalogCache catalogCache;
+
+	@Autowired
+	private ProductSearchIndex searchIndex;
+
+	// Inline data URL images are moved to the image store so rows keep only the URL
+	@Autowired
+	private ImageStore imageStore;
+
+	@Value("${catalog.page.default-size:24}")
+	private int defaultPageSize;
+
+	@Value("${catalog.page.max-size:100}")
+	private int maxPageSize;
+
+	// Returned lists are shared and read-only when served from the catalog cache
 	public List<Product> getAllProduct() {
+		if (catalogCache.isEnabled()) {
+			return catalogCache.getAll();
+		}
 		return productRepo.findAll();
 	}
 
+	// Returns a copy that callers may modify and pass to updateProduct
 	public Product getProductById(long id) {
+		if (catalogCache.isEnabled()) {
+			Product cached = catalogCache.get(id);
+			if (cached != null) {
+				return ProductCatalogCache.copyOf(cached);
+			}
+		}
+		// Not cached yet (e.g. created by another instance): fall back to the database.
+		// The cache picks it up on the next reload; refreshing here could cache uncommitted state
+		Product product = productRepo.findById(id)
+				.orElseThrow(() -> new RuntimeException("Product with id " + id + " not found"));
+		return catalogCache.isEnabled() ? ProductCatalogCache.copyOf(product) : product;
+	}
+
+	/**
+	 * The product as a managed entity, read from the database, for changes
+	 * made inside a transaction: every call in the same transaction returns
+	 * the same instance, so changes made by one caller are not overwritten
+	 * by a stale copy saved by another. Use getProductById for reads.
+	 */
+	public Product getProductForUpdate(long id) {
 		return productRepo.findById(id)
 				.orElseThrow(() -> new RuntimeException("Product with id " + id + " not found"));
 	}
 
+	/**
+	 * One keyset page of the catalog, or of one vendor's products, read straight
+	 * from the database so the cost of a page does not depend on its depth.
+	 *
+	 * @param vendorId Vendor to list, or null for the whole catalog
+	 * @param sort Sort parameter (newest, price, price-desc, rating); newest when blank
+	 * @param cursor nextCursor of the previous page, or null for the first page
+	 * @param limit Page size, capped at catalog.page.max-size; the default size when null or not positive
+	 */
+	public CursorPage<Product> getProductPage(Long vendorId, String sort, String cursor, Integer limit) {
+		ProductSort order = ProductSort.fromParam(sort);
+		ScrollPosition position = order.decodeCursor(cursor);
+		int pageSize = limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+
+		Window<Product> window = vendorId == null
+				? productRepo.findBy(position, Limit.of(pageSize), order.toSort())
+				: productRepo.findByVendorId(vendorId, position, Limit.of(pageSize), order.toSort());
+
+		List<Product> items = window.getContent();
+		String nextCursor = window.hasNext() && !items.isEmpty()
+				? order.encodeCursor(items.get(items.size() - 1))
+				: null;
+		return new CursorPage<>(items, nextCursor, pageSize, order.name().toLowerCase().replace('_', '-'));
+	}
+
+	/**
+	 * Same page as getProductPage as card projections: the description is cut to
+	 * an excerpt and the vendor reduced to its id and names. The page is found on
+	 * the keyset columns alone and only its rows are then read.
+	 */
+	public CursorPage<ProductListItem> getProductListItemPage(Long vendorId, String sort, String cursor, Integer limit) {
+		ProductSort order = ProductSort.fromParam(sort);
+		ScrollPosition position = order.decodeCursor(cursor);
+		int pageSize = limit == null || limit <= 0 ? defaultPageSize : Math.min(limit, maxPageSize);
+
+		Window<ProductKey> window = vendorId == null
+				? productRepo.findKeysBy(position, Limit.of(pageSize), order.toSort())
+				: productRepo.findKeysByVendorId(vendorId, position, Limit.of(pageSize), order.toSort());
+
+		List<Long> ids = new ArrayList<>(window.size());
+		for (ProductKey key : window) {
+			ids.add(key.getId());
+		}
+		Map<Long, ProductListItem> byId = new HashMap<>();
+		if (!ids.isEmpty()) {
+			for (ProductListItem item : productRepo.findListItemsByIdIn(ids)) {
+				byId.put(item.getId(), item);
+			}
+		}
+		// Keep the keyset order; a product deleted in between is skipped
+		List<ProductListItem> items = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			ProductListItem item = byId.get(id);
+			if (item != null) {
+				items.add(item);
+			}
+		}
+		withVendorNames(items);
+
+		String nextCursor = window.hasNext() && !window.isEmpty()
+				? order.encodeCursor(window.getContent().get(window.size() - 1))
+				: null;
+		return new CursorPage<>(items, nextCursor, pageSize, order.name().toLowerCase().replace('_', '-'));
+	}
+
+	// Card projections of getAllProduct
+	public List<ProductListItem> getAllProductListItems() {
+		if (catalogCache.isEnabled()) {
+			return toListItems(catalogCache.getAll());
+		}
+		return withVendorNames(productRepo.findAllListItems());
+	}
+
+	// Card projections of getProductsByVendorId
+	public List<ProductListItem> getProductListItemsByVendorId(Long vendorId) {
+		if (catalogCache.isEnabled()) {
+			return toListItems(catalogCache.getByVendorId(vendorId));
+		}
+		return withVendorNames(productRepo.findAllListItemsByVendorId(vendorId));
+	}
+
+	// Card projections of searchProducts, in the same order
+	public List<ProductListItem> searchProductListItems(String query, int limit) {
+		return toListItems(searchProducts(query, limit));
+	}
+
+	private static List<ProductListItem> toListItems(List<Product> products) {
+		List<ProductListItem> items = new ArrayList<>(products.size());
+		for (Product product : products) {
+			items.add(ProductListItem.from(product));
+		}
+		return items;
+	}
+
+	// Fills in vendor names with one query for all distinct vendors of the items
+	private List<ProductListItem> withVendorNames(List<ProductListItem> items) {
+		Set<Long> vendorIds = new HashSet<>();
+		for (ProductListItem item : items) {
+			if (item.getVendor() != null) {
+				vendorIds.add(item.getVendor().getId());
+			}
+		}
+		if (vendorIds.isEmpty()) {
+			return items;
+		}
+		Map<Long, Object[]> names = new HashMap<>();
+		for (Object[] row : vendorRepo.findNamesByIdIn(vendorIds)) {
+			names.put((Long) row[0], row);
+		}
+		for (ProductListItem item : items) {
+			Object[] row = item.getVendor() != null ? names.get(item.getVendor().getId()) : null;
+			if (row != null) {
+				item.getVendor().setName((String) row[1]);
+				item.getVendor().setShopName((String) row[2]);
+			}
+		}
+		return items;
+	}
+
+	public List<Product> getProductsByCategory(String category) {
+		if (catalogCache.isEnabled()) {
+			return catalogCache.getByCategory(category);
+		}
+		return productRepo.findByCategory(category);
+	}
+
 	public void createProduct(Product product) {
-		productRepo.save(product);
+		product.setImage(imageStore.externalize(product.getImage()));
+		Product saved = productRepo.save(product);
+		publishProductChanged(saved);
 	}
 
 	public void updateProduct(Product product) {
 		productRepo.findById(product.getId())
 				.orElseThrow(() -> new RuntimeException("Product with id " + product.getId() + " not found"));
-		productRepo.save(product);
+		product.setImage(imageStore.externalize(product.getImage()));
+		Product saved = productRepo.save(product);
+		publishProductChanged(saved);
 	}
 
 	public void deleteProduct(long id) {
-		productRepo.findById(id)
+		Product product = productRepo.findById(id)
 				.orElseThrow(() -> new RuntimeException("Product with id " + id + " not found"));
 		productRepo.deleteById(id);
+		publishProductChanged(product);
+	}
+
+	private void publishProductChanged(Product product) {
+		Long vendorId = product.getVendor() != null ? product.getVendor().getId() : null;
+		eventPublisher.publishEvent(new ProductChangedEvent(vendorId, List.of(product.getId())));
 	}
 
 	// ✅ Get products by vendor name
 	public List<Product> getProductsByVendorName(String vendorName) {
+		if (catalogCache.isEnabled()) {
+			return catalogCache.getByVendorName(vendorName);
+		}
 		return productRepo.findByVendor_Name(vendorName);
 	}
 
 	// ✅ Get products by vendor ID
 	public List<Product> getProductsByVendorId(Long vendorId) {
+		if (catalogCache.isEnabled()) {
+			return catalogCache.getByVendorId(vendorId);
+		}
 		return productRepo.findByVendorId(vendorId);
 	}
 
 	// ✅ Get products by product name (optional)
 	public List<Product> getProductsByName(String name) {
+		if (catalogCache.isEnabled()) {
+			return catalogCache.getByName(name);
+		}
 		return productRepo.findByName(name);
 	}
 
+	/**
+	 * Free-text search over name, category, vendor shop name and description with
+	 * prefix and typo matching, ranked by relevance and rating.
+	 * Returned products are shared and read-only when served from the search index.
+	 */
+	public List<Product> searchProducts(String query, int limit) {
+		if (searchIndex.isEnabled()) {
+			return searchIndex.search(query, limit);
+		}
+		if (query == null || query.isBlank()) {
+			return List.of();
+		}
+		List<Product> products = productRepo.findByNameContainingIgnoreCase(query.trim());
+		return products.size() > limit ? products.subList(0, limit) : products;
+	}
+
 	public List<Product> findProductByName(String name) {
-		return productRepo.findByName(name);
+		return getProductsByName(name);
 	}
 
 	// ✅ Find products by name (alias for consistency)
 	public List<Product> findByName(String name) {
-		return productRepo.findByName(name);
+		return getProductsByName(name);
 	}
 }
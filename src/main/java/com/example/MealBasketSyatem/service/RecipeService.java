@@ -3,10 +3,12 @@ package com.example.MealBasketSyatem.service;
 import com.example.MealBasketSyatem.entity.Recipe;
 import com.example.MealBasketSyatem.entity.RecipeCategory;
 import com.example.MealBasketSyatem.entity.Vendor;
+import com.example.MealBasketSyatem.event.RecipeChangedEvent;
 import com.example.MealBasketSyatem.repository.RecipeRepository;
 import com.example.MealBasketSyatem.repo.VendorRepo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,9 +26,17 @@ public class RecipeService {
 
     @Autowired
     private VendorRepo vendorRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    private void publishRecipeChanged(Recipe recipe) {
+        Long vendorId = recipe.getVendor() != null ? recipe.getVendor().getId() : null;
+        eventPublisher.publishEvent(new RecipeChangedEvent(vendorId, recipe.getId()));
+    }
+
     // Get all recipes for a vendor
     public List<Recipe> getVendorRecipes(Long vendorId) {
         return recipeRepository.findByVendorIdAndIsActiveTrue(vendorId);
@@ -120,7 +130,9 @@ public class RecipeService {
             recipe.setCreatedAt(LocalDateTime.now());
             recipe.setUpdatedAt(LocalDateTime.now());
 
-            return recipeRepository.save(recipe);
+            Recipe saved = recipeRepository.save(recipe);
+            publishRecipeChanged(saved);
+            return saved;
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to create recipe: " + e.getMessage(), e);
@@ -192,7 +204,9 @@ public class RecipeService {
             }
 
             recipe.setUpdatedAt(LocalDateTime.now());
-            return recipeRepository.save(recipe);
+            Recipe saved = recipeRepository.save(recipe);
+            publishRecipeChanged(saved);
+            return saved;
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to update recipe: " + e.getMessage(), e);
@@ -208,6 +222,7 @@ public class RecipeService {
             recipe.setIsActive(false);
             recipe.setUpdatedAt(LocalDateTime.now());
             recipeRepository.save(recipe);
+            publishRecipeChanged(recipe);
             
             return true;
         } catch (Exception e) {
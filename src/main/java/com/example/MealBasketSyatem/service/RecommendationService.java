@@ -1,14 +1,38 @@
 package com.example.MealBasketSyatem.service;
 
 import com.example.MealBasketSyatem.entity.Product;
-import com.example.MealBasketSyatem.entity.ProductReview;
-import com.example.MealBasketSyatem.entity.User;
+import com.example.MealBasketSyatem.recommendation.AlsModel;
+import com.example.MealBasketSyatem.recommendation.AlsTrainer;
+import com.example.MealBasketSyatem.recommendation.CategoryLeaderboards;
+import com.example.MealBasketSyatem.recommendation.CoPurchaseIndex;
+import com.example.MealBasketSyatem.recommendation.ItemSimilarityIndex;
+import com.example.MealBasketSyatem.recommendation.LeaderboardType;
+import com.example.MealBasketSyatem.recommendation.MinHashLshIndex;
+import com.example.MealBasketSyatem.recommendation.NeighbourIndex;
+import com.example.MealBasketSyatem.recommendation.RatingMatrix;
+import com.example.MealBasketSyatem.recommendation.RecommendationCache;
+import com.example.MealBasketSyatem.recommendation.RecommendationExecutor;
+import com.example.MealBasketSyatem.recommendation.RecommendationMetrics;
+import com.example.MealBasketSyatem.recommendation.RecommendationMode;
+import com.example.MealBasketSyatem.recommendation.SparseRatingVector;
+import com.example.MealBasketSyatem.recommendation.SparseUserVectors;
+import com.example.MealBasketSyatem.recommendation.TopK;
+import com.example.MealBasketSyatem.repo.OrderItemRepo;
 import com.example.MealBasketSyatem.repo.ProductRepo;
-import com.example.MealBasketSyatem.repository.ProductReviewRepository;
-import com.example.MealBasketSyatem.repo.UserRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -16,13 +40,84 @@ import java.util.stream.Collectors;
 public class RecommendationService {
 
     @Autowired
-    private ProductReviewRepository productReviewRepository;
+    private RatingMatrix ratingMatrix;
 
     @Autowired
     private ProductRepo productRepository;
 
+    // Similarity engine: "sparse" (primitive sorted vectors) or "map" (boxed maps)
+    @Value("${recommendation.similarity.engine:sparse}")
+    private String similarityEngine;
+
+    // Sparse vectors built for the last seen matrix version; requests use them while a newer build runs
+    private volatile SparseUserVectors sparseUserVectors;
+    private final Object sparseUserVectorsLock = new Object();
+
+    @Autowired
+    private NeighbourIndex neighbourIndex;
+
+    // Use the precomputed top-K neighbour index when the user is in it
+    @Value("${recommendation.neighbours.enabled:true}")
+    private boolean neighbourIndexEnabled;
+
+    @Value("${recommendation.neighbours.k:50}")
+    private int neighbourCount;
+
+    // Bounded fork-join pool; the sparse engine splits users and candidate products across it
+    @Autowired
+    private RecommendationExecutor executor;
+
+    @Autowired
+    private ItemSimilarityIndex itemSimilarityIndex;
+
+    @Value("${recommendation.item-similarity.top-n:30}")
+    private int similarItemCount;
+
     @Autowired
-    private UserRepo userRepository;
+    private AlsTrainer alsTrainer;
+
+    // Candidate neighbours from MinHash buckets once the user base is too large for a full scan
+    @Autowired
+    private MinHashLshIndex lshIndex;
+
+    @Autowired
+    private CoPurchaseIndex coPurchaseIndex;
+
+    // Per-category trending and top-rated boards, used for cold start
+    @Autowired
+    private CategoryLeaderboards categoryLeaderboards;
+
+    @Autowired
+    private OrderItemRepo orderItemRepo;
+
+    // Stage latency histograms and work counts of computed (uncached) requests
+    @Autowired
+    private RecommendationMetrics recommendationMetrics;
+
+    @Value("${recommendation.leaderboards.velocity-window-days:7}")
+    private int velocityWindowDays;
+
+    // Computed lists per (user, topN, mode), invalidated on review and product changes
+    @Autowired
+    private RecommendationCache<List<RecommendationResult>> recommendationCache;
+
+    // Names of the builds run through the executor, so a scheduled and a request-triggered build never overlap
+    private static final String ITEM_SIMILARITY_BUILD = "item-similarity";
+    private static final String ALS_TRAINING = "als";
+    private static final String LEADERBOARDS_BUILD = "leaderboards";
+    private static final String LSH_BUILD = "lsh";
+
+    // Minimum number of ALS candidates scored before business rules are applied
+    private static final int MIN_ALS_CANDIDATES = 50;
+
+    @Value("${recommendation.batch.output-dir:data/recommendation/batches}")
+    private String batchOutputDir;
+
+    private final ObjectMapper batchObjectMapper = new ObjectMapper();
+
+    // Users held in memory at once during batch generation, and users per fork-join task
+    private static final int BATCH_CHUNK_SIZE = 512;
+    private static final int BATCH_USERS_PER_TASK = 8;
 
     // Minimum threshold for weighted rating
     private static final int MIN_REVIEWS_THRESHOLD = 10;
@@ -41,91 +136,710 @@ public class RecommendationService {
      * @return List of recommended products with predicted ratings
      */
     public List<RecommendationResult> getRecommendationsForUser(Long userId, int topN) {
-        // Get all users and products
-        List<User> allUsers = userRepository.findAll();
-        List<Product> allProducts = productRepository.findAll();
+        return getRecommendationsForUser(userId, topN, RecommendationMode.USER);
+    }
+
+    /**
+     * Get top N recommended products for a given user using the given strategy
+     * 
+     * @param userId The user ID
+     * @param topN Number of recommendations to return
+     * @param mode User-based or item-based collaborative filtering
+     * @return List of recommended products with predicted ratings
+     */
+    public List<RecommendationResult> getRecommendationsForUser(Long userId, int topN, RecommendationMode mode) {
+        List<RecommendationResult> cached = recommendationCache.get(userId, topN, mode);
+        if (cached != null) {
+            recommendationMetrics.recordCacheHit();
+            return cached;
+        }
         
-        // Get all reviews
-        List<ProductReview> allReviews = productReviewRepository.findAll();
+        long cacheEpoch = recommendationCache.currentEpoch();
+        // Fallback results served while the mode's index is being built are not cached
+        boolean ready = isReady(mode);
+        List<RecommendationResult> recommendations = Collections.unmodifiableList(computeRecommendations(userId, topN, mode));
+        if (ready) {
+            recommendationCache.put(userId, topN, mode, recommendations,
+                recommendations.stream().map(RecommendationResult::getProductId).collect(Collectors.toList()),
+                cacheEpoch);
+        }
+        return recommendations;
+    }
+
+    /**
+     * @return False while the structure the mode predicts from, or the cold-start
+     *         leaderboard, has not been built yet
+     */
+    private boolean isReady(RecommendationMode mode) {
+        if (!categoryLeaderboards.isBuilt()) {
+            return false;
+        }
+        if (mode == RecommendationMode.ITEM) {
+            return itemSimilarityIndex.isBuilt();
+        }
+        if (mode == RecommendationMode.ALS) {
+            return alsTrainer.getModel() != null;
+        }
+        return true;
+    }
+
+    private List<RecommendationResult> computeRecommendations(Long userId, int topN, RecommendationMode mode) {
+        RecommendationMetrics.Sample sample = new RecommendationMetrics.Sample();
+        long stageStart = System.nanoTime();
         
-        // Build user-item rating matrix
-        Map<Long, Map<Long, Double>> userItemRatings = buildUserItemRatingMatrix(allReviews);
+        // User-item rating matrix is kept resident and updated on every review change
+        long matrixVersion = ratingMatrix.getVersion();
+        Map<Long, Map<Long, Double>> userItemRatings = ratingMatrix.getUserItemRatings();
+        Collection<RatingMatrix.ProductStats> productStats = ratingMatrix.getProductStats();
         
         // Calculate global average rating
-        double globalAverageRating = calculateGlobalAverageRating(allProducts);
+        double globalAverageRating = calculateGlobalAverageRating(productStats);
         
         // Calculate improved ratings (weighted) for all products
-        Map<Long, Double> improvedRatings = calculateImprovedRatings(allProducts, globalAverageRating);
+        Map<Long, Double> improvedRatings = calculateImprovedRatings(productStats, globalAverageRating);
+        sample.stage(RecommendationMetrics.Stage.IMPROVED_RATINGS, stageStart);
         
         // Get current user's ratings
-        Map<Long, Double> currentUserRatings = userItemRatings.getOrDefault(userId, new HashMap<>());
-        
-        // Calculate similarity between current user and all other users
-        Map<Long, Double> userSimilarities = calculateUserSimilarities(
-            userId, 
-            allUsers, 
-            userItemRatings, 
-            improvedRatings
-        );
+        Map<Long, Double> currentUserRatings = ratingMatrix.getUserRatings(userId);
         
         // Predict ratings for products not rated by current user
-        Map<Long, Double> predictedRatings = predictRatings(
-            userId,
-            currentUserRatings,
-            allProducts,
-            userSimilarities,
-            userItemRatings,
-            improvedRatings
-        );
+        Map<Long, Double> predictedRatings = predictRatingsForMode(
+            userId, topN, mode, matrixVersion, userItemRatings, improvedRatings, currentUserRatings, sample);
+        sample.count(RecommendationMetrics.Count.CANDIDATE_PRODUCTS, predictedRatings.size());
+        
+        List<RecommendationResult> recommendations = rankRecommendations(predictedRatings, improvedRatings, currentUserRatings, topN, sample);
+        
+        // New users, and users whose ratings produce no predictions, get the trending leaderboard
+        if (recommendations.isEmpty()) {
+            recommendations = getColdStartRecommendations(topN, currentUserRatings.keySet());
+        }
+        
+        recommendationMetrics.record(mode, sample.finish());
+        return recommendations;
+    }
+
+    /**
+     * Recommendations for anonymous users: the catalog-wide trending leaderboard
+     * 
+     * @param topN Number of recommendations to return
+     * @return Trending products, predicted rating set to their weighted rating
+     */
+    public List<RecommendationResult> getColdStartRecommendations(int topN) {
+        return getColdStartRecommendations(topN, Collections.emptySet());
+    }
+
+    /**
+     * Trending products the user has not rated, served from the precomputed
+     * leaderboards without loading products
+     */
+    private List<RecommendationResult> getColdStartRecommendations(int topN, Set<Long> excludedProductIds) {
+        List<RecommendationResult> results = new ArrayList<>();
+        for (CategoryLeaderboards.Entry entry : getLeaderboard(null, LeaderboardType.TRENDING, topN + excludedProductIds.size())) {
+            if (results.size() == topN) {
+                break;
+            }
+            // Same rule as applyBusinessRules: do not recommend items with rating < 3
+            if (excludedProductIds.contains(entry.getProductId()) || entry.getWeightedRating() < MIN_RATING_THRESHOLD) {
+                continue;
+            }
+            
+            RecommendationResult result = new RecommendationResult();
+            result.setProductId(entry.getProductId());
+            result.setProductName(entry.getProductName());
+            result.setPredictedRating(entry.getWeightedRating());
+            result.setOriginalRating(entry.getWeightedRating());
+            result.setReviewCount(entry.getReviewCount());
+            result.setCategory(entry.getCategory());
+            result.setPrice(entry.getPrice());
+            result.setImage(entry.getImage());
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Read a precomputed leaderboard. Until the boards are first built (on the
+     * scheduler, or in the background once a read finds them missing) the
+     * result is empty.
+     * 
+     * @param category Category name (case-insensitive), or null for the whole catalog
+     * @param type Trending or top rated
+     * @param limit Maximum number of products
+     * @return Ranked products, best first
+     */
+    public List<CategoryLeaderboards.Entry> getLeaderboard(String category, LeaderboardType type, int limit) {
+        if (!categoryLeaderboards.isBuilt()) {
+            executor.runInBackground(LEADERBOARDS_BUILD, this::buildLeaderboards);
+        }
+        return categoryLeaderboards.top(category, type, limit);
+    }
+
+    /**
+     * Predict ratings for products not rated by the user with the given strategy
+     */
+    private Map<Long, Double> predictRatingsForMode(
+            Long userId,
+            int topN,
+            RecommendationMode mode,
+            long matrixVersion,
+            Map<Long, Map<Long, Double>> userItemRatings,
+            Map<Long, Double> improvedRatings,
+            Map<Long, Double> currentUserRatings,
+            RecommendationMetrics.Sample sample) {
+        
+        if (mode == RecommendationMode.ITEM && !itemSimilarityIndex.isBuilt()) {
+            // Build off the request thread; user-based predictions until it is ready
+            executor.runInBackground(ITEM_SIMILARITY_BUILD, this::buildItemSimilarityIndex);
+        } else if (mode == RecommendationMode.ITEM) {
+            long stageStart = System.nanoTime();
+            Map<Long, Double> predictedRatings = predictRatingsItemBased(currentUserRatings);
+            sample.stage(RecommendationMetrics.Stage.PREDICTION, stageStart);
+            return predictedRatings;
+        }
+        if (mode == RecommendationMode.ALS && alsTrainer.getModel() == null) {
+            // Train off the request thread; user-based predictions until a model exists
+            executor.runInBackground(ALS_TRAINING, this::trainAlsModelIfStale);
+        } else if (mode == RecommendationMode.ALS) {
+            long stageStart = System.nanoTime();
+            Map<Long, Double> predictedRatings = predictRatingsAls(userId, currentUserRatings, Math.max(topN * 4, MIN_ALS_CANDIDATES));
+            sample.stage(RecommendationMetrics.Stage.PREDICTION, stageStart);
+            return predictedRatings;
+        }
+        return predictRatingsUserBased(userId, matrixVersion, userItemRatings, improvedRatings, currentUserRatings, sample);
+    }
+
+    /**
+     * Generate top N recommendations for many users in one pass, e.g. for an
+     * overnight campaign. The rating matrix, improved ratings and catalog are read
+     * once, users are processed in fixed-size chunks spread across the
+     * recommendation pool, and each chunk is handed to the sink in user order
+     * before the next one starts, so memory stays flat regardless of the number
+     * of users. Results bypass the per-user cache.
+     * 
+     * @param userIds Users to generate recommendations for
+     * @param topN Number of recommendations per user
+     * @param mode Strategy used for every user
+     * @param sink Receives each user's recommendations, in the order of userIds
+     * @return Number of users processed
+     */
+    public int generateRecommendationsBatch(List<Long> userIds, int topN, RecommendationMode mode, BatchSink sink) throws IOException {
+        long matrixVersion = ratingMatrix.getVersion();
+        Map<Long, Map<Long, Double>> userItemRatings = ratingMatrix.getUserItemRatings();
+        Collection<RatingMatrix.ProductStats> productStats = ratingMatrix.getProductStats();
+        Map<Long, Double> improvedRatings = calculateImprovedRatings(productStats, calculateGlobalAverageRating(productStats));
+        
+        // Catalog is loaded once instead of once per user
+        Map<Long, Product> catalog = new HashMap<>();
+        for (Product product : productRepository.findAll()) {
+            catalog.put(product.getId(), product);
+        }
+        
+        // Build shared structures up front rather than inside the parallel loop
+        if (mode == RecommendationMode.ITEM && !itemSimilarityIndex.isBuilt()) {
+            executor.runInBackground(ITEM_SIMILARITY_BUILD, this::buildItemSimilarityIndex);
+            System.out.println("[RecommendationService] Item similarity index not built yet; batch uses user-based predictions");
+        } else if (mode == RecommendationMode.ALS && alsTrainer.getModel() == null) {
+            executor.runInBackground(ALS_TRAINING, this::trainAlsModelIfStale);
+            System.out.println("[RecommendationService] No ALS model trained yet; batch uses user-based predictions");
+        } else if (mode == RecommendationMode.USER) {
+            if (!"map".equalsIgnoreCase(similarityEngine)) {
+                getSparseUserVectors(matrixVersion, userItemRatings, improvedRatings);
+            }
+            if (lshIndex.shouldUse(userItemRatings.size()) && !lshIndex.isBuilt()) {
+                rebuildLshIndex();
+            }
+        }
+        
+        for (int start = 0; start < userIds.size(); start += BATCH_CHUNK_SIZE) {
+            List<Long> chunk = userIds.subList(start, Math.min(start + BATCH_CHUNK_SIZE, userIds.size()));
+            List<List<RecommendationResult>> results = new ArrayList<>(Collections.nCopies(chunk.size(), null));
+            
+            executor.forEachRange(chunk.size(), BATCH_USERS_PER_TASK, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    Long userId = chunk.get(i);
+                    Map<Long, Double> currentUserRatings = userItemRatings.getOrDefault(userId, Collections.emptyMap());
+                    // Batch runs are not recorded in the per-request histograms
+                    Map<Long, Double> predictedRatings = predictRatingsForMode(
+                        userId, topN, mode, matrixVersion, userItemRatings, improvedRatings, currentUserRatings,
+                        new RecommendationMetrics.Sample());
+                    
+                    List<Product> candidateProducts = new ArrayList<>();
+                    for (Long productId : predictedRatings.keySet()) {
+                        Product product = catalog.get(productId);
+                        if (product != null) {
+                            candidateProducts.add(product);
+                        }
+                    }
+                    results.set(i, rankCandidates(predictedRatings, candidateProducts, improvedRatings, currentUserRatings, topN));
+                }
+            });
+            
+            for (int i = 0; i < chunk.size(); i++) {
+                sink.accept(chunk.get(i), results.get(i));
+            }
+        }
+        
+        return userIds.size();
+    }
+
+    /**
+     * Stream batch recommendations as newline-delimited JSON, one
+     * {"userId": ..., "recommendations": [...]} object per line
+     * 
+     * @return Number of users written
+     */
+    public int writeRecommendationsBatch(List<Long> userIds, int topN, RecommendationMode mode, OutputStream out) throws IOException {
+        return generateRecommendationsBatch(userIds, topN, mode, (userId, recommendations) -> {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("userId", userId);
+            line.put("recommendations", recommendations);
+            out.write(batchObjectMapper.writeValueAsBytes(line));
+            out.write('\n');
+        });
+    }
+
+    /**
+     * Write batch recommendations as newline-delimited JSON to a new file in the
+     * configured batch output directory
+     * 
+     * @return The written file
+     */
+    public Path exportRecommendationsBatch(List<Long> userIds, int topN, RecommendationMode mode) throws IOException {
+        Path dir = Paths.get(batchOutputDir);
+        Files.createDirectories(dir);
+        Path file = dir.resolve("recommendations-" + mode.name().toLowerCase() + "-" + System.currentTimeMillis() + ".ndjson");
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        
+        long start = System.currentTimeMillis();
+        int users;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16)) {
+            users = writeRecommendationsBatch(userIds, topN, mode, out);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        
+        System.out.println("[RecommendationService] Wrote " + users + " users' recommendations to " + file
+                + " in " + (System.currentTimeMillis() - start) + " ms");
+        return file;
+    }
+
+    /**
+     * Consumer of batch recommendation results
+     */
+    @FunctionalInterface
+    public interface BatchSink {
+        void accept(Long userId, List<RecommendationResult> recommendations) throws IOException;
+    }
+
+    /**
+     * User-based prediction: similarity to other users (or the user's precomputed
+     * top-K neighbours) followed by a similarity-weighted average of their ratings
+     */
+    private Map<Long, Double> predictRatingsUserBased(
+            Long userId,
+            long matrixVersion,
+            Map<Long, Map<Long, Double>> userItemRatings,
+            Map<Long, Double> improvedRatings,
+            Map<Long, Double> currentUserRatings,
+            RecommendationMetrics.Sample sample) {
+        
+        long stageStart = System.nanoTime();
+        
+        // Calculate similarity between current user and all other users,
+        // or take the user's precomputed top-K neighbours when available
+        boolean mapEngine = "map".equalsIgnoreCase(similarityEngine);
+        SparseUserVectors vectors = mapEngine ? null
+            : getSparseUserVectorsFor(userId, matrixVersion, userItemRatings, improvedRatings, currentUserRatings);
+        stageStart = sample.stage(RecommendationMetrics.Stage.MATRIX, stageStart);
+        
+        Map<Long, Double> userSimilarities;
+        int otherUsers = userItemRatings.size() - (userItemRatings.containsKey(userId) ? 1 : 0);
+        NeighbourIndex.Neighbours neighbours = neighbourIndexEnabled ? neighbourIndex.get(userId) : null;
+        if (neighbours != null) {
+            sample.count(RecommendationMetrics.Count.USERS_SCANNED, 0);
+            userSimilarities = new HashMap<>();
+            for (int i = 0; i < neighbours.size(); i++) {
+                userSimilarities.put(neighbours.userIdAt(i), neighbours.similarityAt(i));
+            }
+        } else if (lshIndex.shouldUse(userItemRatings.size()) && !lshIndex.isBuilt()) {
+            // Hash users off the request thread; full scans until the index is ready
+            executor.runInBackground(LSH_BUILD, this::buildLshIndex);
+            sample.count(RecommendationMetrics.Count.USERS_SCANNED, otherUsers);
+            userSimilarities = mapEngine
+                ? calculateUserSimilarities(userId, userItemRatings.keySet(), userItemRatings, improvedRatings)
+                : calculateUserSimilaritiesSparse(userId, vectors);
+        } else if (lshIndex.shouldUse(userItemRatings.size())) {
+            // Only users sharing a MinHash bucket are scored
+            List<Long> candidates = lshIndex.candidates(userId, currentUserRatings.keySet());
+            sample.count(RecommendationMetrics.Count.USERS_SCANNED, candidates.size());
+            userSimilarities = mapEngine
+                ? calculateUserSimilarities(userId, candidates, userItemRatings, improvedRatings)
+                : calculateUserSimilaritiesSparse(userId, vectors, candidates);
+        } else if (mapEngine) {
+            sample.count(RecommendationMetrics.Count.USERS_SCANNED, otherUsers);
+            userSimilarities = calculateUserSimilarities(
+                userId, 
+                userItemRatings.keySet(), 
+                userItemRatings, 
+                improvedRatings
+            );
+        } else {
+            sample.count(RecommendationMetrics.Count.USERS_SCANNED, otherUsers);
+            userSimilarities = calculateUserSimilaritiesSparse(userId, vectors);
+        }
+        sample.count(RecommendationMetrics.Count.NEIGHBOURS_USED, userSimilarities.size());
+        stageStart = sample.stage(RecommendationMetrics.Stage.SIMILARITY, stageStart);
+        
+        Map<Long, Double> predictedRatings;
+        if (mapEngine) {
+            predictedRatings = predictRatings(
+                userId,
+                currentUserRatings,
+                userSimilarities,
+                userItemRatings,
+                improvedRatings
+            );
+        } else {
+            predictedRatings = predictRatingsSparse(currentUserRatings, userSimilarities, vectors);
+        }
+        sample.stage(RecommendationMetrics.Stage.PREDICTION, stageStart);
+        return predictedRatings;
+    }
+
+    /**
+     * Item-based prediction from the user's own ratings only
+     * Ŕ(u,j) = Σ(Sim(i,j) * R(u,i)) / Σ|Sim(i,j)| over products i rated by u
+     * 
+     * @param currentUserRatings Current user's ratings
+     * @return Map of productId -> predicted rating, in ascending product id order
+     */
+    private Map<Long, Double> predictRatingsItemBased(Map<Long, Double> currentUserRatings) {
+        Map<Long, Double> numerators = new TreeMap<>();
+        Map<Long, Double> denominators = new HashMap<>();
+        
+        for (Map.Entry<Long, Double> rated : currentUserRatings.entrySet()) {
+            ItemSimilarityIndex.ItemNeighbours similarItems = itemSimilarityIndex.get(rated.getKey());
+            if (similarItems == null) {
+                continue;
+            }
+            
+            for (int i = 0; i < similarItems.size(); i++) {
+                Long productId = similarItems.productIdAt(i);
+                
+                // Skip products already rated by current user
+                if (currentUserRatings.containsKey(productId)) {
+                    continue;
+                }
+                
+                double similarity = similarItems.similarityAt(i);
+                numerators.merge(productId, similarity * rated.getValue(), Double::sum);
+                denominators.merge(productId, Math.abs(similarity), Double::sum);
+            }
+        }
+        
+        Map<Long, Double> predictedRatings = new LinkedHashMap<>();
+        for (Map.Entry<Long, Double> entry : numerators.entrySet()) {
+            double denominator = denominators.get(entry.getKey());
+            if (denominator > 0) {
+                predictedRatings.put(entry.getKey(), entry.getValue() / denominator);
+            }
+        }
+        
+        return predictedRatings;
+    }
+
+    /**
+     * Matrix-factorisation prediction: Ŕ(u,j) = μ + p(u)·q(j) from the last trained
+     * ALS model. Only the best candidates survive a top-K selection, so ranking
+     * loads a bounded number of products. Users the model has not seen yet get
+     * no ALS predictions.
+     * 
+     * @param userId Current user ID
+     * @param currentUserRatings Current user's ratings
+     * @param candidateCount Number of highest-scoring products to keep
+     * @return Map of productId -> predicted rating, highest first
+     */
+    private Map<Long, Double> predictRatingsAls(Long userId, Map<Long, Double> currentUserRatings, int candidateCount) {
+        AlsModel model = alsTrainer.getModel();
+        Map<Long, Double> predictedRatings = new LinkedHashMap<>();
+        int userIndex = model != null ? model.userIndex(userId) : -1;
+        if (userIndex < 0) {
+            return predictedRatings;
+        }
+        
+        // No more candidates than products, however large the requested count
+        TopK topK = new TopK(Math.min(candidateCount, model.getProductCount()));
+        for (int p = 0; p < model.getProductCount(); p++) {
+            long productId = model.productIdAt(p);
+            if (!currentUserRatings.containsKey(productId)) {
+                topK.offer(productId, model.predict(userIndex, p));
+            }
+        }
+        
+        long[] productIds = new long[topK.size()];
+        double[] scores = new double[topK.size()];
+        topK.drainDescending(productIds, scores);
+        for (int i = 0; i < productIds.length; i++) {
+            // Keep predictions on the 1-5 rating scale
+            predictedRatings.put(productIds[i], Math.max(1.0, Math.min(5.0, scores[i])));
+        }
+        
+        return predictedRatings;
+    }
+
+    /**
+     * Load the products that received a prediction, apply business rules and
+     * return the top N by predicted rating (ties by product id)
+     */
+    private List<RecommendationResult> rankRecommendations(
+            Map<Long, Double> predictedRatings,
+            Map<Long, Double> improvedRatings,
+            Map<Long, Double> currentUserRatings,
+            int topN,
+            RecommendationMetrics.Sample sample) {
+        
+        // Only the products that received a prediction are loaded
+        long stageStart = System.nanoTime();
+        List<Product> candidateProducts = productRepository.findAllById(predictedRatings.keySet());
+        stageStart = sample.stage(RecommendationMetrics.Stage.PRODUCT_LOAD, stageStart);
+        
+        List<RecommendationResult> recommendations = rankCandidates(predictedRatings, candidateProducts, improvedRatings, currentUserRatings, topN);
+        sample.stage(RecommendationMetrics.Stage.RANKING, stageStart);
+        return recommendations;
+    }
+
+    /**
+     * Apply business rules to already loaded candidate products and return the
+     * top N by predicted rating (ties by product id)
+     */
+    private List<RecommendationResult> rankCandidates(
+            Map<Long, Double> predictedRatings,
+            List<Product> candidateProducts,
+            Map<Long, Double> improvedRatings,
+            Map<Long, Double> currentUserRatings,
+            int topN) {
+        
+        candidateProducts.sort(Comparator.comparingLong(Product::getId));
         
         // Apply business rules and filter
         List<RecommendationResult> recommendations = applyBusinessRules(
             predictedRatings,
-            allProducts,
+            candidateProducts,
             improvedRatings,
             currentUserRatings
         );
         
-        // Sort by predicted rating and return top N
+        // Sort by predicted rating (ties by product id) and return top N
         return recommendations.stream()
-            .sorted((r1, r2) -> Double.compare(r2.getPredictedRating(), r1.getPredictedRating()))
+            .sorted(Comparator.comparing(RecommendationResult::getPredictedRating).reversed()
+                .thenComparing(RecommendationResult::getProductId))
             .limit(topN)
             .collect(Collectors.toList());
     }
 
     /**
-     * Build user-item rating matrix from reviews
+     * Rebuild the top-K neighbour index from the current rating matrix
+     * Runs in the background every 15 minutes by default
+     */
+    @Scheduled(initialDelayString = "${recommendation.neighbours.initial-delay-ms:60000}",
+               fixedDelayString = "${recommendation.neighbours.rebuild-interval-ms:900000}")
+    public void rebuildNeighbourIndex() {
+        if (!neighbourIndexEnabled || !ratingMatrix.isLoaded()) {
+            return;
+        }
+        
+        long matrixVersion = ratingMatrix.getVersion();
+        if (neighbourIndex.isBuilt() && neighbourIndex.getMatrixVersion() == matrixVersion) {
+            return;
+        }
+        
+        Collection<RatingMatrix.ProductStats> productStats = ratingMatrix.getProductStats();
+        Map<Long, Double> improvedRatings = calculateImprovedRatings(productStats, calculateGlobalAverageRating(productStats));
+        neighbourIndex.rebuild(
+            getSparseUserVectors(matrixVersion, ratingMatrix.getUserItemRatings(), improvedRatings),
+            neighbourCount
+        );
+    }
+
+    /**
+     * Re-hash every user into the MinHash LSH buckets
+     * Reviews update the buckets as they arrive; this runs hourly by default to
+     * pick up wholesale reloads of the rating matrix
+     */
+    @Scheduled(initialDelayString = "${recommendation.lsh.initial-delay-ms:60000}",
+               fixedDelayString = "${recommendation.lsh.rebuild-interval-ms:3600000}")
+    public void rebuildLshIndex() {
+        executor.runExclusive(LSH_BUILD, this::buildLshIndex);
+    }
+
+    private void buildLshIndex() {
+        if (!ratingMatrix.isLoaded() || !lshIndex.shouldUse(ratingMatrix.getUserItemRatings().size())) {
+            return;
+        }
+        
+        lshIndex.rebuild(ratingMatrix.getUserItemRatings());
+    }
+
+    /**
+     * Measure how many of each user's exact top-K neighbours the LSH candidates
+     * contain, on an evenly spaced sample of users, to tune bands and rows
      * 
-     * @param reviews List of all product reviews
-     * @return Map of userId -> (productId -> rating)
+     * @param sampleSize Number of users to evaluate
+     * @return Recall, candidate counts and timings of exact and LSH scans
      */
-    private Map<Long, Map<Long, Double>> buildUserItemRatingMatrix(List<ProductReview> reviews) {
-        Map<Long, Map<Long, Double>> userItemRatings = new HashMap<>();
+    public Map<String, Object> evaluateLshRecall(int sampleSize) {
+        long matrixVersion = ratingMatrix.getVersion();
+        Map<Long, Map<Long, Double>> userItemRatings = ratingMatrix.getUserItemRatings();
+        Collection<RatingMatrix.ProductStats> productStats = ratingMatrix.getProductStats();
+        Map<Long, Double> improvedRatings = calculateImprovedRatings(productStats, calculateGlobalAverageRating(productStats));
+        SparseUserVectors vectors = getSparseUserVectors(matrixVersion, userItemRatings, improvedRatings);
+        if (!lshIndex.isBuilt()) {
+            lshIndex.rebuild(userItemRatings);
+        }
         
-        for (ProductReview review : reviews) {
-            Long userId = review.getUser().getId();
-            Long productId = review.getProduct().getId();
-            Double rating = review.getRating();
+        int sampled = 0;
+        long found = 0;
+        long relevant = 0;
+        long candidateTotal = 0;
+        long exactNanos = 0;
+        long lshNanos = 0;
+        int step = Math.max(1, vectors.size() / Math.max(1, sampleSize));
+        TopK topK = new TopK(neighbourCount);
+        for (int i = 0; i < vectors.size() && sampled < sampleSize; i += step) {
+            Long userId = vectors.userIdAt(i);
+            
+            long start = System.nanoTime();
+            NeighbourIndex.Neighbours exact = NeighbourIndex.computeNeighbours(vectors, i, topK);
+            exactNanos += System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            List<Long> candidates = lshIndex.candidates(userId, userItemRatings.getOrDefault(userId, Collections.emptyMap()).keySet());
+            calculateUserSimilaritiesSparse(userId, vectors, candidates);
+            lshNanos += System.nanoTime() - start;
             
-            userItemRatings
-                .computeIfAbsent(userId, k -> new HashMap<>())
-                .put(productId, rating);
+            Set<Long> candidateSet = new HashSet<>(candidates);
+            for (int n = 0; n < exact.size(); n++) {
+                if (candidateSet.contains(exact.userIdAt(n))) {
+                    found++;
+                }
+            }
+            relevant += exact.size();
+            candidateTotal += candidates.size();
+            sampled++;
+        }
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("sampledUsers", sampled);
+        report.put("users", vectors.size());
+        report.put("k", neighbourCount);
+        report.put("bands", lshIndex.getBands());
+        report.put("rowsPerBand", lshIndex.getRows());
+        report.put("recallAtK", relevant > 0 ? (double) found / relevant : null);
+        report.put("averageCandidates", sampled > 0 ? (double) candidateTotal / sampled : 0.0);
+        report.put("averageExactMillis", sampled > 0 ? exactNanos / 1e6 / sampled : 0.0);
+        report.put("averageLshMillis", sampled > 0 ? lshNanos / 1e6 / sampled : 0.0);
+        return report;
+    }
+
+    /**
+     * Rebuild the item-to-item similarity table from the current rating matrix
+     * Runs in the background every 30 minutes by default
+     */
+    @Scheduled(initialDelayString = "${recommendation.item-similarity.initial-delay-ms:60000}",
+               fixedDelayString = "${recommendation.item-similarity.rebuild-interval-ms:1800000}")
+    public void rebuildItemSimilarityIndex() {
+        executor.runExclusive(ITEM_SIMILARITY_BUILD, this::buildItemSimilarityIndex);
+    }
+
+    private void buildItemSimilarityIndex() {
+        if (!ratingMatrix.isLoaded()) {
+            return;
+        }
+        
+        long matrixVersion = ratingMatrix.getVersion();
+        if (itemSimilarityIndex.isBuilt() && itemSimilarityIndex.getMatrixVersion() == matrixVersion) {
+            return;
+        }
+        
+        itemSimilarityIndex.rebuild(matrixVersion, ratingMatrix.getUserItemRatings(), similarItemCount);
+    }
+
+    /**
+     * Recompute the per-category trending and top-rated leaderboards from the
+     * Bayesian weighted ratings and units ordered in the velocity window
+     * Runs every 10 minutes by default
+     */
+    @Scheduled(initialDelayString = "${recommendation.leaderboards.initial-delay-ms:30000}",
+               fixedDelayString = "${recommendation.leaderboards.rebuild-interval-ms:600000}")
+    public void rebuildLeaderboards() {
+        executor.runExclusive(LEADERBOARDS_BUILD, this::buildLeaderboards);
+    }
+
+    private void buildLeaderboards() {
+        if (!ratingMatrix.isLoaded()) {
+            return;
+        }
+        
+        Collection<RatingMatrix.ProductStats> productStats = ratingMatrix.getProductStats();
+        double globalAverageRating = calculateGlobalAverageRating(productStats);
+        Map<Long, Double> improvedRatings = calculateImprovedRatings(productStats, globalAverageRating);
+        
+        Map<Long, Long> recentUnitsSold = new HashMap<>();
+        for (Object[] row : orderItemRepo.sumQuantityByProductSince(LocalDateTime.now().minusDays(velocityWindowDays))) {
+            if (row[0] != null && row[1] != null) {
+                recentUnitsSold.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+            }
         }
         
-        return userItemRatings;
+        categoryLeaderboards.rebuild(productRepository.findAll(), improvedRatings, globalAverageRating, recentUnitsSold);
+    }
+
+    /**
+     * Retrain the ALS model from the current rating matrix and write its snapshot
+     * Runs in the background every 6 hours by default
+     */
+    @Scheduled(initialDelayString = "${recommendation.als.initial-delay-ms:120000}",
+               fixedDelayString = "${recommendation.als.train-interval-ms:21600000}")
+    public void trainAlsModel() {
+        executor.runExclusive(ALS_TRAINING, this::trainAlsModelIfStale);
+    }
+
+    private void trainAlsModelIfStale() {
+        if (!ratingMatrix.isLoaded()) {
+            return;
+        }
+        
+        AlsModel model = alsTrainer.getModel();
+        long matrixVersion = ratingMatrix.getVersion();
+        if (model != null && alsTrainer.getTrainedMatrixVersion() == matrixVersion) {
+            return;
+        }
+        
+        alsTrainer.trainAndPublish(ratingMatrix.getUserItemRatings(), matrixVersion);
+    }
+
+    /**
+     * Offline RMSE comparison of ALS against the Bayesian weighted rating on a
+     * 20% holdout of the current ratings
+     * 
+     * @return The evaluation report
+     */
+    public AlsTrainer.EvaluationReport evaluateAlsModel() {
+        Collection<RatingMatrix.ProductStats> productStats = ratingMatrix.getProductStats();
+        Map<Long, Double> improvedRatings = calculateImprovedRatings(productStats, calculateGlobalAverageRating(productStats));
+        return alsTrainer.evaluate(ratingMatrix.getUserItemRatings(), improvedRatings);
     }
 
     /**
      * Calculate global average rating across all products
      * 
-     * @param products List of all products
+     * @param productStats Rating statistics of all products
      * @return Global average rating
      */
-    private double calculateGlobalAverageRating(List<Product> products) {
+    double calculateGlobalAverageRating(Collection<RatingMatrix.ProductStats> productStats) {
         double totalRating = 0;
         int totalProducts = 0;
         
-        for (Product product : products) {
+        for (RatingMatrix.ProductStats product : productStats) {
             if (product.getRating() != null && product.getTotalRatings() != null && product.getTotalRatings() > 0) {
                 totalRating += product.getRating();
                 totalProducts++;
@@ -139,14 +853,14 @@ public class RecommendationService {
      * Calculate improved ratings using weighted rating (Bayesian average)
      * R'(u,i) = (v / (v + m)) * R(u,i) + (m / (v + m)) * C
      * 
-     * @param products List of all products
+     * @param productStats Rating statistics of all products
      * @param globalAverageRating Global average rating (C)
      * @return Map of productId -> improved rating
      */
-    private Map<Long, Double> calculateImprovedRatings(List<Product> products, double globalAverageRating) {
+    Map<Long, Double> calculateImprovedRatings(Collection<RatingMatrix.ProductStats> productStats, double globalAverageRating) {
         Map<Long, Double> improvedRatings = new HashMap<>();
         
-        for (Product product : products) {
+        for (RatingMatrix.ProductStats product : productStats) {
             Double rating = product.getRating();
             Integer reviewCount = product.getReviewCount();
             
@@ -160,7 +874,7 @@ public class RecommendationService {
                 
                 // Calculate improved rating
                 double improvedRating = (v / (v + m)) * rating + (m / (v + m)) * C;
-                improvedRatings.put(product.getId(), improvedRating);
+                improvedRatings.put(product.getProductId(), improvedRating);
             }
         }
         
@@ -172,23 +886,21 @@ public class RecommendationService {
      * Sim(u,v) = Σ(R'(u,i) * R'(v,i)) / (sqrt(ΣR'(u,i)^2) * sqrt(ΣR'(v,i)^2))
      * 
      * @param targetUserId Target user ID
-     * @param allUsers List of all users
+     * @param userIds IDs of all users with at least one rating
      * @param userItemRatings User-item rating matrix
      * @param improvedRatings Map of improved ratings
      * @return Map of userId -> similarity score
      */
-    private Map<Long, Double> calculateUserSimilarities(
+    Map<Long, Double> calculateUserSimilarities(
             Long targetUserId,
-            List<User> allUsers,
+            Collection<Long> userIds,
             Map<Long, Map<Long, Double>> userItemRatings,
             Map<Long, Double> improvedRatings) {
         
         Map<Long, Double> similarities = new HashMap<>();
         Map<Long, Double> targetUserRatings = userItemRatings.getOrDefault(targetUserId, new HashMap<>());
         
-        for (User user : allUsers) {
-            Long otherUserId = user.getId();
-            
+        for (Long otherUserId : userIds) {
             // Skip the target user
             if (otherUserId.equals(targetUserId)) {
                 continue;
@@ -230,61 +942,267 @@ public class RecommendationService {
         return similarities;
     }
 
+    /**
+     * Same similarity as {@link #calculateUserSimilarities} computed over sparse
+     * primitive vectors with a merge-based kernel. Users are split into ranges
+     * across the recommendation fork-join pool; each range writes only its own
+     * slots so the result does not depend on the split. Users sharing no rated
+     * product (similarity 0) are left out since they never contribute to a prediction.
+     * 
+     * @param targetUserId Target user ID
+     * @param vectors Sparse vectors of all users with at least one rating
+     * @return Map of userId -> similarity score, in ascending user id order
+     */
+    Map<Long, Double> calculateUserSimilaritiesSparse(Long targetUserId, SparseUserVectors vectors) {
+        Map<Long, Double> similarities = new LinkedHashMap<>();
+        int targetIndex = vectors.indexOf(targetUserId);
+        if (targetIndex < 0) {
+            return similarities;
+        }
+        
+        SparseRatingVector target = vectors.vectorAt(targetIndex);
+        double[] scores = new double[vectors.size()];
+        executor.forEachRange(vectors.size(), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                scores[i] = i == targetIndex ? 0.0 : SparseRatingVector.cosine(target, vectors.vectorAt(i));
+            }
+        });
+        
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] != 0.0) {
+                similarities.put(vectors.userIdAt(i), scores[i]);
+            }
+        }
+        
+        return similarities;
+    }
+
+    /**
+     * Same as {@link #calculateUserSimilaritiesSparse(Long, SparseUserVectors)}
+     * restricted to the given candidate users, e.g. from the LSH index
+     * 
+     * @param targetUserId Target user ID
+     * @param vectors Sparse vectors of all users with at least one rating
+     * @param candidateUserIds Users to score, in ascending id order
+     * @return Map of userId -> similarity score, in ascending user id order
+     */
+    Map<Long, Double> calculateUserSimilaritiesSparse(Long targetUserId, SparseUserVectors vectors, List<Long> candidateUserIds) {
+        Map<Long, Double> similarities = new LinkedHashMap<>();
+        int targetIndex = vectors.indexOf(targetUserId);
+        if (targetIndex < 0) {
+            return similarities;
+        }
+        
+        int[] indices = new int[candidateUserIds.size()];
+        int count = 0;
+        for (Long candidateId : candidateUserIds) {
+            int index = vectors.indexOf(candidateId);
+            if (index >= 0 && index != targetIndex) {
+                indices[count++] = index;
+            }
+        }
+        
+        SparseRatingVector target = vectors.vectorAt(targetIndex);
+        double[] scores = new double[count];
+        executor.forEachRange(count, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                scores[i] = SparseRatingVector.cosine(target, vectors.vectorAt(indices[i]));
+            }
+        });
+        
+        for (int i = 0; i < count; i++) {
+            if (scores[i] != 0.0) {
+                similarities.put(vectors.userIdAt(indices[i]), scores[i]);
+            }
+        }
+        
+        return similarities;
+    }
+
+    /**
+     * Return the sparse vectors for the given matrix version, rebuilding them only
+     * when the matrix has changed since the last build. Concurrent callers wait
+     * for one build instead of each running their own.
+     */
+    private SparseUserVectors getSparseUserVectors(long matrixVersion,
+                                                   Map<Long, Map<Long, Double>> userItemRatings,
+                                                   Map<Long, Double> improvedRatings) {
+        SparseUserVectors vectors = sparseUserVectors;
+        if (vectors != null && vectors.getVersion() >= matrixVersion) {
+            return vectors;
+        }
+        synchronized (sparseUserVectorsLock) {
+            vectors = sparseUserVectors;
+            if (vectors == null || vectors.getVersion() < matrixVersion) {
+                vectors = SparseUserVectors.build(matrixVersion, userItemRatings, improvedRatings);
+                sparseUserVectors = vectors;
+            }
+            return vectors;
+        }
+    }
+
+    /**
+     * Sparse vectors for one request. Once built, out-of-date vectors are rebuilt
+     * in the background while the request uses the previous ones with only the
+     * requesting user's own vector brought up to date.
+     */
+    private SparseUserVectors getSparseUserVectorsFor(Long userId,
+                                                      long matrixVersion,
+                                                      Map<Long, Map<Long, Double>> userItemRatings,
+                                                      Map<Long, Double> improvedRatings,
+                                                      Map<Long, Double> currentUserRatings) {
+        SparseUserVectors vectors = sparseUserVectors;
+        if (vectors == null) {
+            return getSparseUserVectors(matrixVersion, userItemRatings, improvedRatings);
+        }
+        if (vectors.getVersion() >= matrixVersion) {
+            return vectors;
+        }
+        executor.runInBackground("sparse-user-vectors", this::refreshSparseUserVectors);
+        return vectors.withUser(userId, SparseRatingVector.of(currentUserRatings, improvedRatings));
+    }
+
+    private void refreshSparseUserVectors() {
+        Collection<RatingMatrix.ProductStats> productStats = ratingMatrix.getProductStats();
+        Map<Long, Double> improvedRatings = calculateImprovedRatings(productStats, calculateGlobalAverageRating(productStats));
+        getSparseUserVectors(ratingMatrix.getVersion(), ratingMatrix.getUserItemRatings(), improvedRatings);
+    }
+
     /**
      * Predict ratings for products not rated by current user
      * Ŕ(u,i) = Σ(Sim(u,v) * R'(v,i)) / Σ|Sim(u,v)|
      * 
+     * Only products rated by at least one similar user can receive a prediction,
+     * so candidates are collected from the rows of those users.
+     * 
      * @param targetUserId Target user ID
      * @param currentUserRatings Current user's ratings
-     * @param allProducts List of all products
      * @param userSimilarities User similarity scores
      * @param userItemRatings User-item rating matrix
      * @param improvedRatings Map of improved ratings
      * @return Map of productId -> predicted rating
      */
-    private Map<Long, Double> predictRatings(
+    Map<Long, Double> predictRatings(
             Long targetUserId,
             Map<Long, Double> currentUserRatings,
-            List<Product> allProducts,
             Map<Long, Double> userSimilarities,
             Map<Long, Map<Long, Double>> userItemRatings,
             Map<Long, Double> improvedRatings) {
         
-        Map<Long, Double> predictedRatings = new HashMap<>();
+        Map<Long, Double> numerators = new HashMap<>();
+        Map<Long, Double> denominators = new HashMap<>();
         
-        for (Product product : allProducts) {
-            Long productId = product.getId();
+        for (Map.Entry<Long, Double> entry : userSimilarities.entrySet()) {
+            Long otherUserId = entry.getKey();
+            Double similarity = entry.getValue();
             
-            // Skip products already rated by current user
-            if (currentUserRatings.containsKey(productId)) {
+            // Only consider similar users (similarity > 0)
+            if (similarity <= 0) {
                 continue;
             }
             
-            // Calculate predicted rating
-            double numerator = 0.0;
-            double denominator = 0.0;
+            Map<Long, Double> otherUserRatings = userItemRatings.getOrDefault(otherUserId, new HashMap<>());
             
-            for (Map.Entry<Long, Double> entry : userSimilarities.entrySet()) {
-                Long otherUserId = entry.getKey();
-                Double similarity = entry.getValue();
+            for (Map.Entry<Long, Double> rated : otherUserRatings.entrySet()) {
+                Long productId = rated.getKey();
                 
-                // Only consider similar users (similarity > 0)
-                if (similarity > 0) {
-                    Map<Long, Double> otherUserRatings = userItemRatings.getOrDefault(otherUserId, new HashMap<>());
-                    
-                    // Use improved rating if available
-                    Double rating = otherUserRatings.get(productId);
-                    if (rating != null) {
-                        Double improvedRating = improvedRatings.getOrDefault(productId, rating);
-                        numerator += similarity * improvedRating;
-                        denominator += Math.abs(similarity);
-                    }
+                // Skip products already rated by current user
+                if (currentUserRatings.containsKey(productId)) {
+                    continue;
                 }
+                
+                // Use improved rating if available
+                Double improvedRating = improvedRatings.getOrDefault(productId, rated.getValue());
+                numerators.merge(productId, similarity * improvedRating, Double::sum);
+                denominators.merge(productId, Math.abs(similarity), Double::sum);
             }
-            
+        }
+        
+        Map<Long, Double> predictedRatings = new HashMap<>();
+        for (Map.Entry<Long, Double> entry : numerators.entrySet()) {
+            double denominator = denominators.get(entry.getKey());
             if (denominator > 0) {
-                double predictedRating = numerator / denominator;
-                predictedRatings.put(productId, predictedRating);
+                predictedRatings.put(entry.getKey(), entry.getValue() / denominator);
+            }
+        }
+        
+        return predictedRatings;
+    }
+
+    /**
+     * Same prediction as {@link #predictRatings} over sparse vectors, where each
+     * vector value already is R'(v,i). Candidate products are split into ranges
+     * across the recommendation fork-join pool. Similar users are visited in
+     * ascending id order so every sum is accumulated in the same order no matter
+     * how the work is split.
+     * 
+     * @param currentUserRatings Current user's ratings
+     * @param userSimilarities User similarity scores
+     * @param vectors Sparse vectors of all users with at least one rating
+     * @return Map of productId -> predicted rating, in ascending product id order
+     */
+    Map<Long, Double> predictRatingsSparse(
+            Map<Long, Double> currentUserRatings,
+            Map<Long, Double> userSimilarities,
+            SparseUserVectors vectors) {
+        
+        // Similar users (similarity > 0) in ascending id order
+        List<Long> similarUserIds = new ArrayList<>();
+        for (Map.Entry<Long, Double> entry : userSimilarities.entrySet()) {
+            if (entry.getValue() > 0 && vectors.indexOf(entry.getKey()) >= 0) {
+                similarUserIds.add(entry.getKey());
+            }
+        }
+        Collections.sort(similarUserIds);
+        
+        SparseRatingVector[] rows = new SparseRatingVector[similarUserIds.size()];
+        double[] similarities = new double[similarUserIds.size()];
+        int totalRated = 0;
+        for (int n = 0; n < rows.length; n++) {
+            rows[n] = vectors.get(similarUserIds.get(n));
+            similarities[n] = userSimilarities.get(similarUserIds.get(n));
+            totalRated += rows[n].size();
+        }
+        
+        // Candidate products: rated by a similar user but not by the current user
+        long[] candidates = new long[totalRated];
+        int count = 0;
+        for (SparseRatingVector row : rows) {
+            for (int i = 0; i < row.size(); i++) {
+                candidates[count++] = row.productIdAt(i);
+            }
+        }
+        Arrays.sort(candidates, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            long productId = candidates[i];
+            if ((unique == 0 || candidates[unique - 1] != productId) && !currentUserRatings.containsKey(productId)) {
+                candidates[unique++] = productId;
+            }
+        }
+        int candidateCount = unique;
+        
+        double[] predictions = new double[candidateCount];
+        executor.forEachRange(candidateCount, (from, to) -> {
+            for (int p = from; p < to; p++) {
+                long productId = candidates[p];
+                double numerator = 0.0;
+                double denominator = 0.0;
+                for (int n = 0; n < rows.length; n++) {
+                    int position = rows[n].indexOf(productId);
+                    if (position >= 0) {
+                        numerator += similarities[n] * rows[n].ratingAt(position);
+                        denominator += Math.abs(similarities[n]);
+                    }
+                }
+                predictions[p] = denominator > 0 ? numerator / denominator : Double.NaN;
+            }
+        });
+        
+        Map<Long, Double> predictedRatings = new LinkedHashMap<>();
+        for (int p = 0; p < candidateCount; p++) {
+            if (!Double.isNaN(predictions[p])) {
+                predictedRatings.put(candidates[p], predictions[p]);
             }
         }
         
@@ -297,20 +1215,20 @@ public class RecommendationService {
      * - Reduce weight for items with very few reviews (<5)
      * 
      * @param predictedRatings Map of predicted ratings
-     * @param allProducts List of all products
+     * @param candidateProducts Products that received a predicted rating
      * @param improvedRatings Map of improved ratings
      * @param currentUserRatings Current user's ratings
      * @return List of recommendation results
      */
-    private List<RecommendationResult> applyBusinessRules(
+    List<RecommendationResult> applyBusinessRules(
             Map<Long, Double> predictedRatings,
-            List<Product> allProducts,
+            List<Product> candidateProducts,
             Map<Long, Double> improvedRatings,
             Map<Long, Double> currentUserRatings) {
         
         List<RecommendationResult> results = new ArrayList<>();
         
-        for (Product product : allProducts) {
+        for (Product product : candidateProducts) {
             Long productId = product.getId();
             
             // Skip if no predicted rating
@@ -352,6 +1270,50 @@ public class RecommendationService {
         return results;
     }
 
+    /**
+     * Products most often ordered together with the given product, served from the
+     * in-memory co-purchase index; only the returned products are loaded.
+     *
+     * @param productId The product being viewed
+     * @param limit Maximum number of products to return
+     * @return Partners by descending number of shared orders
+     */
+    public List<BoughtTogetherResult> getFrequentlyBoughtTogether(Long productId, int limit) {
+        List<CoPurchaseIndex.Partner> partners = coPurchaseIndex.topPartners(productId, limit);
+        if (partners.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> partnerIds = new ArrayList<>(partners.size());
+        for (CoPurchaseIndex.Partner partner : partners) {
+            partnerIds.add(partner.getProductId());
+        }
+        Map<Long, Product> productsById = new HashMap<>();
+        for (Product product : productRepository.findAllById(partnerIds)) {
+            productsById.put(product.getId(), product);
+        }
+
+        List<BoughtTogetherResult> results = new ArrayList<>(partners.size());
+        for (CoPurchaseIndex.Partner partner : partners) {
+            Product product = productsById.get(partner.getProductId());
+            // Deleted products stay in the index until the next backfill
+            if (product == null) {
+                continue;
+            }
+            BoughtTogetherResult result = new BoughtTogetherResult();
+            result.setProductId(product.getId());
+            result.setProductName(product.getName());
+            result.setCategory(product.getCategory());
+            result.setPrice(product.getPrice());
+            result.setImage(product.getImage());
+            result.setRating(product.getRating());
+            result.setTimesBoughtTogether(partner.getTimesBoughtTogether());
+            result.setConfidence(partner.getConfidence());
+            results.add(result);
+        }
+        return results;
+    }
+
     /**
      * Inner class to hold recommendation results
      */
@@ -430,4 +1392,82 @@ public class RecommendationService {
             this.image = image;
         }
     }
+
+    /**
+     * A product frequently ordered together with another product
+     */
+    public static class BoughtTogetherResult {
+        private Long productId;
+        private String productName;
+        private String category;
+        private Double price;
+        private String image;
+        private Double rating;
+        private Integer timesBoughtTogether;
+        private Double confidence;
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public void setProductId(Long productId) {
+            this.productId = productId;
+        }
+
+        public String getProductName() {
+            return productName;
+        }
+
+        public void setProductName(String productName) {
+            this.productName = productName;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public void setCategory(String category) {
+            this.category = category;
+        }
+
+        public Double getPrice() {
+            return price;
+        }
+
+        public void setPrice(Double price) {
+            this.price = price;
+        }
+
+        public String getImage() {
+            return image;
+        }
+
+        public void setImage(String image) {
+            this.image = image;
+        }
+
+        public Double getRating() {
+            return rating;
+        }
+
+        public void setRating(Double rating) {
+            this.rating = rating;
+        }
+
+        public Integer getTimesBoughtTogether() {
+            return timesBoughtTogether;
+        }
+
+        public void setTimesBoughtTogether(Integer timesBoughtTogether) {
+            this.timesBoughtTogether = timesBoughtTogether;
+        }
+
+        public Double getConfidence() {
+            return confidence;
+        }
+
+        public void setConfidence(Double confidence) {
+            this.confidence = confidence;
+        }
+    }
 }
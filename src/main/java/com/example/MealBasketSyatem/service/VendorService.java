@@ -3,10 +3,13 @@ package com.example.MealBasketSyatem.service;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.example.MealBasketSyatem.entity.Product;
 import com.example.MealBasketSyatem.entity.Vendor;
+import com.example.MealBasketSyatem.event.ProductChangedEvent;
+import com.example.MealBasketSyatem.image.ImageStore;
 import com.example.MealBasketSyatem.repo.ProductRepo;
 import com.example.MealBasketSyatem.repo.VendorRepo;
 
@@ -16,10 +19,15 @@ public class VendorService {
 
     private final VendorRepo vendorRepo;
     private final ProductRepo productRepo;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ImageStore imageStore;
 
-    public VendorService(VendorRepo vendorRepo, ProductRepo productRepo) {
+    public VendorService(VendorRepo vendorRepo, ProductRepo productRepo, ApplicationEventPublisher eventPublisher,
+                         ImageStore imageStore) {
         this.vendorRepo = vendorRepo;
         this.productRepo = productRepo;
+        this.eventPublisher = eventPublisher;
+        this.imageStore = imageStore;
     }
 
     public Vendor registerVendor(Vendor vendor) {
@@ -39,14 +47,32 @@ public class VendorService {
     }
 
     public Product addProduct(Product product) {
-        return productRepo.save(product);
+        product.setImage(imageStore.externalize(product.getImage()));
+        Product saved = productRepo.save(product);
+        Long vendorId = saved.getVendor() != null ? saved.getVendor().getId() : null;
+        eventPublisher.publishEvent(new ProductChangedEvent(vendorId, List.of(saved.getId())));
+        return saved;
     }
 
     public void deleteProduct(Long productId) {
+        Long vendorId = productRepo.findById(productId)
+                .map(product -> product.getVendor() != null ? product.getVendor().getId() : null)
+                .orElse(null);
         productRepo.deleteById(productId);
+        eventPublisher.publishEvent(new ProductChangedEvent(vendorId, List.of(productId)));
     }
 
+    /**
+     * Save changes to an existing vendor. Products embed their vendor, so the
+     * vendor's products are announced as changed and cached copies, search
+     * terms and ETags pick up the new names.
+     */
     public Vendor updateVendor(Vendor vendor) {
-        return vendorRepo.save(vendor);
+        Vendor saved = vendorRepo.save(vendor);
+        List<Long> productIds = productRepo.findIdsByVendorId(saved.getId());
+        if (!productIds.isEmpty()) {
+            eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), productIds));
+        }
+        return saved;
     }
 }
@@ -0,0 +1,136 @@
+package com.example.MealBasketSyatem.catalog;
+
+import com.example.MealBasketSyatem.event.ProductChangedEvent;
+import com.example.MealBasketSyatem.event.RecipeChangedEvent;
+import com.example.MealBasketSyatem.repo.ProductRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogVersionsTests {
+
+	private ProductCatalogCache catalogCache;
+	private CatalogVersions versions;
+
+	private CatalogVersions versions(boolean enabled) {
+		CatalogVersions versions = new CatalogVersions(enabled);
+		ProductRepo productRepo = mock(ProductRepo.class);
+		// Product 5 belongs to vendor 1 and product 6 to vendor 2 when the application starts
+		when(productRepo.findVendorIds()).thenReturn(List.of(new Object[] {5L, 1L}, new Object[] {6L, 2L}, new Object[] {7L, null}));
+		ReflectionTestUtils.setField(versions, "catalogCache", catalogCache);
+		ReflectionTestUtils.setField(versions, "productRepo", productRepo);
+		versions.onApplicationReady();
+		return versions;
+	}
+
+	@BeforeEach
+	void setUp() {
+		catalogCache = mock(ProductCatalogCache.class);
+		when(catalogCache.getLoadCount()).thenReturn(1L);
+		versions = versions(true);
+	}
+
+	private static String etag(CatalogVersions.Tag tag) {
+		return tag.getETag();
+	}
+
+	@Test
+	void tagsAreQuotedAndStableWithoutChanges() {
+		String tag = etag(versions.product(5L));
+		assertTrue(tag.startsWith("\"") && tag.endsWith("\""), tag);
+		assertEquals(tag, etag(versions.product(5L)));
+		assertEquals(etag(versions.catalog()), etag(versions.catalog()));
+	}
+
+	@Test
+	void productWriteChangesTheProductVendorListAndCatalogTags() {
+		String product = etag(versions.product(5L));
+		String otherProduct = etag(versions.product(6L));
+		String vendor = etag(versions.vendorProducts(1L));
+		String otherVendor = etag(versions.vendorProducts(2L));
+		String catalog = etag(versions.catalog());
+		String recipes = etag(versions.recipes());
+
+		versions.onProductChanged(new ProductChangedEvent(1L, List.of(5L)));
+
+		assertNotEquals(product, etag(versions.product(5L)));
+		assertNotEquals(vendor, etag(versions.vendorProducts(1L)));
+		assertNotEquals(catalog, etag(versions.catalog()));
+		assertEquals(otherProduct, etag(versions.product(6L)));
+		assertEquals(otherVendor, etag(versions.vendorProducts(2L)));
+		assertEquals(recipes, etag(versions.recipes()));
+		assertTrue(versions.product(5L).getLastModified() >= versions.product(6L).getLastModified());
+	}
+
+	@Test
+	void movingAProductBumpsTheOldVendorsList() {
+		String oldVendor = etag(versions.vendorProducts(1L));
+		String newVendor = etag(versions.vendorProducts(2L));
+
+		versions.onProductChanged(new ProductChangedEvent(2L, List.of(5L)));
+		assertNotEquals(oldVendor, etag(versions.vendorProducts(1L)));
+		assertNotEquals(newVendor, etag(versions.vendorProducts(2L)));
+
+		// The move is remembered: a later change of product 5 no longer touches vendor 1
+		oldVendor = etag(versions.vendorProducts(1L));
+		versions.onProductChanged(new ProductChangedEvent(2L, List.of(5L)));
+		assertEquals(oldVendor, etag(versions.vendorProducts(1L)));
+	}
+
+	@Test
+	void changeWithoutVendorBumpsTheLastKnownVendor() {
+		// e.g. a product deleted by an admin
+		String vendor = etag(versions.vendorProducts(2L));
+		versions.onProductChanged(new ProductChangedEvent(null, List.of(6L)));
+		assertNotEquals(vendor, etag(versions.vendorProducts(2L)));
+	}
+
+	@Test
+	void fullCatalogReloadChangesProductTagsOnly() {
+		String product = etag(versions.product(5L));
+		String recipe = etag(versions.recipe(3L));
+
+		when(catalogCache.getLoadCount()).thenReturn(2L);
+		assertNotEquals(product, etag(versions.product(5L)));
+		assertEquals(recipe, etag(versions.recipe(3L)));
+	}
+
+	@Test
+	void recipeWriteChangesTheRecipeTags() {
+		String recipe = etag(versions.recipe(3L));
+		String otherRecipe = etag(versions.recipe(4L));
+		String vendorRecipes = etag(versions.vendorRecipes(1L));
+		String recipes = etag(versions.recipes());
+		String catalog = etag(versions.catalog());
+
+		versions.onRecipeChanged(new RecipeChangedEvent(1L, 3L));
+
+		assertNotEquals(recipe, etag(versions.recipe(3L)));
+		assertNotEquals(vendorRecipes, etag(versions.vendorRecipes(1L)));
+		assertNotEquals(recipes, etag(versions.recipes()));
+		assertEquals(otherRecipe, etag(versions.recipe(4L)));
+		assertEquals(catalog, etag(versions.catalog()));
+	}
+
+	@Test
+	void tagsFromAnotherRunNeverMatch() throws InterruptedException {
+		String tag = etag(versions.product(5L));
+		Thread.sleep(2);
+		assertNotEquals(tag, etag(versions(true).product(5L)));
+	}
+
+	@Test
+	void disabledVersionsHaveNoTags() {
+		CatalogVersions disabled = versions(false);
+		disabled.onProductChanged(new ProductChangedEvent(1L, List.of(5L)));
+		assertNull(disabled.product(5L));
+		assertNull(disabled.catalog());
+		assertNull(disabled.recipes());
+	}
+}
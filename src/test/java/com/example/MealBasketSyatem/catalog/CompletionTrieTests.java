@@ -0,0 +1,94 @@
+package com.example.MealBasketSyatem.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionTrieTests {
+
+	@Test
+	void completesPrefixesByWeightThenIndex() {
+		double[] weights = {1.0, 5.0, 3.0, 5.0};
+		CompletionTrie trie = new CompletionTrie.Builder(weights, 3)
+				.add("chicken curry", 0)
+				.add("chickpeas", 1)
+				.add("chips", 2)
+				.add("cheddar", 3)
+				.build();
+
+		assertArrayEquals(new int[] {1, 3, 2}, trie.complete("c", 10));
+		assertArrayEquals(new int[] {1, 2, 0}, trie.complete("chi", 3));
+		assertArrayEquals(new int[] {1, 0}, trie.complete("chick", 5));
+		assertArrayEquals(new int[] {1}, trie.complete("chick", 1));
+		assertArrayEquals(new int[] {0}, trie.complete("chicken curry", 5));
+		assertArrayEquals(new int[0], trie.complete("chicken curryx", 5));
+		assertArrayEquals(new int[0], trie.complete("x", 5));
+		assertArrayEquals(new int[0], trie.complete("c", 0));
+	}
+
+	@Test
+	void emptyPrefixReturnsTheOverallBest() {
+		CompletionTrie trie = new CompletionTrie.Builder(new double[] {2.0, 1.0, 3.0}, 2)
+				.add("b", 0).add("a", 1).add("c", 2)
+				.build();
+
+		assertArrayEquals(new int[] {2, 0}, trie.complete("", 5));
+	}
+
+	@Test
+	void suggestionUnderSeveralKeysIsListedOnce() {
+		CompletionTrie trie = new CompletionTrie.Builder(new double[] {1.0, 2.0}, 5)
+				.add("milk whole", 0)
+				.add("whole", 0)
+				.add("milk", 0)
+				.add("milkshake", 1)
+				.build();
+
+		assertArrayEquals(new int[] {1, 0}, trie.complete("milk", 5));
+		assertArrayEquals(new int[] {0}, trie.complete("whole", 5));
+	}
+
+	@Test
+	void emptyTrieCompletesNothing() {
+		CompletionTrie trie = new CompletionTrie.Builder(new double[0], 5).build();
+
+		assertEquals(1, trie.getNodeCount());
+		assertArrayEquals(new int[0], trie.complete("", 5));
+		assertArrayEquals(new int[0], trie.complete("a", 5));
+	}
+
+	@Test
+	void matchesABruteForceScan() {
+		Random random = new Random(11);
+		int count = 500;
+		int k = 8;
+		String[] keys = new String[count];
+		double[] weights = new double[count];
+		CompletionTrie.Builder builder = new CompletionTrie.Builder(weights, k);
+		for (int i = 0; i < count; i++) {
+			StringBuilder key = new StringBuilder();
+			int length = 1 + random.nextInt(6);
+			for (int j = 0; j < length; j++) {
+				key.append((char) ('a' + random.nextInt(4)));
+			}
+			keys[i] = key.toString();
+			weights[i] = random.nextInt(10);
+			builder.add(keys[i], i);
+		}
+		CompletionTrie trie = builder.build();
+
+		for (String prefix : List.of("", "a", "b", "ab", "ca", "dd", "abc", "dcba", "aaaa", "bbbbbb", "e")) {
+			int[] expected = IntStream.range(0, count)
+					.filter(i -> keys[i].startsWith(prefix))
+					.boxed()
+					.sorted(Comparator.<Integer>comparingDouble(i -> -weights[i]).thenComparingInt(i -> i))
+					.limit(k)
+					.mapToInt(Integer::intValue)
+					.toArray();
+			assertArrayEquals(expected, trie.complete(prefix, k), "prefix " + prefix);
+		}
+	}
+}
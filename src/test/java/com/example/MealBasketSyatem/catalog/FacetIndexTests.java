@@ -0,0 +1,148 @@
+package com.example.MealBasketSyatem.catalog;
+
+import com.example.MealBasketSyatem.entity.Product;
+import com.example.MealBasketSyatem.entity.Vendor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FacetIndexTests {
+
+	private final Vendor farm = vendor(1L, "Green Farm");
+	private final Vendor bakery = vendor(2L, "Corner Bakery");
+
+	private ProductCatalogCache catalogCache;
+	private FacetIndex index;
+	private List<Product> catalog;
+
+	private static Vendor vendor(long id, String shopName) {
+		Vendor vendor = new Vendor(shopName, id + "@example.com", shopName);
+		vendor.setId(id);
+		return vendor;
+	}
+
+	private static Product product(long id, String category, Vendor vendor, double price, Double rating, int stock) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName("Product " + id);
+		product.setCategory(category);
+		product.setVendor(vendor);
+		product.setPrice(price);
+		product.setRating(rating);
+		product.setStock(stock);
+		return product;
+	}
+
+	@BeforeEach
+	void setUp() {
+		// Catalog order is ascending id, so results come back newest (highest id) first
+		catalog = new ArrayList<>(List.of(
+				product(1L, "Fruit", farm, 2.0, 4.5, 10),
+				product(2L, "fruit ", farm, 5.0, 3.0, 0),
+				product(3L, "Bread", bakery, 4.99, 4.0, 3),
+				product(4L, "Bread", bakery, 12.0, null, 1),
+				product(5L, "Dairy", farm, 50.0, 2.0, 7),
+				product(6L, null, bakery, 20.0, 5.0, 0)));
+		catalogCache = mock(ProductCatalogCache.class);
+		when(catalogCache.isEnabled()).thenReturn(true);
+		when(catalogCache.getVersion()).thenReturn(1L);
+		when(catalogCache.getAll()).thenAnswer(invocation -> catalog);
+		index = new FacetIndex(new double[] {10, 5, 50, 20, -1});
+		ReflectionTestUtils.setField(index, "catalogCache", catalogCache);
+	}
+
+	private static Map<String, Integer> counts(FacetIndex.Result result, String facet) {
+		Map<String, Integer> counts = new LinkedHashMap<>();
+		for (FacetIndex.FacetCount count : result.getFacets().get(facet)) {
+			counts.put(count.getValue(), count.getCount());
+		}
+		return counts;
+	}
+
+	private static List<Long> ids(FacetIndex.Result result) {
+		return result.getItems().stream().map(Product::getId).toList();
+	}
+
+	@Test
+	void unfilteredCountsCoverTheWholeCatalog() {
+		FacetIndex.Result result = index.search(null, null, null, null, null, 0, 10);
+
+		assertEquals(6, result.getTotal());
+		assertEquals(List.of(6L, 5L, 4L, 3L, 2L, 1L), ids(result));
+		assertEquals(Map.of("bread", 2, "dairy", 1, "fruit", 2), counts(result, FacetIndex.CATEGORY));
+		assertEquals(Map.of("1", 3, "2", 3), counts(result, FacetIndex.VENDOR));
+		// Boundaries are sorted and deduplicated; a price on a boundary belongs to the band above
+		assertEquals(List.of("0-5", "5-10", "10-20", "20-50", "50+"), List.copyOf(counts(result, FacetIndex.PRICE_BAND).keySet()));
+		assertEquals(Map.of("0-5", 2, "5-10", 1, "10-20", 1, "20-50", 1, "50+", 1), counts(result, FacetIndex.PRICE_BAND));
+		assertEquals(Map.of("1", 5, "2", 5, "3", 4, "4", 3), counts(result, FacetIndex.MIN_RATING));
+		assertEquals(Map.of("true", 4), counts(result, FacetIndex.IN_STOCK));
+	}
+
+	@Test
+	void facetCountsIgnoreTheirOwnFilter() {
+		FacetIndex.Result result = index.search(List.of("FRUIT"), null, null, null, true, 0, 10);
+
+		assertEquals(1, result.getTotal());
+		assertEquals(List.of(1L), ids(result));
+		// Category counts apply only the in-stock filter
+		assertEquals(Map.of("bread", 2, "dairy", 1, "fruit", 1), counts(result, FacetIndex.CATEGORY));
+		// In-stock counts apply only the category filter
+		assertEquals(Map.of("true", 1), counts(result, FacetIndex.IN_STOCK));
+		assertEquals(Map.of("1", 1, "2", 0), counts(result, FacetIndex.VENDOR));
+	}
+
+	@Test
+	void valuesWithinAFacetAreOredAndFacetsAreAnded() {
+		FacetIndex.Result result = index.search(List.of("bread", "dairy"), List.of(2L), List.of("0-5", "10-20"), null, null, 0, 10);
+
+		assertEquals(List.of(4L, 3L), ids(result));
+		// Farm has dairy, but not in the selected price bands
+		assertEquals(Map.of("1", 0, "2", 2), counts(result, FacetIndex.VENDOR));
+
+		result = index.search(null, null, null, 4, null, 0, 10);
+		assertEquals(List.of(6L, 3L, 1L), ids(result));
+	}
+
+	@Test
+	void pagesNewestFirst() {
+		FacetIndex.Result result = index.search(null, null, null, null, null, 2, 3);
+
+		assertEquals(6, result.getTotal());
+		assertEquals(List.of(4L, 3L, 2L), ids(result));
+		assertEquals(List.of(), ids(index.search(null, null, null, null, null, 6, 3)));
+	}
+
+	@Test
+	void rejectsUnknownPriceBandsAndRatings() {
+		assertThrows(IllegalArgumentException.class, () -> index.search(null, null, List.of("5-15"), null, null, 0, 10));
+		assertThrows(IllegalArgumentException.class, () -> index.search(null, null, null, 5, null, 0, 10));
+	}
+
+	@Test
+	void servesPreviousBitsetsUntilTheScheduledRefresh() {
+		index.search(null, null, null, null, null, 0, 10);
+		assertTrue(index.isCurrent());
+
+		catalog = new ArrayList<>(catalog);
+		catalog.add(product(7L, "Dairy", bakery, 1.0, 1.0, 1));
+		when(catalogCache.getVersion()).thenReturn(2L);
+		assertFalse(index.isCurrent());
+		assertEquals(6, index.search(null, null, null, null, null, 0, 10).getTotal());
+
+		index.refreshIfStale();
+		assertTrue(index.isCurrent());
+		FacetIndex.Result result = index.search(List.of("dairy"), null, null, null, null, 0, 10);
+		assertEquals(List.of(7L, 5L), ids(result));
+		assertEquals(Set.of("bread", "dairy", "fruit"), counts(result, FacetIndex.CATEGORY).keySet());
+	}
+}
@@ -0,0 +1,205 @@
+package com.example.MealBasketSyatem.catalog;
+
+import com.example.MealBasketSyatem.entity.Product;
+import com.example.MealBasketSyatem.entity.Vendor;
+import com.example.MealBasketSyatem.repo.ProductRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductCatalogCacheTests {
+
+	private final Vendor farm = vendor(1L, "farm");
+	private final Vendor bakery = vendor(2L, "bakery");
+	private final Vendor dairy = vendor(3L, "dairy");
+
+	// What the database holds, by id
+	private final Map<Long, Product> database = new TreeMap<>();
+
+	private ProductCatalogCache cache;
+
+	private static Vendor vendor(long id, String name) {
+		Vendor vendor = new Vendor(name, name + "@example.com", name + " shop");
+		vendor.setId(id);
+		return vendor;
+	}
+
+	private static Product product(long id, String name, String category, Vendor vendor) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName(name);
+		product.setCategory(category);
+		product.setVendor(vendor);
+		product.setPrice(id);
+		return product;
+	}
+
+	private ProductCatalogCache newCache() {
+		ProductRepo productRepo = mock(ProductRepo.class);
+		when(productRepo.findAll()).thenAnswer(invocation -> new ArrayList<>(database.values()));
+		when(productRepo.findAllById(any())).thenAnswer(invocation -> {
+			List<Product> found = new ArrayList<>();
+			for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+				if (database.containsKey(id)) {
+					found.add(database.get(id));
+				}
+			}
+			return found;
+		});
+		ProductCatalogCache cache = new ProductCatalogCache(true);
+		ReflectionTestUtils.setField(cache, "productRepo", productRepo);
+		cache.reload();
+		return cache;
+	}
+
+	private void save(Product product) {
+		database.put(product.getId(), product);
+	}
+
+	@BeforeEach
+	void setUp() {
+		save(product(10L, "Apples", "Fruit", farm));
+		save(product(20L, "Bread", "Bakery", bakery));
+		save(product(30L, "Pears", "Fruit", farm));
+		save(product(40L, "Milk", "Dairy", dairy));
+		save(product(50L, "Apples", "Fruit", bakery));
+		cache = newCache();
+	}
+
+	private static List<Long> ids(List<Product> products) {
+		return products.stream().map(Product::getId).toList();
+	}
+
+	// Every lookup of the refreshed cache must match a cache loaded from scratch
+	private void assertMatchesFullReload() {
+		ProductCatalogCache reloaded = newCache();
+		assertEquals(ids(reloaded.getAll()), ids(cache.getAll()));
+		for (Product product : database.values()) {
+			assertEquals(product.getName(), cache.get(product.getId()).getName());
+		}
+		for (Vendor vendor : List.of(farm, bakery, dairy)) {
+			assertEquals(ids(reloaded.getByVendorId(vendor.getId())), ids(cache.getByVendorId(vendor.getId())), vendor.getName());
+			assertEquals(ids(reloaded.getByVendorName(vendor.getName())), ids(cache.getByVendorName(vendor.getName())), vendor.getName());
+		}
+		for (String category : List.of("Fruit", "Bakery", "Dairy", "Veg")) {
+			assertEquals(ids(reloaded.getByCategory(category)), ids(cache.getByCategory(category)), category);
+		}
+		for (String name : List.of("Apples", "Bread", "Pears", "Milk", "Kale", "Cheese")) {
+			assertEquals(ids(reloaded.getByName(name)), ids(cache.getByName(name)), name);
+		}
+	}
+
+	@Test
+	void addsNewProductsInIdOrder() {
+		save(product(25L, "Apples", "Fruit", farm));
+		save(product(60L, "Kale", "Veg", dairy));
+		save(product(5L, "Cheese", "Dairy", dairy));
+		cache.refresh(List.of(25L, 60L, 5L));
+
+		assertEquals(List.of(5L, 10L, 20L, 25L, 30L, 40L, 50L, 60L), ids(cache.getAll()));
+		assertEquals(List.of(10L, 25L, 50L), ids(cache.getByName("Apples")));
+		assertEquals(List.of(10L, 25L, 30L), ids(cache.getByVendorId(1L)));
+		assertEquals(List.of(60L), ids(cache.getByCategory("Veg")));
+		assertMatchesFullReload();
+	}
+
+	@Test
+	void replacesChangedProducts() {
+		Product renamed = product(30L, "Nashi Pears", "Fruit", farm);
+		renamed.setPrice(9.5);
+		save(renamed);
+		cache.refresh(List.of(30L));
+
+		assertEquals(9.5, cache.get(30L).getPrice());
+		assertEquals(List.of(), ids(cache.getByName("Pears")));
+		assertEquals(List.of(30L), ids(cache.getByName("Nashi Pears")));
+		assertEquals(5, cache.getAll().size());
+		assertMatchesFullReload();
+	}
+
+	@Test
+	void movesProductsBetweenVendorsAndCategories() {
+		save(product(10L, "Apples", "Dairy", dairy));
+		save(product(40L, "Milk", "Fruit", farm));
+		cache.refresh(List.of(10L, 40L));
+
+		assertEquals(List.of(30L, 40L), ids(cache.getByVendorId(1L)));
+		assertEquals(List.of(10L), ids(cache.getByVendorId(3L)));
+		assertEquals(List.of(10L), ids(cache.getByVendorName("dairy")));
+		assertEquals(List.of(10L), ids(cache.getByCategory("Dairy")));
+		assertEquals(List.of(30L, 40L, 50L), ids(cache.getByCategory("Fruit")));
+		assertMatchesFullReload();
+	}
+
+	@Test
+	void removesDeletedProducts() {
+		database.remove(10L);
+		database.remove(40L);
+		cache.refresh(List.of(10L, 40L, 999L));
+
+		assertNull(cache.get(10L));
+		assertEquals(List.of(20L, 30L, 50L), ids(cache.getAll()));
+		assertEquals(List.of(), ids(cache.getByVendorId(3L)));
+		assertEquals(List.of(50L), ids(cache.getByName("Apples")));
+		assertMatchesFullReload();
+	}
+
+	@Test
+	void productsWithoutKeysAreOnlyInTheLookupsTheyHaveKeysFor() {
+		save(product(20L, "Bread", null, null));
+		save(product(70L, "Loose", null, null));
+		cache.refresh(List.of(20L, 70L));
+
+		assertEquals(List.of(10L, 20L, 30L, 40L, 50L, 70L), ids(cache.getAll()));
+		assertEquals(List.of(50L), ids(cache.getByVendorId(2L)));
+		assertEquals(List.of(), ids(cache.getByCategory(null)));
+		assertEquals(List.of(70L), ids(cache.getByName("Loose")));
+		assertMatchesFullReload();
+
+		save(product(20L, "Bread", "Bakery", bakery));
+		cache.refresh(List.of(20L));
+		assertEquals(List.of(20L, 50L), ids(cache.getByVendorId(2L)));
+		assertMatchesFullReload();
+	}
+
+	@Test
+	void everyRefreshChangesTheVersion() {
+		long version = cache.getVersion();
+		cache.refresh(List.of(10L));
+		assertNotEquals(version, cache.getVersion());
+		version = cache.getVersion();
+		cache.refresh(List.of());
+		assertEquals(version, cache.getVersion());
+	}
+
+	@Test
+	void randomChangeBatchesMatchAFullReload() {
+		Random random = new Random(3);
+		List<Vendor> vendors = Arrays.asList(farm, bakery, dairy, null);
+		List<String> categories = Arrays.asList("Fruit", "Bakery", "Dairy", "Veg", null);
+		List<String> names = List.of("Apples", "Bread", "Pears", "Milk", "Kale", "Cheese");
+		for (int round = 0; round < 300; round++) {
+			Set<Long> touched = new HashSet<>();
+			int changes = 1 + random.nextInt(6);
+			for (int c = 0; c < changes; c++) {
+				long id = 1 + random.nextInt(80);
+				touched.add(id);
+				if (random.nextInt(4) == 0) {
+					database.remove(id);
+				} else {
+					save(product(id, names.get(random.nextInt(names.size())),
+							categories.get(random.nextInt(categories.size())), vendors.get(random.nextInt(vendors.size()))));
+				}
+			}
+			cache.refresh(touched);
+			assertMatchesFullReload();
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.example.MealBasketSyatem.catalog;
+
+import com.example.MealBasketSyatem.entity.Product;
+import com.example.MealBasketSyatem.event.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTests {
+
+	private ProductCatalogCache catalogCache;
+	private ProductSearchIndex index;
+
+	private static Product product(long id, String name, String category, String description) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName(name);
+		product.setCategory(category);
+		product.setDescription(description);
+		product.setRating(0.0);
+		return product;
+	}
+
+	@BeforeEach
+	void setUp() {
+		catalogCache = mock(ProductCatalogCache.class);
+		when(catalogCache.isEnabled()).thenReturn(true);
+		when(catalogCache.getAll()).thenReturn(List.of(
+				product(1L, "Chicken Curry", "Mains", "Mild and creamy"),
+				product(2L, "Paste", "Pantry", "Tomato paste"),
+				product(3L, "Pasta", "Pantry", "Dried penne"),
+				product(4L, "Lemon Tart", "Desserts", "Sweet pastry")));
+		index = new ProductSearchIndex(true, 0.0);
+		ReflectionTestUtils.setField(index, "catalogCache", catalogCache);
+		index.rebuild();
+	}
+
+	private List<Long> search(String query) {
+		return index.search(query, 10).stream().map(Product::getId).toList();
+	}
+
+	@Test
+	void matchesOneTypoOfAnyKind() {
+		assertEquals(List.of(1L), search("chiken"));
+		assertEquals(List.of(1L), search("chikcen"));
+		assertEquals(List.of(1L), search("chickenn"));
+		assertEquals(List.of(1L), search("chocken"));
+		assertEquals(List.of(1L), search("CHIKEN curry"));
+	}
+
+	@Test
+	void doesNotMatchTwoTyposOrTyposInShortTokens() {
+		assertEquals(List.of(), search("chkn"));
+		assertEquals(List.of(), search("chikcn"));
+		// "trt" is one deletion from "tart" but too short to be corrected
+		assertEquals(List.of(), search("trt"));
+	}
+
+	@Test
+	void matchesPrefixes() {
+		assertEquals(List.of(1L), search("chick"));
+		assertEquals(List.of(4L), search("lem"));
+	}
+
+	@Test
+	void exactMatchesRankAboveTypoMatches() {
+		assertEquals(List.of(3L, 2L), search("pasta"));
+		// "paste" is exact for 2 and a prefix of "pastry" for 4, and one typo from "pasta" for 3
+		assertEquals(2L, search("paste").get(0));
+	}
+
+	@Test
+	void reindexesChangedProducts() {
+		Product renamed = product(1L, "Beef Stew", "Mains", "Slow cooked");
+		when(catalogCache.get(1L)).thenReturn(renamed);
+		index.onProductChanged(new ProductChangedEvent(null, List.of(1L)));
+
+		assertEquals(List.of(), search("chiken"));
+		assertEquals(List.of(), search("chicken"));
+		assertEquals(List.of(1L), search("bef stew"));
+
+		when(catalogCache.get(1L)).thenReturn(null);
+		index.onProductChanged(new ProductChangedEvent(null, List.of(1L)));
+		assertEquals(List.of(), search("stew"));
+	}
+}
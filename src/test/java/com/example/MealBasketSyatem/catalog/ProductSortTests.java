@@ -0,0 +1,101 @@
+package com.example.MealBasketSyatem.catalog;
+
+import com.example.MealBasketSyatem.entity.Product;
+import com.example.MealBasketSyatem.repo.ProductKey;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSortTests {
+
+	private static Product product(long id, double price, Double rating) {
+		Product product = new Product();
+		product.setId(id);
+		product.setPrice(price);
+		product.setRating(rating);
+		return product;
+	}
+
+	private static Map<String, Object> keys(ScrollPosition position) {
+		return ((KeysetScrollPosition) position).getKeys();
+	}
+
+	@Test
+	void parsesParametersCaseInsensitively() {
+		assertEquals(ProductSort.NEWEST, ProductSort.fromParam(null));
+		assertEquals(ProductSort.NEWEST, ProductSort.fromParam(" "));
+		assertEquals(ProductSort.PRICE_DESC, ProductSort.fromParam("Price-Desc"));
+		assertEquals(ProductSort.RATING, ProductSort.fromParam(" rating "));
+		assertThrows(IllegalArgumentException.class, () -> ProductSort.fromParam("cheapest"));
+	}
+
+	@Test
+	void everyOrderEndsWithIdInTheLeadingDirection() {
+		assertEquals(Sort.by(Sort.Direction.DESC, "id"), ProductSort.NEWEST.toSort());
+		assertEquals(Sort.by(Sort.Direction.ASC, "price", "id"), ProductSort.PRICE.toSort());
+		assertEquals(Sort.by(Sort.Direction.DESC, "price", "id"), ProductSort.PRICE_DESC.toSort());
+		assertEquals(Sort.by(Sort.Direction.DESC, "rating", "id"), ProductSort.RATING.toSort());
+	}
+
+	@Test
+	void cursorsRoundTripTheKeyset() {
+		Product last = product(42L, 3.75, 4.5);
+
+		assertEquals(Map.of("id", 42L), keys(ProductSort.NEWEST.decodeCursor(ProductSort.NEWEST.encodeCursor(last))));
+		assertEquals(Map.of("price", 3.75, "id", 42L), keys(ProductSort.PRICE.decodeCursor(ProductSort.PRICE.encodeCursor(last))));
+		assertEquals(Map.of("price", 3.75, "id", 42L),
+				keys(ProductSort.PRICE_DESC.decodeCursor(ProductSort.PRICE_DESC.encodeCursor(last))));
+		assertEquals(Map.of("rating", 4.5, "id", 42L), keys(ProductSort.RATING.decodeCursor(ProductSort.RATING.encodeCursor(last))));
+		assertEquals(List.of("rating", "id"), List.copyOf(keys(ProductSort.RATING.decodeCursor(ProductSort.RATING.encodeCursor(last))).keySet()));
+	}
+
+	@Test
+	void cursorsFromProjectionsMatchEntities() {
+		ProductKey key = new ProductKey() {
+			public Long getId() { return 7L; }
+			public double getPrice() { return 1e-7; }
+			public Double getRating() { return null; }
+		};
+		Product entity = product(7L, 1e-7, null);
+
+		for (ProductSort sort : ProductSort.values()) {
+			assertEquals(sort.encodeCursor(entity), sort.encodeCursor(key), sort.name());
+		}
+		// Null ratings page as the stored default 0
+		assertEquals(Map.of("rating", 0.0, "id", 7L), keys(ProductSort.RATING.decodeCursor(ProductSort.RATING.encodeCursor(key))));
+		assertEquals(Map.of("price", 1e-7, "id", 7L), keys(ProductSort.PRICE.decodeCursor(ProductSort.PRICE.encodeCursor(key))));
+	}
+
+	@Test
+	void nullRatingsAreStoredAndPagedAsZero() {
+		Product unrated = product(9L, 1.0, null);
+		assertEquals(0.0, unrated.getRating());
+
+		// The cursor carries the stored value, so the next page continues below 0 instead of skipping rated rows
+		assertEquals(Map.of("rating", 0.0, "id", 9L), keys(ProductSort.RATING.decodeCursor(ProductSort.RATING.encodeCursor(unrated))));
+		assertEquals(ProductSort.RATING.encodeCursor(product(9L, 1.0, 0.0)), ProductSort.RATING.encodeCursor(unrated));
+	}
+
+	@Test
+	void blankCursorStartsAtTheFirstPage() {
+		assertTrue(ProductSort.PRICE.decodeCursor(null).isInitial());
+		assertTrue(ProductSort.NEWEST.decodeCursor("").isInitial());
+	}
+
+	@Test
+	void rejectsMalformedCursors() {
+		String newestCursor = ProductSort.NEWEST.encodeCursor(product(5L, 2.0, 1.0));
+
+		assertThrows(IllegalArgumentException.class, () -> ProductSort.PRICE.decodeCursor(newestCursor));
+		assertThrows(IllegalArgumentException.class, () -> ProductSort.NEWEST.decodeCursor("not base64!"));
+		assertThrows(IllegalArgumentException.class, () -> ProductSort.NEWEST.decodeCursor(
+				ProductSort.PRICE.encodeCursor(product(5L, 2.0, 1.0))));
+		assertThrows(IllegalArgumentException.class, () -> ProductSort.RATING.decodeCursor("YWJjOmRlZg"));
+	}
+}
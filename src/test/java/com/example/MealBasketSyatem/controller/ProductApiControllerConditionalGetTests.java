@@ -0,0 +1,93 @@
+package com.example.MealBasketSyatem.controller;
+
+import com.example.MealBasketSyatem.catalog.CatalogVersions;
+import com.example.MealBasketSyatem.catalog.ProductCatalogCache;
+import com.example.MealBasketSyatem.entity.Product;
+import com.example.MealBasketSyatem.event.ProductChangedEvent;
+import com.example.MealBasketSyatem.repo.ProductRepo;
+import com.example.MealBasketSyatem.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ProductApiControllerConditionalGetTests {
+
+	private ProductService productService;
+	private CatalogVersions catalogVersions;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		ProductCatalogCache catalogCache = mock(ProductCatalogCache.class);
+		ProductRepo productRepo = mock(ProductRepo.class);
+		when(productRepo.findVendorIds()).thenReturn(List.<Object[]>of(new Object[] {5L, 1L}));
+		catalogVersions = new CatalogVersions(true);
+		ReflectionTestUtils.setField(catalogVersions, "catalogCache", catalogCache);
+		ReflectionTestUtils.setField(catalogVersions, "productRepo", productRepo);
+		catalogVersions.onApplicationReady();
+
+		Product product = new Product();
+		product.setId(5L);
+		product.setName("Apples");
+		productService = mock(ProductService.class);
+		when(productService.getProductById(5L)).thenReturn(product);
+		when(productService.getProductListItemsByVendorId(1L)).thenReturn(List.of());
+
+		ProductApiController controller = new ProductApiController();
+		ReflectionTestUtils.setField(controller, "productService", productService);
+		ReflectionTestUtils.setField(controller, "catalogVersions", catalogVersions);
+		mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+	}
+
+	private String fetchETag(String path) throws Exception {
+		return mockMvc.perform(get(path))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+	}
+
+	@Test
+	void matchingIfNoneMatchAnswers304WithoutReading() throws Exception {
+		String etag = fetchETag("/api/products/5");
+		assertNotNull(etag);
+		verify(productService, times(1)).getProductById(5L);
+
+		mockMvc.perform(get("/api/products/5").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag))
+				.andExpect(content().string(""));
+		verify(productService, times(1)).getProductById(5L);
+	}
+
+	@Test
+	void productWriteInvalidatesTheCachedCopies() throws Exception {
+		String product = fetchETag("/api/products/5");
+		String vendorList = fetchETag("/api/products/vendor/1?view=card");
+
+		catalogVersions.onProductChanged(new ProductChangedEvent(1L, List.of(5L)));
+
+		mockMvc.perform(get("/api/products/5").header(HttpHeaders.IF_NONE_MATCH, product))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/products/vendor/1?view=card").header(HttpHeaders.IF_NONE_MATCH, vendorList))
+				.andExpect(status().isOk());
+		verify(productService, times(2)).getProductById(5L);
+		verify(productService, times(2)).getProductListItemsByVendorId(1L);
+	}
+
+	@Test
+	void staleOrForeignTagsGetTheFullResponse() throws Exception {
+		mockMvc.perform(get("/api/products/5").header(HttpHeaders.IF_NONE_MATCH, "\"someone-else.0.0\""))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.name").value("Apples"));
+	}
+}
@@ -0,0 +1,192 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlsTrainerTests {
+
+	@TempDir
+	Path directory;
+
+	private AlsTrainer trainer(int rank, int iterations) {
+		AlsTrainer trainer = new AlsTrainer();
+		ReflectionTestUtils.setField(trainer, "executor", new RecommendationExecutor(false, 1, 1024));
+		ReflectionTestUtils.setField(trainer, "rank", rank);
+		ReflectionTestUtils.setField(trainer, "iterations", iterations);
+		ReflectionTestUtils.setField(trainer, "lambda", 0.05);
+		ReflectionTestUtils.setField(trainer, "snapshotDir", directory.resolve("als").toString());
+		ReflectionTestUtils.setField(trainer, "snapshotsToKeep", 2);
+		return trainer;
+	}
+
+	@Test
+	void choleskySolvesAKnownSystemFromTheLowerTriangle() {
+		// A = [[4, 2, 0.4], [2, 5, 1], [0.4, 1, 3]], x = [1, -2, 0.5]; the upper triangle is never read
+		double[] a = {
+				4.0, 99, 99,
+				2.0, 5.0, 99,
+				0.4, 1.0, 3.0};
+		double[] b = {4 * 1 + 2 * -2 + 0.4 * 0.5, 2 * 1 + 5 * -2 + 1 * 0.5, 0.4 * 1 + 1 * -2 + 3 * 0.5};
+
+		AlsTrainer.choleskySolve(a, b, 3);
+		assertArrayEquals(new double[] {1.0, -2.0, 0.5}, b, 1e-12);
+	}
+
+	@Test
+	void choleskySolvesRandomPositiveDefiniteSystems() {
+		Random random = new Random(5);
+		int n = 8;
+		for (int round = 0; round < 20; round++) {
+			double[] m = new double[n * n];
+			for (int i = 0; i < m.length; i++) {
+				m[i] = random.nextGaussian();
+			}
+			// A = MᵀM + nI is symmetric positive definite
+			double[] a = new double[n * n];
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < n; j++) {
+					for (int k = 0; k < n; k++) {
+						a[i * n + j] += m[k * n + i] * m[k * n + j];
+					}
+				}
+				a[i * n + i] += n;
+			}
+			double[] x = new double[n];
+			for (int i = 0; i < n; i++) {
+				x[i] = random.nextGaussian();
+			}
+			double[] b = new double[n];
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < n; j++) {
+					b[i] += a[i * n + j] * x[j];
+				}
+			}
+
+			AlsTrainer.choleskySolve(a.clone(), b, n);
+			assertArrayEquals(x, b, 1e-9, "round " + round);
+		}
+	}
+
+	// Ratings from two hidden tastes, with about a third of the entries missing
+	private static Map<Long, Map<Long, Double>> toyRatings() {
+		Random random = new Random(9);
+		int users = 30;
+		int products = 20;
+		double[][] userTaste = new double[users][2];
+		double[][] productTaste = new double[products][2];
+		for (double[] taste : userTaste) {
+			taste[0] = random.nextGaussian();
+			taste[1] = random.nextGaussian();
+		}
+		for (double[] taste : productTaste) {
+			taste[0] = random.nextGaussian();
+			taste[1] = random.nextGaussian();
+		}
+		Map<Long, Map<Long, Double>> ratings = new HashMap<>();
+		for (int u = 0; u < users; u++) {
+			Map<Long, Double> row = new HashMap<>();
+			for (int p = 0; p < products; p++) {
+				if (random.nextInt(3) > 0) {
+					double score = 3.0 + userTaste[u][0] * productTaste[p][0] + userTaste[u][1] * productTaste[p][1];
+					row.put(1000L + p, AlsTrainer.clamp(score));
+				}
+			}
+			ratings.put(1L + u, row);
+		}
+		return ratings;
+	}
+
+	private static double rmse(AlsModel model, Map<Long, Map<Long, Double>> ratings) {
+		double error = 0;
+		int count = 0;
+		for (Map.Entry<Long, Map<Long, Double>> row : ratings.entrySet()) {
+			for (Map.Entry<Long, Double> rated : row.getValue().entrySet()) {
+				double predicted = model.predict(model.userIndex(row.getKey()), model.productIndex(rated.getKey()));
+				error += (predicted - rated.getValue()) * (predicted - rated.getValue());
+				count++;
+			}
+		}
+		return Math.sqrt(error / count);
+	}
+
+	@Test
+	void trainingReducesErrorBelowTheGlobalMean() {
+		Map<Long, Map<Long, Double>> ratings = toyRatings();
+
+		AlsModel untrained = trainer(4, 0).train(ratings, 1, (userId, productId) -> true);
+		AlsModel oneStep = trainer(4, 1).train(ratings, 1, (userId, productId) -> true);
+		AlsModel trained = trainer(4, 15).train(ratings, 1, (userId, productId) -> true);
+
+		double baseline = rmse(untrained, ratings);
+		assertEquals(30, trained.getUserCount());
+		assertEquals(20, trained.getProductCount());
+		assertTrue(rmse(oneStep, ratings) < baseline);
+		assertTrue(rmse(trained, ratings) < rmse(oneStep, ratings));
+		assertTrue(rmse(trained, ratings) < baseline / 2, "rmse " + rmse(trained, ratings) + ", baseline " + baseline);
+	}
+
+	@Test
+	void excludedRatingsAreNotTrained() {
+		Map<Long, Map<Long, Double>> ratings = Map.of(
+				1L, Map.of(10L, 5.0, 20L, 1.0),
+				2L, Map.of(20L, 3.0));
+
+		AlsModel model = trainer(2, 3).train(ratings, 1, (userId, productId) -> productId != 10L);
+		assertTrue(model.productIndex(10L) < 0);
+		assertEquals(2.0f, model.getGlobalMean());
+	}
+
+	@Test
+	void modelRoundTripsThroughItsSnapshotFile() throws IOException {
+		AlsModel model = trainer(3, 5).train(toyRatings(), 7L, (userId, productId) -> true);
+		Path file = directory.resolve("models").resolve("model.bin");
+
+		model.writeTo(file);
+		AlsModel read = AlsModel.readFrom(file);
+
+		assertFalse(Files.exists(file.resolveSibling("model.bin.tmp")));
+		assertEquals(model.getVersion(), read.getVersion());
+		assertEquals(model.getTrainedAtMillis(), read.getTrainedAtMillis());
+		assertEquals(model.getRank(), read.getRank());
+		assertEquals(model.getGlobalMean(), read.getGlobalMean());
+		assertEquals(model.getUserCount(), read.getUserCount());
+		assertEquals(model.getProductCount(), read.getProductCount());
+		for (int p = 0; p < model.getProductCount(); p++) {
+			assertEquals(model.productIdAt(p), read.productIdAt(p));
+		}
+		for (long userId = 1; userId <= 30; userId++) {
+			assertEquals(model.userIndex(userId), read.userIndex(userId));
+			for (int p = 0; p < model.getProductCount(); p++) {
+				assertEquals(model.predict(model.userIndex(userId), p), read.predict(read.userIndex(userId), p));
+			}
+		}
+	}
+
+	@Test
+	void readRejectsFilesThatAreNotModels() throws IOException {
+		Path file = directory.resolve("other.bin");
+		Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+		assertThrows(IOException.class, () -> AlsModel.readFrom(file));
+	}
+
+	@Test
+	void publishedModelIsServedAfterRestart() {
+		AlsTrainer trainer = trainer(2, 3);
+		trainer.trainAndPublish(toyRatings(), 1);
+		trainer.trainAndPublish(toyRatings(), 2);
+		AlsModel latest = trainer.trainAndPublish(toyRatings(), 3);
+
+		AlsTrainer restarted = trainer(2, 3);
+		restarted.loadLatestSnapshot();
+		assertEquals(latest.getVersion(), restarted.getModel().getVersion());
+		assertEquals(-1, restarted.getTrainedMatrixVersion());
+	}
+}
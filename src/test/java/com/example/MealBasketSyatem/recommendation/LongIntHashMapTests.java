@@ -0,0 +1,76 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntHashMapTests {
+
+	@Test
+	void addToInsertsAndAccumulates() {
+		LongIntHashMap map = new LongIntHashMap();
+		assertEquals(1, map.addTo(42L, 1));
+		assertEquals(4, map.addTo(42L, 3));
+		assertEquals(-2, map.addTo(7L, -2));
+
+		assertEquals(4, map.get(42L));
+		assertEquals(-2, map.get(7L));
+		assertEquals(0, map.get(8L));
+		assertEquals(2, map.size());
+	}
+
+	@Test
+	void keyZeroIsReserved() {
+		LongIntHashMap map = new LongIntHashMap();
+		assertThrows(IllegalArgumentException.class, () -> map.addTo(0L, 1));
+		assertEquals(0, map.get(0L));
+		assertEquals(0, map.size());
+	}
+
+	@Test
+	void growsPastItsExpectedSizeWithoutLosingEntries() {
+		LongIntHashMap map = new LongIntHashMap(2);
+		for (long key = 1; key <= 10_000; key++) {
+			map.addTo(key, (int) key);
+		}
+		assertEquals(10_000, map.size());
+		for (long key = 1; key <= 10_000; key++) {
+			assertEquals((int) key, map.get(key));
+		}
+	}
+
+	@Test
+	void collidingKeysStayDistinct() {
+		// Keys that share their low bits, and negative and extreme keys
+		LongIntHashMap map = new LongIntHashMap(4);
+		long[] keys = {1L << 32, 2L << 32, 3L << 32, 1L << 40, -1L, Long.MIN_VALUE, Long.MAX_VALUE};
+		for (int i = 0; i < keys.length; i++) {
+			map.addTo(keys[i], i + 1);
+		}
+		for (int i = 0; i < keys.length; i++) {
+			assertEquals(i + 1, map.get(keys[i]));
+		}
+	}
+
+	@Test
+	void forEachVisitsEveryEntryOnceAndMatchesAHashMap() {
+		Random random = new Random(7);
+		LongIntHashMap map = new LongIntHashMap();
+		Map<Long, Integer> expected = new HashMap<>();
+		for (int i = 0; i < 50_000; i++) {
+			long key = 1 + random.nextInt(5_000);
+			int delta = random.nextInt(5) + 1;
+			map.addTo(key, delta);
+			expected.merge(key, delta, Integer::sum);
+		}
+
+		Map<Long, Integer> visited = new HashMap<>();
+		map.forEach((key, value) -> assertNull(visited.put(key, value), "visited twice: " + key));
+		assertEquals(expected, visited);
+		assertEquals(expected.size(), map.size());
+	}
+}
@@ -0,0 +1,161 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import com.example.MealBasketSyatem.event.ProductChangedEvent;
+import com.example.MealBasketSyatem.event.RatingChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecommendationCacheTests {
+
+	private static final RecommendationMode USER = RecommendationMode.USER;
+
+	private static RecommendationCache<String> cache(int maxEntries, long ttlMillis) {
+		return new RecommendationCache<>(true, maxEntries, ttlMillis);
+	}
+
+	private static void put(RecommendationCache<String> cache, long userId, String value, List<Long> productIds) {
+		cache.put(userId, 10, USER, value, productIds, cache.currentEpoch());
+	}
+
+	private static long stat(RecommendationCache<String> cache, String name) {
+		return ((Number) cache.getStats().get(name)).longValue();
+	}
+
+	@Test
+	void cachesPerUserTopNAndMode() {
+		RecommendationCache<String> cache = cache(100, 60_000);
+		put(cache, 1L, "user list", List.of(10L, 11L));
+
+		assertEquals("user list", cache.get(1L, 10, USER));
+		assertNull(cache.get(1L, 5, USER));
+		assertNull(cache.get(1L, 10, RecommendationMode.ITEM));
+		assertNull(cache.get(2L, 10, USER));
+		assertEquals(1, stat(cache, "hits"));
+		assertEquals(3, stat(cache, "misses"));
+	}
+
+	@Test
+	void ratingChangeDropsTheUsersListsAndListsShowingTheProduct() {
+		RecommendationCache<String> cache = cache(100, 60_000);
+		put(cache, 1L, "rater", List.of(10L));
+		cache.put(1L, 5, RecommendationMode.ALS, "rater als", List.of(11L), cache.currentEpoch());
+		put(cache, 2L, "shows product", List.of(20L, 30L));
+		put(cache, 3L, "unrelated", List.of(40L));
+
+		cache.onRatingChanged(new RatingChangedEvent(1L, 30L));
+
+		assertNull(cache.get(1L, 10, USER));
+		assertNull(cache.get(1L, 5, RecommendationMode.ALS));
+		assertNull(cache.get(2L, 10, USER));
+		assertEquals("unrelated", cache.get(3L, 10, USER));
+		assertEquals(3, stat(cache, "invalidations"));
+		assertEquals(1, ((Number) cache.getStats().get("size")).intValue());
+	}
+
+	@Test
+	void productChangeDropsEveryListShowingIt() {
+		RecommendationCache<String> cache = cache(100, 60_000);
+		put(cache, 1L, "a", List.of(10L, 20L));
+		put(cache, 2L, "b", List.of(20L));
+		put(cache, 3L, "c", List.of(30L));
+
+		cache.onProductChanged(new ProductChangedEvent(7L, List.of(20L)));
+
+		assertNull(cache.get(1L, 10, USER));
+		assertNull(cache.get(2L, 10, USER));
+		assertEquals("c", cache.get(3L, 10, USER));
+	}
+
+	@Test
+	void listComputedBeforeAnInvalidationIsNotStored() {
+		RecommendationCache<String> cache = cache(100, 60_000);
+
+		long epoch = cache.currentEpoch();
+		cache.onRatingChanged(new RatingChangedEvent(1L, 99L));
+		cache.put(1L, 10, USER, "stale for user", List.of(10L), epoch);
+		assertNull(cache.get(1L, 10, USER));
+
+		epoch = cache.currentEpoch();
+		cache.onProductChanged(new ProductChangedEvent(null, List.of(20L)));
+		cache.put(2L, 10, USER, "stale for product", List.of(10L, 20L), epoch);
+		assertNull(cache.get(2L, 10, USER));
+	}
+
+	@Test
+	void invalidationElsewhereDoesNotRejectAList() {
+		RecommendationCache<String> cache = cache(100, 60_000);
+
+		long epoch = cache.currentEpoch();
+		cache.onRatingChanged(new RatingChangedEvent(5L, 50L));
+		cache.onProductChanged(new ProductChangedEvent(null, List.of(60L)));
+		cache.put(1L, 10, USER, "fresh", List.of(10L, 20L), epoch);
+		assertEquals("fresh", cache.get(1L, 10, USER));
+
+		// Taken after the invalidation, so the invalidated user may be cached again
+		cache.put(5L, 10, USER, "recomputed", List.of(50L), cache.currentEpoch());
+		assertEquals("recomputed", cache.get(5L, 10, USER));
+	}
+
+	@Test
+	void forgottenStampsRejectEveryOlderList() {
+		RecommendationCache<String> cache = cache(2, 60_000);
+
+		long epoch = cache.currentEpoch();
+		// Three stamps exceed the bound of two, so older epochs can no longer be checked
+		cache.onRatingChanged(new RatingChangedEvent(5L, 50L));
+		cache.onRatingChanged(new RatingChangedEvent(6L, 60L));
+		cache.put(1L, 10, USER, "unverifiable", List.of(10L), epoch);
+		assertNull(cache.get(1L, 10, USER));
+
+		cache.put(1L, 10, USER, "new", List.of(10L), cache.currentEpoch());
+		assertEquals("new", cache.get(1L, 10, USER));
+
+		epoch = cache.currentEpoch();
+		cache.clear();
+		cache.put(2L, 10, USER, "before clear", List.of(10L), epoch);
+		assertNull(cache.get(2L, 10, USER));
+	}
+
+	@Test
+	void expiredEntriesAreCountedAsMisses() throws InterruptedException {
+		RecommendationCache<String> cache = cache(100, 1);
+		put(cache, 1L, "short lived", List.of(10L));
+		Thread.sleep(5);
+
+		assertNull(cache.get(1L, 10, USER));
+		assertEquals(1, stat(cache, "expirations"));
+		assertEquals(1, stat(cache, "misses"));
+		assertEquals(0, ((Number) cache.getStats().get("size")).intValue());
+	}
+
+	@Test
+	void leastRecentlyUsedEntryIsEvictedWhenFull() {
+		RecommendationCache<String> cache = cache(2, 60_000);
+		put(cache, 1L, "one", List.of(10L));
+		put(cache, 2L, "two", List.of(20L));
+		assertEquals("one", cache.get(1L, 10, USER));
+
+		put(cache, 3L, "three", List.of(30L));
+
+		assertNull(cache.get(2L, 10, USER));
+		assertEquals("one", cache.get(1L, 10, USER));
+		assertEquals("three", cache.get(3L, 10, USER));
+		assertEquals(1, stat(cache, "evictions"));
+		assertEquals(2, ((Number) cache.getStats().get("size")).intValue());
+
+		// Evicted entries leave the reverse index, so invalidating their product counts nothing
+		cache.onProductChanged(new ProductChangedEvent(null, List.of(20L)));
+		assertEquals(0, stat(cache, "invalidations"));
+	}
+
+	@Test
+	void disabledCacheStoresNothing() {
+		RecommendationCache<String> cache = new RecommendationCache<>(false, 100, 60_000);
+		put(cache, 1L, "ignored", List.of(10L));
+		assertNull(cache.get(1L, 10, USER));
+		assertEquals(0, stat(cache, "misses"));
+	}
+}
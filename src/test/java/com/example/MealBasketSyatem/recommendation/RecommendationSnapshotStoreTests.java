@@ -0,0 +1,222 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import com.example.MealBasketSyatem.repo.ProductRepo;
+import com.example.MealBasketSyatem.repository.ProductReviewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecommendationSnapshotStoreTests {
+
+	@TempDir
+	Path directory;
+
+	private Path snapshot;
+
+	// The database behind the rating matrix: [userId, productId, rating] and [id, rating, totalRatings, reviewCount]
+	private final List<Object[]> reviews = new ArrayList<>();
+	private final List<Object[]> products = new ArrayList<>();
+	private LocalDateTime lastReviewAt = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+	private ProductReviewRepository reviewRepository;
+	private ProductRepo productRepo;
+
+	@BeforeEach
+	void setUp() {
+		snapshot = directory.resolve("recommendation").resolve("snapshot.bin");
+
+		reviews.add(new Object[] {1L, 100L, 4.0});
+		reviews.add(new Object[] {1L, 200L, 2.5});
+		reviews.add(new Object[] {2L, 100L, 5.0});
+		reviews.add(new Object[] {3L, 300L, 1.0});
+		products.add(new Object[] {100L, 4.5, 2, 2});
+		products.add(new Object[] {200L, 2.5, 1, 1});
+		products.add(new Object[] {300L, 1.0, 1, 1});
+		// Statistics never computed: null columns are written as NaN / -1
+		products.add(new Object[] {400L, null, null, null});
+
+		reviewRepository = mock(ProductReviewRepository.class);
+		productRepo = mock(ProductRepo.class);
+		when(reviewRepository.findAllRatingTriples()).thenAnswer(invocation -> new ArrayList<>(reviews));
+		when(productRepo.findRatingStats()).thenAnswer(invocation -> new ArrayList<>(products));
+		when(reviewRepository.findRatingFingerprint()).thenAnswer(invocation -> {
+			double sum = 0;
+			for (Object[] review : reviews) {
+				sum += (Double) review[2];
+			}
+			return List.<Object[]>of(new Object[] {(long) reviews.size(), lastReviewAt, reviews.isEmpty() ? null : sum});
+		});
+		when(productRepo.findRatingStatsFingerprint()).thenAnswer(invocation -> {
+			double ratingSum = 0;
+			long totalRatings = 0;
+			long reviewCount = 0;
+			for (Object[] product : products) {
+				ratingSum += product[1] != null ? (Double) product[1] : 0;
+				totalRatings += product[2] != null ? (Integer) product[2] : 0;
+				reviewCount += product[3] != null ? (Integer) product[3] : 0;
+			}
+			return List.<Object[]>of(new Object[] {(long) products.size(), ratingSum, totalRatings, reviewCount});
+		});
+	}
+
+	private RatingMatrix ratingMatrix() {
+		RatingMatrix ratingMatrix = new RatingMatrix();
+		ReflectionTestUtils.setField(ratingMatrix, "productReviewRepository", reviewRepository);
+		ReflectionTestUtils.setField(ratingMatrix, "productRepository", productRepo);
+		return ratingMatrix;
+	}
+
+	private RecommendationSnapshotStore store(RatingMatrix ratingMatrix, NeighbourIndex neighbourIndex) {
+		RecommendationSnapshotStore store = new RecommendationSnapshotStore();
+		ReflectionTestUtils.setField(store, "ratingMatrix", ratingMatrix);
+		ReflectionTestUtils.setField(store, "neighbourIndex", neighbourIndex);
+		ReflectionTestUtils.setField(store, "enabled", true);
+		ReflectionTestUtils.setField(store, "snapshotPath", snapshot.toString());
+		return store;
+	}
+
+	// Loads the matrix from the database, publishes neighbour lists for it and writes the snapshot
+	private Map<Long, NeighbourIndex.Neighbours> writeSnapshot() {
+		RatingMatrix ratingMatrix = ratingMatrix();
+		ratingMatrix.reload();
+		Map<Long, NeighbourIndex.Neighbours> neighbours = new HashMap<>();
+		neighbours.put(1L, new NeighbourIndex.Neighbours(new long[] {2L, 3L}, new double[] {0.75, 0.125}));
+		neighbours.put(2L, new NeighbourIndex.Neighbours(new long[] {1L}, new double[] {0.75}));
+		neighbours.put(3L, new NeighbourIndex.Neighbours(new long[0], new double[0]));
+		NeighbourIndex neighbourIndex = new NeighbourIndex();
+		neighbourIndex.publish(neighbours, ratingMatrix.getVersion(), 5, 0);
+
+		store(ratingMatrix, neighbourIndex).writeSnapshot();
+		assertTrue(Files.isRegularFile(snapshot));
+		return neighbours;
+	}
+
+	private static Map<Long, List<Object>> statsById(Collection<RatingMatrix.ProductStats> stats) {
+		Map<Long, List<Object>> byId = new TreeMap<>();
+		for (RatingMatrix.ProductStats product : stats) {
+			byId.put(product.getProductId(), Arrays.asList(product.getRating(), product.getTotalRatings(), product.getReviewCount()));
+		}
+		return byId;
+	}
+
+	@Test
+	void restoresWhatWasWritten() {
+		Map<Long, NeighbourIndex.Neighbours> written = writeSnapshot();
+		RatingMatrix original = ratingMatrix();
+		original.reload();
+
+		RatingMatrix restored = ratingMatrix();
+		NeighbourIndex neighbourIndex = new NeighbourIndex();
+		assertTrue(store(restored, neighbourIndex).loadSnapshot());
+
+		assertTrue(restored.isLoaded());
+		assertEquals(original.getUserItemRatings(), restored.getUserItemRatings());
+		assertEquals(statsById(original.getProductStats()), statsById(restored.getProductStats()));
+		assertEquals(Arrays.asList(null, null, null), statsById(restored.getProductStats()).get(400L));
+
+		assertTrue(neighbourIndex.isBuilt());
+		assertEquals(5, neighbourIndex.getK());
+		assertEquals(restored.getVersion(), neighbourIndex.getMatrixVersion());
+		assertEquals(written.keySet(), neighbourIndex.getAll().keySet());
+		for (Map.Entry<Long, NeighbourIndex.Neighbours> entry : written.entrySet()) {
+			NeighbourIndex.Neighbours expected = entry.getValue();
+			NeighbourIndex.Neighbours actual = neighbourIndex.get(entry.getKey());
+			assertEquals(expected.size(), actual.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(expected.userIdAt(i), actual.userIdAt(i));
+				assertEquals(expected.similarityAt(i), actual.similarityAt(i));
+			}
+		}
+	}
+
+	@Test
+	void leavesOutNeighboursBuiltFromAnotherMatrixVersion() {
+		RatingMatrix ratingMatrix = ratingMatrix();
+		ratingMatrix.reload();
+		NeighbourIndex stale = new NeighbourIndex();
+		stale.publish(Map.of(1L, new NeighbourIndex.Neighbours(new long[] {2L}, new double[] {0.5})),
+				ratingMatrix.getVersion() - 1, 5, 0);
+		store(ratingMatrix, stale).writeSnapshot();
+
+		NeighbourIndex neighbourIndex = new NeighbourIndex();
+		assertTrue(store(ratingMatrix(), neighbourIndex).loadSnapshot());
+		assertFalse(neighbourIndex.isBuilt());
+	}
+
+	@Test
+	void rejectsTruncatedSnapshot() throws Exception {
+		writeSnapshot();
+		try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 9);
+		}
+
+		RatingMatrix ratingMatrix = ratingMatrix();
+		assertFalse(store(ratingMatrix, new NeighbourIndex()).loadSnapshot());
+		assertFalse(ratingMatrix.isLoaded());
+
+		// Shorter than the header
+		Files.write(snapshot, new byte[12]);
+		assertFalse(store(ratingMatrix, new NeighbourIndex()).loadSnapshot());
+	}
+
+	@Test
+	void rejectsSnapshotWithBadChecksum() throws Exception {
+		writeSnapshot();
+		byte[] bytes = Files.readAllBytes(snapshot);
+		bytes[bytes.length - 3] ^= 0x40;
+		Files.write(snapshot, bytes);
+
+		RatingMatrix ratingMatrix = ratingMatrix();
+		assertFalse(store(ratingMatrix, new NeighbourIndex()).loadSnapshot());
+		assertFalse(ratingMatrix.isLoaded());
+	}
+
+	@Test
+	void rejectsSnapshotWithUnknownFormat() throws Exception {
+		writeSnapshot();
+		byte[] bytes = Files.readAllBytes(snapshot);
+		bytes[7] = 99;
+		Files.write(snapshot, bytes);
+
+		assertFalse(store(ratingMatrix(), new NeighbourIndex()).loadSnapshot());
+	}
+
+	@Test
+	void rejectsSnapshotOfAnOlderDatabase() {
+		writeSnapshot();
+		reviews.add(new Object[] {2L, 300L, 3.0});
+		lastReviewAt = lastReviewAt.plusMinutes(1);
+
+		RatingMatrix ratingMatrix = ratingMatrix();
+		assertFalse(store(ratingMatrix, new NeighbourIndex()).loadSnapshot());
+		assertFalse(ratingMatrix.isLoaded());
+	}
+
+	@Test
+	void missingSnapshotIsNotLoaded() {
+		assertFalse(store(ratingMatrix(), new NeighbourIndex()).loadSnapshot());
+	}
+
+	@Test
+	void skipsWritingWhileTheMatrixLagsTheDatabase() {
+		RatingMatrix ratingMatrix = ratingMatrix();
+		ratingMatrix.reload();
+		// Committed, but its RatingChangedEvent has not reached the matrix yet
+		reviews.add(new Object[] {3L, 100L, 2.0});
+
+		store(ratingMatrix, new NeighbourIndex()).writeSnapshot();
+		assertFalse(Files.exists(snapshot));
+	}
+}
@@ -0,0 +1,67 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseRatingVectorTests {
+
+	private static final double EPSILON = 1e-12;
+
+	@Test
+	void ofSortsIdsAndPrefersImprovedRatings() {
+		SparseRatingVector vector = SparseRatingVector.of(
+				Map.of(30L, 2.0, 10L, 5.0, 20L, 4.0),
+				Map.of(20L, 3.5, 99L, 1.0));
+
+		assertEquals(3, vector.size());
+		assertEquals(10L, vector.productIdAt(0));
+		assertEquals(20L, vector.productIdAt(1));
+		assertEquals(30L, vector.productIdAt(2));
+		assertEquals(5.0, vector.ratingAt(0));
+		assertEquals(3.5, vector.ratingAt(1));
+		assertEquals(2.0, vector.ratingAt(2));
+		assertTrue(vector.contains(20L));
+		assertFalse(vector.contains(99L));
+		assertTrue(vector.indexOf(15L) < 0);
+	}
+
+	@Test
+	void cosineUsesOnlyCoRatedProducts() {
+		SparseRatingVector a = new SparseRatingVector(new long[] {1, 2, 4, 7}, new double[] {3, 4, 9, 1});
+		SparseRatingVector b = new SparseRatingVector(new long[] {2, 3, 4, 8}, new double[] {1, 5, 2, 6});
+
+		// Shared products 2 and 4: (4*1 + 9*2) / (sqrt(16 + 81) * sqrt(1 + 4))
+		double expected = 22.0 / (Math.sqrt(97.0) * Math.sqrt(5.0));
+		assertEquals(expected, SparseRatingVector.cosine(a, b), EPSILON);
+		assertEquals(expected, SparseRatingVector.cosine(b, a), EPSILON);
+	}
+
+	@Test
+	void cosineOfProportionalRatingsIsOne() {
+		SparseRatingVector a = new SparseRatingVector(new long[] {5, 6, 7}, new double[] {1, 2, 3});
+		SparseRatingVector b = new SparseRatingVector(new long[] {5, 6, 7}, new double[] {2, 4, 6});
+
+		assertEquals(1.0, SparseRatingVector.cosine(a, b), EPSILON);
+		assertEquals(1.0, SparseRatingVector.cosine(a, a), EPSILON);
+	}
+
+	@Test
+	void cosineIsZeroWithoutOverlapOrWithZeroRatings() {
+		SparseRatingVector a = new SparseRatingVector(new long[] {1, 3}, new double[] {4, 5});
+		SparseRatingVector b = new SparseRatingVector(new long[] {2, 4}, new double[] {4, 5});
+		SparseRatingVector zeros = new SparseRatingVector(new long[] {1, 3}, new double[] {0, 0});
+		SparseRatingVector empty = new SparseRatingVector(new long[0], new double[0]);
+
+		assertEquals(0.0, SparseRatingVector.cosine(a, b));
+		assertEquals(0.0, SparseRatingVector.cosine(a, zeros));
+		assertEquals(0.0, SparseRatingVector.cosine(a, empty));
+	}
+
+	@Test
+	void rejectsMismatchedArrays() {
+		assertThrows(IllegalArgumentException.class, () -> new SparseRatingVector(new long[] {1, 2}, new double[] {1}));
+	}
+}
@@ -0,0 +1,88 @@
+package com.example.MealBasketSyatem.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKTests {
+
+	@Test
+	void keepsTheHighestScoresInDescendingOrder() {
+		TopK topK = new TopK(3);
+		topK.offer(1, 0.2);
+		topK.offer(2, 0.9);
+		topK.offer(3, 0.5);
+		topK.offer(4, 0.1);
+		topK.offer(5, 0.7);
+
+		long[] ids = new long[3];
+		double[] scores = new double[3];
+		assertEquals(3, topK.drainDescending(ids, scores));
+		assertArrayEquals(new long[] {2, 5, 3}, ids);
+		assertArrayEquals(new double[] {0.9, 0.7, 0.5}, scores);
+		assertEquals(0, topK.size());
+	}
+
+	@Test
+	void breaksTiesBySmallerId() {
+		TopK topK = new TopK(2);
+		topK.offer(9, 1.0);
+		topK.offer(4, 1.0);
+		topK.offer(7, 1.0);
+
+		long[] ids = new long[2];
+		double[] scores = new double[2];
+		topK.drainDescending(ids, scores);
+		assertArrayEquals(new long[] {4, 7}, ids);
+	}
+
+	@Test
+	void returnsFewerThanKWhenFewerOffered() {
+		TopK topK = new TopK(5);
+		topK.offer(3, 0.3);
+		topK.offer(8, 0.8);
+
+		long[] ids = new long[5];
+		double[] scores = new double[5];
+		assertEquals(2, topK.drainDescending(ids, scores));
+		assertEquals(8, ids[0]);
+		assertEquals(3, ids[1]);
+	}
+
+	@Test
+	void zeroCapacityKeepsNothing() {
+		TopK topK = new TopK(0);
+		topK.offer(1, 1.0);
+		assertEquals(0, topK.size());
+		assertEquals(0, topK.drainDescending(new long[0], new double[0]));
+	}
+
+	@Test
+	void matchesAFullSortAndCanBeReused() {
+		Random random = new Random(42);
+		TopK topK = new TopK(10);
+		for (int round = 0; round < 20; round++) {
+			int n = 1 + random.nextInt(200);
+			double[] all = new double[n];
+			for (int i = 0; i < n; i++) {
+				// Few distinct values so ties are common
+				all[i] = random.nextInt(20) / 4.0;
+				topK.offer(i + 1, all[i]);
+			}
+			long[] expected = IntStream.range(0, n).boxed()
+					.sorted(Comparator.<Integer>comparingDouble(i -> -all[i]).thenComparingInt(i -> i))
+					.limit(10).mapToLong(i -> i + 1L).toArray();
+
+			long[] ids = new long[10];
+			double[] scores = new double[10];
+			int count = topK.drainDescending(ids, scores);
+			assertArrayEquals(expected, Arrays.copyOf(ids, count), "round " + round);
+			topK.clear();
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package com.example.MealBasketSyatem.service;
+
+import com.example.MealBasketSyatem.dto.ProductBulkUpdateItem;
+import com.example.MealBasketSyatem.entity.Product;
+import com.example.MealBasketSyatem.entity.Vendor;
+import com.example.MealBasketSyatem.repo.ProductRepo;
+import com.example.MealBasketSyatem.repo.VendorRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductBulkUpdateServiceTests {
+
+	@Autowired
+	private ProductBulkUpdateService bulkUpdateService;
+
+	@Autowired
+	private VendorRepo vendorRepo;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Vendor vendor;
+	private Vendor otherVendor;
+
+	@BeforeEach
+	void setUp() {
+		vendor = vendor("bulk");
+		otherVendor = vendor("other");
+	}
+
+	private Vendor vendor(String name) {
+		String unique = name + "-" + UUID.randomUUID();
+		Vendor vendor = new Vendor(name, unique + "@example.com", unique);
+		vendor.setPassword("secret");
+		return vendorRepo.save(vendor);
+	}
+
+	private long product(Vendor owner, double price, int stock) {
+		Product product = new Product();
+		product.setName("Bulk product");
+		product.setPrice(price);
+		product.setStock(stock);
+		product.setVendor(owner);
+		return productRepo.save(product).getId();
+	}
+
+	private int stock(long productId) {
+		return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+	}
+
+	private double price(long productId) {
+		return jdbcTemplate.queryForObject("SELECT price FROM products WHERE id = ?", Double.class, productId);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Map<String, Object>> errors(Map<String, Object> result) {
+		return (List<Map<String, Object>>) result.get("errors");
+	}
+
+	@Test
+	void stockGuardSkipsUpdatesThatWouldGoBelowZero() {
+		long sold = product(vendor, 2.0, 5);
+		long oversold = product(vendor, 3.0, 2);
+		long emptied = product(vendor, 4.0, 4);
+
+		Map<String, Object> result = bulkUpdateService.applyUpdates(vendor.getId(), List.of(
+				new ProductBulkUpdateItem(sold, null, null, -3),
+				new ProductBulkUpdateItem(oversold, 9.99, null, -3),
+				new ProductBulkUpdateItem(emptied, null, null, -4)));
+
+		assertEquals(2, result.get("updated"));
+		assertEquals(1, result.get("failed"));
+		assertEquals(2, stock(sold));
+		assertEquals(0, stock(emptied));
+		// The guarded row is left untouched, price included
+		assertEquals(2, stock(oversold));
+		assertEquals(3.0, price(oversold));
+		assertEquals(1, errors(result).size());
+		assertEquals(1, errors(result).get(0).get("index"));
+		assertEquals("Stock would go below zero", errors(result).get(0).get("message"));
+	}
+
+	@Test
+	void nullFieldsKeepCurrentValues() {
+		long priced = product(vendor, 2.0, 5);
+		long stocked = product(vendor, 3.0, 1);
+
+		Map<String, Object> result = bulkUpdateService.applyUpdates(vendor.getId(), List.of(
+				new ProductBulkUpdateItem(priced, 2.5, null, null),
+				new ProductBulkUpdateItem(stocked, null, 40, null)));
+
+		assertEquals(2, result.get("updated"));
+		assertEquals(2.5, price(priced));
+		assertEquals(5, stock(priced));
+		assertEquals(3.0, price(stocked));
+		assertEquals(40, stock(stocked));
+	}
+
+	@Test
+	void reportsOtherVendorsProductsAndInvalidItemsByIndex() {
+		long own = product(vendor, 1.0, 1);
+		long foreign = product(otherVendor, 1.0, 1);
+
+		Map<String, Object> result = bulkUpdateService.applyUpdates(vendor.getId(), Arrays.asList(
+				new ProductBulkUpdateItem(foreign, 5.0, null, null),
+				new ProductBulkUpdateItem(own, null, 3, 1),
+				new ProductBulkUpdateItem(own, 2.0, null, null),
+				new ProductBulkUpdateItem(Long.MAX_VALUE, 2.0, null, null),
+				null,
+				new ProductBulkUpdateItem(own, 3.0, null, null)));
+
+		assertEquals(6, result.get("requested"));
+		assertEquals(1, result.get("updated"));
+		assertEquals(5, result.get("failed"));
+		assertEquals(List.of(0, 1, 3, 4, 5), errors(result).stream().map(error -> error.get("index")).toList());
+		assertEquals("Product not found", errors(result).get(0).get("message"));
+		assertEquals(1.0, price(foreign));
+		assertEquals(2.0, price(own));
+	}
+
+	@Test
+	void adminMayUpdateAnyVendorsProducts() {
+		long first = product(vendor, 1.0, 1);
+		long second = product(otherVendor, 1.0, 1);
+
+		Map<String, Object> result = bulkUpdateService.applyUpdates(null, List.of(
+				new ProductBulkUpdateItem(first, null, null, 2),
+				new ProductBulkUpdateItem(second, null, null, 2)));
+
+		assertEquals(2, result.get("updated"));
+		assertEquals(2, result.get("vendors"));
+		assertEquals(3, stock(first));
+		assertEquals(3, stock(second));
+	}
+
+	@Test
+	void rejectsEmptyRequests() {
+		assertThrows(IllegalArgumentException.class, () -> bulkUpdateService.applyUpdates(vendor.getId(), List.of()));
+		assertThrows(IllegalArgumentException.class, () -> bulkUpdateService.applyUpdates(vendor.getId(), null));
+	}
+}
@@ -0,0 +1,107 @@
+package com.example.MealBasketSyatem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductImportRecordReaderTests {
+
+	private static ProductImportService.CsvRecordReader csv(String text) throws Exception {
+		return new ProductImportService.CsvRecordReader(new BufferedReader(new StringReader(text)));
+	}
+
+	private static ProductImportService.NdjsonRecordReader ndjson(String text) {
+		return new ProductImportService.NdjsonRecordReader(new BufferedReader(new StringReader(text)), new ObjectMapper());
+	}
+
+	@Test
+	void csvQuotedFieldsMayContainLineBreaksCommasAndQuotes() throws Exception {
+		ProductImportService.CsvRecordReader reader = csv(
+				"name,price,description\r\n"
+				+ "Apples,1.50,\"Crisp,\r\nred \"\"Gala\"\"\"\r\n"
+				+ "Pears,2,plain\r\n");
+
+		Map<String, String> first = reader.next();
+		assertEquals("Apples", first.get("name"));
+		assertEquals("1.50", first.get("price"));
+		assertEquals("Crisp,\r\nred \"Gala\"", first.get("description"));
+		assertEquals(1, reader.recordNumber());
+
+		Map<String, String> second = reader.next();
+		assertEquals("Pears", second.get("name"));
+		assertEquals("plain", second.get("description"));
+		assertEquals(2, reader.recordNumber());
+
+		assertNull(reader.next());
+	}
+
+	@Test
+	void csvHeaderIgnoresByteOrderMarkCaseAndUnknownColumns() throws Exception {
+		ProductImportService.CsvRecordReader reader = csv("\uFEFFName,SKU,Price\nMilk,M-1,0.99\n\n\nEggs,E-1,3\n");
+
+		Map<String, String> first = reader.next();
+		assertEquals(Map.of("name", "Milk", "price", "0.99"), first);
+		assertEquals(Map.of("name", "Eggs", "price", "3"), reader.next());
+		assertEquals(2, reader.recordNumber());
+		assertNull(reader.next());
+	}
+
+	@Test
+	void csvRejectsMissingRequiredColumnsAndUnterminatedQuotes() throws Exception {
+		assertThrows(IllegalArgumentException.class, () -> csv(""));
+		assertThrows(IllegalArgumentException.class, () -> csv("name,description\nMilk,fresh\n"));
+
+		ProductImportService.CsvRecordReader reader = csv("name,price\n\"Milk,1\n");
+		assertThrows(IllegalArgumentException.class, reader::next);
+	}
+
+	@Test
+	void csvRejectsOversizedRecord() throws Exception {
+		ProductImportService.CsvRecordReader reader = csv("name,price\nMilk,1\n\""
+				+ "x".repeat(ProductImportService.MAX_RECORD_CHARS) + "\",2\n");
+
+		assertEquals("Milk", reader.next().get("name"));
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, reader::next);
+		assertTrue(e.getMessage().startsWith("Row 2 is longer than"), e.getMessage());
+	}
+
+	@Test
+	void ndjsonReadsObjectsAndSkipsBlankLines() throws Exception {
+		ProductImportService.NdjsonRecordReader reader = ndjson(
+				"{\"name\":\"Milk\",\"price\":0.99,\"stock\":\"4\",\"sku\":\"M-1\"}\r\n\n"
+				+ "{\"name\":\"Eggs\",\"price\":\"3\",\"category\":null}");
+
+		assertEquals(Map.of("name", "Milk", "price", "0.99", "stock", "4"), reader.next());
+		assertEquals(1, reader.recordNumber());
+		assertEquals(Map.of("name", "Eggs", "price", "3"), reader.next());
+		assertEquals(2, reader.recordNumber());
+		assertNull(reader.next());
+	}
+
+	@Test
+	void ndjsonReportsMalformedLinesAndKeepsReading() throws Exception {
+		ProductImportService.NdjsonRecordReader reader = ndjson(
+				"{\"name\":\n[1]\n{\"name\":{\"en\":\"Milk\"}}\n{\"name\":\"Eggs\",\"price\":3}\n");
+
+		assertThrows(ProductImportService.MalformedRecordException.class, reader::next);
+		assertThrows(ProductImportService.MalformedRecordException.class, reader::next);
+		assertThrows(ProductImportService.MalformedRecordException.class, reader::next);
+		assertEquals("Eggs", reader.next().get("name"));
+		assertEquals(4, reader.recordNumber());
+	}
+
+	@Test
+	void ndjsonRejectsOversizedLine() throws Exception {
+		ProductImportService.NdjsonRecordReader reader = ndjson("{\"name\":\"Milk\",\"price\":1}\n{\"name\":\""
+				+ "x".repeat(ProductImportService.MAX_RECORD_CHARS) + "\"}\n");
+
+		assertEquals("Milk", reader.next().get("name"));
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, reader::next);
+		assertTrue(e.getMessage().startsWith("Row 2 is longer than"), e.getMessage());
+	}
+}